@@ -0,0 +1,75 @@
+package br.univali.portugol.nucleo;
+
+import br.univali.portugol.nucleo.analise.AnalisadorAlgoritmo;
+import br.univali.portugol.nucleo.analise.sintatica.AnalisadorLexico;
+
+/**
+ * Compara, para o destaque de sintaxe de um programa grande, o tempo da análise completa, o tempo
+ * da separação completa em tokens pelo {@link AnalisadorLexico} e o tempo de uma edição que separa
+ * novamente somente a linha editada.
+ * <p>
+ * Executado pelo alvo <code>benchmark</code> do Ant, junto com os demais benchmarks. Para executar
+ * somente este com um programa de 2000 linhas:
+ * <pre>
+ * ant benchmark-unico -Dbenchmark.classe=BenchmarkAnalisadorLexico -Dbenchmark.argumentos="2000"
+ * </pre>
+ */
+public final class BenchmarkAnalisadorLexico
+{
+    private static final int LINHAS_PADRAO = 2000;
+    private static final int REPETICOES = 200;
+
+    public static void main(String[] args) throws Exception
+    {
+        int linhas = (args.length > 0) ? Integer.parseInt(args[0]) : LINHAS_PADRAO;
+        String codigo = BenchmarkSessaoAnalise.gerarPrograma(linhas);
+
+        AnalisadorLexico analisador = new AnalisadorLexico(codigo);
+        int posicao = codigo.indexOf("\t\tcadeia c");
+
+        for (int i = 0; i < REPETICOES; i++) // aquecimento
+        {
+            new AnalisadorAlgoritmo().analisar(codigo);
+            new AnalisadorLexico(codigo);
+            editarEDesfazer(analisador, posicao, "\n");
+        }
+
+        long inicio = System.nanoTime();
+
+        for (int i = 0; i < REPETICOES; i++)
+        {
+            new AnalisadorAlgoritmo().analisar(codigo);
+        }
+
+        long tempoAnalise = (System.nanoTime() - inicio) / REPETICOES;
+
+        inicio = System.nanoTime();
+
+        for (int i = 0; i < REPETICOES; i++)
+        {
+            new AnalisadorLexico(codigo);
+        }
+
+        long tempoTokens = (System.nanoTime() - inicio) / REPETICOES;
+
+        inicio = System.nanoTime();
+
+        for (int i = 0; i < REPETICOES; i++)
+        {
+            editarEDesfazer(analisador, posicao, "\n");
+        }
+
+        long tempoEdicao = (System.nanoTime() - inicio) / (REPETICOES * 2);
+
+        System.out.println(String.format("programa com %d linhas e %d tokens", codigo.split("\n").length, analisador.getQuantidadeTokens()));
+        System.out.println(String.format("  análise completa:                     %.3f ms", tempoAnalise / 1e6));
+        System.out.println(String.format("  separação completa em tokens:         %.3f ms", tempoTokens / 1e6));
+        System.out.println(String.format("  nova linha deslocando o resto:        %.3f ms", tempoEdicao / 1e6));
+    }
+
+    private static void editarEDesfazer(AnalisadorLexico analisador, int posicao, String texto)
+    {
+        analisador.editar(posicao, 0, texto);
+        analisador.editar(posicao, texto.length(), "");
+    }
+}
@@ -0,0 +1,77 @@
+package br.univali.portugol.nucleo;
+
+import br.univali.portugol.nucleo.analise.semantica.AnalisadorSemantico;
+import br.univali.portugol.nucleo.analise.sintatica.AnalisadorSintatico;
+import br.univali.portugol.nucleo.asa.ASA;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Mede o tempo e a memória alocada pela análise semântica de um programa grande, já convertido em
+ * ASA, onde cada função declara variáveis em vários escopos aninhados. Depois mede o tempo da mesma
+ * análise com os blocos das funções divididos entre várias threads.
+ * <p>
+ * Executado pelo alvo <code>benchmark</code> do Ant, junto com os demais benchmarks. Para executar
+ * somente este com um programa de 20000 linhas e 4 threads:
+ * <pre>
+ * ant benchmark-unico -Dbenchmark.classe=BenchmarkAnaliseSemantica -Dbenchmark.argumentos="20000 4"
+ * </pre>
+ */
+public final class BenchmarkAnaliseSemantica
+{
+    private static final int LINHAS_PADRAO = 20000;
+    private static final int REPETICOES = 50;
+
+    public static void main(String[] args) throws Exception
+    {
+        int linhas = (args.length > 0) ? Integer.parseInt(args[0]) : LINHAS_PADRAO;
+        int numeroThreads = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        String codigo = BenchmarkSessaoAnalise.gerarPrograma(linhas);
+        ASA asa = new AnalisadorSintatico().analisar(codigo);
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        for (int i = 0; i < REPETICOES; i++) // aquecimento
+        {
+            analisar(asa, 1);
+        }
+
+        long memoriaInicial = threads.getThreadAllocatedBytes(thread);
+        long inicio = System.nanoTime();
+
+        for (int i = 0; i < REPETICOES; i++)
+        {
+            analisar(asa, 1);
+        }
+
+        long tempo = (System.nanoTime() - inicio) / REPETICOES;
+        long memoria = (threads.getThreadAllocatedBytes(thread) - memoriaInicial) / REPETICOES;
+
+        System.out.println(String.format("programa com %d linhas", codigo.split("\n").length));
+        System.out.println(String.format("  análise semântica: %.2f ms", tempo / 1e6));
+        System.out.println(String.format("  memória alocada:   %.2f MB", memoria / 1048576.0));
+
+        for (int i = 0; i < REPETICOES; i++) // aquecimento
+        {
+            analisar(asa, numeroThreads);
+        }
+
+        inicio = System.nanoTime();
+
+        for (int i = 0; i < REPETICOES; i++)
+        {
+            analisar(asa, numeroThreads);
+        }
+
+        tempo = (System.nanoTime() - inicio) / REPETICOES;
+
+        System.out.println(String.format("  com %d threads:     %.2f ms (%d processadores)", numeroThreads, tempo / 1e6, Runtime.getRuntime().availableProcessors()));
+    }
+
+    private static void analisar(ASA asa, int numeroThreads)
+    {
+        AnalisadorSemantico analisador = new AnalisadorSemantico();
+        analisador.setNumeroThreadsAnalise(numeroThreads);
+        analisador.analisar(asa);
+    }
+}
@@ -0,0 +1,98 @@
+package br.univali.portugol.nucleo;
+
+import br.univali.portugol.nucleo.analise.sintatica.AnalisadorSintatico;
+import br.univali.portugol.nucleo.analise.sintatica.ObservadorAnaliseSintatica;
+import br.univali.portugol.nucleo.mensagens.ErroSintatico;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Mede quantas análises sintáticas por segundo um mesmo {@link AnalisadorSintatico} realiza com
+ * uma thread e com várias threads ao mesmo tempo, como em um servidor que analisa os programas de
+ * muitos alunos. Metade dos programas analisados contém erros sintáticos.
+ * <p>
+ * Executado pelo alvo <code>benchmark</code> do Ant, junto com os demais benchmarks. Para executar
+ * somente este com 8 threads:
+ * <pre>
+ * ant benchmark-unico -Dbenchmark.classe=BenchmarkAnaliseSintaticaConcorrente -Dbenchmark.argumentos="8"
+ * </pre>
+ */
+public final class BenchmarkAnaliseSintaticaConcorrente
+{
+    private static final int ANALISES_POR_THREAD = 400;
+
+    public static void main(String[] args) throws Exception
+    {
+        int threads = (args.length > 0) ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+
+        String correto = BenchmarkSessaoAnalise.gerarPrograma(200);
+        String comErros = correto.replace("retorne a + 1\n", "retorne a +\n");
+        String[] codigos = { correto, comErros };
+
+        AnalisadorSintatico analisador = new AnalisadorSintatico();
+
+        medir(analisador, codigos, 1); // aquecimento
+        medir(analisador, codigos, threads);
+
+        double sequencial = medir(analisador, codigos, 1);
+        double concorrente = medir(analisador, codigos, threads);
+
+        System.out.println(String.format("programas com %d linhas", correto.split("\n").length));
+        System.out.println(String.format("  1 thread:   %.0f análises/s", sequencial));
+        System.out.println(String.format("  %d threads: %.0f análises/s (%.1fx)", threads, concorrente, concorrente / sequencial));
+    }
+
+    private static double medir(final AnalisadorSintatico analisador, final String[] codigos, int threads) throws Exception
+    {
+        final AtomicInteger erros = new AtomicInteger();
+        final ObservadorAnaliseSintatica observador = new ObservadorAnaliseSintatica()
+        {
+            @Override
+            public void tratarErroSintatico(ErroSintatico erroSintatico)
+            {
+                erros.incrementAndGet();
+            }
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try
+        {
+            List<Future<?>> tarefas = new ArrayList<>();
+            long inicio = System.nanoTime();
+
+            for (int thread = 0; thread < threads; thread++)
+            {
+                tarefas.add(executor.submit(new Callable<Void>()
+                {
+                    @Override
+                    public Void call()
+                    {
+                        for (int i = 0; i < ANALISES_POR_THREAD; i++)
+                        {
+                            analisador.analisar(codigos[i % codigos.length], observador);
+                        }
+
+                        return null;
+                    }
+                }));
+            }
+
+            for (Future<?> tarefa : tarefas)
+            {
+                tarefa.get();
+            }
+
+            return (threads * ANALISES_POR_THREAD) / ((System.nanoTime() - inicio) / 1e9);
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+}
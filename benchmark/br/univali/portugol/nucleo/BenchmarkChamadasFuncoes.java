@@ -0,0 +1,125 @@
+package br.univali.portugol.nucleo;
+
+import br.univali.portugol.nucleo.execucao.ModoEncerramento;
+import br.univali.portugol.nucleo.execucao.ModoExecucao;
+import br.univali.portugol.nucleo.execucao.ObservadorExecucaoBasico;
+import br.univali.portugol.nucleo.execucao.ResultadoExecucao;
+import br.univali.portugol.nucleo.execucao.es.Saida;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.Scanner;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Mede o tempo de execução dos programas do corpus de testes com funções pequenas, funções
+ * recursivas e passagem de parâmetros por referência dentro de laços, compilados no perfil
+ * otimizado. O primeiro programa é compilado pelo gerador de bytecode e o segundo, que passa
+ * parâmetros por referência, através do código Java.
+ * <p>
+ * Executado pelo alvo <code>benchmark</code> do Ant, junto com os demais benchmarks. Para executar
+ * somente este:
+ * <pre>
+ * ant benchmark-unico -Dbenchmark.classe=BenchmarkChamadasFuncoes
+ * </pre>
+ */
+public final class BenchmarkChamadasFuncoes
+{
+    private static final String[] PROGRAMAS = {
+        "./test/br/univali/portugol/nucleo/execucao/arquivos/testFuncoesPequenasERecursivas.por",
+        "./test/br/univali/portugol/nucleo/execucao/arquivos/testPassagemPorReferenciaEmLaco.por"
+    };
+
+    private static final int AQUECIMENTO = 10;
+    private static final int REPETICOES = 20;
+
+    public static void main(String[] args) throws Exception
+    {
+        try
+        {
+            for (String caminho : PROGRAMAS)
+            {
+                Programa programa = new Compilador(ModoExecucao.COMPILADO).compilar(leArquivo(caminho), true, null, null);
+
+                for (int i = 0; i < AQUECIMENTO; i++)
+                {
+                    executa(programa);
+                }
+
+                long inicio = System.nanoTime();
+
+                for (int i = 0; i < REPETICOES; i++)
+                {
+                    executa(programa);
+                }
+
+                double milissegundos = (System.nanoTime() - inicio) / (double) REPETICOES / 1000000;
+
+                System.out.println(String.format("%-40s %.2f ms por execução", caminho.substring(caminho.lastIndexOf('/') + 1), milissegundos));
+
+                programa.descartar();
+            }
+        }
+        finally
+        {
+            System.exit(0); // encerra as threads do pool de execução
+        }
+    }
+
+    private static void executa(Programa programa) throws InterruptedException
+    {
+        final CountDownLatch encerramento = new CountDownLatch(1);
+        final ResultadoExecucao[] resultado = new ResultadoExecucao[1];
+
+        programa.setSaida(new Saida() // descarta a saída, somente o tempo de execução interessa
+        {
+            @Override
+            public void limpar() {}
+
+            @Override
+            public void escrever(String valor) {}
+
+            @Override
+            public void escrever(boolean valor) {}
+
+            @Override
+            public void escrever(int valor) {}
+
+            @Override
+            public void escrever(double valor) {}
+
+            @Override
+            public void escrever(char valor) {}
+        });
+
+        programa.adicionarObservadorExecucao(new ObservadorExecucaoBasico()
+        {
+            @Override
+            public void execucaoEncerrada(Programa programa, ResultadoExecucao resultadoExecucao)
+            {
+                resultado[0] = resultadoExecucao;
+                encerramento.countDown();
+            }
+        });
+
+        programa.executar(new String[0], Programa.Estado.BREAK_POINT);
+        encerramento.await();
+
+        if (resultado[0].getModoEncerramento() != ModoEncerramento.NORMAL)
+        {
+            throw new IllegalStateException("O programa não terminou normalmente: " + resultado[0].getModoEncerramento());
+        }
+
+        while (programa.isExecutando())
+        {
+            Thread.sleep(1); // o observador é notificado antes de a tarefa de execução terminar
+        }
+    }
+
+    private static String leArquivo(String caminho) throws Exception
+    {
+        try (InputStream stream = new FileInputStream(caminho))
+        {
+            return new Scanner(stream, "UTF-8").useDelimiter("\\Z").next();
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package br.univali.portugol.nucleo;
+
+import br.univali.portugol.nucleo.analise.AnalisadorAlgoritmo;
+import br.univali.portugol.nucleo.analise.ResultadoAnalise;
+import br.univali.portugol.nucleo.analise.semantica.AnalisadorSemantico;
+import br.univali.portugol.nucleo.analise.sintatica.AnalisadorSintatico;
+import br.univali.portugol.nucleo.asa.ASAPrograma;
+import br.univali.portugol.nucleo.execucao.gerador.GeradorBytecode;
+import br.univali.portugol.nucleo.execucao.gerador.GeradorCodigoJava;
+import br.univali.portugol.nucleo.execucao.gerador.PreCompilador;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Scanner;
+
+/**
+ * Mede separadamente o tempo de cada etapa da compilação dos programas em Portugol, desde a
+ * análise sintática até o carregamento da classe gerada.
+ * <p>
+ * Cada programa do corpus passa por todas as etapas várias vezes. As primeiras rodadas servem
+ * apenas para aquecer a JVM e são descartadas. O resultado é gravado em JSON para que possa ser
+ * comparado entre versões do núcleo.
+ * <p>
+ * Uso: <code>BenchmarkCompilacao [diretorio_corpus] [arquivo_resultado]</code>. O número de
+ * rodadas é definido pelas propriedades <code>benchmark.aquecimento</code> e
+ * <code>benchmark.iteracoes</code>. Normalmente é executado pelo alvo <code>benchmark</code> do Ant.
+ */
+public final class BenchmarkCompilacao
+{
+    private static final String CORPUS_PADRAO = "test/br/univali/portugol/nucleo/execucao/arquivos";
+    private static final String RESULTADO_PADRAO = "build/benchmark/resultado.json";
+
+    private static final String NOME_CLASSE = "ProgramaBenchmark";
+    private static final String NOME_COMPLETO_CLASSE = "programas." + NOME_CLASSE;
+    private static final long SEED = 1010; // nomes gerados previsíveis, assim o código Java gerado é sempre o mesmo
+
+    private enum Etapa
+    {
+        ANALISE_SINTATICA("analise_sintatica"),
+        ANALISE_SEMANTICA("analise_semantica"),
+        GERACAO_BYTECODE("geracao_bytecode"),
+        PRE_COMPILACAO("pre_compilacao"),
+        GERACAO_CODIGO_JAVA("geracao_codigo_java"), // inclui a pré-compilação feita pelo próprio gerador
+        JAVAC("javac"),
+        CARREGAMENTO_CLASSE("carregamento_classe");
+
+        private final String nome;
+
+        private Etapa(String nome)
+        {
+            this.nome = nome;
+        }
+    }
+
+    private final Map<Etapa, List<Long>> amostras = new EnumMap<>(Etapa.class);
+
+    private BenchmarkCompilacao()
+    {
+        for (Etapa etapa : Etapa.values())
+        {
+            amostras.put(etapa, new ArrayList<Long>());
+        }
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        File corpus = new File(args.length > 0 ? args[0] : CORPUS_PADRAO);
+        File resultado = new File(args.length > 1 ? args[1] : RESULTADO_PADRAO);
+        int aquecimento = Integer.getInteger("benchmark.aquecimento", 5);
+        int iteracoes = Integer.getInteger("benchmark.iteracoes", 20);
+
+        List<String> programas = carregaCorpus(corpus);
+
+        if (programas.isEmpty())
+        {
+            throw new IllegalArgumentException("Nenhum programa válido foi encontrado em " + corpus.getAbsolutePath());
+        }
+
+        BenchmarkCompilacao benchmark = new BenchmarkCompilacao();
+
+        for (int rodada = 0; rodada < aquecimento + iteracoes; rodada++)
+        {
+            boolean registrar = rodada >= aquecimento;
+
+            for (String programa : programas)
+            {
+                benchmark.mede(programa, registrar);
+            }
+        }
+
+        benchmark.imprime(System.out);
+        benchmark.grava(resultado, programas.size(), aquecimento, iteracoes);
+
+        System.out.println("Resultado gravado em " + resultado.getAbsolutePath());
+    }
+
+    /**
+     * Carrega os programas do corpus. Os programas com erros de análise são ignorados, pois não
+     * passam por todas as etapas da compilação.
+     */
+    private static List<String> carregaCorpus(File diretorio) throws Exception
+    {
+        File[] arquivos = diretorio.listFiles(new FilenameFilter()
+        {
+            @Override
+            public boolean accept(File dir, String name)
+            {
+                return name.endsWith(".por");
+            }
+        });
+
+        List<String> programas = new ArrayList<>();
+
+        if (arquivos == null)
+        {
+            return programas;
+        }
+
+        Arrays.sort(arquivos);
+
+        for (File arquivo : arquivos)
+        {
+            String codigo = leArquivo(arquivo);
+            ResultadoAnalise resultado = new AnalisadorAlgoritmo().analisar(codigo);
+
+            if (resultado.contemErros())
+            {
+                System.err.println("Ignorando " + arquivo.getName() + ": o programa contém erros");
+            }
+            else
+            {
+                programas.add(codigo);
+            }
+        }
+
+        return programas;
+    }
+
+    private void mede(String codigo, boolean registrar) throws Exception
+    {
+        Map<Etapa, Long> tempos = new EnumMap<>(Etapa.class);
+
+        long inicio = System.nanoTime();
+        ASAPrograma asa = (ASAPrograma) new AnalisadorSintatico().analisar(codigo);
+        tempos.put(Etapa.ANALISE_SINTATICA, System.nanoTime() - inicio);
+
+        inicio = System.nanoTime();
+        new AnalisadorSemantico().analisar(asa);
+        tempos.put(Etapa.ANALISE_SEMANTICA, System.nanoTime() - inicio);
+
+        inicio = System.nanoTime();
+        Map<String, byte[]> bytecodesGerados = new GeradorBytecode(SEED).gera(asa, NOME_COMPLETO_CLASSE, true, true, true);
+
+        if (bytecodesGerados != null) // o gerador de bytecode não suporta todos os programas
+        {
+            tempos.put(Etapa.GERACAO_BYTECODE, System.nanoTime() - inicio);
+        }
+
+        inicio = System.nanoTime();
+        asa.aceitar(new PreCompilador(SEED));
+        tempos.put(Etapa.PRE_COMPILACAO, System.nanoTime() - inicio);
+
+        // a pré-compilação altera a ASA, então o gerador de código Java precisa de uma ASA nova
+        ASAPrograma asaGeracao = (ASAPrograma) new AnalisadorSintatico().analisar(codigo);
+        new AnalisadorSemantico().analisar(asaGeracao);
+
+        StringWriter codigoJava = new StringWriter(8192);
+
+        inicio = System.nanoTime();
+        try (PrintWriter saida = new PrintWriter(codigoJava))
+        {
+            new GeradorCodigoJava(SEED).gera(asaGeracao, saida, NOME_CLASSE, true, true, true);
+        }
+        tempos.put(Etapa.GERACAO_CODIGO_JAVA, System.nanoTime() - inicio);
+
+        List<String> erros = new ArrayList<>();
+
+        inicio = System.nanoTime();
+        Map<String, byte[]> bytecodes = new CompiladorJavaEmMemoria().compilar(NOME_COMPLETO_CLASSE, codigoJava.toString(), null, erros);
+        tempos.put(Etapa.JAVAC, System.nanoTime() - inicio);
+
+        if (bytecodes == null)
+        {
+            throw new IllegalStateException("O código Java gerado não compila: " + erros);
+        }
+
+        inicio = System.nanoTime();
+        Class.forName(NOME_COMPLETO_CLASSE, true, new CompiladorJavaEmMemoria.CarregadorClassesPrograma(bytecodes));
+        tempos.put(Etapa.CARREGAMENTO_CLASSE, System.nanoTime() - inicio);
+
+        if (registrar)
+        {
+            for (Map.Entry<Etapa, Long> tempo : tempos.entrySet())
+            {
+                amostras.get(tempo.getKey()).add(tempo.getValue());
+            }
+        }
+    }
+
+    private void imprime(PrintStream saida)
+    {
+        saida.println(String.format(Locale.US, "%-22s %8s %12s %12s %12s", "etapa", "amostras", "media (us)", "mediana (us)", "p90 (us)"));
+
+        for (Etapa etapa : Etapa.values())
+        {
+            long[] valores = ordena(amostras.get(etapa));
+
+            saida.println(String.format(Locale.US, "%-22s %8d %12.1f %12.1f %12.1f",
+                    etapa.nome, valores.length, media(valores), percentil(valores, 50), percentil(valores, 90)));
+        }
+    }
+
+    private void grava(File arquivo, int numeroProgramas, int aquecimento, int iteracoes) throws Exception
+    {
+        if (arquivo.getParentFile() != null)
+        {
+            arquivo.getParentFile().mkdirs();
+        }
+
+        try (PrintWriter saida = new PrintWriter(new OutputStreamWriter(new FileOutputStream(arquivo), "UTF-8")))
+        {
+            saida.println("{");
+            saida.println("  \"data\": \"" + new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ").format(new Date()) + "\",");
+            saida.println("  \"versao_java\": \"" + System.getProperty("java.version") + "\",");
+            saida.println("  \"programas\": " + numeroProgramas + ",");
+            saida.println("  \"aquecimento\": " + aquecimento + ",");
+            saida.println("  \"iteracoes\": " + iteracoes + ",");
+            saida.println("  \"unidade\": \"us\",");
+            saida.println("  \"etapas\": [");
+
+            Etapa[] etapas = Etapa.values();
+
+            for (int i = 0; i < etapas.length; i++)
+            {
+                long[] valores = ordena(amostras.get(etapas[i]));
+
+                saida.print(String.format(Locale.US,
+                        "    { \"etapa\": \"%s\", \"amostras\": %d, \"media\": %.1f, \"minimo\": %.1f, \"mediana\": %.1f, \"p90\": %.1f, \"maximo\": %.1f }",
+                        etapas[i].nome, valores.length, media(valores), percentil(valores, 0), percentil(valores, 50), percentil(valores, 90), percentil(valores, 100)));
+                saida.println((i < etapas.length - 1) ? "," : "");
+            }
+
+            saida.println("  ]");
+            saida.println("}");
+        }
+    }
+
+    private static long[] ordena(List<Long> lista)
+    {
+        long[] valores = new long[lista.size()];
+
+        for (int i = 0; i < valores.length; i++)
+        {
+            valores[i] = lista.get(i);
+        }
+
+        Arrays.sort(valores);
+
+        return valores;
+    }
+
+    private static double media(long[] valores)
+    {
+        if (valores.length == 0)
+        {
+            return 0;
+        }
+
+        double soma = 0;
+
+        for (long valor : valores)
+        {
+            soma += valor;
+        }
+
+        return soma / valores.length / 1000.0;
+    }
+
+    private static double percentil(long[] valores, int percentil)
+    {
+        if (valores.length == 0)
+        {
+            return 0;
+        }
+
+        int indice = (int) Math.ceil(percentil / 100.0 * valores.length) - 1;
+
+        return valores[Math.max(0, Math.min(indice, valores.length - 1))] / 1000.0;
+    }
+
+    private static String leArquivo(File arquivo) throws Exception
+    {
+        try (InputStream stream = new FileInputStream(arquivo); Scanner scanner = new Scanner(stream, "UTF-8"))
+        {
+            return scanner.useDelimiter("\\A").hasNext() ? scanner.next() : "";
+        }
+    }
+}
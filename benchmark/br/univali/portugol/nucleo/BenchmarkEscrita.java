@@ -0,0 +1,153 @@
+package br.univali.portugol.nucleo;
+
+import br.univali.portugol.nucleo.execucao.ModoEncerramento;
+import br.univali.portugol.nucleo.execucao.ModoExecucao;
+import br.univali.portugol.nucleo.execucao.ObservadorExecucaoBasico;
+import br.univali.portugol.nucleo.execucao.ResultadoExecucao;
+import br.univali.portugol.nucleo.execucao.es.Saida;
+import com.sun.management.ThreadMXBean;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Scanner;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Mede o tempo e a memória alocada por valor escrito no programa de escrita intensa do corpus de
+ * testes, compilado pelo gerador de bytecode e através do código Java. Nos dois casos o código
+ * gerado chama a versão tipada de <code>escreva</code> para cada valor e não deve alocar memória.
+ * <p>
+ * Executado pelo alvo <code>benchmark</code> do Ant, junto com os demais benchmarks. Para executar
+ * somente este:
+ * <pre>
+ * ant benchmark-unico -Dbenchmark.classe=BenchmarkEscrita
+ * </pre>
+ */
+public final class BenchmarkEscrita
+{
+    private static final String PROGRAMA = "./test/br/univali/portugol/nucleo/execucao/arquivos/testEscritaIntensa.por";
+
+    private static final String[] GERADORES = { "bytecode", "código Java" };
+
+    private static final int AQUECIMENTO = 10;
+    private static final int REPETICOES = 20;
+
+    private static long escritas = 0;
+
+    public static void main(String[] args) throws Exception
+    {
+        String codigo = leArquivo(PROGRAMA);
+
+        try
+        {
+            for (String gerador : GERADORES)
+            {
+                Compilador compilador = new Compilador(ModoExecucao.COMPILADO);
+                compilador.setUsaGeradorBytecode(gerador.equals("bytecode"));
+
+                Programa programa = compilador.compilar(codigo, true, null, null);
+
+                for (int i = 0; i < AQUECIMENTO; i++)
+                {
+                    executa(programa);
+                }
+
+                escritas = 0;
+                long alocadosAntes = bytesAlocados();
+                long inicio = System.nanoTime();
+
+                for (int i = 0; i < REPETICOES; i++)
+                {
+                    executa(programa);
+                }
+
+                double nanossegundos = System.nanoTime() - inicio;
+                double bytes = bytesAlocados() - alocadosAntes;
+
+                System.out.println(String.format("%-12s %.2f ns/escrita, %.3f bytes alocados/escrita (%d escritas)",
+                        gerador, nanossegundos / escritas, bytes / escritas, escritas));
+
+                programa.descartar();
+            }
+        }
+        finally
+        {
+            System.exit(0); // encerra as threads do pool de execução
+        }
+    }
+
+    /**
+     * Soma a memória alocada por todas as threads vivas, inclusive as threads do pool que
+     * executam o programa.
+     */
+    private static long bytesAlocados()
+    {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long total = 0;
+
+        for (long bytes : threads.getThreadAllocatedBytes(threads.getAllThreadIds()))
+        {
+            total += Math.max(bytes, 0);
+        }
+
+        return total;
+    }
+
+    private static void executa(Programa programa) throws InterruptedException
+    {
+        final CountDownLatch encerramento = new CountDownLatch(1);
+        final ResultadoExecucao[] resultado = new ResultadoExecucao[1];
+
+        programa.setSaida(new Saida() // descarta a saída, somente conta as escritas
+        {
+            @Override
+            public void limpar() {}
+
+            @Override
+            public void escrever(String valor) { escritas++; }
+
+            @Override
+            public void escrever(boolean valor) { escritas++; }
+
+            @Override
+            public void escrever(int valor) { escritas++; }
+
+            @Override
+            public void escrever(double valor) { escritas++; }
+
+            @Override
+            public void escrever(char valor) { escritas++; }
+        });
+
+        programa.adicionarObservadorExecucao(new ObservadorExecucaoBasico()
+        {
+            @Override
+            public void execucaoEncerrada(Programa programa, ResultadoExecucao resultadoExecucao)
+            {
+                resultado[0] = resultadoExecucao;
+                encerramento.countDown();
+            }
+        });
+
+        programa.executar(new String[0], Programa.Estado.BREAK_POINT);
+        encerramento.await();
+
+        if (resultado[0].getModoEncerramento() != ModoEncerramento.NORMAL)
+        {
+            throw new IllegalStateException("O programa não terminou normalmente: " + resultado[0].getModoEncerramento());
+        }
+
+        while (programa.isExecutando())
+        {
+            Thread.sleep(1); // o observador é notificado antes de a tarefa de execução terminar
+        }
+    }
+
+    private static String leArquivo(String caminho) throws Exception
+    {
+        try (InputStream stream = new FileInputStream(caminho))
+        {
+            return new Scanner(stream, "UTF-8").useDelimiter("\\Z").next();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package br.univali.portugol.nucleo;
+
+import br.univali.portugol.nucleo.asa.TipoDado;
+import br.univali.portugol.nucleo.execucao.ExecutoresProgramas;
+import br.univali.portugol.nucleo.execucao.ModoEncerramento;
+import br.univali.portugol.nucleo.execucao.ModoExecucao;
+import br.univali.portugol.nucleo.execucao.ObservadorExecucaoBasico;
+import br.univali.portugol.nucleo.execucao.ResultadoExecucao;
+import br.univali.portugol.nucleo.execucao.es.Armazenador;
+import br.univali.portugol.nucleo.execucao.es.Entrada;
+import br.univali.portugol.nucleo.execucao.es.Saida;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Teste de carga com muitos programas bloqueados ao mesmo tempo em um comando leia, como em um
+ * servidor onde milhares de alunos ainda não digitaram o valor pedido. Mede o tempo até todos os
+ * programas estarem aguardando, o número de threads da plataforma vivas e a memória utilizada
+ * neste momento, e o tempo até todos terminarem depois de receberem o valor.
+ * <p>
+ * Os programas executam em threads virtuais quando a JVM permite (Java 21 ou superior) e no pool
+ * de threads padrão caso contrário, ou sempre no pool padrão com o argumento <code>padrao</code>.
+ * <p>
+ * Executado pelo alvo <code>benchmark</code> do Ant, junto com os demais benchmarks. Para executar
+ * somente este com 10000 programas:
+ * <pre>
+ * ant benchmark-unico -Dbenchmark.classe=BenchmarkProgramasBloqueados -Dbenchmark.argumentos="10000"
+ * </pre>
+ */
+public final class BenchmarkProgramasBloqueados
+{
+    private static final String CODIGO = "programa { funcao inicio() { inteiro a leia(a) escreva(a * 2) } }";
+
+    private static final int QUANTIDADE_PADRAO = 10000;
+
+    public static void main(String[] args) throws Exception
+    {
+        int quantidade = (args.length > 0) ? Integer.parseInt(args[0]) : QUANTIDADE_PADRAO;
+        boolean threadsVirtuais = ExecutoresProgramas.suportaThreadsVirtuais() && !(args.length > 1 && args[1].equals("padrao"));
+
+        ExecutorService executor = threadsVirtuais ? ExecutoresProgramas.criarExecutorThreadsVirtuais() : null;
+
+        try
+        {
+            final CountDownLatch pausados = new CountDownLatch(quantidade);
+            final CountDownLatch encerrados = new CountDownLatch(quantidade);
+            final AtomicInteger falhas = new AtomicInteger();
+            final List<Armazenador> leituras = Collections.synchronizedList(new ArrayList<Armazenador>(quantidade));
+
+            List<Programa> programas = new ArrayList<>(quantidade);
+
+            for (int i = 0; i < quantidade; i++)
+            {
+                Programa programa = new Compilador(ModoExecucao.COMPILADO).compilar(CODIGO, true, null, null);
+
+                programa.setExecutor(executor);
+                programa.setSaida(new Saida() // descarta a saída
+                {
+                    @Override
+                    public void limpar() {}
+
+                    @Override
+                    public void escrever(String valor) {}
+
+                    @Override
+                    public void escrever(boolean valor) {}
+
+                    @Override
+                    public void escrever(int valor) {}
+
+                    @Override
+                    public void escrever(double valor) {}
+
+                    @Override
+                    public void escrever(char valor) {}
+                });
+
+                programa.setEntrada(new Entrada() // o valor só é informado depois que todos os programas estiverem aguardando
+                {
+                    @Override
+                    public void solicitaEntrada(TipoDado tipoDado, Armazenador armazenador)
+                    {
+                        leituras.add(armazenador);
+                    }
+                });
+
+                programa.adicionarObservadorExecucao(new ObservadorExecucaoBasico()
+                {
+                    @Override
+                    public void execucaoPausada()
+                    {
+                        pausados.countDown();
+                    }
+
+                    @Override
+                    public void execucaoEncerrada(Programa programa, ResultadoExecucao resultadoExecucao)
+                    {
+                        if (resultadoExecucao.getModoEncerramento() != ModoEncerramento.NORMAL)
+                        {
+                            falhas.incrementAndGet();
+                        }
+
+                        encerrados.countDown();
+                    }
+                });
+
+                programas.add(programa);
+            }
+
+            System.gc();
+            long memoriaInicial = memoriaUtilizada();
+            int threadsIniciais = ManagementFactory.getThreadMXBean().getThreadCount();
+            long inicio = System.nanoTime();
+
+            for (Programa programa : programas)
+            {
+                programa.executar(new String[0], Programa.Estado.BREAK_POINT);
+            }
+
+            pausados.await();
+
+            long tempoBloqueio = System.nanoTime() - inicio;
+            int threadsBloqueadas = ManagementFactory.getThreadMXBean().getThreadCount() - threadsIniciais;
+            long memoriaBloqueada = memoriaUtilizada() - memoriaInicial;
+
+            inicio = System.nanoTime();
+
+            synchronized (leituras)
+            {
+                for (Armazenador leitura : leituras)
+                {
+                    leitura.setValor(21);
+                }
+            }
+
+            encerrados.await();
+
+            long tempoRetomada = System.nanoTime() - inicio;
+
+            System.out.println(String.format("%d programas (%s)", quantidade, threadsVirtuais ? "threads virtuais" : "pool de threads padrão"));
+            System.out.println(String.format("  todos aguardando em %.1f ms com %d threads da plataforma a mais e %.1f MB de memória a mais", tempoBloqueio / 1e6, threadsBloqueadas, memoriaBloqueada / 1048576.0));
+            System.out.println(String.format("  todos encerrados em %.1f ms depois de receber o valor, %d falhas", tempoRetomada / 1e6, falhas.get()));
+
+            for (Programa programa : programas)
+            {
+                programa.descartar();
+            }
+        }
+        finally
+        {
+            System.exit(0); // encerra as threads do pool de execução
+        }
+    }
+
+    private static long memoriaUtilizada()
+    {
+        Runtime runtime = Runtime.getRuntime();
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,103 @@
+package br.univali.portugol.nucleo;
+
+import br.univali.portugol.nucleo.analise.AnalisadorAlgoritmo;
+import br.univali.portugol.nucleo.analise.SessaoAnalise;
+
+/**
+ * Compara o tempo da análise completa de um programa grande com o tempo de cada edição em uma
+ * {@link SessaoAnalise}, como acontece em uma IDE que analisa o código a cada pausa na digitação.
+ * São medidas uma edição dentro de uma linha da última função e a inserção de uma linha na
+ * primeira função, que desloca todas as outras.
+ * <p>
+ * Executado pelo alvo <code>benchmark</code> do Ant, junto com os demais benchmarks. Para executar
+ * somente este com um programa de 2000 linhas:
+ * <pre>
+ * ant benchmark-unico -Dbenchmark.classe=BenchmarkSessaoAnalise -Dbenchmark.argumentos="2000"
+ * </pre>
+ */
+public final class BenchmarkSessaoAnalise
+{
+    private static final int LINHAS_PADRAO = 2000;
+    private static final int REPETICOES = 200;
+
+    public static void main(String[] args) throws Exception
+    {
+        int linhas = (args.length > 0) ? Integer.parseInt(args[0]) : LINHAS_PADRAO;
+        String codigo = gerarPrograma(linhas);
+
+        SessaoAnalise sessao = new SessaoAnalise(codigo);
+
+        int inicioFuncao = codigo.indexOf("\t\tcadeia c");
+        int ultimaFuncao = codigo.lastIndexOf("\"texto\"") + 1;
+
+        for (int i = 0; i < REPETICOES; i++) // aquecimento
+        {
+            new AnalisadorAlgoritmo().analisar(codigo);
+            editarEDesfazer(sessao, ultimaFuncao, "1");
+            editarEDesfazer(sessao, inicioFuncao, "\n");
+        }
+
+        long inicio = System.nanoTime();
+
+        for (int i = 0; i < REPETICOES; i++)
+        {
+            new AnalisadorAlgoritmo().analisar(codigo);
+        }
+
+        long tempoCompleto = (System.nanoTime() - inicio) / REPETICOES;
+
+        inicio = System.nanoTime();
+
+        for (int i = 0; i < REPETICOES; i++)
+        {
+            editarEDesfazer(sessao, ultimaFuncao, "1");
+        }
+
+        long tempoMesmaLinha = (System.nanoTime() - inicio) / (REPETICOES * 2);
+
+        inicio = System.nanoTime();
+
+        for (int i = 0; i < REPETICOES; i++)
+        {
+            editarEDesfazer(sessao, inicioFuncao, "\n");
+        }
+
+        long tempoNovaLinha = (System.nanoTime() - inicio) / (REPETICOES * 2);
+
+        System.out.println(String.format("programa com %d linhas", codigo.split("\n").length));
+        System.out.println(String.format("  análise completa:                        %.2f ms", tempoCompleto / 1e6));
+        System.out.println(String.format("  edição dentro de uma linha:              %.2f ms", tempoMesmaLinha / 1e6));
+        System.out.println(String.format("  nova linha deslocando o resto do código: %.2f ms", tempoNovaLinha / 1e6));
+    }
+
+    private static void editarEDesfazer(SessaoAnalise sessao, int posicao, String texto)
+    {
+        sessao.editar(posicao, 0, texto);
+        sessao.editar(posicao, texto.length(), "");
+    }
+
+    static String gerarPrograma(int linhas)
+    {
+        StringBuilder codigo = new StringBuilder();
+
+        codigo.append("programa\n{\n\tinclua biblioteca Matematica --> mat\n\tinteiro total = 0\n\tconst inteiro LIMITE = 10\n");
+
+        for (int funcao = 0, linha = 5; linha < linhas; funcao++, linha += 17)
+        {
+            codigo.append("\n\tfuncao inteiro f").append(funcao).append("(inteiro a, real b)\n\t{\n")
+                  .append("\t\tinteiro v[10]\n")
+                  .append("\t\treal soma = 0.0\n")
+                  .append("\t\tpara (inteiro j = 0; j < 10; j++)\n\t\t{\n")
+                  .append("\t\t\tv[j] = a * j + ").append(funcao).append("\n")
+                  .append("\t\t\tse (v[j] % 2 == 0) { soma = soma + b } senao { soma = soma - mat.raiz(b, 2.0) }\n\t\t}\n")
+                  .append("\t\tenquanto (a > 0) { a = a - 1 total++ }\n")
+                  .append("\t\tcadeia c = \"texto\" + a\n")
+                  .append("\t\tlogico ok = verdadeiro e (a < LIMITE)\n")
+                  .append("\t\tescolha (a) { caso 1: escreva(c) pare caso contrario: escreva(ok) }\n")
+                  .append("\t\tse (ok) { retorne f0(a - 1, b) }\n")
+                  .append("\t\tretorne a + 1\n\t}\n");
+        }
+
+        return codigo.append("}\n").toString();
+    }
+}
@@ -0,0 +1,130 @@
+package br.univali.portugol.nucleo;
+
+import br.univali.portugol.nucleo.execucao.ModoEncerramento;
+import br.univali.portugol.nucleo.execucao.ModoExecucao;
+import br.univali.portugol.nucleo.execucao.ObservadorExecucaoBasico;
+import br.univali.portugol.nucleo.execucao.ResultadoExecucao;
+import br.univali.portugol.nucleo.execucao.es.Saida;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.Scanner;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Mede o custo por passo da verificação de interrupção no código gerado, executando o programa
+ * de laços aninhados do corpus de testes com a interrupção verificada a cada passo (como antes da
+ * verificação amortizada) e a cada 1024 passos.
+ * <p>
+ * Executado pelo alvo <code>benchmark</code> do Ant, junto com os demais benchmarks. Para executar
+ * somente este:
+ * <pre>
+ * ant benchmark-unico -Dbenchmark.classe=BenchmarkVerificacaoInterrupcao
+ * </pre>
+ */
+public final class BenchmarkVerificacaoInterrupcao
+{
+    private static final String PROGRAMA = "./test/br/univali/portugol/nucleo/execucao/arquivos/testLacosAninhados.por";
+
+    private static final int[] INTERVALOS = { 1, 1024 };
+    private static final int AQUECIMENTO = 10;
+    private static final int REPETICOES = 20;
+
+    public static void main(String[] args) throws Exception
+    {
+        String codigo = leArquivo(PROGRAMA);
+
+        try
+        {
+            for (ModoExecucao modo : new ModoExecucao[] { ModoExecucao.COMPILADO, ModoExecucao.INTERPRETADO })
+            {
+                for (int intervalo : INTERVALOS)
+                {
+                    Programa programa = new Compilador(modo).compilar(codigo, true, null, null);
+                    programa.setIntervaloVerificacaoInterrupcao(intervalo);
+
+                    for (int i = 0; i < AQUECIMENTO; i++)
+                    {
+                        executa(programa);
+                    }
+
+                    long inicio = System.nanoTime();
+
+                    for (int i = 0; i < REPETICOES; i++)
+                    {
+                        executa(programa);
+                    }
+
+                    double nanossegundos = (System.nanoTime() - inicio) / (double) REPETICOES;
+
+                    System.out.println(String.format("%-12s intervalo %4d: %.2f ns/passo (%.1f ms por execução, %d passos)",
+                            modo, intervalo, nanossegundos / programa.getPassosExecutados(), nanossegundos / 1000000,
+                            programa.getPassosExecutados()));
+
+                    programa.descartar();
+                }
+            }
+        }
+        finally
+        {
+            System.exit(0); // encerra as threads do pool de execução
+        }
+    }
+
+    private static void executa(Programa programa) throws InterruptedException
+    {
+        final CountDownLatch encerramento = new CountDownLatch(1);
+        final ResultadoExecucao[] resultado = new ResultadoExecucao[1];
+
+        programa.setSaida(new Saida() // descarta a saída, somente o tempo de execução interessa
+        {
+            @Override
+            public void limpar() {}
+
+            @Override
+            public void escrever(String valor) {}
+
+            @Override
+            public void escrever(boolean valor) {}
+
+            @Override
+            public void escrever(int valor) {}
+
+            @Override
+            public void escrever(double valor) {}
+
+            @Override
+            public void escrever(char valor) {}
+        });
+
+        programa.adicionarObservadorExecucao(new ObservadorExecucaoBasico()
+        {
+            @Override
+            public void execucaoEncerrada(Programa programa, ResultadoExecucao resultadoExecucao)
+            {
+                resultado[0] = resultadoExecucao;
+                encerramento.countDown();
+            }
+        });
+
+        programa.executar(new String[0], Programa.Estado.BREAK_POINT);
+        encerramento.await();
+
+        if (resultado[0].getModoEncerramento() != ModoEncerramento.NORMAL)
+        {
+            throw new IllegalStateException("O programa não terminou normalmente: " + resultado[0].getModoEncerramento());
+        }
+
+        while (programa.isExecutando())
+        {
+            Thread.sleep(1); // o observador é notificado antes de a tarefa de execução terminar
+        }
+    }
+
+    private static String leArquivo(String caminho) throws Exception
+    {
+        try (InputStream stream = new FileInputStream(caminho))
+        {
+            return new Scanner(stream, "UTF-8").useDelimiter("\\Z").next();
+        }
+    }
+}
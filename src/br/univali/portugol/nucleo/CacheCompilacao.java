@@ -0,0 +1,435 @@
+package br.univali.portugol.nucleo;
+
+import br.univali.portugol.nucleo.analise.ResultadoAnalise;
+import br.univali.portugol.nucleo.asa.ASAPrograma;
+import br.univali.portugol.nucleo.mensagens.AvisoAnalise;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Cache dos programas compilados, endereçado pelo conteúdo do código fonte.
+ * <p>
+ * A chave de cada entrada é um hash (SHA-256) do código fonte em Portugol e das opções
+ * utilizadas na geração do código Java (interrupção de thread, pontos de parada e inspeção
+ * de símbolos). Desta forma, quando o mesmo código é compilado novamente, toda a análise,
+ * a geração de código e a compilação do Java são evitadas e o {@link Compilador} apenas
+ * cria uma nova instância da classe que já foi carregada.
+ * <p>
+ * O cache possui dois níveis:
+ * <ul>
+ * <li>um nível em memória, limitado pela capacidade configurada, onde as entradas menos
+ * utilizadas recentemente são descartadas primeiro (LRU). Este nível guarda o resultado da
+ * análise, a ASA e a classe já carregada;</li>
+ * <li>um nível opcional em disco, que guarda apenas os bytecodes. Quando uma entrada é
+ * encontrada somente no disco, a análise do código é refeita (para obter a ASA), mas a
+ * geração do código Java e a compilação são evitadas.</li>
+ * </ul>
+ * <p>
+ * O código fonte não é normalizado antes de gerar a chave porque a ASA guarda as posições
+ * (linha, coluna e deslocamento) de cada trecho do código, que seriam alteradas pela
+ * normalização.
+ */
+public final class CacheCompilacao
+{
+    private static final Logger LOGGER = Logger.getLogger(CacheCompilacao.class.getName());
+
+    /*
+     * Deve ser alterada sempre que o formato do código gerado mudar, isso invalida as entradas
+     * que foram gravadas em disco por versões anteriores do núcleo
+     */
+    private static final int VERSAO_FORMATO = 8;
+
+    private static final int CAPACIDADE_PADRAO = 64;
+
+    private static final String EXTENSAO_ARQUIVO = ".cache";
+
+    private static final CacheCompilacao INSTANCIA = new CacheCompilacao();
+
+    private final Map<String, Entrada> entradas;
+
+    private int capacidade = CAPACIDADE_PADRAO;
+    private File diretorioPersistencia = null;
+
+    private long acertos = 0;
+    private long falhas = 0;
+
+    private CacheCompilacao()
+    {
+        entradas = new LinkedHashMap<String, Entrada>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entrada> maisAntiga)
+            {
+                return size() > capacidade;
+            }
+        };
+    }
+
+    public static CacheCompilacao getInstance()
+    {
+        return INSTANCIA;
+    }
+
+    /**
+     * Gera a chave do cache para um código fonte e as opções de geração de código.
+     *
+     * @param codigo o código fonte em Portugol
+     * @param geraCodigoParaInterrupcaoDeThread indica se o código Java é gerado com
+     * verificações de interrupção
+     * @param geraCodigoParaPontosDeParada indica se o código Java é gerado com pontos de parada
+     * @param geraCodigoParaInspecaoDeSimbolos indica se o código Java é gerado com inspeção de
+     * símbolos
+     * @return a chave do cache, em hexadecimal
+     */
+    public static String gerarChave(String codigo, boolean geraCodigoParaInterrupcaoDeThread,
+            boolean geraCodigoParaPontosDeParada, boolean geraCodigoParaInspecaoDeSimbolos)
+    {
+        try
+        {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+
+            digest.update((byte) VERSAO_FORMATO);
+            digest.update((byte) (geraCodigoParaInterrupcaoDeThread ? 1 : 0));
+            digest.update((byte) (geraCodigoParaPontosDeParada ? 1 : 0));
+            digest.update((byte) (geraCodigoParaInspecaoDeSimbolos ? 1 : 0));
+            digest.update(codigo.getBytes(Charset.forName("UTF-8")));
+
+            byte[] hash = digest.digest();
+            StringBuilder chave = new StringBuilder(hash.length * 2);
+
+            for (byte b : hash)
+            {
+                chave.append(String.format("%02x", b));
+            }
+
+            return chave.toString();
+        }
+        catch (NoSuchAlgorithmException excecao)
+        {
+            throw new IllegalStateException("A JVM não possui o algoritmo SHA-256", excecao);
+        }
+    }
+
+    /**
+     * Define o número máximo de programas mantidos no cache em memória. Com capacidade zero o
+     * cache em memória fica desativado.
+     *
+     * @param capacidade o número máximo de programas em memória
+     */
+    public synchronized void setCapacidade(int capacidade)
+    {
+        if (capacidade < 0)
+        {
+            throw new IllegalArgumentException("A capacidade do cache não pode ser negativa");
+        }
+
+        this.capacidade = capacidade;
+
+        List<String> chaves = new ArrayList<>(entradas.keySet());
+
+        for (int i = 0; i < chaves.size() - capacidade; i++)
+        {
+            entradas.remove(chaves.get(i));
+        }
+    }
+
+    public synchronized int getCapacidade()
+    {
+        return capacidade;
+    }
+
+    /**
+     * Define o diretório onde os bytecodes dos programas compilados serão persistidos. Se for
+     * <code>null</code>, o cache em disco fica desativado (padrão).
+     *
+     * @param diretorio o diretório do cache em disco
+     */
+    public synchronized void setDiretorioPersistencia(File diretorio)
+    {
+        if (diretorio != null && !diretorio.isDirectory() && !diretorio.mkdirs())
+        {
+            throw new IllegalArgumentException(String.format("Não foi possível criar o diretório de cache '%s'", diretorio.getAbsolutePath()));
+        }
+
+        this.diretorioPersistencia = diretorio;
+    }
+
+    public synchronized File getDiretorioPersistencia()
+    {
+        return diretorioPersistencia;
+    }
+
+    /**
+     * Remove todas as entradas do cache em memória. As entradas persistidas em disco são
+     * mantidas.
+     */
+    public synchronized void limpar()
+    {
+        entradas.clear();
+    }
+
+    public synchronized int getTamanho()
+    {
+        return entradas.size();
+    }
+
+    public synchronized long getAcertos()
+    {
+        return acertos;
+    }
+
+    public synchronized long getFalhas()
+    {
+        return falhas;
+    }
+
+    /**
+     * Busca uma entrada no cache. Primeiro é verificado o cache em memória e depois o cache em
+     * disco. As entradas obtidas do disco não possuem a análise do código.
+     *
+     * @param chave a chave gerada por {@link CacheCompilacao#gerarChave}
+     * @return a entrada encontrada ou <code>null</code>
+     */
+    synchronized Entrada obter(String chave)
+    {
+        Entrada entrada = entradas.get(chave);
+
+        if (entrada == null)
+        {
+            entrada = lerDoDisco(chave);
+        }
+
+        if (entrada != null)
+        {
+            acertos++;
+        }
+        else
+        {
+            falhas++;
+        }
+
+        return entrada;
+    }
+
+    /**
+     * Armazena uma entrada no cache em memória e, se estiver ativado, no cache em disco.
+     *
+     * @param chave a chave gerada por {@link CacheCompilacao#gerarChave}
+     * @param entrada a entrada a ser armazenada, deve possuir a análise do código
+     */
+    synchronized void armazenar(String chave, Entrada entrada)
+    {
+        if (!entrada.possuiAnalise())
+        {
+            throw new IllegalArgumentException("Apenas entradas com a análise do código podem ser armazenadas");
+        }
+
+        if (capacidade > 0)
+        {
+            entradas.put(chave, entrada);
+        }
+
+        if (diretorioPersistencia != null && !getArquivo(chave).exists())
+        {
+            gravarNoDisco(chave, entrada);
+        }
+    }
+
+    private File getArquivo(String chave)
+    {
+        return new File(diretorioPersistencia, chave.concat(EXTENSAO_ARQUIVO));
+    }
+
+    private Entrada lerDoDisco(String chave)
+    {
+        if (diretorioPersistencia == null)
+        {
+            return null;
+        }
+
+        File arquivo = getArquivo(chave);
+
+        if (!arquivo.isFile())
+        {
+            return null;
+        }
+
+        try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(new FileInputStream(arquivo))))
+        {
+            if (entrada.readInt() != VERSAO_FORMATO)
+            {
+                return null;
+            }
+
+            String nomeClasse = entrada.readUTF();
+            int totalClasses = entrada.readInt();
+            Map<String, byte[]> bytecodes = new HashMap<>();
+
+            for (int i = 0; i < totalClasses; i++)
+            {
+                String nome = entrada.readUTF();
+                byte[] bytecode = new byte[entrada.readInt()];
+                entrada.readFully(bytecode);
+                bytecodes.put(nome, bytecode);
+            }
+
+            return new Entrada(nomeClasse, bytecodes);
+        }
+        catch (IOException excecao)
+        {
+            LOGGER.log(Level.WARNING, String.format("Não foi possível ler a entrada '%s' do cache em disco", arquivo.getAbsolutePath()), excecao);
+            return null;
+        }
+    }
+
+    private void gravarNoDisco(String chave, Entrada entrada)
+    {
+        File arquivo = getArquivo(chave);
+        File arquivoTemporario = new File(diretorioPersistencia, chave.concat(".tmp"));
+
+        try (DataOutputStream saida = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(arquivoTemporario))))
+        {
+            saida.writeInt(VERSAO_FORMATO);
+            saida.writeUTF(entrada.getNomeClasse());
+            saida.writeInt(entrada.bytecodes.size());
+
+            for (Map.Entry<String, byte[]> classe : entrada.bytecodes.entrySet())
+            {
+                saida.writeUTF(classe.getKey());
+                saida.writeInt(classe.getValue().length);
+                saida.write(classe.getValue());
+            }
+        }
+        catch (IOException excecao)
+        {
+            LOGGER.log(Level.WARNING, String.format("Não foi possível gravar a entrada '%s' no cache em disco", arquivo.getAbsolutePath()), excecao);
+            arquivoTemporario.delete();
+            return;
+        }
+
+        if (!arquivoTemporario.renameTo(arquivo))
+        {
+            arquivoTemporario.delete();
+        }
+    }
+
+    /**
+     * Uma entrada do cache: os bytecodes do programa compilado e, quando disponível, a análise
+     * do código fonte que deu origem a ele.
+     */
+    static final class Entrada
+    {
+        private final String nomeClasse;
+        private final Map<String, byte[]> bytecodes;
+
+        private Class<?> classe;
+
+        private ResultadoAnalise resultadoAnalise;
+        private ASAPrograma asa;
+        private List<String> funcoes;
+        private String funcaoInicial;
+
+        Entrada(String nomeClasse, Map<String, byte[]> bytecodes)
+        {
+            this.nomeClasse = nomeClasse;
+            this.bytecodes = Collections.unmodifiableMap(new HashMap<>(bytecodes));
+        }
+
+        String getNomeClasse()
+        {
+            return nomeClasse;
+        }
+
+        Map<String, byte[]> getBytecodes()
+        {
+            return bytecodes;
+        }
+
+        boolean possuiAnalise()
+        {
+            return asa != null;
+        }
+
+        void setAnalise(ResultadoAnalise resultadoAnalise, ASAPrograma asa, List<String> funcoes, String funcaoInicial)
+        {
+            this.resultadoAnalise = resultadoAnalise;
+            this.asa = asa;
+            this.funcoes = new ArrayList<>(funcoes);
+            this.funcaoInicial = funcaoInicial;
+        }
+
+        /**
+         * Cria uma nova instância do programa. A classe é carregada apenas na primeira vez,
+         * as demais instâncias reutilizam a mesma classe.
+         */
+        synchronized Programa instanciar() throws ClassNotFoundException, InstantiationException, IllegalAccessException
+        {
+            return (Programa) carregarClasse().newInstance();
+        }
+
+        /**
+         * Carrega e inicializa a classe do programa. A classe é verificada pela JVM neste momento,
+         * então bytecodes inválidos resultam em um {@link LinkageError} aqui e não durante a execução.
+         */
+        synchronized Class<?> carregarClasse() throws ClassNotFoundException
+        {
+            if (classe == null)
+            {
+                classe = Class.forName(nomeClasse, true, new CompiladorJavaEmMemoria.CarregadorClassesPrograma(bytecodes));
+            }
+
+            return classe;
+        }
+
+        /**
+         * Cria uma nova instância do programa já configurada com a análise armazenada nesta
+         * entrada.
+         */
+        Programa instanciarComAnalise(int numeroLinhas) throws ClassNotFoundException, InstantiationException, IllegalAccessException
+        {
+            Programa programa = instanciar();
+
+            programa.setFuncoes(new ArrayList<>(funcoes));
+            programa.setFuncaoInicial(funcaoInicial);
+            programa.setResultadoAnalise(copiaResultadoAnalise());
+            programa.setNumeroLinhas(numeroLinhas);
+            programa.setArvoreSintaticaAbstrata(asa);
+
+            return programa;
+        }
+
+        /*
+         * Cada programa recebe sua própria cópia do resultado da análise, pois o resultado guarda
+         * uma referência para o programa. Como somente programas sem erros são armazenados,
+         * basta copiar os avisos.
+         */
+        private ResultadoAnalise copiaResultadoAnalise()
+        {
+            ResultadoAnalise copia = new ResultadoAnalise();
+
+            for (AvisoAnalise aviso : resultadoAnalise.getAvisos())
+            {
+                copia.adicionarAviso(aviso);
+            }
+
+            return copia;
+        }
+    }
+}
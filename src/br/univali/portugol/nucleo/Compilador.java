@@ -10,23 +10,34 @@ import br.univali.portugol.nucleo.asa.NoDeclaracaoMatriz;
 import br.univali.portugol.nucleo.asa.NoDeclaracaoVariavel;
 import br.univali.portugol.nucleo.asa.NoDeclaracaoVetor;
 import br.univali.portugol.nucleo.asa.VisitanteASABasico;
+import br.univali.portugol.nucleo.execucao.ModoExecucao;
+import br.univali.portugol.nucleo.execucao.PerfilCompilacao;
+import br.univali.portugol.nucleo.execucao.gerador.GeradorBytecode;
 import br.univali.portugol.nucleo.execucao.gerador.GeradorCodigoJava;
+import br.univali.portugol.nucleo.execucao.gerador.OtimizadorASA;
+import br.univali.portugol.nucleo.execucao.gerador.PreCompilador;
 import br.univali.portugol.nucleo.mensagens.ErroAnalise;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.LineNumberReader;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.apache.commons.exec.CommandLine;
@@ -46,11 +57,14 @@ final class Compilador
 {
     private static final Logger LOGGER = Logger.getLogger(Compilador.class.getName());
     
-    private static final File DIRETORIO_TEMPORARIO = new File(System.getProperty("java.io.tmpdir"));
-    private static final File DIRETORIO_COMPILACAO = new File(DIRETORIO_TEMPORARIO, "portugol");
+    private static final String PREFIXO_DIRETORIO_COMPILACAO = "portugol";
 
     private static final String NOME_PACOTE = "programas";
-    private static final File DIRETORIO_PACOTE = new File(DIRETORIO_COMPILACAO, NOME_PACOTE);
+
+    private static final AtomicLong CONTADOR_PROGRAMAS = new AtomicLong(); // garante nomes de classe únicos mesmo quando vários programas são compilados no mesmo milissegundo
+
+    private static final boolean GERA_CODIGO_INTERRUPCAO = true;
+    private static final boolean GERA_CODIGO_PONTOS_PARADA = true; // as paradas só custam um desvio quando o depurador não está armado
 
     private static final String funcaoInicialPadrao = "inicio";
     private static final String[] funcoesEspeciais = new String[]
@@ -58,11 +72,95 @@ final class Compilador
         "limpa", "leia", "escreva"
     };
 
+    private static final boolean JFR_DISPONIVEL = verificaDisponibilidadeJFR();
+
     private final LocalizadorFuncoes localizadorFuncoes = new LocalizadorFuncoes();
+    
+    private final ModoExecucao modoExecucao;
+    
+    private final PerfilCompilacao perfilCompilacao;
+    
+    private final boolean geraCodigoDepuracao; // inspeção de símbolos
+    
+    private final List<ObservadorCompilacao> observadores = new ArrayList<>();
+    
+    private boolean usaGeradorBytecode = true;
+    
+    private MetricasCompilacao metricas = null;
 
+    public Compilador()
+    {
+        this(ModoExecucao.COMPILADO);
+    }
+
+    public Compilador(ModoExecucao modoExecucao)
+    {
+        this(modoExecucao, PerfilCompilacao.OTIMIZADO);
+    }
+
+    public Compilador(ModoExecucao modoExecucao, PerfilCompilacao perfilCompilacao)
+    {
+        this.modoExecucao = modoExecucao;
+        this.perfilCompilacao = perfilCompilacao;
+        this.geraCodigoDepuracao = (perfilCompilacao == PerfilCompilacao.DEPURACAO);
+    }
+
+    private static boolean verificaDisponibilidadeJFR()
+    {
+        try
+        {
+            Class.forName("jdk.jfr.Event", false, Compilador.class.getClassLoader());
+            return true;
+        }
+        catch (ClassNotFoundException | LinkageError excecao)
+        {
+            return false; // JVM anterior ao Java 11, os eventos do JFR não são emitidos
+        }
+    }
+    
+    /**
+     * Adiciona um observador que será notificado ao final de cada compilação realizada por este
+     * compilador.
+     */
+    public void adicionarObservador(ObservadorCompilacao observador)
+    {
+        if (!observadores.contains(observador))
+        {
+            observadores.add(observador);
+        }
+    }
+    
+    public void removerObservador(ObservadorCompilacao observador)
+    {
+        observadores.remove(observador);
+    }
+    
+    /**
+     * Define se os programas podem ser gerados pelo {@link GeradorBytecode}. Quando desativado, os
+     * programas são sempre compilados a partir do código Java e o cache de compilação é ignorado,
+     * pois as entradas do cache podem ter sido geradas pelo gerador de bytecode. Utilizado pelos
+     * testes que comparam os dois caminhos de compilação.
+     */
+    void setUsaGeradorBytecode(boolean usaGeradorBytecode)
+    {
+        this.usaGeradorBytecode = usaGeradorBytecode;
+    }
+    
+    /**
+     * @return as métricas da última compilação realizada por este compilador ou <code>null</code>
+     * se ainda não foi realizada nenhuma compilação
+     */
+    public MetricasCompilacao getMetricas()
+    {
+        return metricas;
+    }
+    
     /**
      * Compila o código fonte em Portugol para um programa. Realiza a análise
      * sintática e semântica para garantir que não há erros no código.
+     * <p>
+     * Ao final da compilação, com ou sem erros, as métricas da compilação são entregues aos
+     * observadores registrados e emitidas como um evento do JFR.
      *
      * @param codigo o código fonte em Portugol a ser compilado
      * @return o programa equivalente ao código fonte passado
@@ -71,8 +169,68 @@ final class Compilador
      */
     public Programa compilar(String codigo, boolean compilarParaExecucao, File classPath, String caminhoJavac) throws ErroCompilacao
     {
+        metricas = new MetricasCompilacao(compilarParaExecucao, codigo.length());
+        boolean sucesso = false;
+        
+        try
+        {
+            Programa programa = compilaPrograma(codigo, compilarParaExecucao, classPath, caminhoJavac);
+            
+            if (compilarParaExecucao && !geraCodigoDepuracao && !(programa instanceof ProgramaInterpretado))
+            {
+                programa = criaProgramaOtimizado(programa, codigo, classPath, caminhoJavac);
+            }
+            
+            sucesso = true;
+            
+            return programa;
+        }
+        finally
+        {
+            metricas.finalizar(sucesso);
+            notificarObservadores(metricas);
+        }
+    }
+    
+    private void notificarObservadores(MetricasCompilacao metricas)
+    {
+        for (ObservadorCompilacao observador : observadores)
+        {
+            try
+            {
+                observador.compilacaoRealizada(metricas);
+            }
+            catch (RuntimeException excecao)
+            {
+                LOGGER.log(Level.WARNING, "Erro no observador de compilação", excecao);
+            }
+        }
+        
+        if (JFR_DISPONIVEL)
+        {
+            EventoCompilacaoJFR.emitir(metricas);
+        }
+    }
+    
+    private Programa compilaPrograma(String codigo, boolean compilarParaExecucao, File classPath, String caminhoJavac) throws ErroCompilacao
+    {
+        String chaveCache = null;
+        CacheCompilacao.Entrada entradaCache = null;
+        
+        if (compilarParaExecucao && usaGeradorBytecode)
+        {
+            chaveCache = CacheCompilacao.gerarChave(codigo, GERA_CODIGO_INTERRUPCAO, GERA_CODIGO_PONTOS_PARADA, geraCodigoDepuracao);
+            entradaCache = CacheCompilacao.getInstance().obter(chaveCache);
+            metricas.setAcertoCache(entradaCache != null);
+            
+            if (entradaCache != null && entradaCache.possuiAnalise())
+            {
+                return instanciaProgramaDoCache(entradaCache, codigo);
+            }
+        }
+        
         AnalisadorAlgoritmo analisadorAlgoritmo = new AnalisadorAlgoritmo();
-        ResultadoAnalise resultadoAnalise = analisadorAlgoritmo.analisar(codigo);
+        ResultadoAnalise resultadoAnalise = analisadorAlgoritmo.analisar(codigo, metricas);
         
         ASAPrograma asa = (ASAPrograma) analisadorAlgoritmo.getASA();
 
@@ -85,11 +243,54 @@ final class Compilador
 
             if (compilarParaExecucao)
             {
-                programa = geraPrograma(asa, resultadoAnalise, classPath, caminhoJavac);
+                otimiza(asa, resultadoAnalise, new OtimizadorASA());
+                
+                boolean interpretar = modoExecucao != ModoExecucao.COMPILADO && entradaCache == null && ProgramaInterpretado.podeInterpretar(asa);
+                
+                if (!interpretar && !geraCodigoDepuracao)
+                {
+                    // somente a versão otimizada expande as funções pequenas, ver ProgramaOtimizado
+                    otimiza(asa, resultadoAnalise, new OtimizadorASA(true));
+                }
+                
+                if (entradaCache == null && !interpretar && usaGeradorBytecode)
+                {
+                    entradaCache = geraProgramaEmBytecode(asa, resultadoAnalise);
+                }
+                
+                if (interpretar)
+                {
+                    programa = new ProgramaInterpretado(asa, (modoExecucao == ModoExecucao.ESCALONADO) ? criaCompilacao(codigo, classPath, caminhoJavac, perfilCompilacao) : null);
+                }
+                else if (entradaCache == null && !CompiladorJavaEmMemoria.estaDisponivel())
+                {
+                    programa = geraProgramaComJavacExterno(asa, resultadoAnalise, classPath, caminhoJavac);
+                }
+                else
+                {
+                    if (entradaCache == null)
+                    {
+                        entradaCache = geraProgramaEmMemoria(asa, resultadoAnalise, classPath);
+                    }
+                    else
+                    {
+                        // a entrada veio do cache em disco ou do gerador de bytecode: nenhum dos dois altera a ASA, mas ela precisa passar pelas mesmas transformações feitas durante a geração do código Java
+                        preCompila(asa, resultadoAnalise);
+                    }
+                    
+                    programa = instanciaPrograma(entradaCache, resultadoAnalise);
+                }
+                
                 programa.setFuncoes(localizadorFuncoes.getFuncoes(asa));
                 programa.setFuncaoInicial(localizadorFuncoes.getFuncaoInicial());
                 programa.setResultadoAnalise(resultadoAnalise);
                 programa.setNumeroLinhas(getNumeroDeLinhas(codigo));
+                
+                if (entradaCache != null && chaveCache != null)
+                {
+                    entradaCache.setAnalise(resultadoAnalise, asa, programa.getFuncoes(), programa.getFuncaoInicial());
+                    CacheCompilacao.getInstance().armazenar(chaveCache, entradaCache);
+                }
             }
             
             programa.setArvoreSintaticaAbstrata(asa);
@@ -101,6 +302,137 @@ final class Compilador
         }
     }
     
+    /**
+     * Envolve a versão otimizada do programa em um {@link ProgramaOtimizado}, que compila a versão
+     * de depuração quando ela for necessária. A versão de depuração é compilada a partir do código
+     * fonte (e normalmente encontrada no cache), pois a ASA já foi alterada pelo pré-compilador
+     * e não pode ser utilizada para gerar o código novamente.
+     */
+    private Programa criaProgramaOtimizado(Programa versaoOtimizada, String codigo, File classPath, String caminhoJavac)
+    {
+        ASAPrograma asa = versaoOtimizada.getArvoreSintaticaAbstrata();
+        Programa programa = new ProgramaOtimizado(versaoOtimizada, asa, criaCompilacao(codigo, classPath, caminhoJavac, PerfilCompilacao.DEPURACAO));
+        
+        programa.setFuncoes(versaoOtimizada.getFuncoes());
+        programa.setFuncaoInicial(versaoOtimizada.getFuncaoInicial());
+        programa.setResultadoAnalise(versaoOtimizada.getResultadoAnalise());
+        programa.setNumeroLinhas(getNumeroDeLinhas(codigo));
+        programa.setArvoreSintaticaAbstrata(asa);
+        
+        return programa;
+    }
+    
+    /**
+     * Cria a compilação utilizada pelos programas interpretados no modo {@link ModoExecucao#ESCALONADO}
+     * e pela versão de depuração dos programas otimizados. O código é analisado novamente, pois a
+     * ASA do programa interpretado não pode ser alterada pela geração de código enquanto ele executa.
+     */
+    private Callable<Programa> criaCompilacao(final String codigo, final File classPath, final String caminhoJavac, final PerfilCompilacao perfil)
+    {
+        return new Callable<Programa>()
+        {
+            @Override
+            public Programa call() throws ErroCompilacao
+            {
+                Compilador compilador = new Compilador(ModoExecucao.COMPILADO, perfil);
+                compilador.setUsaGeradorBytecode(usaGeradorBytecode);
+                
+                for (ObservadorCompilacao observador : observadores)
+                {
+                    compilador.adicionarObservador(observador);
+                }
+                
+                return compilador.compilar(codigo, true, classPath, caminhoJavac);
+            }
+        };
+    }
+    
+    private Programa instanciaProgramaDoCache(CacheCompilacao.Entrada entradaCache, String codigo) throws ErroCompilacao
+    {
+        metricas.iniciarEtapa(EtapaCompilacao.CARREGAMENTO_CLASSE);
+        
+        try
+        {
+            return entradaCache.instanciarComAnalise(getNumeroDeLinhas(codigo));
+        }
+        catch (ClassNotFoundException | IllegalAccessException | InstantiationException | RuntimeException ex)
+        {
+            ResultadoAnalise resultadoAnalise = new ResultadoAnalise();
+            resultadoAnalise.adicionarErro(new ErroAnaliseNaCompilacao(ex.getMessage()));
+
+            throw new ErroCompilacao(resultadoAnalise);
+        }
+        finally
+        {
+            metricas.finalizarEtapa();
+        }
+    }
+    
+    private Programa instanciaPrograma(CacheCompilacao.Entrada entradaCache, ResultadoAnalise resultadoAnalise) throws ErroCompilacao
+    {
+        metricas.iniciarEtapa(EtapaCompilacao.CARREGAMENTO_CLASSE);
+        
+        try
+        {
+            return entradaCache.instanciar();
+        }
+        catch (ClassNotFoundException | IllegalAccessException | InstantiationException | RuntimeException ex)
+        {
+            resultadoAnalise.adicionarErro(new ErroAnaliseNaCompilacao(ex.getMessage()));
+
+            throw new ErroCompilacao(resultadoAnalise);
+        }
+        finally
+        {
+            metricas.finalizarEtapa();
+        }
+    }
+    
+    /**
+     * Calcula as expressões constantes e remove os blocos que nunca executam. Acontece antes da
+     * escolha entre interpretar e compilar, assim todos os modos de execução executam a mesma ASA.
+     * A expansão das funções pequenas acontece depois da escolha, somente na versão otimizada.
+     */
+    private void otimiza(ASAPrograma asa, ResultadoAnalise resultadoAnalise, OtimizadorASA otimizador) throws ErroCompilacao
+    {
+        metricas.iniciarEtapa(EtapaCompilacao.OTIMIZACAO);
+        
+        try
+        {
+            asa.aceitar(otimizador);
+        }
+        catch (final ExcecaoVisitaASA ex)
+        {
+            resultadoAnalise.adicionarErro(new ErroAnaliseNaCompilacao(ex.getMessage()));
+
+            throw new ErroCompilacao(resultadoAnalise);
+        }
+        finally
+        {
+            metricas.finalizarEtapa();
+        }
+    }
+    
+    private void preCompila(ASAPrograma asa, ResultadoAnalise resultadoAnalise) throws ErroCompilacao
+    {
+        metricas.iniciarEtapa(EtapaCompilacao.PRE_COMPILACAO);
+        
+        try
+        {
+            asa.aceitar(new PreCompilador(System.currentTimeMillis(), !geraCodigoDepuracao));
+        }
+        catch (final ExcecaoVisitaASA ex)
+        {
+            resultadoAnalise.adicionarErro(new ErroAnaliseNaCompilacao(ex.getMessage()));
+
+            throw new ErroCompilacao(resultadoAnalise);
+        }
+        finally
+        {
+            metricas.finalizarEtapa();
+        }
+    }
+    
     private int getNumeroDeLinhas(String codigo) 
     {
         try
@@ -117,26 +449,105 @@ final class Compilador
     }
 
     
-    private Programa geraPrograma(ASAPrograma asa, ResultadoAnalise resultadoAnalise, File classPath, String caminhoJavac) throws ErroCompilacao
+    private String geraNomeClasse()
     {
-        long idPrograma = System.currentTimeMillis();
+        long idPrograma = CONTADOR_PROGRAMAS.incrementAndGet();
         
-        String nomeClasse = "Programa".concat(String.valueOf(idPrograma));
-        String nomeArquivoJava = nomeClasse.concat(".java");
-        String nomeArquivoClass = nomeClasse.concat(".class");
-
-        DIRETORIO_PACOTE.mkdirs();
+        return "Programa".concat(String.valueOf(idPrograma));
+    }
+    
+    /**
+     * Gera os bytecodes do programa diretamente a partir da ASA, sem gerar o código Java e sem
+     * executar o javac.
+     *
+     * @return a entrada com os bytecodes gerados ou <code>null</code> se o programa utiliza alguma
+     * construção que o {@link GeradorBytecode} não suporta. Neste caso o programa deve ser compilado
+     * a partir do código Java.
+     */
+    private CacheCompilacao.Entrada geraProgramaEmBytecode(ASAPrograma asa, ResultadoAnalise resultadoAnalise) throws ErroCompilacao
+    {
+        String nomeCompletoClasse = NOME_PACOTE.concat(".").concat(geraNomeClasse());
+        Map<String, byte[]> bytecodes;
+        
+        metricas.iniciarEtapa(EtapaCompilacao.GERACAO_BYTECODE);
         
-        File arquivoJava = new File(DIRETORIO_PACOTE, nomeArquivoJava);
-        File arquivoClass = new File(DIRETORIO_PACOTE, nomeArquivoClass);
+        try
+        {
+            bytecodes = new GeradorBytecode().gera(asa, nomeCompletoClasse, GERA_CODIGO_INTERRUPCAO, GERA_CODIGO_PONTOS_PARADA, geraCodigoDepuracao);
+        }
+        catch (final ExcecaoVisitaASA ex)
+        {
+            resultadoAnalise.adicionarErro(new ErroAnaliseNaCompilacao(ex.getMessage()));
 
-        try (PrintWriter writerArquivoJava = new PrintWriter(new FileOutputStream(arquivoJava)))
+            throw new ErroCompilacao(resultadoAnalise);
+        }
+        finally
+        {
+            metricas.finalizarEtapa();
+        }
+        
+        if (bytecodes == null)
+        {
+            return null;
+        }
+        
+        CacheCompilacao.Entrada entrada = new CacheCompilacao.Entrada(nomeCompletoClasse, bytecodes);
+        
+        metricas.iniciarEtapa(EtapaCompilacao.CARREGAMENTO_CLASSE);
+        
+        try
+        {
+            entrada.carregarClasse();
+        }
+        catch (ClassNotFoundException | LinkageError ex)
+        {
+            // os bytecodes gerados foram rejeitados pela JVM, o programa é compilado a partir do código Java
+            LOGGER.log(Level.WARNING, "Bytecode gerado inválido, utilizando o compilador Java", ex);
+            
+            return null;
+        }
+        finally
+        {
+            metricas.finalizarEtapa();
+        }
+        
+        metricas.setTamanhoBytecode(bytecodes); // somente os bytecodes aceitos pela JVM são medidos
+        
+        return entrada;
+    }
+    
+    private CacheCompilacao.Entrada geraProgramaEmMemoria(ASAPrograma asa, ResultadoAnalise resultadoAnalise, File classPath) throws ErroCompilacao
+    {
+        String nomeClasse = geraNomeClasse();
+        String codigoJava = geraCodigoJava(asa, nomeClasse, resultadoAnalise);
+        
+        return compilarJavaEmMemoria(nomeClasse, codigoJava, resultadoAnalise, classPath);
+    }
+    
+    private Programa geraProgramaComJavacExterno(ASAPrograma asa, ResultadoAnalise resultadoAnalise, File classPath, String caminhoJavac) throws ErroCompilacao
+    {
+        String nomeClasse = geraNomeClasse();
+        String codigoJava = geraCodigoJava(asa, nomeClasse, resultadoAnalise);
+        
+        return compilarJavaExterno(nomeClasse, codigoJava, resultadoAnalise, classPath, caminhoJavac);
+    }
+    
+    private String geraCodigoJava(ASAPrograma asa, String nomeClasse, ResultadoAnalise resultadoAnalise) throws ErroCompilacao
+    {
+        StringWriter codigoJava = new StringWriter(8192);
+        
+        metricas.iniciarEtapa(EtapaCompilacao.GERACAO_CODIGO_JAVA);
+        
+        try (PrintWriter writerCodigoJava = new PrintWriter(codigoJava))
         {
             GeradorCodigoJava gerador = new GeradorCodigoJava();
-            gerador.gera(asa, writerArquivoJava, nomeClasse, true, true, true);
-            writerArquivoJava.flush();
-
-            return compilarJava(nomeClasse, arquivoJava, DIRETORIO_COMPILACAO, resultadoAnalise, classPath, caminhoJavac);
+            gerador.gera(asa, writerCodigoJava, nomeClasse, GERA_CODIGO_INTERRUPCAO, GERA_CODIGO_PONTOS_PARADA, geraCodigoDepuracao);
+            writerCodigoJava.flush();
+            
+            metricas.finalizarEtapa();
+            metricas.setTamanhoCodigoJava(codigoJava.getBuffer().length());
+            
+            return codigoJava.toString();
         }
         catch (final IOException | ExcecaoVisitaASA ex)
         {
@@ -149,12 +560,99 @@ final class Compilador
                 }
             });
 
+            throw new ErroCompilacao(resultadoAnalise);
+        }
+    }
+    
+    /**
+     * Compila o código Java gerado utilizando o compilador da própria JVM, sem criar um processo
+     * para o javac e sem escrever os arquivos .java e .class no disco.
+     */
+    private CacheCompilacao.Entrada compilarJavaEmMemoria(String nomeClasse, String codigoJava, ResultadoAnalise resultadoAnalise, File classPath) throws ErroCompilacao
+    {
+        List<String> erros = new ArrayList<>();
+        String nomeCompletoClasse = NOME_PACOTE.concat(".").concat(nomeClasse);
+        
+        metricas.iniciarEtapa(EtapaCompilacao.JAVAC);
+        
+        try
+        {
+            Map<String, byte[]> bytecodes = new CompiladorJavaEmMemoria().compilar(nomeCompletoClasse, codigoJava, classPath, erros);
+            
+            if (bytecodes == null)
+            {
+                for (String erro : erros)
+                {
+                    LOGGER.log(Level.WARNING, erro);
+                }
+                
+                resultadoAnalise.adicionarErro(new ErroAnaliseNaCompilacao("Erro na compilação!"));
+                throw new ErroCompilacao(resultadoAnalise);
+            }
+            
+            metricas.setTamanhoBytecode(bytecodes);
+            
+            return new CacheCompilacao.Entrada(nomeCompletoClasse, bytecodes);
+        }
+        catch (IOException | RuntimeException ex)
+        {
+            resultadoAnalise.adicionarErro(new ErroAnaliseNaCompilacao(ex.getMessage()));
+
+            throw new ErroCompilacao(resultadoAnalise);
+        }
+        finally
+        {
+            metricas.finalizarEtapa();
+        }
+    }
+    
+    /**
+     * Compila o código Java gerado executando o javac em um processo separado. É utilizado apenas
+     * quando a JVM atual não possui um compilador disponível (por exemplo, em uma JRE).
+     */
+    private Programa compilarJavaExterno(String nomeClasse, String codigoJava, ResultadoAnalise resultadoAnalise, File classPath, String caminhoJavac) throws ErroCompilacao
+    {
+        String nomeArquivoJava = nomeClasse.concat(".java");
+        String nomeArquivoClass = nomeClasse.concat(".class");
+
+        File diretorioCompilacao = null;
+        File diretorioPacote = null;
+        File arquivoJava = null;
+        File arquivoClass = null;
+
+        try
+        {
+            // cada compilação usa o seu próprio diretório, assim compilações simultâneas não interferem umas nas outras
+            diretorioCompilacao = Files.createTempDirectory(PREFIXO_DIRETORIO_COMPILACAO).toFile();
+            diretorioPacote = new File(diretorioCompilacao, NOME_PACOTE);
+            diretorioPacote.mkdirs();
+
+            arquivoJava = new File(diretorioPacote, nomeArquivoJava);
+            arquivoClass = new File(diretorioPacote, nomeArquivoClass);
+
+            try (Writer writerArquivoJava = new OutputStreamWriter(new FileOutputStream(arquivoJava), "UTF-8"))
+            {
+                writerArquivoJava.write(codigoJava);
+                writerArquivoJava.flush();
+            }
+
+            return compilarJava(nomeClasse, arquivoJava, diretorioCompilacao, resultadoAnalise, classPath, caminhoJavac);
+        }
+        catch (final IOException ex)
+        {
+            resultadoAnalise.adicionarErro(new ErroAnaliseNaCompilacao(ex.getMessage()));
+
             throw new ErroCompilacao(resultadoAnalise);
         }
         finally
         {
-            arquivoJava.delete();
-            arquivoClass.delete();
+            for (File arquivo : new File[] { arquivoJava, arquivoClass, diretorioPacote, diretorioCompilacao })
+            {
+                if (arquivo != null)
+                {
+                    arquivo.delete();
+                }
+            }
         }
     }
 
@@ -181,6 +679,8 @@ final class Compilador
             throw new IllegalArgumentException("ClassPath não pode ser nulo!");
         }
 
+        metricas.iniciarEtapa(EtapaCompilacao.JAVAC);
+        
         try
         {            
             /* 
@@ -229,6 +729,10 @@ final class Compilador
             
             throw new ErroCompilacao(resultadoAnalise);
         }
+        finally
+        {
+            metricas.finalizarEtapa();
+        }
         
         return carregaProgramaCompilado(diretorioCompilacao, nomeClasse, resultadoAnalise);
         
@@ -251,6 +755,8 @@ final class Compilador
 
     private Programa carregaProgramaCompilado(File diretorioCompilacao, String nomeClasseCompilada, ResultadoAnalise resultadoAnalise) throws ErroCompilacao
     {
+        metricas.iniciarEtapa(EtapaCompilacao.CARREGAMENTO_CLASSE);
+        
         try
         {
             URLClassLoader classLoader = new URLClassLoader(new URL[]
@@ -258,8 +764,11 @@ final class Compilador
                 diretorioCompilacao.toURI().toURL()
             });
             Class<?> loadedClass = classLoader.loadClass(NOME_PACOTE.concat(".").concat(nomeClasseCompilada));
+            Programa programa = (Programa) loadedClass.newInstance();
+
+            programa.setCarregadorClasses(classLoader); // o carregador é exclusivo deste programa
 
-            return (Programa) loadedClass.newInstance();
+            return programa;
         }
         catch (ClassNotFoundException | IllegalAccessException | InstantiationException | MalformedURLException | RuntimeException ex)
         {
@@ -267,6 +776,10 @@ final class Compilador
 
             throw new ErroCompilacao(resultadoAnalise);
         }
+        finally
+        {
+            metricas.finalizarEtapa();
+        }
     }
     
     private class ErroAnaliseNaCompilacao extends ErroAnalise
@@ -0,0 +1,314 @@
+package br.univali.portugol.nucleo;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.security.CodeSource;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+/**
+ * Compila o código Java gerado para os programas utilizando o compilador da própria JVM
+ * ({@link javax.tools.JavaCompiler}), sem criar processos externos e sem acessar o disco.
+ * <p>
+ * O código fonte é lido de uma String e os bytecodes gerados são mantidos em memória até
+ * serem definidos por um {@link CarregadorClassesPrograma} exclusivo para o programa compilado.
+ * <p>
+ * Quando a JVM em uso não possui um compilador disponível (por exemplo, quando o Portugol
+ * está executando sobre uma JRE), o {@link Compilador} deve utilizar o javac externo.
+ */
+final class CompiladorJavaEmMemoria
+{
+    private static final JavaCompiler COMPILADOR_JAVA = ToolProvider.getSystemJavaCompiler();
+
+    // O gerenciador de arquivos padrão prepara a plataforma e abre os jars do classpath na primeira
+    // compilação, então é reaproveitado. Como ele não pode ser usado por duas compilações ao mesmo
+    // tempo, cada compilação simultânea retira um gerenciador desta fila e o devolve no final.
+    private static final Queue<StandardJavaFileManager> GERENCIADORES_PADRAO = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Verifica se a JVM em uso possui um compilador Java que possa ser utilizado em memória.
+     *
+     * @return <code>true</code> se o compilador estiver disponível
+     */
+    public static boolean estaDisponivel()
+    {
+        return COMPILADOR_JAVA != null;
+    }
+
+    /**
+     * Compila o código fonte de uma classe Java. Os bytecodes gerados podem ser carregados
+     * utilizando um {@link CarregadorClassesPrograma}.
+     *
+     * @param nomeCompletoClasse o nome completo (incluindo o pacote) da classe a ser compilada
+     * @param codigoFonte o código fonte Java da classe
+     * @param classPath o diretório contendo as bibliotecas (jars) necessárias para compilar o
+     * programa, pode ser <code>null</code>
+     * @param erros lista onde serão adicionadas as mensagens de erro do javac, caso existam
+     * @return os bytecodes de cada classe gerada, indexados pelo nome completo da classe, ou
+     * <code>null</code> se o código contiver erros
+     *
+     * @throws IOException se não for possível ler ou escrever os arquivos em memória
+     */
+    public Map<String, byte[]> compilar(String nomeCompletoClasse, String codigoFonte, File classPath, List<String> erros) throws IOException
+    {
+        if (!estaDisponivel())
+        {
+            throw new IllegalStateException("Não existe um compilador Java disponível nesta JVM");
+        }
+
+        DiagnosticCollector<JavaFileObject> diagnosticos = new DiagnosticCollector<>();
+        StandardJavaFileManager gerenciadorPadrao = GERENCIADORES_PADRAO.poll();
+        boolean reutilizavel = false;
+
+        if (gerenciadorPadrao == null)
+        {
+            gerenciadorPadrao = COMPILADOR_JAVA.getStandardFileManager(null, null, null);
+        }
+
+        try
+        {
+            GerenciadorArquivosEmMemoria gerenciador = new GerenciadorArquivosEmMemoria(gerenciadorPadrao);
+            List<String> opcoes = Arrays.asList("-proc:none", "-encoding", "UTF-8", "-classpath", montaClassPath(classPath));
+            List<JavaFileObject> unidades = Collections.<JavaFileObject>singletonList(new CodigoFonteEmMemoria(nomeCompletoClasse, codigoFonte));
+
+            JavaCompiler.CompilationTask tarefa = COMPILADOR_JAVA.getTask(null, gerenciador, diagnosticos, opcoes, null, unidades);
+            boolean compilado = tarefa.call();
+
+            reutilizavel = true;
+
+            if (!compilado)
+            {
+                for (Diagnostic<? extends JavaFileObject> diagnostico : diagnosticos.getDiagnostics())
+                {
+                    if (diagnostico.getKind() == Diagnostic.Kind.ERROR)
+                    {
+                        erros.add(String.format("linha %d: %s", diagnostico.getLineNumber(), diagnostico.getMessage(Locale.getDefault())));
+                    }
+                }
+
+                return null;
+            }
+
+            return gerenciador.getBytecodes();
+        }
+        finally
+        {
+            if (reutilizavel)
+            {
+                GERENCIADORES_PADRAO.offer(gerenciadorPadrao);
+            }
+            else
+            {
+                gerenciadorPadrao.close(); // a compilação falhou no meio, o estado do gerenciador não é conhecido
+            }
+        }
+    }
+
+    /**
+     * Monta o classpath utilizado pelo javac. São incluídos o classpath da JVM atual, o local
+     * de onde as classes do núcleo foram carregadas e todos os jars do diretório informado.
+     */
+    private static String montaClassPath(File classPath)
+    {
+        Set<String> entradas = new LinkedHashSet<>();
+
+        String classPathJVM = System.getProperty("java.class.path");
+
+        if (classPathJVM != null && !classPathJVM.isEmpty())
+        {
+            entradas.addAll(Arrays.asList(classPathJVM.split(File.pathSeparator)));
+        }
+
+        CodeSource origemNucleo = Programa.class.getProtectionDomain().getCodeSource();
+
+        if (origemNucleo != null && origemNucleo.getLocation() != null)
+        {
+            try
+            {
+                entradas.add(new File(origemNucleo.getLocation().toURI()).getAbsolutePath());
+            }
+            catch (URISyntaxException | IllegalArgumentException excecao)
+            {
+                // ignora, o núcleo provavelmente já está no classpath da JVM
+            }
+        }
+
+        if (classPath != null && classPath.isDirectory())
+        {
+            entradas.add(classPath.getAbsolutePath());
+
+            File[] jars = classPath.listFiles(new FileFilter()
+            {
+                @Override
+                public boolean accept(File arquivo)
+                {
+                    return arquivo.isFile() && arquivo.getName().toLowerCase().endsWith(".jar");
+                }
+            });
+
+            if (jars != null)
+            {
+                for (File jar : jars)
+                {
+                    entradas.add(jar.getAbsolutePath());
+                }
+            }
+        }
+
+        StringBuilder classPathCompleto = new StringBuilder();
+
+        for (String entrada : entradas)
+        {
+            if (classPathCompleto.length() > 0)
+            {
+                classPathCompleto.append(File.pathSeparator);
+            }
+
+            classPathCompleto.append(entrada);
+        }
+
+        return classPathCompleto.toString();
+    }
+
+    private static URI criaURI(String nomeCompletoClasse, JavaFileObject.Kind tipo)
+    {
+        return URI.create("string:///" + nomeCompletoClasse.replace('.', '/') + tipo.extension);
+    }
+
+    /**
+     * Representa o código fonte Java gerado, mantido em memória.
+     */
+    private static final class CodigoFonteEmMemoria extends SimpleJavaFileObject
+    {
+        private final String codigoFonte;
+
+        public CodigoFonteEmMemoria(String nomeCompletoClasse, String codigoFonte)
+        {
+            super(criaURI(nomeCompletoClasse, Kind.SOURCE), Kind.SOURCE);
+            this.codigoFonte = codigoFonte;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignorarErrosCodificacao)
+        {
+            return codigoFonte;
+        }
+    }
+
+    /**
+     * Recebe os bytecodes gerados pelo javac para uma classe.
+     */
+    private static final class BytecodeEmMemoria extends SimpleJavaFileObject
+    {
+        private final ByteArrayOutputStream bytecode = new ByteArrayOutputStream(4096);
+
+        public BytecodeEmMemoria(String nomeCompletoClasse)
+        {
+            super(criaURI(nomeCompletoClasse, Kind.CLASS), Kind.CLASS);
+        }
+
+        @Override
+        public OutputStream openOutputStream()
+        {
+            return bytecode;
+        }
+
+        public byte[] getBytecode()
+        {
+            return bytecode.toByteArray();
+        }
+    }
+
+    /**
+     * Redireciona a escrita dos arquivos .class para a memória. A leitura das classes
+     * referenciadas pelo programa (Programa, bibliotecas, etc.) continua sendo feita pelo
+     * gerenciador de arquivos padrão.
+     */
+    private static final class GerenciadorArquivosEmMemoria extends ForwardingJavaFileManager<StandardJavaFileManager>
+    {
+        private final Map<String, BytecodeEmMemoria> classes = new HashMap<>();
+
+        public GerenciadorArquivosEmMemoria(StandardJavaFileManager gerenciadorPadrao)
+        {
+            super(gerenciadorPadrao);
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(JavaFileManager.Location local, String nomeClasse, JavaFileObject.Kind tipo, FileObject irmao) throws IOException
+        {
+            if (tipo != JavaFileObject.Kind.CLASS)
+            {
+                return super.getJavaFileForOutput(local, nomeClasse, tipo, irmao);
+            }
+
+            BytecodeEmMemoria arquivo = new BytecodeEmMemoria(nomeClasse);
+            classes.put(nomeClasse, arquivo);
+
+            return arquivo;
+        }
+
+        public Map<String, byte[]> getBytecodes()
+        {
+            Map<String, byte[]> bytecodes = new HashMap<>();
+
+            for (Map.Entry<String, BytecodeEmMemoria> classe : classes.entrySet())
+            {
+                bytecodes.put(classe.getKey(), classe.getValue().getBytecode());
+            }
+
+            return bytecodes;
+        }
+    }
+
+    /**
+     * Carregador de classes exclusivo de um programa compilado. Define as classes a partir
+     * dos bytecodes mantidos em memória e delega as demais classes (Programa, bibliotecas, etc.)
+     * para o carregador das classes do núcleo.
+     */
+    static final class CarregadorClassesPrograma extends ClassLoader
+    {
+        private final Map<String, byte[]> bytecodes;
+
+        public CarregadorClassesPrograma(Map<String, byte[]> bytecodes)
+        {
+            super(Programa.class.getClassLoader());
+            this.bytecodes = new HashMap<>(bytecodes);
+        }
+
+        @Override
+        protected Class<?> findClass(String nome) throws ClassNotFoundException
+        {
+            byte[] bytecode = bytecodes.get(nome);
+
+            if (bytecode == null)
+            {
+                throw new ClassNotFoundException(nome);
+            }
+
+            return defineClass(nome, bytecode, 0, bytecode.length);
+        }
+    }
+}
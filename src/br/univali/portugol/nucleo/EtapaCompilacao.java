@@ -0,0 +1,20 @@
+package br.univali.portugol.nucleo;
+
+/**
+ * Etapas da compilação de um programa, medidas separadamente em {@link MetricasCompilacao}.
+ * <p>
+ * Nem todas as etapas acontecem em todas as compilações. Programas encontrados no cache, por
+ * exemplo, passam apenas pelo carregamento da classe, e programas suportados pelo gerador de
+ * bytecode não passam pela geração do código Java nem pelo javac.
+ */
+public enum EtapaCompilacao
+{
+    ANALISE_SINTATICA,
+    ANALISE_SEMANTICA,
+    OTIMIZACAO,
+    GERACAO_BYTECODE,
+    PRE_COMPILACAO,
+    GERACAO_CODIGO_JAVA,
+    JAVAC,
+    CARREGAMENTO_CLASSE
+}
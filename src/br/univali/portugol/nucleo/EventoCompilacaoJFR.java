@@ -0,0 +1,110 @@
+package br.univali.portugol.nucleo;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Evento do Java Flight Recorder emitido ao final de cada compilação, permite acompanhar as
+ * métricas de compilação em produção gravando o JFR (por exemplo, com <code>jcmd JFR.start</code>).
+ * <p>
+ * Esta classe só é carregada pelo {@link Compilador} quando a JVM possui o JFR, assim o núcleo
+ * continua executando em JVMs mais antigas.
+ */
+@Name("br.univali.portugol.Compilacao")
+@Label("Compilação Portugol")
+@Category("Portugol")
+@Description("Duração e memória alocada em cada etapa da compilação de um programa")
+final class EventoCompilacaoJFR extends Event
+{
+    @Label("Para execução")
+    boolean paraExecucao;
+
+    @Label("Sucesso")
+    boolean sucesso;
+
+    @Label("Acerto no cache")
+    boolean acertoCache;
+
+    @Label("Tamanho do código fonte")
+    int tamanhoCodigoFonte;
+
+    @Label("Tamanho do código Java")
+    int tamanhoCodigoJava;
+
+    @Label("Tamanho do bytecode")
+    @DataAmount
+    int tamanhoBytecode;
+
+    @Label("Memória alocada")
+    @DataAmount
+    long bytesAlocados;
+
+    @Label("Duração total")
+    @Timespan
+    long duracaoTotal;
+
+    @Label("Análise sintática")
+    @Timespan
+    long analiseSintatica;
+
+    @Label("Análise semântica")
+    @Timespan
+    long analiseSemantica;
+
+    @Label("Otimização")
+    @Timespan
+    long otimizacao;
+
+    @Label("Geração de bytecode")
+    @Timespan
+    long geracaoBytecode;
+
+    @Label("Pré-compilação")
+    @Timespan
+    long preCompilacao;
+
+    @Label("Geração do código Java")
+    @Timespan
+    long geracaoCodigoJava;
+
+    @Label("Javac")
+    @Timespan
+    long javac;
+
+    @Label("Carregamento da classe")
+    @Timespan
+    long carregamentoClasse;
+
+    static void emitir(MetricasCompilacao metricas)
+    {
+        EventoCompilacaoJFR evento = new EventoCompilacaoJFR();
+
+        if (!evento.isEnabled())
+        {
+            return;
+        }
+
+        evento.paraExecucao = metricas.isParaExecucao();
+        evento.sucesso = metricas.isSucesso();
+        evento.acertoCache = Boolean.TRUE.equals(metricas.getAcertoCache());
+        evento.tamanhoCodigoFonte = metricas.getTamanhoCodigoFonte();
+        evento.tamanhoCodigoJava = metricas.getTamanhoCodigoJava();
+        evento.tamanhoBytecode = metricas.getTamanhoBytecode();
+        evento.bytesAlocados = metricas.getBytesAlocados();
+        evento.duracaoTotal = metricas.getDuracaoTotal();
+        evento.analiseSintatica = metricas.getDuracao(EtapaCompilacao.ANALISE_SINTATICA);
+        evento.analiseSemantica = metricas.getDuracao(EtapaCompilacao.ANALISE_SEMANTICA);
+        evento.otimizacao = metricas.getDuracao(EtapaCompilacao.OTIMIZACAO);
+        evento.geracaoBytecode = metricas.getDuracao(EtapaCompilacao.GERACAO_BYTECODE);
+        evento.preCompilacao = metricas.getDuracao(EtapaCompilacao.PRE_COMPILACAO);
+        evento.geracaoCodigoJava = metricas.getDuracao(EtapaCompilacao.GERACAO_CODIGO_JAVA);
+        evento.javac = metricas.getDuracao(EtapaCompilacao.JAVAC);
+        evento.carregamentoClasse = metricas.getDuracao(EtapaCompilacao.CARREGAMENTO_CLASSE);
+        evento.commit();
+    }
+}
@@ -0,0 +1,423 @@
+package br.univali.portugol.nucleo;
+
+import br.univali.portugol.nucleo.execucao.CotasExecucao;
+import br.univali.portugol.nucleo.execucao.ModoEncerramento;
+import br.univali.portugol.nucleo.execucao.ObservadorExecucaoBasico;
+import br.univali.portugol.nucleo.execucao.ResultadoExecucao;
+import br.univali.portugol.nucleo.execucao.es.EntradaRoteirizada;
+import br.univali.portugol.nucleo.execucao.es.Saida;
+import br.univali.portugol.nucleo.mensagens.ErroAnalise;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compila e executa vários programas sem interação com o usuário, por exemplo para corrigir
+ * exercícios automaticamente.
+ * <p>
+ * Os programas são compilados e executados simultaneamente, no máximo
+ * {@link #setNumeroThreads(int) numeroThreads} por vez. Cada programa recebe a sua entrada de
+ * dados pré-definida, a saída é capturada e a execução é interrompida se ultrapassar o
+ * {@link #setTempoLimite(long) tempo limite}. Os programas são descartados ao final da execução.
+ * <p>
+ * A compilação utiliza o modo de execução, o perfil de compilação e os observadores de
+ * compilação definidos em {@link Portugol}.
+ * <p>
+ * Também pode ser utilizado pela linha de comando, ver {@link #main(String[])}.
+ */
+public final class ExecutorLote
+{
+    private static final long TEMPO_LIMITE_PADRAO = 10000; // milissegundos
+    private static final long TEMPO_ESPERA_INTERRUPCAO = 2000; // tempo que o programa tem para encerrar depois de interrompido
+
+    private static final String EXTENSAO_ENTRADA = ".entrada";
+
+    private int numeroThreads = Runtime.getRuntime().availableProcessors();
+    private long tempoLimite = TEMPO_LIMITE_PADRAO;
+    private CotasExecucao cotas = null;
+    private File classPath = null;
+    private String caminhoJavac = null;
+
+    /**
+     * Define quantos programas podem ser compilados e executados ao mesmo tempo. Por padrão é
+     * utilizado o número de processadores disponíveis para a JVM.
+     */
+    public void setNumeroThreads(int numeroThreads)
+    {
+        if (numeroThreads <= 0)
+        {
+            throw new IllegalArgumentException("O número de threads deve ser maior que zero");
+        }
+
+        this.numeroThreads = numeroThreads;
+    }
+
+    public int getNumeroThreads()
+    {
+        return numeroThreads;
+    }
+
+    /**
+     * Define o tempo máximo de execução de cada programa, em milissegundos. O tempo de
+     * compilação não é contado. O padrão é 10 segundos.
+     */
+    public void setTempoLimite(long tempoLimite)
+    {
+        if (tempoLimite <= 0)
+        {
+            throw new IllegalArgumentException("O tempo limite deve ser maior que zero");
+        }
+
+        this.tempoLimite = tempoLimite;
+    }
+
+    public long getTempoLimite()
+    {
+        return tempoLimite;
+    }
+
+    /**
+     * Define as cotas de execução aplicadas a cada programa. Ao contrário do tempo limite, as
+     * cotas são verificadas pelo próprio programa e o encerram sempre no mesmo ponto, com o modo
+     * {@link ModoEncerramento#COTA_EXCEDIDA}.
+     *
+     * @param cotas as cotas ou <code>null</code> para não limitar os programas
+     */
+    public void setCotasExecucao(CotasExecucao cotas)
+    {
+        this.cotas = cotas;
+    }
+
+    public CotasExecucao getCotasExecucao()
+    {
+        return cotas;
+    }
+
+    /**
+     * Define o classpath e o javac utilizados quando a JVM não possui um compilador Java
+     * (ver {@link Portugol#compilarParaExecucao}).
+     */
+    public void setCompiladorJava(File classPath, String caminhoJavac)
+    {
+        this.classPath = classPath;
+        this.caminhoJavac = caminhoJavac;
+    }
+
+    /**
+     * Compila e executa os programas, aguardando até que todos terminem.
+     *
+     * @param programas os programas a serem executados
+     * @return os resultados, na mesma ordem dos programas
+     *
+     * @throws InterruptedException se a thread for interrompida enquanto aguarda os programas
+     */
+    public List<ResultadoLote> executar(List<ProgramaLote> programas) throws InterruptedException
+    {
+        List<ResultadoLote> resultados = new ArrayList<>(programas.size());
+
+        if (programas.isEmpty())
+        {
+            return resultados;
+        }
+
+        ExecutorService servico = Executors.newFixedThreadPool(Math.min(numeroThreads, programas.size()), new NamedThreadFactory("Portugol Núcleo (Thread de lote %d)"));
+
+        try
+        {
+            List<Future<ResultadoLote>> tarefas = new ArrayList<>(programas.size());
+
+            for (final ProgramaLote programa : programas)
+            {
+                tarefas.add(servico.submit(new Callable<ResultadoLote>()
+                {
+                    @Override
+                    public ResultadoLote call() throws Exception
+                    {
+                        return executar(programa);
+                    }
+                }));
+            }
+
+            for (Future<ResultadoLote> tarefa : tarefas)
+            {
+                resultados.add(tarefa.get());
+            }
+
+            return resultados;
+        }
+        catch (ExecutionException excecao)
+        {
+            throw new IllegalStateException("Erro inesperado ao executar o lote", excecao.getCause());
+        }
+        finally
+        {
+            servico.shutdownNow();
+        }
+    }
+
+    /**
+     * Compila e executa um único programa na thread atual.
+     */
+    public ResultadoLote executar(ProgramaLote programaLote) throws InterruptedException
+    {
+        Programa programa;
+
+        try
+        {
+            programa = Portugol.compilar(programaLote.getCodigoFonte(), true, classPath, caminhoJavac);
+        }
+        catch (ErroCompilacao erro)
+        {
+            return new ResultadoLote(programaLote, erro);
+        }
+
+        final SaidaCapturada saida = new SaidaCapturada();
+        final CountDownLatch encerramento = new CountDownLatch(1);
+        final ResultadoExecucao[] resultado = new ResultadoExecucao[1];
+
+        programa.setSaida(saida);
+        programa.setCotasExecucao(cotas);
+        programa.setEntrada(new EntradaRoteirizada(programaLote.getEntrada()));
+        programa.adicionarObservadorExecucao(new ObservadorExecucaoBasico()
+        {
+            @Override
+            public void execucaoEncerrada(Programa programa, ResultadoExecucao resultadoExecucao)
+            {
+                resultado[0] = resultadoExecucao;
+                encerramento.countDown();
+            }
+        });
+
+        try
+        {
+            programa.executar(new String[0], Programa.Estado.BREAK_POINT);
+
+            boolean tempoLimiteExcedido = !encerramento.await(tempoLimite, TimeUnit.MILLISECONDS);
+
+            if (tempoLimiteExcedido)
+            {
+                programa.interromper();
+
+                if (!encerramento.await(TEMPO_ESPERA_INTERRUPCAO, TimeUnit.MILLISECONDS))
+                {
+                    // o programa não respondeu à interrupção (por exemplo, preso em uma biblioteca)
+                    resultado[0] = new ResultadoExecucao();
+                    resultado[0].setModoEncerramento(ModoEncerramento.INTERRUPCAO);
+                    resultado[0].setTempoExecucao(tempoLimite);
+                }
+            }
+
+            return new ResultadoLote(programaLote, resultado[0], saida.toString(), tempoLimiteExcedido);
+        }
+        finally
+        {
+            programa.descartar();
+        }
+    }
+
+    /**
+     * Executa os programas pela linha de comando e escreve um resultado por linha, em JSON, na
+     * saída padrão.
+     * <p>
+     * Uso: <code>ExecutorLote [-j threads] [-t tempo_limite_ms] [-p maximo_passos] arquivo.por...</code>
+     * <p>
+     * A entrada de cada programa é lida de um arquivo com o mesmo nome e extensão
+     * <code>.entrada</code>, se existir (por exemplo, <code>exercicio1.entrada</code> para
+     * <code>exercicio1.por</code>).
+     */
+    public static void main(String[] args) throws Exception
+    {
+        ExecutorLote executor = new ExecutorLote();
+        List<ProgramaLote> programas = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++)
+        {
+            if (args[i].equals("-j") && i + 1 < args.length)
+            {
+                executor.setNumeroThreads(Integer.parseInt(args[++i]));
+            }
+            else if (args[i].equals("-t") && i + 1 < args.length)
+            {
+                executor.setTempoLimite(Long.parseLong(args[++i]));
+            }
+            else if (args[i].equals("-p") && i + 1 < args.length)
+            {
+                CotasExecucao cotas = new CotasExecucao();
+                cotas.setMaximoPassos(Long.parseLong(args[++i]));
+                executor.setCotasExecucao(cotas);
+            }
+            else
+            {
+                File arquivo = new File(args[i]);
+                File arquivoEntrada = new File(arquivo.getParentFile(), arquivo.getName().replaceFirst("\\.por$", "") + EXTENSAO_ENTRADA);
+
+                programas.add(new ProgramaLote(arquivo.getPath(), leArquivo(arquivo), arquivoEntrada.isFile() ? leArquivo(arquivoEntrada) : null));
+            }
+        }
+
+        if (programas.isEmpty())
+        {
+            System.err.println("Uso: ExecutorLote [-j threads] [-t tempo_limite_ms] [-p maximo_passos] arquivo.por...");
+            System.exit(1);
+        }
+
+        PrintStream saida = new PrintStream(System.out, true, "UTF-8");
+
+        for (ResultadoLote resultado : executor.executar(programas))
+        {
+            saida.println(paraJSON(resultado));
+        }
+
+        System.exit(0); // as threads das bibliotecas (sons, gráficos) podem manter a JVM ativa
+    }
+
+    static String paraJSON(ResultadoLote resultado)
+    {
+        StringBuilder json = new StringBuilder("{");
+
+        json.append("\"programa\":").append(textoJSON(resultado.getPrograma().getNome()));
+        json.append(",\"compilado\":").append(resultado.isCompilado());
+
+        if (!resultado.isCompilado())
+        {
+            json.append(",\"erros_compilacao\":[");
+
+            List<ErroAnalise> erros = resultado.getErroCompilacao().getResultadoAnalise().getErros();
+
+            for (int i = 0; i < erros.size(); i++)
+            {
+                ErroAnalise erro = erros.get(i);
+
+                json.append((i > 0) ? "," : "");
+                json.append("{\"linha\":").append(erro.getLinha());
+                json.append(",\"coluna\":").append(erro.getColuna());
+                json.append(",\"mensagem\":").append(textoJSON(erro.getMensagem())).append("}");
+            }
+
+            json.append("]");
+        }
+        else
+        {
+            ResultadoExecucao execucao = resultado.getResultadoExecucao();
+
+            json.append(",\"encerramento\":").append(textoJSON(execucao.getModoEncerramento().name()));
+            json.append(",\"tempo_limite_excedido\":").append(resultado.isTempoLimiteExcedido());
+            json.append(",\"tempo_execucao\":").append(execucao.getTempoExecucao());
+
+            if (execucao.getErro() != null)
+            {
+                json.append(",\"erro\":{\"linha\":").append(execucao.getErro().getLinha());
+                json.append(",\"mensagem\":").append(textoJSON(execucao.getErro().getMensagem())).append("}");
+            }
+
+            json.append(",\"saida\":").append(textoJSON(resultado.getSaida()));
+        }
+
+        return json.append("}").toString();
+    }
+
+    private static String textoJSON(String texto)
+    {
+        if (texto == null)
+        {
+            return "null";
+        }
+
+        StringBuilder json = new StringBuilder(texto.length() + 2).append('"');
+
+        for (int i = 0; i < texto.length(); i++)
+        {
+            char c = texto.charAt(i);
+
+            switch (c)
+            {
+                case '"': json.append("\\\""); break;
+                case '\\': json.append("\\\\"); break;
+                case '\n': json.append("\\n"); break;
+                case '\r': json.append("\\r"); break;
+                case '\t': json.append("\\t"); break;
+                default:
+                    if (c < 0x20)
+                    {
+                        json.append(String.format("\\u%04x", (int) c));
+                    }
+                    else
+                    {
+                        json.append(c);
+                    }
+            }
+        }
+
+        return json.append('"').toString();
+    }
+
+    private static String leArquivo(File arquivo) throws Exception
+    {
+        try (InputStream stream = new FileInputStream(arquivo); Scanner scanner = new Scanner(stream, "UTF-8"))
+        {
+            return scanner.useDelimiter("\\A").hasNext() ? scanner.next() : "";
+        }
+    }
+
+    /**
+     * Saída que acumula tudo o que o programa escreve. Os valores lógicos são escritos como no
+     * Portugol ("verdadeiro" e "falso").
+     */
+    private static final class SaidaCapturada implements Saida
+    {
+        private final StringBuilder texto = new StringBuilder();
+
+        @Override
+        public synchronized void limpar()
+        {
+            texto.setLength(0);
+        }
+
+        @Override
+        public synchronized void escrever(String valor)
+        {
+            texto.append(valor);
+        }
+
+        @Override
+        public synchronized void escrever(boolean valor)
+        {
+            texto.append(valor ? "verdadeiro" : "falso");
+        }
+
+        @Override
+        public synchronized void escrever(int valor)
+        {
+            texto.append(valor);
+        }
+
+        @Override
+        public synchronized void escrever(double valor)
+        {
+            texto.append(valor);
+        }
+
+        @Override
+        public synchronized void escrever(char valor)
+        {
+            texto.append(valor);
+        }
+
+        @Override
+        public synchronized String toString()
+        {
+            return texto.toString();
+        }
+    }
+}
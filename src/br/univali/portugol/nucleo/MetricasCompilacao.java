@@ -0,0 +1,264 @@
+package br.univali.portugol.nucleo;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Métricas de uma compilação: a duração e a memória alocada em cada etapa, o tamanho do código
+ * gerado e se o programa foi encontrado no cache de compilação.
+ * <p>
+ * As métricas são preenchidas pelo {@link Compilador} durante a compilação e entregues aos
+ * {@link ObservadorCompilacao} registrados quando ela termina. A memória alocada só é medida
+ * quando a JVM oferece esta informação (HotSpot e derivadas), caso contrário é sempre zero.
+ */
+public final class MetricasCompilacao
+{
+    private static final com.sun.management.ThreadMXBean MEDIDOR_ALOCACAO = criaMedidorAlocacao();
+
+    private final Map<EtapaCompilacao, Long> duracoes = new EnumMap<>(EtapaCompilacao.class);
+    private final Map<EtapaCompilacao, Long> bytesAlocados = new EnumMap<>(EtapaCompilacao.class);
+
+    private final boolean paraExecucao;
+    private final int tamanhoCodigoFonte;
+
+    private Boolean acertoCache = null;
+    private int tamanhoCodigoJava = 0;
+    private int tamanhoBytecode = 0;
+    private boolean sucesso = false;
+    private long duracaoTotal = 0;
+
+    private EtapaCompilacao etapaAtual = null;
+    private long inicioEtapa;
+    private long bytesInicioEtapa;
+
+    private final long inicio;
+
+    MetricasCompilacao(boolean paraExecucao, int tamanhoCodigoFonte)
+    {
+        this.paraExecucao = paraExecucao;
+        this.tamanhoCodigoFonte = tamanhoCodigoFonte;
+        this.inicio = System.nanoTime();
+    }
+
+    private static com.sun.management.ThreadMXBean criaMedidorAlocacao()
+    {
+        try
+        {
+            ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+            if (threadMXBean instanceof com.sun.management.ThreadMXBean)
+            {
+                com.sun.management.ThreadMXBean medidor = (com.sun.management.ThreadMXBean) threadMXBean;
+
+                if (medidor.isThreadAllocatedMemorySupported() && medidor.isThreadAllocatedMemoryEnabled())
+                {
+                    return medidor;
+                }
+            }
+        }
+        catch (LinkageError | UnsupportedOperationException excecao)
+        {
+            // a JVM não possui a extensão da HotSpot, a memória alocada não é medida
+        }
+
+        return null;
+    }
+
+    private static long bytesAlocadosPelaThread()
+    {
+        return (MEDIDOR_ALOCACAO != null) ? MEDIDOR_ALOCACAO.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+    }
+
+    /**
+     * Marca o início de uma etapa. Utilizado pelas classes que realizam a compilação.
+     *
+     * @param etapa a etapa que está iniciando
+     */
+    public void iniciarEtapa(EtapaCompilacao etapa)
+    {
+        etapaAtual = etapa;
+        bytesInicioEtapa = bytesAlocadosPelaThread();
+        inicioEtapa = System.nanoTime();
+    }
+
+    /**
+     * Marca o fim da etapa iniciada por último. Se a mesma etapa acontecer mais de uma vez, as
+     * medições são somadas.
+     */
+    public void finalizarEtapa()
+    {
+        long duracao = System.nanoTime() - inicioEtapa;
+        long bytes = bytesAlocadosPelaThread() - bytesInicioEtapa;
+
+        if (etapaAtual != null)
+        {
+            soma(duracoes, etapaAtual, duracao);
+            soma(bytesAlocados, etapaAtual, bytes);
+            etapaAtual = null;
+        }
+    }
+
+    private static void soma(Map<EtapaCompilacao, Long> medicoes, EtapaCompilacao etapa, long valor)
+    {
+        Long atual = medicoes.get(etapa);
+        medicoes.put(etapa, (atual != null) ? atual + valor : valor);
+    }
+
+    void setAcertoCache(boolean acertoCache)
+    {
+        this.acertoCache = acertoCache;
+    }
+
+    void setTamanhoCodigoJava(int tamanhoCodigoJava)
+    {
+        this.tamanhoCodigoJava = tamanhoCodigoJava;
+    }
+
+    void setTamanhoBytecode(Map<String, byte[]> bytecodes)
+    {
+        tamanhoBytecode = 0;
+
+        for (byte[] bytecode : bytecodes.values())
+        {
+            tamanhoBytecode += bytecode.length;
+        }
+    }
+
+    void finalizar(boolean sucesso)
+    {
+        finalizarEtapa(); // a etapa em andamento quando ocorre um erro de compilação
+
+        this.sucesso = sucesso;
+        this.duracaoTotal = System.nanoTime() - inicio;
+    }
+
+    /**
+     * @return <code>true</code> se o programa foi compilado para execução e <code>false</code>
+     * se foi compilado apenas para análise
+     */
+    public boolean isParaExecucao()
+    {
+        return paraExecucao;
+    }
+
+    /**
+     * @return <code>true</code> se a compilação terminou sem erros
+     */
+    public boolean isSucesso()
+    {
+        return sucesso;
+    }
+
+    /**
+     * @return <code>true</code> se o programa foi encontrado no cache de compilação,
+     * <code>false</code> se não foi e <code>null</code> se o cache não foi consultado (compilações
+     * para análise)
+     */
+    public Boolean getAcertoCache()
+    {
+        return acertoCache;
+    }
+
+    /**
+     * @return a duração total da compilação, em nanossegundos
+     */
+    public long getDuracaoTotal()
+    {
+        return duracaoTotal;
+    }
+
+    /**
+     * @param etapa a etapa desejada
+     * @return a duração da etapa em nanossegundos, ou zero se a etapa não aconteceu
+     */
+    public long getDuracao(EtapaCompilacao etapa)
+    {
+        Long duracao = duracoes.get(etapa);
+        return (duracao != null) ? duracao : 0;
+    }
+
+    /**
+     * @param etapa a etapa desejada
+     * @return os bytes alocados pela thread de compilação durante a etapa, ou zero se a etapa não
+     * aconteceu ou se a JVM não permite medir a memória alocada
+     */
+    public long getBytesAlocados(EtapaCompilacao etapa)
+    {
+        Long bytes = bytesAlocados.get(etapa);
+        return (bytes != null) ? bytes : 0;
+    }
+
+    /**
+     * @return o total de bytes alocados em todas as etapas
+     */
+    public long getBytesAlocados()
+    {
+        long total = 0;
+
+        for (Long bytes : bytesAlocados.values())
+        {
+            total += bytes;
+        }
+
+        return total;
+    }
+
+    /**
+     * @param etapa a etapa desejada
+     * @return <code>true</code> se a etapa aconteceu nesta compilação
+     */
+    public boolean contemEtapa(EtapaCompilacao etapa)
+    {
+        return duracoes.containsKey(etapa);
+    }
+
+    /**
+     * @return o tamanho do código fonte em Portugol, em caracteres
+     */
+    public int getTamanhoCodigoFonte()
+    {
+        return tamanhoCodigoFonte;
+    }
+
+    /**
+     * @return o tamanho do código Java gerado, em caracteres, ou zero se o programa não foi
+     * compilado a partir do código Java
+     */
+    public int getTamanhoCodigoJava()
+    {
+        return tamanhoCodigoJava;
+    }
+
+    /**
+     * @return o tamanho dos bytecodes gerados, em bytes, ou zero se os bytecodes não foram
+     * gerados nesta compilação
+     */
+    public int getTamanhoBytecode()
+    {
+        return tamanhoBytecode;
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder texto = new StringBuilder();
+
+        texto.append(String.format("compilação para %s em %d ms", (paraExecucao ? "execução" : "análise"), duracaoTotal / 1000000));
+
+        if (acertoCache != null)
+        {
+            texto.append(acertoCache ? " (cache)" : " (sem cache)");
+        }
+
+        texto.append(" - tamanho código: ").append(tamanhoCodigoFonte);
+
+        for (Map.Entry<EtapaCompilacao, Long> duracao : duracoes.entrySet())
+        {
+            texto.append(String.format(" - %s: %.1f ms", duracao.getKey().name().toLowerCase(), duracao.getValue() / 1000000.0));
+        }
+
+        return texto.toString();
+    }
+}
@@ -2,6 +2,7 @@
 package br.univali.portugol.nucleo;
 
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  *
@@ -10,7 +11,7 @@ import java.util.concurrent.ThreadFactory;
  */
 public final class NamedThreadFactory implements ThreadFactory
 {
-    private Integer count = -1;
+    private final AtomicInteger count = new AtomicInteger(-1);
     
     private final String nameFormat;
     private final Integer priority;
@@ -42,14 +43,14 @@ public final class NamedThreadFactory implements ThreadFactory
     @Override
     public Thread newThread(Runnable runnable)
     {
-        count++;
+        int number = count.incrementAndGet();
         String name;
                 
         Thread thread = new Thread(runnable);
 
         if (nameFormat.contains("%d"))
         {
-            name = String.format(nameFormat, count);
+            name = String.format(nameFormat, number);
         }
         else
         {
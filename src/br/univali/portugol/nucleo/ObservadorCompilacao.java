@@ -0,0 +1,17 @@
+package br.univali.portugol.nucleo;
+
+/**
+ * Interface para observar as compilações realizadas pelo Portugol.
+ *
+ * @see Portugol#adicionarObservadorCompilacao(ObservadorCompilacao)
+ */
+public interface ObservadorCompilacao
+{
+    /**
+     * Chamado ao final de cada compilação, com ou sem erros, na mesma thread que realizou a
+     * compilação. Implementações devem ser rápidas, pois atrasam a entrega do programa compilado.
+     *
+     * @param metricas as métricas da compilação que acabou de terminar
+     */
+    void compilacaoRealizada(MetricasCompilacao metricas);
+}
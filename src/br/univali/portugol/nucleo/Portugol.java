@@ -1,11 +1,17 @@
 
 package br.univali.portugol.nucleo;
 
+import br.univali.portugol.nucleo.analise.SessaoAnalise;
 import br.univali.portugol.nucleo.asa.NoDeclaracao;
 import br.univali.portugol.nucleo.bibliotecas.base.GerenciadorBibliotecas;
+import br.univali.portugol.nucleo.execucao.ModoExecucao;
+import br.univali.portugol.nucleo.execucao.PerfilCompilacao;
 import java.io.File;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -21,22 +27,144 @@ public final class Portugol
     
     private static final Logger LOGGER = Logger.getLogger(Portugol.class.getName());
     
-    private static final ExecutorService servico = Executors.newSingleThreadExecutor(); // usa uma thread só para enfileirar compilações consecutivas, isso evita ter que tratar compilações simultâneas
+    private static final int TEMPO_OCIOSO_THREADS_COMPILACAO = 60; // segundos
     
-    private static Programa compilar(String codigo, boolean paraExecucao, File classPath, String caminhoJavac) throws ErroCompilacao
+    private static final ThreadPoolExecutor servico = criarServicoCompilacao(Runtime.getRuntime().availableProcessors()); // as compilações são independentes entre si, então podem ser executadas simultaneamente
+    
+    private static volatile ModoExecucao modoExecucao = ModoExecucao.COMPILADO;
+    
+    private static volatile PerfilCompilacao perfilCompilacao = PerfilCompilacao.OTIMIZADO;
+    
+    private static final List<ObservadorCompilacao> observadoresCompilacao = new CopyOnWriteArrayList<>();
+    
+    private static ThreadPoolExecutor criarServicoCompilacao(int numeroThreads)
     {
-        Compilador compilador = new Compilador();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(numeroThreads, numeroThreads, 
+                TEMPO_OCIOSO_THREADS_COMPILACAO, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), 
+                new NamedThreadFactory("Portugol Núcleo (Thread de compilação %d)"));
         
-        long start = System.currentTimeMillis();
+        executor.allowCoreThreadTimeOut(true); // libera as threads quando não há compilações pendentes
         
-        Programa programa = compilador.compilar(codigo, paraExecucao, classPath, caminhoJavac);
+        return executor;
+    }
+    
+    /**
+     * Define quantas compilações para execução podem ser realizadas simultaneamente. Por padrão
+     * é utilizado o número de processadores disponíveis para a JVM.
+     * 
+     * @param numeroThreads o número máximo de compilações simultâneas, deve ser maior que zero
+     */
+    public static synchronized void setNumeroThreadsCompilacao(int numeroThreads)
+    {
+        if (numeroThreads <= 0)
+        {
+            throw new IllegalArgumentException("O número de threads de compilação deve ser maior que zero");
+        }
+        
+        if (numeroThreads > servico.getMaximumPoolSize())
+        {
+            servico.setMaximumPoolSize(numeroThreads);
+            servico.setCorePoolSize(numeroThreads);
+        }
+        else
+        {
+            servico.setCorePoolSize(numeroThreads);
+            servico.setMaximumPoolSize(numeroThreads);
+        }
+    }
+    
+    public static int getNumeroThreadsCompilacao()
+    {
+        return servico.getMaximumPoolSize();
+    }
+    
+    /**
+     * Define como os programas compilados para execução serão executados. Por padrão os programas
+     * são compilados ({@link ModoExecucao#COMPILADO}).
+     * 
+     * @param modoExecucao o modo de execução dos próximos programas compilados
+     */
+    public static void setModoExecucao(ModoExecucao modoExecucao)
+    {
+        if (modoExecucao == null)
+        {
+            throw new IllegalArgumentException("O modo de execução não pode ser nulo");
+        }
+        
+        Portugol.modoExecucao = modoExecucao;
+    }
+    
+    public static ModoExecucao getModoExecucao()
+    {
+        return modoExecucao;
+    }
+    
+    /**
+     * Define se os programas compilados para execução carregam o código de depuração. Por padrão
+     * os programas são compilados sem o código de depuração e a versão de depuração é compilada
+     * somente quando for necessária ({@link PerfilCompilacao#OTIMIZADO}).
+     * 
+     * @param perfilCompilacao o perfil de compilação dos próximos programas compilados
+     */
+    public static void setPerfilCompilacao(PerfilCompilacao perfilCompilacao)
+    {
+        if (perfilCompilacao == null)
+        {
+            throw new IllegalArgumentException("O perfil de compilação não pode ser nulo");
+        }
         
-        long tempoCompilacao = System.currentTimeMillis() - start;
+        Portugol.perfilCompilacao = perfilCompilacao;
+    }
+    
+    public static PerfilCompilacao getPerfilCompilacao()
+    {
+        return perfilCompilacao;
+    }
+    
+    /**
+     * Adiciona um observador que será notificado ao final de cada compilação, com as métricas
+     * de cada etapa da compilação. O observador é chamado na thread que realizou a compilação.
+     * 
+     * @param observador o observador a ser adicionado
+     */
+    public static void adicionarObservadorCompilacao(ObservadorCompilacao observador)
+    {
+        if (!observadoresCompilacao.contains(observador))
+        {
+            observadoresCompilacao.add(observador);
+        }
+    }
+    
+    public static void removerObservadorCompilacao(ObservadorCompilacao observador)
+    {
+        observadoresCompilacao.remove(observador);
+    }
+    
+    /**
+     * Executa uma tarefa nas threads de compilação. É utilizado pelos programas interpretados para
+     * se compilarem em segundo plano.
+     */
+    static void executarEmSegundoPlano(Runnable tarefa)
+    {
+        servico.submit(tarefa);
+    }
+    
+    /**
+     * Compila o programa com o modo de execução, o perfil de compilação e os observadores de
+     * compilação definidos nesta classe.
+     */
+    static Programa compilar(String codigo, boolean paraExecucao, File classPath, String caminhoJavac) throws ErroCompilacao
+    {
+        Compilador compilador = new Compilador(modoExecucao, perfilCompilacao);
         
-        String mensagem = String.format("compilação para %s em %d ms - tamanho código: %d", 
-                (paraExecucao ? "execução": "análise"), tempoCompilacao, codigo.length());
+        for (ObservadorCompilacao observador : observadoresCompilacao)
+        {
+            compilador.adicionarObservador(observador);
+        }
+        
+        Programa programa = compilador.compilar(codigo, paraExecucao, classPath, caminhoJavac);
         
-        LOGGER.log(Level.INFO, mensagem);
+        LOGGER.log(Level.INFO, compilador.getMetricas().toString());
         
         return programa;
     }
@@ -46,6 +174,20 @@ public final class Portugol
         return compilar(codigo, false, null, null);
     }
     
+    /**
+     * Inicia uma sessão de análise para um código que será editado continuamente. A cada edição
+     * informada à sessão somente as declarações afetadas são analisadas novamente, ao invés do
+     * programa inteiro como em {@link Portugol#compilarParaAnalise(java.lang.String) }.
+     * 
+     * @param codigo     o código fonte inicial.
+     * @return           a sessão, já com o resultado da análise do código inicial.
+     * @since 2.0
+     */
+    public static SessaoAnalise iniciarSessaoAnalise(String codigo)
+    {
+        return new SessaoAnalise(codigo);
+    }
+    
     public static void compilarParaExecucao(final String codigo, final ListenerCompilacao listener, 
                 final File classPath, final String caminhoJavac)
     {
@@ -5,20 +5,31 @@ import br.univali.portugol.nucleo.asa.ASAPrograma;
 import br.univali.portugol.nucleo.asa.TipoDado;
 import br.univali.portugol.nucleo.bibliotecas.base.Biblioteca;
 import br.univali.portugol.nucleo.bibliotecas.base.ErroExecucaoBiblioteca;
+import br.univali.portugol.nucleo.bibliotecas.base.GerenciadorBibliotecas;
+import br.univali.portugol.nucleo.execucao.CotasExecucao;
 import br.univali.portugol.nucleo.execucao.es.Entrada;
+import br.univali.portugol.nucleo.execucao.es.EntradaImediata;
 import br.univali.portugol.nucleo.execucao.es.EntradaSaidaPadrao;
 import br.univali.portugol.nucleo.execucao.ModoEncerramento;
 import br.univali.portugol.nucleo.execucao.ObservadorExecucao;
 import br.univali.portugol.nucleo.execucao.ResultadoExecucao;
 import br.univali.portugol.nucleo.execucao.TradutorErrosExecucao;
+import br.univali.portugol.nucleo.execucao.erros.ErroCotaExcedida;
+import br.univali.portugol.nucleo.execucao.erros.ErroEntradaEsgotada;
 import br.univali.portugol.nucleo.execucao.erros.ErroValorEntradaInvalido;
+import br.univali.portugol.nucleo.execucao.gerador.GeradorBytecode;
 import br.univali.portugol.nucleo.execucao.es.Armazenador;
 import br.univali.portugol.nucleo.execucao.es.InputMediator;
 import br.univali.portugol.nucleo.execucao.es.Saida;
+import br.univali.portugol.nucleo.execucao.es.SaidaBufferizada;
 import br.univali.portugol.nucleo.mensagens.ErroExecucao;
 import br.univali.portugol.nucleo.simbolos.Variavel;
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -29,6 +40,8 @@ import java.util.concurrent.Future;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -71,6 +84,7 @@ public abstract class Programa
     private File diretorioTrabalho = new File(".");
     private File arquivoOrigem = null;
 
+    private ExecutorService executor = POOL_DE_THREADS;
     private TarefaExecucao tarefaExecucao = null;
     private Future controleTarefaExecucao = null;
 
@@ -85,11 +99,52 @@ public abstract class Programa
     private volatile boolean lendo = false;
     private volatile boolean leituraIgnorada = false;
 
-    private final Object LOCK = new Object();
+    /*
+     * A thread do programa aguarda a continuação e a leitura através de uma Condition e não com
+     * wait(), pois uma thread virtual que aguarda dentro de um bloco synchronized prende a thread
+     * da plataforma que a executa (ver ExecutoresProgramas).
+     */
+    private final ReentrantLock LOCK = new ReentrantLock();
+    private final Condition CONTINUACAO = LOCK.newCondition();
+    private long continuacoes = 0; // incrementado a cada continuação, protegido pelo LOCK
     
     private int ultimaLinha = 0;
     private int ultimaColuna = 0;
     
+    private Programa dono = null; // programa em nome do qual este programa está executando, ver executarEmNomeDe()
+    private volatile Programa delegado = null; // programa que está executando em nome deste, ver executarEmNomeDe()
+    
+    private Closeable carregadorClasses = null; // carregador exclusivo deste programa, fechado ao descartar o programa
+    private volatile boolean descartado = false;
+
+    private static final int INTERVALO_VERIFICACAO_TEMPO_CPU = 100000; // passos entre duas leituras do tempo de CPU
+    private static final int INTERVALO_VERIFICACAO_INTERRUPCAO = 1024; // passos entre duas verificações da interrupção da thread
+
+    private CotasExecucao cotas = new CotasExecucao();
+    private int lotePassos = Integer.MAX_VALUE;
+    private long passosExecutados = 0; // passos dos lotes anteriores ao lote atual
+    private long escritasRealizadas = 0;
+    private long inicioTempoCPU = 0;
+    private long proximaVerificacaoTempoCPU = 0;
+    private int intervaloVerificacaoInterrupcao = INTERVALO_VERIFICACAO_INTERRUPCAO;
+
+    /**
+     * Passos que faltam para a próxima verificação das cotas e da interrupção. O código gerado
+     * decrementa este contador a cada iteração de laço e a cada chamada de função e chama
+     * {@link #verificaCotas()} quando ele fica negativo, assim a interrupção é verificada a cada
+     * {@value #INTERVALO_VERIFICACAO_INTERRUPCAO} passos e não a cada passo.
+     */
+    protected int contadorPassos = Integer.MAX_VALUE;
+
+    /**
+     * Indica se o programa pode parar em algum comando: quando executa passo a passo ou quando há
+     * algum ponto de parada ativo. O código gerado só chama {@link #realizarParada(int, int)}
+     * quando este atributo é verdadeiro, assim a execução sem o depurador custa apenas um desvio
+     * por comando. O atributo é volátil para que os pontos de parada ativados durante a execução
+     * tenham efeito imediato.
+     */
+    protected volatile boolean paradasArmadas = false;
+    
     public static final Object OBJETO_NULO = new Object(); // usando como valor inicial para as variáveis inspecionadas
 
     public static enum Estado
@@ -100,76 +155,109 @@ public abstract class Programa
         PARADO//esperando o usuário iniciar a execução
     }
 
-    private Estado estado = Estado.PARADO;
+    private volatile Estado estado = Estado.PARADO;
 
-    /*** Classe usada apenas internamente para armazenar os dados dos vetores que são inspecionados durante a execução */
+    /**
+     * Classe usada apenas internamente para acompanhar os vetores que são inspecionados durante a
+     * execução. Guarda apenas uma referência para o vetor do programa e a última posição alterada,
+     * os valores são lidos somente quando são consultados.
+     */
     protected class Vetor
     {
-        private final Object dados[];
+        private Object dados = null; // o vetor do programa (int[], double[], String[], Object[]...)
         private int ultimaColunaAlterada = -1;
         public final int tamanho;
         
         protected Vetor(int tamanho)
         {
-            dados = new Object[tamanho];
             this.tamanho = tamanho;
         }
 
-        public void setValor(Object valor, int coluna)
+        public void setDados(Object dados)
         {
-            if (coluna >= 0 && coluna < dados.length)
-            {
-                dados[coluna] = valor;
-                ultimaColunaAlterada = coluna;
-            }
+            this.dados = dados;
+        }
+
+        public void alterado(Object dados, int coluna)
+        {
+            this.dados = dados;
+            this.ultimaColunaAlterada = coluna;
         }
         
         public int getUltimaColunaAlterada()
         {
             return ultimaColunaAlterada;
         }
+
+        int getTamanho()
+        {
+            return (dados != null) ? Array.getLength(dados) : tamanho;
+        }
+
+        Object getValor(int coluna)
+        {
+            return (dados != null) ? Array.get(dados, coluna) : null;
+        }
     }
     
+    /**
+     * Equivalente ao {@link Vetor} para as matrizes inspecionadas.
+     */
     protected class Matriz
     {
-        private final Vetor dados[];
+        private Object dados = null; // a matriz do programa (int[][], double[][], Object[][]...)
         private int ultimaLinhaAlterada = -1;
+        private int ultimaColunaAlterada = -1;
         public final int linhas;
         public final int colunas;
         
         Matriz(int totalLinhas, int totalColunas)
         {
-            this.dados = new Vetor[totalLinhas];
             this.linhas = totalLinhas;
             this.colunas = totalColunas;
         }
-        
-        public void setValor(Object valor, int linha, int coluna)
+
+        public void setDados(Object dados)
         {
-            if (linha >= 0 && linha < linhas)
-            {
-                if (dados[linha] == null)
-                {
-                    dados[linha] = new Vetor(colunas);
-                }
-                dados[linha].setValor(valor, coluna);
-                ultimaLinhaAlterada = linha;
-            }
+            this.dados = dados;
+        }
+
+        public void alterado(Object dados, int linha, int coluna)
+        {
+            this.dados = dados;
+            this.ultimaLinhaAlterada = linha;
+            this.ultimaColunaAlterada = coluna;
         }
         
         public int getUltimaColunaAlterada()
         {
-            if (ultimaLinhaAlterada >= 0)
-            {
-                return dados[ultimaLinhaAlterada].getUltimaColunaAlterada();
-            }
-            return -1;
+            return ultimaColunaAlterada;
         }
         
         public int getUltimaLinhaAlterada()
         {
             return ultimaLinhaAlterada;
         }
+
+        int getLinhas()
+        {
+            return (dados != null) ? Array.getLength(dados) : linhas;
+        }
+
+        int getColunas()
+        {
+            if (dados != null)
+            {
+                return (Array.getLength(dados) > 0) ? Array.getLength(Array.get(dados, 0)) : 0;
+            }
+
+            return colunas;
+        }
+
+        Object getValor(int linha, int coluna)
+        {
+            return (dados != null) ? Array.get(Array.get(dados, linha), coluna) : null;
+        }
     }
     
     // mapa usado pelas subclasses (geradas no código Java) para guardar os valores das variáveis que estão sendo inspecionadas
@@ -326,9 +414,9 @@ public abstract class Programa
             Vetor vetor = vetoresInspecionados[idVetor];
             if (vetor != null)
             {
-                if (coluna >= 0 && coluna < vetor.dados.length)
+                if (coluna >= 0 && coluna < vetor.getTamanho())
                 {
-                    Object valor = vetor.dados[coluna];
+                    Object valor = vetor.getValor(coluna);
                     if (valor != null)
                     {
                         return valor;
@@ -358,7 +446,7 @@ public abstract class Programa
             Matriz matriz = matrizesInspecionadas[idMatriz];
             if (matriz != null)
             {
-                return matriz.linhas;
+                return matriz.getLinhas();
             }
         }
         return 0;
@@ -371,7 +459,7 @@ public abstract class Programa
             Matriz matriz = matrizesInspecionadas[idMatriz];
             if (matriz != null)
             {
-                return matriz.colunas;
+                return matriz.getColunas();
             }
         }
         return 0;
@@ -384,7 +472,7 @@ public abstract class Programa
             Vetor vetor = vetoresInspecionados[idVetor];
             if (vetor != null)
             {
-                return vetor.tamanho;
+                return vetor.getTamanho();
             }
         }
         return 0;
@@ -397,15 +485,11 @@ public abstract class Programa
             Matriz matriz = matrizesInspecionadas[idMatriz];
             if (matriz != null)
             {
-                if (linha >= 0 && linha < matriz.dados.length)
+                if (linha >= 0 && linha < matriz.getLinhas())
                 {
-                    if (coluna >= 0 && coluna < matriz.colunas)
+                    if (coluna >= 0 && coluna < matriz.getColunas())
                     {
-                        Vetor vetorLinha = matriz.dados[linha];
-                        if (vetorLinha != null)
-                        {
-                            return vetorLinha.dados[coluna];
-                        }
+                        return matriz.getValor(linha, coluna);
                     }
                     else
                     {
@@ -449,6 +533,7 @@ public abstract class Programa
     void setNumeroLinhas(int numeroLinhas)
     {
         pontosDeParadaAtivados = new boolean[numeroLinhas];
+        armaParadas();
     }
 
     /**
@@ -495,11 +580,27 @@ public abstract class Programa
      */
     public void executar(String[] parametros, Programa.Estado estado)
     {
+        if (descartado)
+        {
+            throw new IllegalStateException("O programa não pode ser executado pois já foi descartado");
+        }
+        
         if (!isExecutando())
         {
             this.estado = estado;
+            armaParadas();
+            controleTarefaExecucao = null;
             tarefaExecucao = new TarefaExecucao(parametros);
-            controleTarefaExecucao = POOL_DE_THREADS.submit(tarefaExecucao);
+
+            try
+            {
+                controleTarefaExecucao = executor.submit(tarefaExecucao);
+            }
+            catch (RuntimeException excecao) // por exemplo, o executor definido já foi encerrado
+            {
+                tarefaExecucao = null;
+                throw excecao;
+            }
         }
     }
 
@@ -507,7 +608,9 @@ public abstract class Programa
     
     public void continuar(Programa.Estado estado)
     {
-        synchronized (LOCK)
+        LOCK.lock();
+
+        try
         {
             if (isExecutando())
             {
@@ -517,13 +620,19 @@ public abstract class Programa
                     setLeituraIgnorada(true);
                 }
                 this.estado = estado;
-                LOCK.notifyAll();
+                armaParadas();
+                continuacoes++;
+                CONTINUACAO.signalAll();
             }
             else
             {
                 throw new IllegalStateException("O programa não pode ser continuado pois não foi iniciado");
             }
         }
+        finally
+        {
+            LOCK.unlock();
+        }
     }
 
     public void ativaPontosDeParada(Set<Integer> linhasComPontosDeParadaAtivados)
@@ -533,10 +642,69 @@ public abstract class Programa
         {
             pontosDeParadaAtivados[linha] = true;
         }
+        armaParadas();
+    }
+
+    /**
+     * Atualiza {@link #paradasArmadas} neste programa e nos programas que estão executando em seu
+     * nome. A escrita no atributo volátil também publica os pontos de parada alterados para a
+     * thread de execução.
+     */
+    private synchronized void armaParadas()
+    {
+        boolean armadas = (estado == Estado.STEP_OVER || estado == Estado.STEP_INTO);
+
+        for (int i = 0; i < pontosDeParadaAtivados.length && !armadas; i++)
+        {
+            armadas = pontosDeParadaAtivados[i];
+        }
+
+        for (Programa programa = this; programa != null; programa = programa.delegado)
+        {
+            programa.paradasArmadas = armadas;
+        }
     }
 
     protected abstract void executar(String[] parametros) throws ErroExecucao, InterruptedException;
 
+    /**
+     * Executa este programa na thread de execução de outro programa equivalente, como se fosse o
+     * próprio dono. A saída, a entrada, os pontos de parada e as variáveis inspecionadas são os do
+     * dono, assim o ambiente que controla a execução do dono não percebe a troca.
+     * <p>
+     * É utilizado pelo {@link ProgramaInterpretado} para executar a versão compilada do programa
+     * quando ela estiver disponível.
+     */
+    void executarEmNomeDe(Programa dono, String[] parametros) throws ErroExecucao, InterruptedException
+    {
+        this.dono = dono;
+        dono.delegado = this;
+        this.paradasArmadas = dono.paradasArmadas; // lido depois de registrar o delegado, assim nenhuma alteração é perdida
+        this.saida = dono.saida;
+        this.entrada = dono.entrada;
+        this.variaveisInspecionadas = dono.variaveisInspecionadas;
+        this.vetoresInspecionados = dono.vetoresInspecionados;
+        this.matrizesInspecionadas = dono.matrizesInspecionadas;
+
+        // continua a contagem das cotas de onde o dono parou
+        this.intervaloVerificacaoInterrupcao = dono.intervaloVerificacaoInterrupcao;
+        iniciaCotas(dono.cotas, dono.getPassosExecutados(), dono.escritasRealizadas, dono.inicioTempoCPU);
+
+        try
+        {
+            inicializar();
+            executar(parametros);
+        }
+        finally
+        {
+            // devolve a contagem ao dono, assim getPassosExecutados() do dono reflete esta execução
+            dono.passosExecutados = getPassosExecutados();
+            dono.lotePassos = dono.contadorPassos;
+            dono.escritasRealizadas = escritasRealizadas;
+            dono.delegado = null;
+        }
+    }
+
     /**
      * Implementa uma tarefa para disparar a execução do programa com os
      * parâmetros e a estratégia selecionada. Futuramente podemos refatorar para
@@ -566,17 +734,21 @@ public abstract class Programa
             try
             {
                 notificarInicioExecucao();
+                iniciaCotas(cotas, 0, 0, tempoCPU());
                 inicializaBibliotecasIncluidas();
                 inicializar(); // reinicializa todas as variaveis antes de executar
                 executar(parametros);
             }
             catch (ErroExecucao erroExecucao)
             {
-                erroExecucao.setLinha(ultimaLinha);
-                erroExecucao.setColuna(ultimaColuna);
+                localizaErro(erroExecucao, erroExecucao);
                 
-                resultadoExecucao.setModoEncerramento(ModoEncerramento.ERRO);
                 resultadoExecucao.setErro(erroExecucao);
+                
+                if (erroExecucao instanceof ErroCotaExcedida)
+                {
+                    resultadoExecucao.setModoEncerramento(ModoEncerramento.COTA_EXCEDIDA);
+                }
             }
             catch (InterruptedException excecao)
             {
@@ -592,8 +764,11 @@ public abstract class Programa
                 }
                 else
                 {
+                    ErroExecucao erroExecucao = tradutorErros.traduzir(excecao);
+                    localizaErro(erroExecucao, excecao);
+                    
                     resultadoExecucao.setModoEncerramento(ModoEncerramento.ERRO);
-                    resultadoExecucao.setErro(tradutorErros.traduzir(excecao));
+                    resultadoExecucao.setErro(erroExecucao);
                 }
             }
             finally
@@ -610,14 +785,53 @@ public abstract class Programa
 
             resultadoExecucao.setTempoExecucao(System.currentTimeMillis() - horaInicialExecucao);
 
+            try
+            {
+                descarregaSaida(); // os observadores são notificados depois que todo o texto foi escrito
+            }
+            catch (InterruptedException ex)
+            {
+                // a execução foi interrompida, o texto que não foi entregue é descartado
+            }
+
             notificarEncerramentoExecucao(resultadoExecucao);
             
-            observadores.clear(); // remove todos os listeners quando termina de executar
+            if (descartado)
+            {
+                liberarRecursos(); // o programa foi descartado durante a execução
+            }
+        }
+
+        /**
+         * Define a linha e a coluna do erro. Sem as paradas armadas a última posição registrada
+         * pode estar desatualizada, então a linha é obtida do rastro da pilha quando o erro ocorre
+         * em uma classe gerada pelo {@link GeradorBytecode}. Neste caso a coluna só é conhecida
+         * se a última parada ocorreu na mesma linha.
+         */
+        private void localizaErro(ErroExecucao erroExecucao, Throwable excecao)
+        {
+            int linha = ultimaLinha;
+            int coluna = ultimaColuna;
+
+            for (StackTraceElement quadro : excecao.getStackTrace())
+            {
+                if (GeradorBytecode.ARQUIVO_FONTE.equals(quadro.getFileName()) && quadro.getLineNumber() > 0)
+                {
+                    coluna = (quadro.getLineNumber() == linha) ? coluna : 0;
+                    linha = quadro.getLineNumber();
+                    break;
+                }
+            }
+
+            erroExecucao.setLinha(linha);
+            erroExecucao.setColuna(coluna);
         }
 
         public void continuar(Programa.Estado estado)
         {
-            synchronized (LOCK)
+            LOCK.lock();
+
+            try
             {
                 if (isLendo())
                 {
@@ -625,7 +839,13 @@ public abstract class Programa
                 }
 
                 Programa.this.estado = estado;
-                LOCK.notifyAll();
+                armaParadas();
+                continuacoes++;
+                CONTINUACAO.signalAll();
+            }
+            finally
+            {
+                LOCK.unlock();
             }
         }
     }
@@ -638,12 +858,302 @@ public abstract class Programa
      */
     public void interromper()
     {
+        Future controle = controleTarefaExecucao;
+
+        if (isExecutando() && controle != null)
+        {
+            controle.cancel(true);
+        }
+    }
+
+    /**
+     * Define o executor que fornece as threads das próximas execuções deste programa. Por padrão,
+     * cada execução ocupa uma thread da plataforma de um pool compartilhado, inclusive enquanto o
+     * programa aguarda uma leitura ou a continuação. Servidores que mantêm muitos programas
+     * bloqueados ao mesmo tempo podem usar {@link br.univali.portugol.nucleo.execucao.ExecutoresProgramas#criarExecutorThreadsVirtuais()}.
+     * <p>
+     * O executor não é encerrado pelo programa.
+     *
+     * @param executor o executor, <code>null</code> volta a usar o pool de threads padrão
+     *
+     * @since 2.0
+     */
+    public void setExecutor(ExecutorService executor)
+    {
+        this.executor = (executor != null) ? executor : POOL_DE_THREADS;
+    }
+    
+    /**
+     * Define os limites de recursos das próximas execuções deste programa. Os limites passam a
+     * valer na próxima chamada a {@link #executar(String[], Estado)}.
+     *
+     * @param cotas as cotas de execução, <code>null</code> remove todos os limites
+     *
+     * @since 2.0
+     */
+    public void setCotasExecucao(CotasExecucao cotas)
+    {
+        this.cotas = (cotas != null) ? cotas : new CotasExecucao();
+    }
+
+    public CotasExecucao getCotasExecucao()
+    {
+        return cotas;
+    }
+
+    /**
+     * @return o número de passos (iterações de laço e chamadas de função) executados até agora
+     * na execução atual ou na última execução
+     */
+    public long getPassosExecutados()
+    {
+        return passosExecutados + (lotePassos - contadorPassos);
+    }
+
+    /**
+     * Define a cada quantos passos o programa verifica se a sua thread foi interrompida. O valor 1
+     * verifica a interrupção a cada passo, como o código gerado fazia antes da verificação
+     * amortizada. Utilizado para medir o custo da verificação.
+     */
+    void setIntervaloVerificacaoInterrupcao(int intervaloVerificacaoInterrupcao)
+    {
+        if (intervaloVerificacaoInterrupcao < 1)
+        {
+            throw new IllegalArgumentException("O intervalo deve ser de pelo menos um passo");
+        }
+
+        this.intervaloVerificacaoInterrupcao = intervaloVerificacaoInterrupcao;
+    }
+
+    private void iniciaCotas(CotasExecucao cotas, long passosExecutados, long escritasRealizadas, long inicioTempoCPU)
+    {
+        this.cotas = cotas;
+        this.passosExecutados = passosExecutados;
+        this.escritasRealizadas = escritasRealizadas;
+        this.inicioTempoCPU = inicioTempoCPU;
+        this.proximaVerificacaoTempoCPU = passosExecutados + INTERVALO_VERIFICACAO_TEMPO_CPU;
+
+        iniciaLotePassos();
+    }
+
+    private void iniciaLotePassos()
+    {
+        // o lote é pequeno para que a interrupção seja percebida rapidamente e o tempo de CPU,
+        // que é caro de obter, é verificado somente a cada INTERVALO_VERIFICACAO_TEMPO_CPU passos
+        long lote = intervaloVerificacaoInterrupcao - 1;
+
+        if (cotas.getMaximoPassos() > 0)
+        {
+            lote = Math.min(lote, Math.max(cotas.getMaximoPassos() - passosExecutados, 0));
+        }
+
+        lotePassos = (int) lote;
+        contadorPassos = lotePassos;
+    }
+
+    /**
+     * Chamado pelo código gerado quando o {@link #contadorPassos} fica negativo, isto é, quando o
+     * lote de passos atual termina. Verifica se a thread do programa foi interrompida, verifica
+     * as cotas de passos e de tempo de CPU e inicia um novo lote.
+     *
+     * @throws ErroCotaExcedida se uma das cotas foi ultrapassada
+     * @throws InterruptedException se a thread do programa foi interrompida
+     */
+    protected final void verificaCotas() throws ErroCotaExcedida, InterruptedException
+    {
+        passosExecutados = getPassosExecutados();
+
+        if (Thread.currentThread().isInterrupted())
+        {
+            lotePassos = contadorPassos; // para que getPassosExecutados() não conte o lote novamente
+            throw new InterruptedException();
+        }
+
+        if (cotas.getMaximoPassos() > 0 && passosExecutados > cotas.getMaximoPassos())
+        {
+            lotePassos = contadorPassos; // para que getPassosExecutados() não conte o lote novamente
+            throw new ErroCotaExcedida(ErroCotaExcedida.Cota.PASSOS, cotas.getMaximoPassos());
+        }
+
+        if (cotas.getMaximoTempoCPU() > 0 && passosExecutados >= proximaVerificacaoTempoCPU)
+        {
+            proximaVerificacaoTempoCPU = passosExecutados + INTERVALO_VERIFICACAO_TEMPO_CPU;
+
+            if ((tempoCPU() - inicioTempoCPU) / 1000000 > cotas.getMaximoTempoCPU())
+            {
+                lotePassos = contadorPassos;
+                throw new ErroCotaExcedida(ErroCotaExcedida.Cota.TEMPO_CPU, cotas.getMaximoTempoCPU());
+            }
+        }
+
+        iniciaLotePassos();
+    }
+
+    /**
+     * @return o tempo de CPU da thread atual em nanossegundos. Se a JVM não permitir medir o
+     * tempo de CPU, é utilizado o tempo de relógio.
+     */
+    private static long tempoCPU()
+    {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+        if (threadMXBean.isCurrentThreadCpuTimeSupported())
+        {
+            long tempo = threadMXBean.getCurrentThreadCpuTime();
+
+            if (tempo >= 0) // as threads virtuais não têm o tempo de CPU medido
+            {
+                return tempo;
+            }
+        }
+
+        return System.nanoTime();
+    }
+
+    /**
+     * Descarta este programa, liberando os recursos mantidos por ele: o carregador de classes
+     * exclusivo do programa, as bibliotecas reservadas, os observadores, a ASA e os valores
+     * inspecionados. Se o programa estiver executando, a execução é interrompida e os recursos
+     * são liberados quando ela terminar.
+     * <p>
+     * Depois de descartado, o programa não pode mais ser executado. Servidores que compilam
+     * muitos programas devem descartar cada programa quando não precisarem mais dele, caso
+     * contrário as classes geradas permanecem em memória.
+     *
+     * @since 2.0
+     */
+    public void descartar()
+    {
+        descartado = true;
+        
         if (isExecutando())
         {
-            controleTarefaExecucao.cancel(true);
+            interromper();
+        }
+        else
+        {
+            liberarRecursos();
         }
     }
+
+    /**
+     * Verifica se este programa já foi descartado.
+     *
+     * @return <code>true</code> se o programa já foi descartado
+     * @since 2.0
+     */
+    public boolean isDescartado()
+    {
+        return descartado;
+    }
     
+    /**
+     * Libera os recursos deste programa. Subclasses que mantém outros recursos devem
+     * sobrescrever este método e chamar a implementação da superclasse.
+     */
+    protected void liberarRecursos()
+    {
+        observadores.clear();
+        GerenciadorBibliotecas.getInstance().liberarBibliotecasReservadas(this);
+        
+        tarefaExecucao = null;
+        controleTarefaExecucao = null;
+        dono = null;
+        
+        arvoreSintaticaAbstrataPrograma = null;
+        resultadoAnalise = null;
+        funcoes = new ArrayList<>();
+        
+        variaveisInspecionadas = new Object[0];
+        vetoresInspecionados = new Vetor[0];
+        matrizesInspecionadas = new Matriz[0];
+        
+        stringBuilder.setLength(0);
+        stringBuilder.trimToSize();
+        
+        if (carregadorClasses != null)
+        {
+            try
+            {
+                carregadorClasses.close();
+            }
+            catch (IOException excecao)
+            {
+                Logger.getLogger(Programa.class.getName()).log(Level.WARNING, "Não foi possível fechar o carregador de classes do programa", excecao);
+            }
+            
+            carregadorClasses = null;
+        }
+    }
+
+    /**
+     * Define o carregador de classes exclusivo deste programa, que será fechado quando o
+     * programa for descartado. Carregadores compartilhados através do cache de compilação
+     * não devem ser definidos aqui.
+     */
+    void setCarregadorClasses(Closeable carregadorClasses)
+    {
+        this.carregadorClasses = carregadorClasses;
+    }
+    
+    /**
+     * Verifica se a execução atual precisa do código de depuração, ou seja, se algum símbolo está
+     * sendo inspecionado. As paradas são geradas em todas as versões do programa e controladas
+     * por {@link #paradasArmadas}. Quando o programa executa em nome de outro, a decisão é do dono.
+     */
+    boolean depuracaoSolicitada()
+    {
+        if (dono != null)
+        {
+            return dono.depuracaoSolicitada();
+        }
+
+        return contemSimboloInspecionado(variaveisInspecionadas) || contemSimboloInspecionado(vetoresInspecionados) || contemSimboloInspecionado(matrizesInspecionadas);
+    }
+
+    /**
+     * Verifica se a execução atual pode parar em alguma das linhas: se ela é passo a passo ou se
+     * há um ponto de parada ativo em uma das linhas. Quando o programa executa em nome de outro, a
+     * decisão é do dono.
+     */
+    boolean podePararEm(Set<Integer> linhas)
+    {
+        if (dono != null)
+        {
+            return dono.podePararEm(linhas);
+        }
+
+        if (estado == Estado.STEP_OVER || estado == Estado.STEP_INTO)
+        {
+            return true;
+        }
+
+        boolean[] pontosDeParada = pontosDeParadaAtivados;
+
+        for (Integer linha : linhas)
+        {
+            if (linha >= 0 && linha < pontosDeParada.length && pontosDeParada[linha])
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean contemSimboloInspecionado(Object[] simbolos)
+    {
+        for (Object simbolo : simbolos)
+        {
+            if (simbolo != null)
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     private boolean podeParar(int linha)
     {
         // pode parar quando está no modo STEP_OVER ou quando está no modo BREAK_POINT e tem um ponto de parada ativo na linha em execução
@@ -661,18 +1171,40 @@ public abstract class Programa
         return false;
     }
     
+    /**
+     * Registra a posição do comando em execução sem parar. É usado pelo {@link ProgramaInterpretado},
+     * que localiza os erros pela última posição registrada, e pelo código gerado antes de cada
+     * comando <code>leia</code>.
+     */
+    protected void registrarPosicao(int linha, int coluna)
+    {
+        if (dono != null)
+        {
+            dono.registrarPosicao(linha, coluna);
+            return;
+        }
+
+        ultimaLinha = linha;
+        ultimaColuna = coluna;
+    }
+
     protected void realizarParada(int linha, int coluna) throws ErroExecucao, InterruptedException
     {
+        if (dono != null)
+        {
+            dono.realizarParada(linha, coluna);
+            return;
+        }
+        
         ultimaLinha = linha;
         ultimaColuna = coluna;
         
         if (podeParar(linha))
         {
+            long continuacao = getContinuacoes(); // lido antes de notificar, assim uma continuação imediata não é perdida
+            descarregaSaida();
             disparaDestacar(linha);
-            synchronized (LOCK)
-            {
-                LOCK.wait();
-            }
+            aguardaContinuacao(continuacao, null);
 //            else if ( this.estado == Estado.STEP_INTO)
 //            {
 //                disparaDestacar(trechoCodigoFonte);
@@ -684,6 +1216,53 @@ public abstract class Programa
         }
     }
     
+    private long getContinuacoes()
+    {
+        LOCK.lock();
+
+        try
+        {
+            return continuacoes;
+        }
+        finally
+        {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Aguarda até que o programa seja continuado depois da continuação de número informado ou,
+     * se houver um mediador, até que ele receba o valor lido ou tenha a leitura cancelada.
+     */
+    private void aguardaContinuacao(long continuacao, InputHandler mediador) throws InterruptedException
+    {
+        LOCK.lock();
+
+        try
+        {
+            while (continuacoes == continuacao && (mediador == null || (mediador.valor == null && !mediador.cancelado)))
+            {
+                CONTINUACAO.await();
+            }
+        }
+        finally
+        {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Entrega o texto acumulado quando a saída é uma {@link SaidaBufferizada}, antes de o
+     * programa aguardar o usuário ou encerrar.
+     */
+    private void descarregaSaida() throws InterruptedException
+    {
+        if (saida instanceof SaidaBufferizada)
+        {
+            ((SaidaBufferizada) saida).descarregar();
+        }
+    }
+
     private  void disparaDestacar(int linha)
     {
         if (linha >= 0)
@@ -843,7 +1422,10 @@ public abstract class Programa
      */
     public boolean isExecutando()
     {
-        return (tarefaExecucao != null && controleTarefaExecucao != null && !controleTarefaExecucao.isDone());
+        // o programa já pode estar executando antes de o controle da tarefa ser atribuído, por exemplo ao parar na primeira linha
+        Future controle = controleTarefaExecucao;
+
+        return (tarefaExecucao != null && (controle == null || !controle.isDone()));
     }
 
     /**
@@ -884,10 +1466,15 @@ public abstract class Programa
      */
     private void notificarEncerramentoExecucao(ResultadoExecucao resultadoExecucao)
     {
+        // remove todos os listeners quando termina de executar, antes de liberar o programa para
+        // uma nova execução, senão os observadores da próxima execução também seriam removidos
+        List<ObservadorExecucao> observadoresExecucao = new ArrayList<>(observadores);
+        observadores.clear();
+        
         tarefaExecucao = null;
         controleTarefaExecucao = null;
 
-        for (ObservadorExecucao observador : observadores)
+        for (ObservadorExecucao observador : observadoresExecucao)
         {
             observador.execucaoEncerrada(this, resultadoExecucao);
         }
@@ -965,74 +1552,115 @@ public abstract class Programa
         }
     }
 
-    protected void escreva(Object... listaParametrosPassados) throws InterruptedException
+    /**
+     * Escreve os valores na saída. Usado pelo interpretador e pelo código gerado quando o tipo
+     * de um valor não é conhecido na compilação. Nos demais casos o código gerado escreve cada
+     * valor com uma das versões tipadas deste método, sem criar o vetor de parâmetros e sem
+     * converter os valores primitivos em objetos.
+     */
+    protected void escreva(Object... listaParametrosPassados) throws ErroExecucao, InterruptedException
     {
-        if (saida == null)
-        {
-            throw new IllegalStateException("A saída do Programa está nula!");
-        }
-
         for (Object valor : listaParametrosPassados)
         {
-
             if (valor instanceof String)
             {
-                if (valor.equals("${show developers}"))
-                {
-                    valor = "\n\nDesenvolvedores:\n\nFillipi Domingos Pelz\nLuiz Fernando Noschang\n\n";
-                }
-
-                saida.escrever((String) valor);
+                escreva((String) valor);
             }
             else if (valor instanceof Boolean)
             {
-                saida.escrever((Boolean) valor);
+                escreva(((Boolean) valor).booleanValue());
             }
             else if (valor instanceof Character)
             {
-                saida.escrever((Character) valor);
+                escreva(((Character) valor).charValue());
             }
             else if (valor instanceof Double)
             {
-                saida.escrever((Double) valor);
+                escreva(((Double) valor).doubleValue());
             }
             else if (valor instanceof Integer)
             {
-                saida.escrever((Integer) valor);
+                escreva(((Integer) valor).intValue());
+            }
+            else
+            {
+                contaEscrita();
             }
         }
     }
 
-    private void setLendo(boolean lendo)
+    protected void escreva(String valor) throws ErroExecucao, InterruptedException
     {
-        synchronized (LOCK)
+        contaEscrita();
+
+        if (valor == null) // elemento de um vetor ou matriz de cadeias que não foi inicializado
         {
-            this.lendo = lendo;
+            return;
         }
+
+        if (valor.equals("${show developers}"))
+        {
+            valor = "\n\nDesenvolvedores:\n\nFillipi Domingos Pelz\nLuiz Fernando Noschang\n\n";
+        }
+
+        saida.escrever(valor);
     }
 
-    private boolean isLendo()
+    protected void escreva(boolean valor) throws ErroExecucao, InterruptedException
     {
-        synchronized (LOCK)
+        contaEscrita();
+        saida.escrever(valor);
+    }
+
+    protected void escreva(char valor) throws ErroExecucao, InterruptedException
+    {
+        contaEscrita();
+        saida.escrever(valor);
+    }
+
+    protected void escreva(double valor) throws ErroExecucao, InterruptedException
+    {
+        contaEscrita();
+        saida.escrever(valor);
+    }
+
+    protected void escreva(int valor) throws ErroExecucao, InterruptedException
+    {
+        contaEscrita();
+        saida.escrever(valor);
+    }
+
+    private void contaEscrita() throws ErroCotaExcedida
+    {
+        if (saida == null)
         {
-            return lendo;
+            throw new IllegalStateException("A saída do Programa está nula!");
+        }
+
+        if (cotas.getMaximoEscritas() > 0 && ++escritasRealizadas > cotas.getMaximoEscritas())
+        {
+            throw new ErroCotaExcedida(ErroCotaExcedida.Cota.ESCRITAS, cotas.getMaximoEscritas());
         }
     }
 
+    private void setLendo(boolean lendo)
+    {
+        this.lendo = lendo;
+    }
+
+    private boolean isLendo()
+    {
+        return lendo;
+    }
+
     private void setLeituraIgnorada(boolean leituraIgnorada)
     {
-        synchronized (LOCK)
-        {
-            this.leituraIgnorada = leituraIgnorada;
-        }
+        this.leituraIgnorada = leituraIgnorada;
     }
 
     private boolean isLeituraIgnorada()
     {
-        synchronized (LOCK)
-        {
-            return leituraIgnorada;
-        }
+        return leituraIgnorada;
     }
 
     protected double leiaReal() throws ErroExecucao, InterruptedException
@@ -1062,13 +1690,25 @@ public abstract class Programa
 
     private Object leia(TipoDado tipoDado) throws ErroExecucao, InterruptedException
     {
+        if (dono != null)
+        {
+            return dono.leia(tipoDado);
+        }
+        
         assert (entrada != null);
 
+        if (entrada instanceof EntradaImediata)
+        {
+            return leiaImediatamente((EntradaImediata) entrada, tipoDado);
+        }
+
         setLendo(true);
 
         try
         {
             InputHandler mediador = new InputHandler();
+            long continuacao = getContinuacoes();
+            descarregaSaida(); // o usuário precisa ver o que foi escrito antes de digitar o valor
             entrada.solicitaEntrada(tipoDado, mediador);
 
             // Se for verdadeiro, significa que a entrada é assíncrona,
@@ -1076,11 +1716,8 @@ public abstract class Programa
             // a entrada é síncrona, podemos seguir em frente e pegar o valor 
             if (mediador.getValor() == null && !mediador.isCancelado())
             {
-                synchronized (LOCK)
-                {
-                    notificarExecucaoPausada();
-                    LOCK.wait();
-                }
+                notificarExecucaoPausada();
+                aguardaContinuacao(continuacao, mediador);
             }
 
             if (!mediador.isCancelado())
@@ -1091,12 +1728,12 @@ public abstract class Programa
                 }
                 else
                 {
-                    throw new ErroValorEntradaInvalido(tipoDado, 0, 0);
+                    throw new ErroValorEntradaInvalido(tipoDado, ultimaLinha, ultimaColuna);
                 }
             }
             else
             {
-                throw new ErroValorEntradaInvalido(tipoDado, 0, 0);
+                throw new ErroValorEntradaInvalido(tipoDado, ultimaLinha, ultimaColuna);
             }
         }
         finally
@@ -1107,46 +1744,73 @@ public abstract class Programa
 
     }
 
+    /**
+     * Lê o valor na própria thread do programa, sem o mediador, sem aguardar a leitura e sem
+     * notificar os observadores, que não têm o que fazer quando o valor já é conhecido.
+     */
+    private Object leiaImediatamente(EntradaImediata entradaImediata, TipoDado tipoDado) throws ErroExecucao, InterruptedException
+    {
+        if (!entradaImediata.possuiValor())
+        {
+            throw new ErroEntradaEsgotada(tipoDado);
+        }
+
+        Object valor = entradaImediata.obterValor(tipoDado);
+
+        if (valor == null)
+        {
+            throw new ErroValorEntradaInvalido(tipoDado, ultimaLinha, ultimaColuna);
+        }
+
+        return valor;
+    }
+
     private class InputHandler implements InputMediator, Armazenador
     {
-        private Object valor;
-        private boolean cancelado = false;
+        private volatile Object valor;
+        private volatile boolean cancelado = false;
 
         @Override
         public Object getValor()
         {
-            synchronized (LOCK)
-            {
-                return valor;
-            }
+            return valor;
         }
 
         @Override
         public void setValor(Object valor)
         {
-            synchronized (LOCK)
+            LOCK.lock();
+
+            try
             {
                 this.valor = valor;
-                LOCK.notifyAll();
+                CONTINUACAO.signalAll();
+            }
+            finally
+            {
+                LOCK.unlock();
             }
         }
 
         @Override
         public void cancelarLeitura()
         {
-            synchronized (LOCK)
+            LOCK.lock();
+
+            try
             {
                 this.cancelado = true;
-                LOCK.notifyAll();
+                CONTINUACAO.signalAll();
+            }
+            finally
+            {
+                LOCK.unlock();
             }
         }
 
         public boolean isCancelado()
         {
-            synchronized (LOCK)
-            {
-                return cancelado;
-            }
+            return cancelado;
         }
     }
 
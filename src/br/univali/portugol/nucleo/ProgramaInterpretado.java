@@ -0,0 +1,1302 @@
+package br.univali.portugol.nucleo;
+
+import br.univali.portugol.nucleo.asa.*;
+import br.univali.portugol.nucleo.execucao.gerador.helpers.Utils;
+import br.univali.portugol.nucleo.mensagens.ErroExecucao;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Programa que é executado diretamente a partir da ASA, sem gerar e compilar o código Java.
+ * <p>
+ * A execução pode começar logo após a análise do código, o que é vantajoso para programas
+ * pequenos que executam em poucos milissegundos. Assim como nas classes geradas pelo
+ * {@link br.univali.portugol.nucleo.execucao.gerador.GeradorCodigoJava}, a entrada e saída, os
+ * pontos de parada e a inspeção de símbolos são feitos através dos métodos do {@link Programa}.
+ * <p>
+ * Quando uma compilação é informada, ela é iniciada em segundo plano quando algum laço se torna
+ * frequente ou quando a execução termina. Assim que a compilação terminar, as execuções seguintes
+ * deste programa utilizam a versão compilada (ver {@link Programa#executarEmNomeDe}).
+ */
+final class ProgramaInterpretado extends Programa
+{
+    private static final Logger LOGGER = Logger.getLogger(ProgramaInterpretado.class.getName());
+
+    private static final int LIMITE_ITERACOES_PARA_COMPILACAO = 10000; // a partir deste número de iterações de laços o programa é compilado em segundo plano
+
+    private static final Object PARE = new Object();
+    private static final Object RETORNE = new Object();
+
+    private final ASAPrograma asa;
+    private final NoDeclaracaoFuncao funcaoInicial;
+    private final Map<NoDeclaracao, Celula> variaveisGlobais = new IdentityHashMap<>();
+
+    private final Callable<Programa> compilacao;
+    private final AtomicBoolean compilacaoSolicitada = new AtomicBoolean(false);
+    private volatile Programa programaCompilado = null;
+
+    private Programa programaEmExecucao = null;
+    private int iteracoes = 0;
+
+    /**
+     * @param asa a ASA do programa, já analisada e sem erros
+     * @param compilacao a compilação que produz a versão compilada deste programa ou
+     * <code>null</code> se o programa deve ser sempre interpretado
+     */
+    ProgramaInterpretado(ASAPrograma asa, Callable<Programa> compilacao)
+    {
+        this.asa = asa;
+        this.funcaoInicial = getFuncaoInicial(asa);
+        this.compilacao = compilacao;
+
+        variaveisInspecionadas = new Object[asa.getTotalVariaveisDeclaradas()];
+        vetoresInspecionados = new Vetor[asa.getTotalVetoresDeclarados()];
+        matrizesInspecionadas = new Matriz[asa.getTotalMatrizesDeclaradas()];
+    }
+
+    /**
+     * Verifica se o programa pode ser interpretado. Os programas que incluem bibliotecas precisam
+     * ser compilados.
+     */
+    static boolean podeInterpretar(ASAPrograma asa)
+    {
+        List<NoInclusaoBiblioteca> bibliotecas = asa.getListaInclusoesBibliotecas();
+
+        return (bibliotecas == null || bibliotecas.isEmpty()) && getFuncaoInicial(asa) != null;
+    }
+
+    private static NoDeclaracaoFuncao getFuncaoInicial(ASAPrograma asa)
+    {
+        for (NoDeclaracao declaracao : asa.getListaDeclaracoesGlobais())
+        {
+            if (declaracao instanceof NoDeclaracaoFuncao && declaracao.getNome().equals("inicio"))
+            {
+                NoDeclaracaoFuncao funcao = (NoDeclaracaoFuncao) declaracao;
+                return funcao.getParametros().isEmpty() ? funcao : null;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @return <code>true</code> se a versão compilada deste programa já está disponível e será
+     * utilizada nas próximas execuções
+     */
+    boolean possuiVersaoCompilada()
+    {
+        return programaCompilado != null;
+    }
+
+    @Override
+    protected void inicializar() throws ErroExecucao, InterruptedException
+    {
+        programaEmExecucao = programaCompilado; // a versão executada é escolhida no início de cada execução
+
+        if (programaEmExecucao == null)
+        {
+            Interpretador interpretador = new Interpretador(variaveisGlobais);
+            variaveisGlobais.clear();
+
+            try
+            {
+                for (NoDeclaracao declaracao : asa.getListaDeclaracoesGlobais())
+                {
+                    if (declaracao instanceof NoDeclaracaoInicializavel)
+                    {
+                        interpretador.declara((NoDeclaracaoInicializavel) declaracao);
+                    }
+                }
+            }
+            catch (ExcecaoVisitaASA excecao)
+            {
+                throw trataExcecao(excecao);
+            }
+        }
+    }
+
+    @Override
+    protected void executar(String[] parametros) throws ErroExecucao, InterruptedException
+    {
+        if (programaEmExecucao != null)
+        {
+            programaEmExecucao.executarEmNomeDe(this, parametros);
+            return;
+        }
+
+        iteracoes = 0;
+
+        try
+        {
+            new Interpretador(new IdentityHashMap<NoDeclaracao, Celula>()).executaFuncao(funcaoInicial);
+        }
+        catch (ExcecaoVisitaASA excecao)
+        {
+            throw trataExcecao(excecao);
+        }
+        finally
+        {
+            solicitaCompilacao();
+        }
+    }
+
+    /**
+     * Os erros de execução são lançados dentro do visitante da ASA encapsulados em uma
+     * {@link ExcecaoVisitaASA}. Este método extrai o erro original para que ele seja tratado
+     * da mesma forma que nos programas compilados.
+     */
+    private ErroExecucao trataExcecao(ExcecaoVisitaASA excecao) throws InterruptedException
+    {
+        Throwable causa = excecao.getCause();
+
+        if (causa instanceof InterruptedException)
+        {
+            throw (InterruptedException) causa;
+        }
+
+        if (causa instanceof ErroExecucao)
+        {
+            return (ErroExecucao) causa;
+        }
+
+        if (causa instanceof RuntimeException)
+        {
+            throw (RuntimeException) causa;
+        }
+
+        throw new IllegalStateException(excecao.getMessage(), excecao);
+    }
+
+    private void solicitaCompilacao()
+    {
+        if (compilacao != null && compilacaoSolicitada.compareAndSet(false, true))
+        {
+            Portugol.executarEmSegundoPlano(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        Programa compilado = compilacao.call();
+
+                        if (isDescartado())
+                        {
+                            compilado.descartar(); // a compilação terminou depois que o programa foi descartado
+                        }
+                        else
+                        {
+                            programaCompilado = compilado;
+                        }
+                    }
+                    catch (Exception excecao)
+                    {
+                        LOGGER.log(Level.WARNING, "Não foi possível compilar o programa, ele continuará sendo interpretado", excecao);
+                    }
+                }
+            });
+        }
+    }
+
+    @Override
+    protected void liberarRecursos()
+    {
+        super.liberarRecursos();
+
+        variaveisGlobais.clear();
+        programaEmExecucao = null;
+
+        Programa compilado = programaCompilado;
+
+        if (compilado != null)
+        {
+            programaCompilado = null;
+            compilado.descartar();
+        }
+    }
+
+    private static final class Celula
+    {
+        private Object valor;
+
+        public Celula(Object valor)
+        {
+            this.valor = valor;
+        }
+    }
+
+    /**
+     * Uma posição de memória que pode receber valores: uma variável ou uma posição de um vetor
+     * ou de uma matriz.
+     */
+    private static final class Posicao
+    {
+        private final TipoDado tipo;
+        private final Celula celula;
+        private final Object[] vetor;
+        private final int linha; // utilizada apenas nas posições de matrizes
+        private final int indice;
+
+        public Posicao(TipoDado tipo, Celula celula, Object[] vetor, int linha, int indice)
+        {
+            this.tipo = tipo;
+            this.celula = celula;
+            this.vetor = vetor;
+            this.linha = linha;
+            this.indice = indice;
+        }
+
+        public Object armazena(Object valor)
+        {
+            valor = converte(valor, tipo);
+
+            if (celula != null)
+            {
+                celula.valor = valor;
+            }
+            else
+            {
+                vetor[indice] = valor;
+            }
+
+            return valor;
+        }
+    }
+
+    private static Object converte(Object valor, TipoDado tipo)
+    {
+        if (tipo == TipoDado.INTEIRO)
+        {
+            if (valor instanceof Double)
+            {
+                return (int) (double) (Double) valor;
+            }
+
+            if (valor instanceof Character)
+            {
+                return (int) (Character) valor;
+            }
+        }
+        else if (tipo == TipoDado.REAL)
+        {
+            if (valor instanceof Integer)
+            {
+                return (double) (Integer) valor;
+            }
+
+            if (valor instanceof Character)
+            {
+                return (double) (Character) valor;
+            }
+        }
+
+        return valor;
+    }
+
+    private static Object valorPadrao(TipoDado tipo)
+    {
+        switch (tipo)
+        {
+            case INTEIRO: return 0;
+            case REAL: return 0.0;
+            case LOGICO: return false;
+            case CARACTER: return '\0';
+            default: return null;
+        }
+    }
+
+    private static int inteiro(Object valor)
+    {
+        if (valor instanceof Character)
+        {
+            return (Character) valor;
+        }
+
+        return ((Number) valor).intValue();
+    }
+
+    private static double real(Object valor)
+    {
+        if (valor instanceof Character)
+        {
+            return (Character) valor;
+        }
+
+        return ((Number) valor).doubleValue();
+    }
+
+    private static boolean ehNumerico(Object valor)
+    {
+        return valor instanceof Number || valor instanceof Character;
+    }
+
+    private final class Interpretador extends VisitanteASABasico
+    {
+        private Map<NoDeclaracao, Celula> variaveisLocais;
+        private Object valorRetorno;
+        private Posicao ultimaPosicaoAtribuida;
+
+        public Interpretador(Map<NoDeclaracao, Celula> variaveisLocais)
+        {
+            this.variaveisLocais = variaveisLocais;
+        }
+
+        public Object executaFuncao(NoDeclaracaoFuncao funcao) throws ExcecaoVisitaASA
+        {
+            verificaInterrupcao(funcao);
+            inspecionaParametros(funcao.getParametros());
+            realizaParada(funcao);
+
+            if (executaBlocos(funcao.getBlocos()) == RETORNE)
+            {
+                return converte(valorRetorno, funcao.getTipoDado());
+            }
+
+            return null;
+        }
+
+        /**
+         * @return {@link #PARE} ou {@link #RETORNE} se a execução dos blocos foi interrompida por
+         * um destes comandos, ou <code>null</code> se todos os blocos foram executados
+         */
+        private Object executaBlocos(List<NoBloco> blocos) throws ExcecaoVisitaASA
+        {
+            if (blocos == null)
+            {
+                return null;
+            }
+
+            for (NoBloco bloco : blocos)
+            {
+                realizaParada(bloco);
+
+                Object resultado = bloco.aceitar(this);
+
+                if (resultado == PARE || resultado == RETORNE)
+                {
+                    return resultado;
+                }
+
+                inspecionaBloco(bloco);
+            }
+
+            return null;
+        }
+
+        private void realizaParada(NoBloco bloco) throws ExcecaoVisitaASA
+        {
+            TrechoCodigoFonte trechoCodigoFonte = Utils.getTrechoCodigoFonte(bloco);
+
+            if (trechoCodigoFonte != null && trechoCodigoFonte.ehValido())
+            {
+                if (!paradasArmadas)
+                {
+                    registrarPosicao(trechoCodigoFonte.getLinha(), trechoCodigoFonte.getColuna());
+                    return;
+                }
+
+                try
+                {
+                    realizarParada(trechoCodigoFonte.getLinha(), trechoCodigoFonte.getColuna());
+                }
+                catch (ErroExecucao | InterruptedException excecao)
+                {
+                    throw new ExcecaoVisitaASA(excecao, asa, bloco);
+                }
+            }
+        }
+
+        private void verificaInterrupcao(No no) throws ExcecaoVisitaASA
+        {
+            if (--contadorPassos < 0)
+            {
+                try
+                {
+                    verificaCotas(); // também verifica se a thread foi interrompida
+                }
+                catch (ErroExecucao | InterruptedException excecao)
+                {
+                    throw new ExcecaoVisitaASA(excecao, asa, no);
+                }
+            }
+        }
+
+        private void contaIteracao(No laco) throws ExcecaoVisitaASA
+        {
+            verificaInterrupcao(laco);
+
+            if (++iteracoes == LIMITE_ITERACOES_PARA_COMPILACAO)
+            {
+                solicitaCompilacao();
+            }
+        }
+
+        private Object avalia(NoExpressao expressao) throws ExcecaoVisitaASA
+        {
+            return expressao.aceitar(this);
+        }
+
+        private boolean logico(NoExpressao expressao) throws ExcecaoVisitaASA
+        {
+            return (Boolean) avalia(expressao);
+        }
+
+        // ------------------------------------------------------------------------------------
+        // Variáveis
+
+        public void declara(NoDeclaracaoInicializavel declaracao) throws ExcecaoVisitaASA
+        {
+            variaveisLocais.put(declaracao, new Celula(valorInicial(declaracao)));
+        }
+
+        private Object valorInicial(NoDeclaracaoInicializavel declaracao) throws ExcecaoVisitaASA
+        {
+            TipoDado tipo = declaracao.getTipoDado();
+            NoExpressao inicializacao = declaracao.getInicializacao();
+
+            if (inicializacao != null)
+            {
+                return valor(inicializacao, tipo);
+            }
+
+            if (declaracao instanceof NoDeclaracaoVetor)
+            {
+                NoExpressao tamanho = ((NoDeclaracaoVetor) declaracao).getTamanho();
+
+                return (tamanho != null) ? criaVetor(inteiro(avalia(tamanho)), tipo) : null;
+            }
+
+            if (declaracao instanceof NoDeclaracaoMatriz)
+            {
+                NoDeclaracaoMatriz matriz = (NoDeclaracaoMatriz) declaracao;
+
+                if (matriz.getNumeroLinhas() == null || matriz.getNumeroColunas() == null)
+                {
+                    return null;
+                }
+
+                Object[][] valores = new Object[inteiro(avalia(matriz.getNumeroLinhas()))][];
+                int colunas = inteiro(avalia(matriz.getNumeroColunas()));
+
+                for (int i = 0; i < valores.length; i++)
+                {
+                    valores[i] = criaVetor(colunas, tipo);
+                }
+
+                return valores;
+            }
+
+            return valorPadrao(tipo);
+        }
+
+        private Object[] criaVetor(int tamanho, TipoDado tipo)
+        {
+            Object[] valores = new Object[tamanho];
+            Arrays.fill(valores, valorPadrao(tipo));
+
+            return valores;
+        }
+
+        /**
+         * Avalia uma expressão convertendo o resultado para o tipo esperado, como acontece nas
+         * atribuições, passagens de parâmetros e retornos.
+         */
+        private Object valor(NoExpressao expressao, TipoDado tipo) throws ExcecaoVisitaASA
+        {
+            if (expressao instanceof NoVetor)
+            {
+                return criaVetor(((NoVetor) expressao).getValores(), tipo);
+            }
+
+            if (expressao instanceof NoMatriz)
+            {
+                List<List<Object>> linhas = ((NoMatriz) expressao).getValores();
+                Object[][] valores = new Object[linhas.size()][];
+
+                for (int i = 0; i < valores.length; i++)
+                {
+                    valores[i] = criaVetor(linhas.get(i), tipo);
+                }
+
+                return valores;
+            }
+
+            return converte(avalia(expressao), tipo);
+        }
+
+        private Object[] criaVetor(List<Object> expressoes, TipoDado tipo) throws ExcecaoVisitaASA
+        {
+            Object[] valores = new Object[expressoes.size()];
+
+            for (int i = 0; i < valores.length; i++)
+            {
+                valores[i] = converte(avalia((NoExpressao) expressoes.get(i)), tipo);
+            }
+
+            return valores;
+        }
+
+        private Celula celula(NoReferencia referencia) throws ExcecaoVisitaASA
+        {
+            NoDeclaracao origem = referencia.getOrigemDaReferencia();
+            Celula celula = variaveisLocais.get(origem);
+
+            if (celula == null)
+            {
+                celula = variaveisGlobais.get(origem);
+            }
+
+            if (celula == null || referencia.getEscopo() != null)
+            {
+                throw new ExcecaoVisitaASA(new UnsupportedOperationException("Referência sem declaração no programa: " + referencia.getNome()), asa, referencia);
+            }
+
+            return celula;
+        }
+
+        private Posicao localiza(NoReferencia referencia) throws ExcecaoVisitaASA
+        {
+            TipoDado tipo = referencia.getOrigemDaReferencia().getTipoDado();
+            Celula celula = celula(referencia);
+
+            if (referencia instanceof NoReferenciaVetor)
+            {
+                int indice = inteiro(avalia(((NoReferenciaVetor) referencia).getIndice()));
+
+                return new Posicao(tipo, null, (Object[]) celula.valor, -1, indice);
+            }
+
+            if (referencia instanceof NoReferenciaMatriz)
+            {
+                NoReferenciaMatriz referenciaMatriz = (NoReferenciaMatriz) referencia;
+                int linha = inteiro(avalia(referenciaMatriz.getLinha()));
+                Object[] valoresLinha = ((Object[][]) celula.valor)[linha];
+
+                return new Posicao(tipo, null, valoresLinha, linha, inteiro(avalia(referenciaMatriz.getColuna())));
+            }
+
+            return new Posicao(tipo, celula, null, -1, 0);
+        }
+
+        @Override
+        public Object visitar(NoDeclaracaoVariavel noDeclaracao) throws ExcecaoVisitaASA
+        {
+            declara(noDeclaracao);
+            return null;
+        }
+
+        @Override
+        public Object visitar(NoDeclaracaoVetor noDeclaracao) throws ExcecaoVisitaASA
+        {
+            declara(noDeclaracao);
+            return null;
+        }
+
+        @Override
+        public Object visitar(NoDeclaracaoMatriz noDeclaracao) throws ExcecaoVisitaASA
+        {
+            declara(noDeclaracao);
+            return null;
+        }
+
+        @Override
+        public Object visitar(NoReferenciaVariavel no) throws ExcecaoVisitaASA
+        {
+            return celula(no).valor;
+        }
+
+        @Override
+        public Object visitar(NoReferenciaVetor no) throws ExcecaoVisitaASA
+        {
+            Object[] vetor = (Object[]) celula(no).valor;
+
+            return vetor[inteiro(avalia(no.getIndice()))];
+        }
+
+        @Override
+        public Object visitar(NoReferenciaMatriz no) throws ExcecaoVisitaASA
+        {
+            Object[][] matriz = (Object[][]) celula(no).valor;
+            Object[] linha = matriz[inteiro(avalia(no.getLinha()))];
+
+            return linha[inteiro(avalia(no.getColuna()))];
+        }
+
+        @Override
+        public Object visitar(NoOperacaoAtribuicao no) throws ExcecaoVisitaASA
+        {
+            Posicao posicao = localiza((NoReferencia) no.getOperandoEsquerdo());
+            Object valor = posicao.armazena(valor(no.getOperandoDireito(), posicao.tipo));
+
+            ultimaPosicaoAtribuida = posicao;
+
+            return valor;
+        }
+
+        // ------------------------------------------------------------------------------------
+        // Inspeção de símbolos
+
+        private void inspecionaParametros(List<NoDeclaracaoParametro> parametros)
+        {
+            for (NoDeclaracaoParametro parametro : parametros)
+            {
+                int idInspecao = parametro.getIdParaInspecao();
+                Object valor = variaveisLocais.get(parametro).valor;
+
+                if (idInspecao < 0)
+                {
+                    continue;
+                }
+
+                switch (parametro.getQuantificador())
+                {
+                    case VALOR:
+                        inspecionaVariavel(idInspecao, valor);
+                        break;
+
+                    case VETOR:
+                        vinculaVetor(idInspecao, valor);
+                        break;
+
+                    case MATRIZ:
+                        vinculaMatriz(idInspecao, valor);
+                        break;
+                }
+            }
+        }
+
+        private void inspecionaBloco(NoBloco bloco)
+        {
+            if (bloco instanceof NoDeclaracaoInicializavel)
+            {
+                NoDeclaracaoInicializavel declaracao = (NoDeclaracaoInicializavel) bloco;
+                int idInspecao = declaracao.getIdParaInspecao();
+
+                if (idInspecao >= 0 && declaracao.temInicializacao())
+                {
+                    Object valor = variaveisLocais.get(declaracao).valor;
+
+                    if (declaracao instanceof NoDeclaracaoVariavel)
+                    {
+                        inspecionaVariavel(idInspecao, valor);
+                    }
+                    else if (declaracao instanceof NoDeclaracaoVetor)
+                    {
+                        vinculaVetor(idInspecao, valor);
+                    }
+                    else if (declaracao instanceof NoDeclaracaoMatriz)
+                    {
+                        vinculaMatriz(idInspecao, valor);
+                    }
+                }
+            }
+            else if (bloco instanceof NoOperacaoAtribuicao)
+            {
+                NoReferencia referencia = (NoReferencia) ((NoOperacaoAtribuicao) bloco).getOperandoEsquerdo();
+                int idInspecao = ((NoDeclaracaoInspecionavel) referencia.getOrigemDaReferencia()).getIdParaInspecao();
+                Posicao posicao = ultimaPosicaoAtribuida;
+
+                if (idInspecao < 0)
+                {
+                    return;
+                }
+
+                if (referencia instanceof NoReferenciaVariavel)
+                {
+                    inspecionaVariavel(idInspecao, posicao.celula.valor);
+                }
+                else if (referencia instanceof NoReferenciaVetor)
+                {
+                    if (vetoresInspecionados[idInspecao] != null)
+                    {
+                        vetoresInspecionados[idInspecao].alterado(posicao.vetor, posicao.indice);
+                    }
+                }
+                else if (referencia instanceof NoReferenciaMatriz)
+                {
+                    if (matrizesInspecionadas[idInspecao] != null)
+                    {
+                        matrizesInspecionadas[idInspecao].alterado(celulaSemVerificacao(referencia).valor, posicao.linha, posicao.indice);
+                    }
+                }
+            }
+        }
+
+        private Celula celulaSemVerificacao(NoReferencia referencia)
+        {
+            Celula celula = variaveisLocais.get(referencia.getOrigemDaReferencia());
+
+            return (celula != null) ? celula : variaveisGlobais.get(referencia.getOrigemDaReferencia());
+        }
+
+        private void inspecionaPara(NoPara noPara)
+        {
+            NoExpressao incremento = noPara.getIncremento();
+
+            if (!(incremento instanceof NoOperacaoAtribuicao))
+            {
+                return;
+            }
+
+            NoExpressao operandoEsquerdo = ((NoOperacaoAtribuicao) incremento).getOperandoEsquerdo();
+
+            if (operandoEsquerdo instanceof NoReferenciaVariavel)
+            {
+                NoDeclaracao origem = ((NoReferenciaVariavel) operandoEsquerdo).getOrigemDaReferencia();
+                boolean inspecionada = (origem instanceof NoDeclaracaoVariavel && ((NoDeclaracaoVariavel) origem).temInicializacao())
+                        || origem instanceof NoDeclaracaoParametro;
+
+                if (inspecionada)
+                {
+                    Celula celula = celulaSemVerificacao((NoReferencia) operandoEsquerdo);
+                    inspecionaVariavel(((NoDeclaracaoInspecionavel) origem).getIdParaInspecao(), celula.valor);
+                }
+            }
+        }
+
+        private void inspecionaVariavel(int idInspecao, Object valor)
+        {
+            if (idInspecao >= 0 && variaveisInspecionadas[idInspecao] != null)
+            {
+                variaveisInspecionadas[idInspecao] = valor;
+            }
+        }
+
+        private void vinculaVetor(int idInspecao, Object vetor)
+        {
+            if (vetoresInspecionados[idInspecao] != null)
+            {
+                vetoresInspecionados[idInspecao].setDados(vetor);
+            }
+        }
+
+        private void vinculaMatriz(int idInspecao, Object matriz)
+        {
+            if (matrizesInspecionadas[idInspecao] != null)
+            {
+                matrizesInspecionadas[idInspecao].setDados(matriz);
+            }
+        }
+
+        // ------------------------------------------------------------------------------------
+        // Comandos
+
+        @Override
+        public Object visitar(NoSe no) throws ExcecaoVisitaASA
+        {
+            if (logico(no.getCondicao()))
+            {
+                return executaBlocos(no.getBlocosVerdadeiros());
+            }
+
+            return executaBlocos(no.getBlocosFalsos());
+        }
+
+        @Override
+        public Object visitar(NoEnquanto no) throws ExcecaoVisitaASA
+        {
+            while (logico(no.getCondicao()))
+            {
+                contaIteracao(no);
+
+                Object resultado = executaBlocos(no.getBlocos());
+
+                if (resultado == PARE)
+                {
+                    break;
+                }
+
+                if (resultado == RETORNE)
+                {
+                    return resultado;
+                }
+            }
+
+            return null;
+        }
+
+        @Override
+        public Object visitar(NoFacaEnquanto no) throws ExcecaoVisitaASA
+        {
+            do
+            {
+                contaIteracao(no);
+
+                Object resultado = executaBlocos(no.getBlocos());
+
+                if (resultado == PARE)
+                {
+                    break;
+                }
+
+                if (resultado == RETORNE)
+                {
+                    return resultado;
+                }
+            }
+            while (logico(no.getCondicao()));
+
+            return null;
+        }
+
+        @Override
+        public Object visitar(NoPara no) throws ExcecaoVisitaASA
+        {
+            if (no.getInicializacao() != null)
+            {
+                no.getInicializacao().aceitar(this);
+            }
+
+            while (no.getCondicao() == null || logico(no.getCondicao()))
+            {
+                contaIteracao(no);
+                inspecionaPara(no);
+
+                Object resultado = executaBlocos(no.getBlocos());
+
+                if (resultado == PARE)
+                {
+                    break;
+                }
+
+                if (resultado == RETORNE)
+                {
+                    return resultado;
+                }
+
+                if (no.getIncremento() != null)
+                {
+                    avalia(no.getIncremento());
+                }
+            }
+
+            return null;
+        }
+
+        @Override
+        public Object visitar(NoEscolha no) throws ExcecaoVisitaASA
+        {
+            Object valor = avalia(no.getExpressao());
+            List<NoCaso> casos = no.getCasos();
+            int casoSelecionado = -1;
+
+            for (int i = 0; i < casos.size() && casoSelecionado < 0; i++)
+            {
+                NoExpressao expressaoCaso = casos.get(i).getExpressao();
+
+                if (expressaoCaso != null && iguais(valor, avalia(expressaoCaso)))
+                {
+                    casoSelecionado = i;
+                }
+            }
+
+            for (int i = 0; i < casos.size() && casoSelecionado < 0; i++)
+            {
+                if (casos.get(i).getExpressao() == null) // caso contrario
+                {
+                    casoSelecionado = i;
+                }
+            }
+
+            if (casoSelecionado >= 0)
+            {
+                for (int i = casoSelecionado; i < casos.size(); i++) // os casos sem 'pare' continuam no caso seguinte
+                {
+                    Object resultado = executaBlocos(casos.get(i).getBlocos());
+
+                    if (resultado == PARE)
+                    {
+                        break;
+                    }
+
+                    if (resultado == RETORNE)
+                    {
+                        return resultado;
+                    }
+                }
+            }
+
+            return null;
+        }
+
+        @Override
+        public Object visitar(NoPare noPare) throws ExcecaoVisitaASA
+        {
+            return PARE;
+        }
+
+        @Override
+        public Object visitar(NoRetorne no) throws ExcecaoVisitaASA
+        {
+            valorRetorno = (no.getExpressao() != null) ? avalia(no.getExpressao()) : null;
+
+            return RETORNE;
+        }
+
+        // ------------------------------------------------------------------------------------
+        // Chamadas de funções
+
+        @Override
+        public Object visitar(NoChamadaFuncao no) throws ExcecaoVisitaASA
+        {
+            NoDeclaracaoFuncao funcao = no.getOrigemDaReferencia();
+
+            if (no.getEscopo() != null)
+            {
+                throw new ExcecaoVisitaASA(new UnsupportedOperationException("Chamada de função de biblioteca: " + no.getNome()), asa, no);
+            }
+
+            try
+            {
+                if (funcao == null)
+                {
+                    return chamaFuncaoPredefinida(no);
+                }
+            }
+            catch (ErroExecucao | InterruptedException excecao)
+            {
+                throw new ExcecaoVisitaASA(excecao, asa, no);
+            }
+
+            List<NoDeclaracaoParametro> parametros = funcao.getParametros();
+            List<NoExpressao> argumentos = no.getParametros();
+            Map<NoDeclaracao, Celula> escopoFuncao = new IdentityHashMap<>();
+
+            for (int i = 0; i < parametros.size(); i++)
+            {
+                NoDeclaracaoParametro parametro = parametros.get(i);
+                NoExpressao argumento = argumentos.get(i);
+
+                boolean porReferencia = parametro.getModoAcesso() == ModoAcesso.POR_REFERENCIA && parametro.getQuantificador() == Quantificador.VALOR;
+
+                if (porReferencia && argumento instanceof NoReferenciaVariavel)
+                {
+                    escopoFuncao.put(parametro, celula((NoReferencia) argumento)); // a função altera a mesma variável
+                }
+                else
+                {
+                    escopoFuncao.put(parametro, new Celula(valor(argumento, parametro.getTipoDado())));
+                }
+            }
+
+            Map<NoDeclaracao, Celula> escopoAnterior = variaveisLocais;
+            variaveisLocais = escopoFuncao;
+
+            try
+            {
+                return executaFuncao(funcao);
+            }
+            finally
+            {
+                variaveisLocais = escopoAnterior;
+            }
+        }
+
+        private Object chamaFuncaoPredefinida(NoChamadaFuncao no) throws ErroExecucao, InterruptedException, ExcecaoVisitaASA
+        {
+            List<NoExpressao> parametros = no.getParametros();
+
+            switch (no.getNome())
+            {
+                case "escreva":
+                    Object[] valores = new Object[parametros.size()];
+
+                    for (int i = 0; i < valores.length; i++)
+                    {
+                        valores[i] = avalia(parametros.get(i));
+                    }
+
+                    escreva(valores);
+                    return null;
+
+                case "leia":
+                    for (NoExpressao parametro : parametros)
+                    {
+                        Posicao posicao = localiza((NoReferencia) parametro);
+
+                        switch (posicao.tipo)
+                        {
+                            case INTEIRO: posicao.armazena(leiaInteiro()); break;
+                            case REAL: posicao.armazena(leiaReal()); break;
+                            case LOGICO: posicao.armazena(leiaLogico()); break;
+                            case CARACTER: posicao.armazena(leiaCaracter()); break;
+                            case CADEIA: posicao.armazena(leiaCadeia()); break;
+                        }
+                    }
+
+                    return null;
+
+                case "limpa":
+                    limpa();
+                    return null;
+
+                default:
+                    throw new ExcecaoVisitaASA(new UnsupportedOperationException("Função desconhecida: " + no.getNome()), asa, no);
+            }
+        }
+
+        // ------------------------------------------------------------------------------------
+        // Expressões
+
+        @Override
+        public Object visitar(NoInteiro noInteiro) throws ExcecaoVisitaASA
+        {
+            return noInteiro.getValor();
+        }
+
+        @Override
+        public Object visitar(NoReal noReal) throws ExcecaoVisitaASA
+        {
+            return noReal.getValor();
+        }
+
+        @Override
+        public Object visitar(NoLogico noLogico) throws ExcecaoVisitaASA
+        {
+            return noLogico.getValor();
+        }
+
+        @Override
+        public Object visitar(NoCaracter noCaracter) throws ExcecaoVisitaASA
+        {
+            return noCaracter.getValor();
+        }
+
+        @Override
+        public Object visitar(NoCadeia noCadeia) throws ExcecaoVisitaASA
+        {
+            return noCadeia.getValor();
+        }
+
+        @Override
+        public Object visitar(NoNao no) throws ExcecaoVisitaASA
+        {
+            return !logico(no.getExpressao());
+        }
+
+        @Override
+        public Object visitar(NoMenosUnario no) throws ExcecaoVisitaASA
+        {
+            Object valor = avalia(no.getExpressao());
+
+            if (valor instanceof Double)
+            {
+                return -(Double) valor;
+            }
+
+            return -inteiro(valor);
+        }
+
+        @Override
+        public Object visitar(NoBitwiseNao no) throws ExcecaoVisitaASA
+        {
+            return ~inteiro(avalia(no.getExpressao()));
+        }
+
+        @Override
+        public Object visitar(NoOperacaoSoma no) throws ExcecaoVisitaASA
+        {
+            Object a = avalia(no.getOperandoEsquerdo());
+            Object b = avalia(no.getOperandoDireito());
+
+            if (a instanceof String || b instanceof String)
+            {
+                return String.valueOf(a).concat(String.valueOf(b));
+            }
+
+            if (a instanceof Double || b instanceof Double)
+            {
+                return real(a) + real(b);
+            }
+
+            return inteiro(a) + inteiro(b);
+        }
+
+        @Override
+        public Object visitar(NoOperacaoSubtracao no) throws ExcecaoVisitaASA
+        {
+            Object a = avalia(no.getOperandoEsquerdo());
+            Object b = avalia(no.getOperandoDireito());
+
+            if (a instanceof Double || b instanceof Double)
+            {
+                return real(a) - real(b);
+            }
+
+            return inteiro(a) - inteiro(b);
+        }
+
+        @Override
+        public Object visitar(NoOperacaoMultiplicacao no) throws ExcecaoVisitaASA
+        {
+            Object a = avalia(no.getOperandoEsquerdo());
+            Object b = avalia(no.getOperandoDireito());
+
+            if (a instanceof Double || b instanceof Double)
+            {
+                return real(a) * real(b);
+            }
+
+            return inteiro(a) * inteiro(b);
+        }
+
+        @Override
+        public Object visitar(NoOperacaoDivisao no) throws ExcecaoVisitaASA
+        {
+            Object a = avalia(no.getOperandoEsquerdo());
+            Object b = avalia(no.getOperandoDireito());
+
+            if (a instanceof Double || b instanceof Double)
+            {
+                return real(a) / real(b);
+            }
+
+            return inteiro(a) / inteiro(b);
+        }
+
+        @Override
+        public Object visitar(NoOperacaoModulo no) throws ExcecaoVisitaASA
+        {
+            Object a = avalia(no.getOperandoEsquerdo());
+            Object b = avalia(no.getOperandoDireito());
+
+            if (a instanceof Double || b instanceof Double)
+            {
+                return real(a) % real(b);
+            }
+
+            return inteiro(a) % inteiro(b);
+        }
+
+        @Override
+        public Object visitar(NoOperacaoBitwiseE no) throws ExcecaoVisitaASA
+        {
+            return inteiro(avalia(no.getOperandoEsquerdo())) & inteiro(avalia(no.getOperandoDireito()));
+        }
+
+        @Override
+        public Object visitar(NoOperacaoBitwiseOu no) throws ExcecaoVisitaASA
+        {
+            return inteiro(avalia(no.getOperandoEsquerdo())) | inteiro(avalia(no.getOperandoDireito()));
+        }
+
+        @Override
+        public Object visitar(NoOperacaoBitwiseXOR no) throws ExcecaoVisitaASA
+        {
+            return inteiro(avalia(no.getOperandoEsquerdo())) ^ inteiro(avalia(no.getOperandoDireito()));
+        }
+
+        @Override
+        public Object visitar(NoOperacaoBitwiseLeftShift no) throws ExcecaoVisitaASA
+        {
+            return inteiro(avalia(no.getOperandoEsquerdo())) << inteiro(avalia(no.getOperandoDireito()));
+        }
+
+        @Override
+        public Object visitar(NoOperacaoBitwiseRightShift no) throws ExcecaoVisitaASA
+        {
+            return inteiro(avalia(no.getOperandoEsquerdo())) >> inteiro(avalia(no.getOperandoDireito()));
+        }
+
+        @Override
+        public Object visitar(NoOperacaoLogicaE no) throws ExcecaoVisitaASA
+        {
+            return logico(no.getOperandoEsquerdo()) && logico(no.getOperandoDireito());
+        }
+
+        @Override
+        public Object visitar(NoOperacaoLogicaOU no) throws ExcecaoVisitaASA
+        {
+            return logico(no.getOperandoEsquerdo()) || logico(no.getOperandoDireito());
+        }
+
+        @Override
+        public Object visitar(NoOperacaoLogicaIgualdade no) throws ExcecaoVisitaASA
+        {
+            return iguais(avalia(no.getOperandoEsquerdo()), avalia(no.getOperandoDireito()));
+        }
+
+        @Override
+        public Object visitar(NoOperacaoLogicaDiferenca no) throws ExcecaoVisitaASA
+        {
+            return !iguais(avalia(no.getOperandoEsquerdo()), avalia(no.getOperandoDireito()));
+        }
+
+        @Override
+        public Object visitar(NoOperacaoLogicaMaior no) throws ExcecaoVisitaASA
+        {
+            Object a = avalia(no.getOperandoEsquerdo());
+            Object b = avalia(no.getOperandoDireito());
+
+            if (a instanceof Double || b instanceof Double)
+            {
+                return real(a) > real(b);
+            }
+
+            return inteiro(a) > inteiro(b);
+        }
+
+        @Override
+        public Object visitar(NoOperacaoLogicaMaiorIgual no) throws ExcecaoVisitaASA
+        {
+            Object a = avalia(no.getOperandoEsquerdo());
+            Object b = avalia(no.getOperandoDireito());
+
+            if (a instanceof Double || b instanceof Double)
+            {
+                return real(a) >= real(b);
+            }
+
+            return inteiro(a) >= inteiro(b);
+        }
+
+        @Override
+        public Object visitar(NoOperacaoLogicaMenor no) throws ExcecaoVisitaASA
+        {
+            Object a = avalia(no.getOperandoEsquerdo());
+            Object b = avalia(no.getOperandoDireito());
+
+            if (a instanceof Double || b instanceof Double)
+            {
+                return real(a) < real(b);
+            }
+
+            return inteiro(a) < inteiro(b);
+        }
+
+        @Override
+        public Object visitar(NoOperacaoLogicaMenorIgual no) throws ExcecaoVisitaASA
+        {
+            Object a = avalia(no.getOperandoEsquerdo());
+            Object b = avalia(no.getOperandoDireito());
+
+            if (a instanceof Double || b instanceof Double)
+            {
+                return real(a) <= real(b);
+            }
+
+            return inteiro(a) <= inteiro(b);
+        }
+
+        private boolean iguais(Object a, Object b)
+        {
+            if (ehNumerico(a) && ehNumerico(b))
+            {
+                if (a instanceof Double || b instanceof Double)
+                {
+                    return real(a) == real(b);
+                }
+
+                return inteiro(a) == inteiro(b);
+            }
+
+            return (a == null) ? b == null : a.equals(b); // as cadeias são comparadas com equals(), assim como no código Java gerado
+        }
+    }
+}
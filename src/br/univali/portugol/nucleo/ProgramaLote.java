@@ -0,0 +1,44 @@
+package br.univali.portugol.nucleo;
+
+/**
+ * Um programa a ser executado pelo {@link ExecutorLote}: o código fonte e os valores que serão
+ * fornecidos à função <code>leia</code>, um por linha.
+ */
+public final class ProgramaLote
+{
+    private final String nome;
+    private final String codigoFonte;
+    private final String entrada;
+
+    /**
+     * @param nome o nome que identifica o programa no resultado, por exemplo o nome do arquivo
+     * @param codigoFonte o código fonte em Portugol
+     * @param entrada os valores de entrada, um por linha, pode ser <code>null</code>
+     */
+    public ProgramaLote(String nome, String codigoFonte, String entrada)
+    {
+        if (codigoFonte == null)
+        {
+            throw new IllegalArgumentException("O código fonte não pode ser nulo");
+        }
+
+        this.nome = nome;
+        this.codigoFonte = codigoFonte;
+        this.entrada = (entrada != null) ? entrada : "";
+    }
+
+    public String getNome()
+    {
+        return nome;
+    }
+
+    public String getCodigoFonte()
+    {
+        return codigoFonte;
+    }
+
+    public String getEntrada()
+    {
+        return entrada;
+    }
+}
@@ -0,0 +1,113 @@
+package br.univali.portugol.nucleo;
+
+import br.univali.portugol.nucleo.asa.ASAPrograma;
+import br.univali.portugol.nucleo.execucao.gerador.OtimizadorASA;
+import br.univali.portugol.nucleo.mensagens.ErroExecucao;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Programa compilado no perfil {@link br.univali.portugol.nucleo.execucao.PerfilCompilacao#OTIMIZADO}.
+ * <p>
+ * Mantém duas versões do mesmo programa: a versão otimizada, compilada sem o código de inspeção,
+ * e a versão de depuração, compilada somente na primeira execução com símbolos inspecionados.
+ * As paradas existem nas duas versões, ver {@link Programa#paradasArmadas}, mas as chamadas às
+ * funções pequenas são expandidas somente na versão otimizada (ver {@link OtimizadorASA}), por
+ * isso a versão de depuração também é utilizada quando a execução pode parar nessas funções.
+ * Os pontos de parada ativados nelas durante a execução da versão otimizada são ignorados até a
+ * próxima execução. A versão é escolhida no início de cada execução e executa em nome deste
+ * programa (ver {@link Programa#executarEmNomeDe}), assim o ambiente que controla a execução não
+ * percebe qual versão está executando.
+ */
+final class ProgramaOtimizado extends Programa
+{
+    private static final Logger LOGGER = Logger.getLogger(ProgramaOtimizado.class.getName());
+
+    private final Programa versaoOtimizada;
+    private final Callable<Programa> compilacaoDepuracao;
+    private final Set<Integer> linhasFuncoesExpandidas;
+    private volatile Programa versaoDepuracao = null;
+
+    private Programa versaoEmExecucao = null;
+
+    /**
+     * @param versaoOtimizada o programa compilado sem o código de depuração
+     * @param asa a ASA do programa, utilizada para dimensionar os símbolos inspecionados
+     * @param compilacaoDepuracao a compilação que produz a versão com o código de depuração
+     */
+    ProgramaOtimizado(Programa versaoOtimizada, ASAPrograma asa, Callable<Programa> compilacaoDepuracao)
+    {
+        this.versaoOtimizada = versaoOtimizada;
+        this.compilacaoDepuracao = compilacaoDepuracao;
+        this.linhasFuncoesExpandidas = OtimizadorASA.getLinhasFuncoesExpansiveis(asa);
+
+        variaveisInspecionadas = new Object[asa.getTotalVariaveisDeclaradas()];
+        vetoresInspecionados = new Vetor[asa.getTotalVetoresDeclarados()];
+        matrizesInspecionadas = new Matriz[asa.getTotalMatrizesDeclaradas()];
+    }
+
+    Programa getVersaoOtimizada()
+    {
+        return versaoOtimizada;
+    }
+
+    /**
+     * @return <code>true</code> se a versão de depuração já foi compilada
+     */
+    boolean possuiVersaoDepuracao()
+    {
+        return versaoDepuracao != null;
+    }
+
+    @Override
+    protected void inicializar() throws ErroExecucao, InterruptedException
+    {
+        boolean paradaEmFuncaoExpandida = !linhasFuncoesExpandidas.isEmpty() && podePararEm(linhasFuncoesExpandidas);
+
+        versaoEmExecucao = (depuracaoSolicitada() || paradaEmFuncaoExpandida) ? getVersaoDepuracao() : versaoOtimizada;
+    }
+
+    @Override
+    protected void executar(String[] parametros) throws ErroExecucao, InterruptedException
+    {
+        versaoEmExecucao.executarEmNomeDe(this, parametros);
+    }
+
+    private synchronized Programa getVersaoDepuracao()
+    {
+        if (versaoDepuracao == null)
+        {
+            try
+            {
+                versaoDepuracao = compilacaoDepuracao.call();
+            }
+            catch (Exception excecao)
+            {
+                // não deveria acontecer, o mesmo código já foi compilado sem erros
+                LOGGER.log(Level.WARNING, "Não foi possível compilar a versão de depuração do programa, executando sem depuração", excecao);
+
+                return versaoOtimizada;
+            }
+        }
+
+        return versaoDepuracao;
+    }
+
+    @Override
+    protected void liberarRecursos()
+    {
+        super.liberarRecursos();
+
+        versaoOtimizada.descartar();
+
+        synchronized (this)
+        {
+            if (versaoDepuracao != null)
+            {
+                versaoDepuracao.descartar();
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package br.univali.portugol.nucleo;
+
+import br.univali.portugol.nucleo.execucao.ResultadoExecucao;
+
+/**
+ * O resultado da execução de um {@link ProgramaLote}. Se o programa não compilar, contém apenas
+ * o erro de compilação; caso contrário contém o resultado da execução e a saída produzida.
+ */
+public final class ResultadoLote
+{
+    private final ProgramaLote programa;
+    private final ErroCompilacao erroCompilacao;
+    private final ResultadoExecucao resultadoExecucao;
+    private final String saida;
+    private final boolean tempoLimiteExcedido;
+
+    ResultadoLote(ProgramaLote programa, ErroCompilacao erroCompilacao)
+    {
+        this(programa, erroCompilacao, null, "", false);
+    }
+
+    ResultadoLote(ProgramaLote programa, ResultadoExecucao resultadoExecucao, String saida, boolean tempoLimiteExcedido)
+    {
+        this(programa, null, resultadoExecucao, saida, tempoLimiteExcedido);
+    }
+
+    private ResultadoLote(ProgramaLote programa, ErroCompilacao erroCompilacao, ResultadoExecucao resultadoExecucao, String saida, boolean tempoLimiteExcedido)
+    {
+        this.programa = programa;
+        this.erroCompilacao = erroCompilacao;
+        this.resultadoExecucao = resultadoExecucao;
+        this.saida = saida;
+        this.tempoLimiteExcedido = tempoLimiteExcedido;
+    }
+
+    public ProgramaLote getPrograma()
+    {
+        return programa;
+    }
+
+    /**
+     * @return <code>true</code> se o programa compilou e foi executado
+     */
+    public boolean isCompilado()
+    {
+        return erroCompilacao == null;
+    }
+
+    /**
+     * @return o erro de compilação ou <code>null</code> se o programa compilou
+     */
+    public ErroCompilacao getErroCompilacao()
+    {
+        return erroCompilacao;
+    }
+
+    /**
+     * @return o resultado da execução ou <code>null</code> se o programa não compilou
+     */
+    public ResultadoExecucao getResultadoExecucao()
+    {
+        return resultadoExecucao;
+    }
+
+    /**
+     * @return tudo o que o programa escreveu na saída
+     */
+    public String getSaida()
+    {
+        return saida;
+    }
+
+    /**
+     * @return <code>true</code> se o programa foi interrompido por ter excedido o tempo limite
+     */
+    public boolean isTempoLimiteExcedido()
+    {
+        return tempoLimiteExcedido;
+    }
+}
@@ -1,5 +1,7 @@
 package br.univali.portugol.nucleo.analise;
 
+import br.univali.portugol.nucleo.EtapaCompilacao;
+import br.univali.portugol.nucleo.MetricasCompilacao;
 import br.univali.portugol.nucleo.analise.semantica.AnalisadorSemantico;
 import br.univali.portugol.nucleo.analise.sintatica.AnalisadorSintatico;
 import br.univali.portugol.nucleo.asa.ASA;
@@ -46,6 +48,20 @@ public final class AnalisadorAlgoritmo
      * @return           um objeto contendo informações sobre a análise relizada.
      */    
     public ResultadoAnalise analisar(String codigo)
+    {
+        return analisar(codigo, null);
+    }
+    
+    /**
+     * 
+     * Realiza a análise sintática e semântica de um código fonte, medindo a duração de cada
+     * análise.
+     * 
+     * @param codigo     o código fonte a ser analisado.
+     * @param metricas   as métricas da compilação em andamento, pode ser <code>null</code>.
+     * @return           um objeto contendo informações sobre a análise relizada.
+     */    
+    public ResultadoAnalise analisar(String codigo, MetricasCompilacao metricas)
     {
         ObservadorAnaliseAlgoritmo observadorAnaliseAlgoritmo = new ObservadorAnaliseAlgoritmo();
         AnalisadorSintatico analisadorSintatico = new AnalisadorSintatico();
@@ -54,10 +70,27 @@ public final class AnalisadorAlgoritmo
         analisadorSintatico.adicionarObservador(observadorAnaliseAlgoritmo);
         analisadorSemantico.adicionarObservador(observadorAnaliseAlgoritmo);
         
+        if (metricas != null)
+        {
+            metricas.iniciarEtapa(EtapaCompilacao.ANALISE_SINTATICA);
+        }
+        
         ASA asa = analisadorSintatico.analisar(codigo);
         arvoreSintaticaAbstrata = asa;
+        
+        if (metricas != null)
+        {
+            metricas.finalizarEtapa();
+            metricas.iniciarEtapa(EtapaCompilacao.ANALISE_SEMANTICA);
+        }
+        
         analisadorSemantico.analisar(asa);
         
+        if (metricas != null)
+        {
+            metricas.finalizarEtapa();
+        }
+        
         return observadorAnaliseAlgoritmo.getResultadoAnalise();
     }
 }
\ No newline at end of file
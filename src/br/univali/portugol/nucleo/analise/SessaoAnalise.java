@@ -0,0 +1,774 @@
+package br.univali.portugol.nucleo.analise;
+
+import br.univali.portugol.nucleo.analise.semantica.AnalisadorSemantico;
+import br.univali.portugol.nucleo.analise.semantica.ObservadorAnaliseSemantica;
+import br.univali.portugol.nucleo.analise.sintatica.AnalisadorSintatico;
+import br.univali.portugol.nucleo.analise.sintatica.ObservadorParsing;
+import br.univali.portugol.nucleo.analise.sintatica.PortugolLexer;
+import br.univali.portugol.nucleo.analise.sintatica.PortugolParser;
+import br.univali.portugol.nucleo.asa.ASA;
+import br.univali.portugol.nucleo.asa.ASAPrograma;
+import br.univali.portugol.nucleo.asa.ExcecaoVisitaASA;
+import br.univali.portugol.nucleo.asa.NoDeclaracao;
+import br.univali.portugol.nucleo.asa.NoDeclaracaoFuncao;
+import br.univali.portugol.nucleo.asa.NoDeclaracaoMatriz;
+import br.univali.portugol.nucleo.asa.NoDeclaracaoParametro;
+import br.univali.portugol.nucleo.asa.NoDeclaracaoVariavel;
+import br.univali.portugol.nucleo.asa.NoDeclaracaoVetor;
+import br.univali.portugol.nucleo.asa.NoInclusaoBiblioteca;
+import br.univali.portugol.nucleo.asa.TrechoCodigoFonte;
+import br.univali.portugol.nucleo.asa.VisitanteNulo;
+import br.univali.portugol.nucleo.mensagens.AvisoAnalise;
+import br.univali.portugol.nucleo.mensagens.ErroSemantico;
+import br.univali.portugol.nucleo.mensagens.ErroSintatico;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Stack;
+import org.antlr.runtime.ANTLRStringStream;
+import org.antlr.runtime.CommonToken;
+import org.antlr.runtime.CommonTokenStream;
+import org.antlr.runtime.RecognitionException;
+import org.antlr.runtime.Token;
+
+/**
+ * Analisa um código fonte que é editado continuamente, como em uma IDE que analisa o código a
+ * cada pausa na digitação, sem refazer a análise do programa inteiro a cada edição.
+ * <p>
+ * O programa é dividido nas suas declarações de primeiro nível: as inclusões de bibliotecas, as
+ * declarações globais e as funções. A cada edição o código passa novamente pelo analisador léxico,
+ * que é rápido, para encontrar estas declarações, e somente as declarações cujo texto mudou passam
+ * novamente pelo parsing. As declarações que apenas mudaram de linha têm a sua ASA deslocada para
+ * as novas linhas.
+ * <p>
+ * Os símbolos globais são declarados novamente a cada edição, mas os blocos de uma função só são
+ * analisados de novo quando a função foi alterada, quando ela usa um nome cuja declaração global
+ * foi alterada ou quando mudou a inicialização, pelas funções anteriores, das variáveis globais que
+ * ela usa. As funções que não são analisadas de novo repetem as inicializações de variáveis
+ * globais da sua última análise. As declarações com erros ou avisos não são deslocadas, pois as
+ * mensagens guardam as suas posições, e passam novamente pelo parsing quando mudam de linha.
+ * <p>
+ * Quando não é possível separar as declarações (chaves desbalanceadas, erros léxicos, texto fora
+ * do escopo do programa, etc.) o código é analisado por completo pelo {@link AnalisadorAlgoritmo}.
+ * <p>
+ * Ao contrário da análise completa, um erro sintático em uma declaração não interrompe a
+ * construção da ASA das declarações seguintes, então os erros sintáticos e semânticos das outras
+ * declarações continuam sendo informados.
+ * <p>
+ * A ASA mantida pela sessão serve somente para a análise: os identificadores para inspeção e as
+ * referências registradas nas declarações globais não são mantidos. Para executar o programa ele
+ * deve ser compilado normalmente. Uma sessão não deve ser utilizada por várias threads ao mesmo
+ * tempo.
+ *
+ * @since 2.0
+ * @see AnalisadorAlgoritmo
+ */
+public final class SessaoAnalise
+{
+    private static enum TipoDeclaracao { INCLUSAO, GLOBAL, FUNCAO };
+
+    private final AnalisadorSintatico analisadorSintatico = new AnalisadorSintatico();
+
+    private String codigo;
+    private ASA asa;
+    private ResultadoAnalise resultadoAnalise;
+    private List<Declaracao> declaracoes = new ArrayList<>();
+    private Map<String, String> assinaturas = new HashMap<>();
+
+    /**
+     * Inicia a sessão, realizando a análise completa do código informado.
+     *
+     * @param codigo     o código fonte inicial.
+     */
+    public SessaoAnalise(String codigo)
+    {
+        this.codigo = codigo;
+
+        analisar();
+    }
+
+    /**
+     * Aplica uma edição ao código fonte e analisa o código resultante.
+     *
+     * @param posicao             a posição do código onde a edição inicia.
+     * @param tamanhoRemovido     a quantidade de caracteres removidos a partir da posição.
+     * @param textoInserido       o texto inserido na posição, pode ser <code>null</code>.
+     * @return                    o resultado da análise do código editado.
+     * @throws IllegalArgumentException se o trecho removido estiver fora do código.
+     */
+    public ResultadoAnalise editar(int posicao, int tamanhoRemovido, String textoInserido)
+    {
+        if (posicao < 0 || tamanhoRemovido < 0 || posicao + tamanhoRemovido > codigo.length())
+        {
+            throw new IllegalArgumentException(String.format("A edição na posição %d removendo %d caracteres está fora do código, que possui %d caracteres", posicao, tamanhoRemovido, codigo.length()));
+        }
+
+        codigo = codigo.substring(0, posicao) + ((textoInserido != null) ? textoInserido : "") + codigo.substring(posicao + tamanhoRemovido);
+
+        analisar();
+
+        return resultadoAnalise;
+    }
+
+    /**
+     * @return     o código fonte atual, com todas as edições aplicadas.
+     */
+    public String getCodigo()
+    {
+        return codigo;
+    }
+
+    /**
+     * @return     o resultado da análise do código atual.
+     */
+    public ResultadoAnalise getResultadoAnalise()
+    {
+        return resultadoAnalise;
+    }
+
+    /**
+     * @return     a ASA do código atual. Pode ser <code>null</code> se o código contiver erros
+     *             sintáticos que impediram a sua construção.
+     */
+    public ASA getASA()
+    {
+        return asa;
+    }
+
+    private void analisar()
+    {
+        List<Declaracao> novasDeclaracoes = separarDeclaracoes();
+
+        if (novasDeclaracoes != null && analisarSintaxe(novasDeclaracoes))
+        {
+            analisarSemantica();
+        }
+        else
+        {
+            AnalisadorAlgoritmo analisadorAlgoritmo = new AnalisadorAlgoritmo();
+
+            resultadoAnalise = analisadorAlgoritmo.analisar(codigo);
+            asa = analisadorAlgoritmo.getASA();
+            declaracoes = new ArrayList<>();
+            assinaturas = new HashMap<>();
+        }
+    }
+
+    /**
+     * Percorre os tokens do código para encontrar o texto de cada declaração de primeiro nível.
+     *
+     * @return     as declarações, ainda sem a ASA, ou <code>null</code> se a estrutura do
+     *             programa não permitir separá-las.
+     */
+    private List<Declaracao> separarDeclaracoes()
+    {
+        final boolean[] erroLexico = { false };
+
+        PortugolLexer portugolLexer = new PortugolLexer(new ANTLRStringStream(codigo))
+        {
+            @Override
+            public void reportError(RecognitionException excecao)
+            {
+                erroLexico[0] = true;
+            }
+        };
+
+        List<Token> tokens = new ArrayList<>();
+
+        for (Token token = portugolLexer.nextToken(); token.getType() != Token.EOF; token = portugolLexer.nextToken())
+        {
+            if (token.getChannel() == Token.DEFAULT_CHANNEL)
+            {
+                tokens.add(token);
+            }
+        }
+
+        if (erroLexico[0] || tokens.size() < 3 || tokens.get(0).getType() != PortugolLexer.PR_PROGRAMA || tokens.get(1).getType() != PortugolLexer.T__79)
+        {
+            return null;
+        }
+
+        List<Declaracao> novasDeclaracoes = new ArrayList<>();
+        TipoDeclaracao tipoAtual = null;
+        boolean corpoFuncaoAberto = false;
+        int profundidade = 1;
+        int inicio = -1;
+
+        for (int indice = 2; indice < tokens.size(); indice++)
+        {
+            Token token = tokens.get(indice);
+
+            if (profundidade == 1)
+            {
+                if (token.getType() == PortugolLexer.T__82)
+                {
+                    if (tipoAtual != null)
+                    {
+                        novasDeclaracoes.add(criarDeclaracao(tipoAtual, tokens, inicio, indice - 1));
+                    }
+
+                    if (indice < tokens.size() - 1 || !codigo.substring(((CommonToken) token).getStopIndex() + 1).trim().isEmpty())
+                    {
+                        return null; // o analisador sintático trata o texto após o escopo do programa
+                    }
+
+                    return novasDeclaracoes;
+                }
+
+                TipoDeclaracao tipo = getTipoDeclaracao(token.getType());
+                boolean cabecalhoFuncao = (tipoAtual == TipoDeclaracao.FUNCAO && !corpoFuncaoAberto);
+
+                if (tipo != null && !cabecalhoFuncao && tokens.get(indice - 1).getType() != PortugolLexer.PR_CONST)
+                {
+                    if (tipo == TipoDeclaracao.INCLUSAO && tipoAtual != null && tipoAtual != TipoDeclaracao.INCLUSAO)
+                    {
+                        return null; // as inclusões devem preceder as declarações
+                    }
+
+                    if (tipoAtual != null)
+                    {
+                        novasDeclaracoes.add(criarDeclaracao(tipoAtual, tokens, inicio, indice - 1));
+                    }
+
+                    tipoAtual = tipo;
+                    corpoFuncaoAberto = false;
+                    inicio = indice;
+                }
+                else if (tipoAtual == null)
+                {
+                    return null;
+                }
+
+                if (token.getType() == PortugolLexer.T__79 && tipoAtual == TipoDeclaracao.FUNCAO)
+                {
+                    corpoFuncaoAberto = true;
+                }
+            }
+
+            if (token.getType() == PortugolLexer.T__79)
+            {
+                profundidade++;
+            }
+            else if (token.getType() == PortugolLexer.T__82)
+            {
+                profundidade--;
+            }
+        }
+
+        return null; // o escopo do programa não foi fechado
+    }
+
+    private static TipoDeclaracao getTipoDeclaracao(int tipoToken)
+    {
+        switch (tipoToken)
+        {
+            case PortugolLexer.PR_INCLUA: return TipoDeclaracao.INCLUSAO;
+            case PortugolLexer.PR_FUNCAO: return TipoDeclaracao.FUNCAO;
+
+            case PortugolLexer.PR_CONST:
+            case PortugolLexer.PR_INTEIRO:
+            case PortugolLexer.PR_REAL:
+            case PortugolLexer.PR_CADEIA:
+            case PortugolLexer.PR_CARACTER:
+            case PortugolLexer.PR_LOGICO: return TipoDeclaracao.GLOBAL;
+
+            default: return null;
+        }
+    }
+
+    private Declaracao criarDeclaracao(TipoDeclaracao tipo, List<Token> tokens, int inicio, int fim)
+    {
+        Token primeiro = tokens.get(inicio);
+        Token ultimo = tokens.get(fim);
+        String texto = codigo.substring(((CommonToken) primeiro).getStartIndex(), ((CommonToken) ultimo).getStopIndex() + 1);
+
+        return new Declaracao(tipo, texto, primeiro.getLine(), primeiro.getCharPositionInLine());
+    }
+
+    /**
+     * Obtém a ASA de cada declaração, reaproveitando as declarações da edição anterior que não
+     * foram alteradas.
+     *
+     * @return     <code>false</code> se alguma declaração não puder ser analisada separadamente.
+     */
+    private boolean analisarSintaxe(List<Declaracao> novasDeclaracoes)
+    {
+        Map<String, List<Declaracao>> anteriores = new HashMap<>();
+
+        for (Declaracao declaracao : declaracoes)
+        {
+            List<Declaracao> mesmoTexto = anteriores.get(declaracao.texto);
+
+            if (mesmoTexto == null)
+            {
+                mesmoTexto = new ArrayList<>(1);
+                anteriores.put(declaracao.texto, mesmoTexto);
+            }
+
+            mesmoTexto.add(declaracao);
+        }
+
+        for (int indice = 0; indice < novasDeclaracoes.size(); indice++)
+        {
+            Declaracao nova = novasDeclaracoes.get(indice);
+            Declaracao anterior = reaproveitar(anteriores.get(nova.texto), nova.linha, nova.coluna);
+
+            if (anterior != null)
+            {
+                anterior.deslocar(nova.linha);
+                novasDeclaracoes.set(indice, anterior);
+            }
+            else if (!analisarSintaxe(nova))
+            {
+                return false;
+            }
+        }
+
+        Map<String, String> novasAssinaturas = new HashMap<>();
+
+        for (Declaracao declaracao : novasDeclaracoes)
+        {
+            declaracao.adicionarAssinaturas(novasAssinaturas);
+        }
+
+        Set<String> nomesAlterados = new HashSet<>();
+
+        for (String nome : novasAssinaturas.keySet())
+        {
+            if (!novasAssinaturas.get(nome).equals(assinaturas.get(nome)))
+            {
+                nomesAlterados.add(nome);
+            }
+        }
+
+        for (String nome : assinaturas.keySet())
+        {
+            if (!novasAssinaturas.containsKey(nome))
+            {
+                nomesAlterados.add(nome);
+            }
+        }
+
+        // A função é analisada sobre uma nova ASA para não acumular as anotações da análise anterior
+        for (int indice = 0; indice < novasDeclaracoes.size(); indice++)
+        {
+            Declaracao declaracao = novasDeclaracoes.get(indice);
+
+            if (declaracao.tipo == TipoDeclaracao.FUNCAO && declaracao.analisada && !Collections.disjoint(declaracao.nomesUtilizados, nomesAlterados))
+            {
+                Declaracao copia = new Declaracao(declaracao.tipo, declaracao.texto, declaracao.linha, declaracao.coluna);
+
+                if (!analisarSintaxe(copia))
+                {
+                    return false;
+                }
+
+                novasDeclaracoes.set(indice, copia);
+            }
+        }
+
+        declaracoes = novasDeclaracoes;
+        assinaturas = novasAssinaturas;
+
+        return true;
+    }
+
+    /**
+     * Os tokens da primeira linha de uma declaração não podem mudar de coluna, pois a coluna não é
+     * deslocada, e as posições guardadas nas mensagens também não podem ser deslocadas.
+     */
+    private static Declaracao reaproveitar(List<Declaracao> mesmoTexto, int linha, int coluna)
+    {
+        if (mesmoTexto == null)
+        {
+            return null;
+        }
+
+        for (int indice = 0; indice < mesmoTexto.size(); indice++)
+        {
+            if (mesmoTexto.get(indice).linha == linha && mesmoTexto.get(indice).coluna == coluna)
+            {
+                return mesmoTexto.remove(indice);
+            }
+        }
+
+        for (int indice = 0; indice < mesmoTexto.size(); indice++)
+        {
+            if (mesmoTexto.get(indice).coluna == coluna && !mesmoTexto.get(indice).contemMensagens())
+            {
+                return mesmoTexto.remove(indice);
+            }
+        }
+
+        return null;
+    }
+
+    private boolean analisarSintaxe(final Declaracao declaracao)
+    {
+        // O fechamento do programa é incluído porque a escolha das alternativas depende do token seguinte
+        ANTLRStringStream antlrStringStream = new ANTLRStringStream(declaracao.texto + " }");
+
+        antlrStringStream.setLine(declaracao.linha);
+        antlrStringStream.setCharPositionInLine(declaracao.coluna);
+
+        CommonTokenStream commonTokenStream = new CommonTokenStream(new PortugolLexer(antlrStringStream));
+        PortugolParser portugolParser = new PortugolParser(commonTokenStream);
+
+        portugolParser.setListaTrechosCodigoFonte(declaracao.trechos);
+        portugolParser.adicionarObservadorParsing(new ObservadorParsing()
+        {
+            @Override
+            public void tratarErroParsing(RecognitionException erro, String[] tokens, Stack<String> pilhaContexto, String mensagemPadrao)
+            {
+                declaracao.errosSintaticos.add(analisadorSintatico.traduzirErroParsing(erro, tokens, pilhaContexto, mensagemPadrao, codigo));
+            }
+        });
+
+        try
+        {
+            switch (declaracao.tipo)
+            {
+                case INCLUSAO: portugolParser.inclusaoBiblioteca(declaracao.asa); break;
+                case GLOBAL: portugolParser.declaracoesGlobais(declaracao.asa); break;
+                case FUNCAO: portugolParser.declaracaoFuncao(declaracao.asa); break;
+            }
+        }
+        catch (RecognitionException excecao)
+        {
+            return false;
+        }
+
+        for (Token token : commonTokenStream.getTokens())
+        {
+            if (token.getType() == PortugolLexer.ID)
+            {
+                declaracao.nomesUtilizados.add(token.getText());
+            }
+            else if (token.getType() == PortugolLexer.ID_BIBLIOTECA)
+            {
+                declaracao.nomesUtilizados.add(token.getText().substring(0, token.getText().indexOf('.')));
+            }
+        }
+
+        // Se sobraram tokens sem nenhum erro a declaração não foi separada corretamente
+        return (commonTokenStream.LA(1) == PortugolLexer.T__82 && commonTokenStream.LA(2) == Token.EOF) || !declaracao.errosSintaticos.isEmpty();
+    }
+
+    /**
+     * Analisa as funções na ordem do código fonte, como a análise completa, pois a análise de uma
+     * função depende das variáveis globais inicializadas pelas funções anteriores.
+     */
+    private void analisarSemantica()
+    {
+        ASAPrograma asaPrograma = new ASAPrograma();
+
+        asaPrograma.setListaInclusoesBibliotecas(new ArrayList<NoInclusaoBiblioteca>());
+        asaPrograma.setListaDeclaracoesGlobais(new ArrayList<NoDeclaracao>());
+
+        for (Declaracao declaracao : declaracoes)
+        {
+            asaPrograma.getListaInclusoesBibliotecas().addAll(declaracao.asa.getListaInclusoesBibliotecas());
+            asaPrograma.getListaDeclaracoesGlobais().addAll(declaracao.asa.getListaDeclaracoesGlobais());
+        }
+
+        for (NoDeclaracao declaracao : asaPrograma.getListaDeclaracoesGlobais())
+        {
+            declaracao.removerReferencias(); // senão as funções descartadas continuariam referenciadas
+        }
+
+        List<ErroSemantico> errosGlobais = new ArrayList<>();
+        List<AvisoAnalise> avisosGlobais = new ArrayList<>();
+        DirecionadorMensagens direcionador = new DirecionadorMensagens();
+        AnalisadorSemantico analisadorSemantico = new AnalisadorSemantico();
+
+        analisadorSemantico.adicionarObservador(direcionador);
+
+        direcionador.direcionar(errosGlobais, avisosGlobais);
+        analisadorSemantico.declararSimbolosGlobais(asaPrograma);
+
+        Set<String> variaveisGlobais = new HashSet<>();
+
+        for (NoDeclaracao declaracao : asaPrograma.getListaDeclaracoesGlobais())
+        {
+            if (!(declaracao instanceof NoDeclaracaoFuncao))
+            {
+                variaveisGlobais.add(declaracao.getNome());
+            }
+        }
+
+        for (Declaracao declaracao : declaracoes)
+        {
+            if (declaracao.tipo != TipoDeclaracao.FUNCAO)
+            {
+                continue;
+            }
+
+            Set<String> globaisInicializadas = declaracao.getGlobaisInicializadas(analisadorSemantico, variaveisGlobais);
+
+            if (declaracao.analisada && !globaisInicializadas.equals(declaracao.globaisInicializadasNaEntrada))
+            {
+                declaracao.descartarAnaliseSemantica();
+            }
+
+            if (declaracao.analisada)
+            {
+                for (String nome : declaracao.globaisInicializadasPelaFuncao)
+                {
+                    analisadorSemantico.inicializarGlobal(nome);
+                }
+            }
+            else
+            {
+                direcionador.direcionar(declaracao.errosSemanticos, declaracao.avisos);
+
+                for (NoDeclaracao noDeclaracao : declaracao.asa.getListaDeclaracoesGlobais())
+                {
+                    analisadorSemantico.analisarFuncao((NoDeclaracaoFuncao) noDeclaracao);
+                }
+
+                declaracao.globaisInicializadasNaEntrada = globaisInicializadas;
+                declaracao.globaisInicializadasPelaFuncao = declaracao.getGlobaisInicializadas(analisadorSemantico, variaveisGlobais);
+                declaracao.globaisInicializadasPelaFuncao.removeAll(globaisInicializadas);
+                declaracao.analisada = true;
+            }
+        }
+
+        ResultadoAnalise resultado = new ResultadoAnalise();
+
+        for (Declaracao declaracao : declaracoes)
+        {
+            for (ErroSintatico erro : declaracao.errosSintaticos)
+            {
+                resultado.adicionarErro(erro);
+            }
+        }
+
+        for (ErroSemantico erro : errosGlobais)
+        {
+            resultado.adicionarErro(erro);
+        }
+
+        for (AvisoAnalise aviso : avisosGlobais)
+        {
+            resultado.adicionarAviso(aviso);
+        }
+
+        for (Declaracao declaracao : declaracoes)
+        {
+            for (ErroSemantico erro : declaracao.errosSemanticos)
+            {
+                resultado.adicionarErro(erro);
+            }
+
+            for (AvisoAnalise aviso : declaracao.avisos)
+            {
+                resultado.adicionarAviso(aviso);
+            }
+        }
+
+        asa = asaPrograma;
+        resultadoAnalise = resultado;
+    }
+
+    /**
+     * Os nomes dos parâmetros fazem parte da assinatura porque as mensagens da análise das
+     * chamadas citam o parâmetro que recebe cada argumento.
+     */
+    private static String getAssinatura(NoDeclaracaoFuncao funcao)
+    {
+        StringBuilder assinatura = new StringBuilder("funcao ");
+
+        assinatura.append(funcao.getTipoDado()).append(' ').append(funcao.getQuantificador()).append('(');
+
+        for (NoDeclaracaoParametro parametro : funcao.getParametros())
+        {
+            assinatura.append(parametro.getTipoDado()).append(' ').append(parametro.getQuantificador()).append(' ').append(parametro.getModoAcesso()).append(' ').append(parametro.getNome()).append(',');
+        }
+
+        return assinatura.append(')').toString();
+    }
+
+    /**
+     * Uma declaração de primeiro nível do programa, com a sua ASA e as mensagens geradas na
+     * última vez em que foi analisada.
+     */
+    private static final class Declaracao
+    {
+        private final TipoDeclaracao tipo;
+        private final String texto;
+        private final int coluna;
+        private final Set<String> nomesUtilizados = new HashSet<>();
+        private final ASAPrograma asa = new ASAPrograma();
+        private final List<TrechoCodigoFonte> trechos = new ArrayList<>();
+        private final List<ErroSintatico> errosSintaticos = new ArrayList<>(0);
+        private final List<ErroSemantico> errosSemanticos = new ArrayList<>(0);
+        private final List<AvisoAnalise> avisos = new ArrayList<>(0);
+
+        private int linha;
+        private boolean analisada = false;
+
+        // Das variáveis globais que a função usa, as que estavam inicializadas quando ela foi
+        // analisada e as que ela inicializou
+        private Set<String> globaisInicializadasNaEntrada = Collections.emptySet();
+        private Set<String> globaisInicializadasPelaFuncao = Collections.emptySet();
+
+        public Declaracao(TipoDeclaracao tipo, String texto, int linha, int coluna)
+        {
+            this.tipo = tipo;
+            this.texto = texto;
+            this.linha = linha;
+            this.coluna = coluna;
+
+            asa.setListaInclusoesBibliotecas(new ArrayList<NoInclusaoBiblioteca>(1));
+            asa.setListaDeclaracoesGlobais(new ArrayList<NoDeclaracao>(1));
+        }
+
+        public void deslocar(int novaLinha)
+        {
+            for (TrechoCodigoFonte trecho : trechos)
+            {
+                trecho.deslocarLinhas(novaLinha - linha);
+            }
+
+            linha = novaLinha;
+        }
+
+        public boolean contemMensagens()
+        {
+            return !errosSintaticos.isEmpty() || !errosSemanticos.isEmpty() || !avisos.isEmpty();
+        }
+
+        public Set<String> getGlobaisInicializadas(AnalisadorSemantico analisadorSemantico, Set<String> variaveisGlobais)
+        {
+            Set<String> globaisInicializadas = new HashSet<>();
+
+            for (String nome : nomesUtilizados)
+            {
+                if (variaveisGlobais.contains(nome) && analisadorSemantico.isGlobalInicializada(nome))
+                {
+                    globaisInicializadas.add(nome);
+                }
+            }
+
+            return globaisInicializadas;
+        }
+
+        /**
+         * Descarta as mensagens e as referências às declarações locais registradas na última
+         * análise, para que a função seja analisada novamente sobre a mesma ASA. Ela não passa
+         * novamente pelo parsing porque o seu símbolo já foi declarado com esta ASA.
+         */
+        public void descartarAnaliseSemantica()
+        {
+            errosSemanticos.clear();
+            avisos.clear();
+            analisada = false;
+
+            try
+            {
+                asa.aceitar(new VisitanteNulo()
+                {
+                    @Override
+                    public Object visitar(NoDeclaracaoVariavel declaracao) throws ExcecaoVisitaASA
+                    {
+                        declaracao.removerReferencias();
+
+                        return super.visitar(declaracao);
+                    }
+
+                    @Override
+                    public Object visitar(NoDeclaracaoVetor declaracao) throws ExcecaoVisitaASA
+                    {
+                        declaracao.removerReferencias();
+
+                        return super.visitar(declaracao);
+                    }
+
+                    @Override
+                    public Object visitar(NoDeclaracaoMatriz declaracao) throws ExcecaoVisitaASA
+                    {
+                        declaracao.removerReferencias();
+
+                        return super.visitar(declaracao);
+                    }
+
+                    @Override
+                    public Object visitar(NoDeclaracaoParametro declaracao) throws ExcecaoVisitaASA
+                    {
+                        declaracao.removerReferencias();
+
+                        return super.visitar(declaracao);
+                    }
+                });
+            }
+            catch (ExcecaoVisitaASA excecao)
+            {
+                throw new IllegalStateException(excecao); // o VisitanteNulo não lança exceções
+            }
+        }
+
+        /**
+         * Registra a assinatura de cada nome declarado, da qual dependem as funções que usam o
+         * nome. A posição não faz parte da assinatura: as mensagens da análise de uma função só
+         * citam posições da própria função, e as mensagens da declaração dos símbolos globais são
+         * geradas novamente a cada edição.
+         */
+        public void adicionarAssinaturas(Map<String, String> assinaturas)
+        {
+            for (NoInclusaoBiblioteca inclusao : asa.getListaInclusoesBibliotecas())
+            {
+                adicionarAssinatura(assinaturas, inclusao.getNome(), texto);
+
+                if (inclusao.getAlias() != null)
+                {
+                    adicionarAssinatura(assinaturas, inclusao.getAlias(), texto);
+                }
+            }
+
+            for (NoDeclaracao declaracao : asa.getListaDeclaracoesGlobais())
+            {
+                String assinatura = (declaracao instanceof NoDeclaracaoFuncao) ? getAssinatura((NoDeclaracaoFuncao) declaracao) : texto;
+
+                adicionarAssinatura(assinaturas, declaracao.getNome(), assinatura);
+            }
+        }
+
+        private static void adicionarAssinatura(Map<String, String> assinaturas, String nome, String assinatura)
+        {
+            String existente = assinaturas.get(nome);
+
+            assinaturas.put(nome, (existente != null) ? existente + "\n" + assinatura : assinatura);
+        }
+    }
+
+    /**
+     * Guarda as mensagens da análise semântica na lista da declaração que está sendo analisada.
+     */
+    private static final class DirecionadorMensagens implements ObservadorAnaliseSemantica
+    {
+        private List<ErroSemantico> erros;
+        private List<AvisoAnalise> avisos;
+
+        public void direcionar(List<ErroSemantico> erros, List<AvisoAnalise> avisos)
+        {
+            this.erros = erros;
+            this.avisos = avisos;
+        }
+
+        @Override
+        public void tratarErroSemantico(ErroSemantico erroSemantico)
+        {
+            erros.add(erroSemantico);
+        }
+
+        @Override
+        public void tratarAviso(AvisoAnalise aviso)
+        {
+            avisos.add(aviso);
+        }
+    }
+}
@@ -12,13 +12,24 @@ import br.univali.portugol.nucleo.mensagens.ErroSemantico;
 import br.univali.portugol.nucleo.simbolos.*;
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /**
  * Esta classe percorre a ASA gerada a partir do código fonte para detectar
  * erros de semântica.
+ * <p>
+ * Depois que as bibliotecas, as variáveis globais e as funções são declaradas, os blocos das
+ * funções podem ser analisados simultaneamente, em partes consecutivas do programa. O resultado
+ * de cada função é juntado na ordem do código fonte, então os erros, os avisos e os ids para
+ * inspeção são os mesmos da análise em uma única thread.
  *
  *
  * @version 2.0
@@ -30,6 +41,8 @@ public final class AnalisadorSemantico implements VisitanteASA
 {
     private static final List<String> FUNCOES_RESERVADAS = getLista();
 
+    private static final ExecutorService SERVICO_ANALISE_PADRAO = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
     private final Memoria memoria;
     private final List<ObservadorAnaliseSemantica> observadores;
     private final Map<String, MetaDadosBiblioteca> metaDadosBibliotecas;
@@ -52,12 +65,65 @@ public final class AnalisadorSemantico implements VisitanteASA
     private int totalVariaveisDeclaradas = 0; // conta variáveis e parâmetros declarados
     private int totalVetoresDeclarados = 0;
     private int totalMatrizesDeclaradas = 0;
+
+    private int numeroThreadsAnalise = Runtime.getRuntime().availableProcessors();
+    private ExecutorService servicoAnalise = SERVICO_ANALISE_PADRAO;
+
+    // Na análise parcial os resultados de cada função são guardados para serem juntados depois
+    private final boolean analiseParcial;
+    private AnaliseFuncao analiseFuncao;
     
     public AnalisadorSemantico()
     {
         memoria = new Memoria();
         metaDadosBibliotecas = new TreeMap<>();
         observadores = new ArrayList<>();
+        analiseParcial = false;
+    }
+
+    private AnalisadorSemantico(AnalisadorSemantico analisadorPrincipal)
+    {
+        memoria = new Memoria();
+        metaDadosBibliotecas = new TreeMap<>(analisadorPrincipal.metaDadosBibliotecas);
+        observadores = new ArrayList<>();
+        asa = analisadorPrincipal.asa;
+        analiseParcial = true;
+    }
+
+    /**
+     * Define em quantas partes as funções de um programa podem ser divididas para que os seus
+     * blocos sejam analisados simultaneamente. Por padrão é utilizado o número de processadores
+     * disponíveis para a JVM. Com uma única parte, todas as funções são analisadas na thread que
+     * chamou o método {@link AnalisadorSemantico#analisar(br.univali.portugol.nucleo.asa.ASA) }.
+     *
+     * @param numeroThreads o número máximo de partes, deve ser maior que zero
+     * @since 2.0
+     */
+    public void setNumeroThreadsAnalise(int numeroThreads)
+    {
+        if (numeroThreads <= 0)
+        {
+            throw new IllegalArgumentException("O número de threads de análise deve ser maior que zero");
+        }
+
+        numeroThreadsAnalise = numeroThreads;
+    }
+
+    /**
+     * Define o serviço que executa as partes analisadas simultaneamente. Por padrão é utilizado um
+     * serviço compartilhado pelos analisadores, com uma thread por processador.
+     *
+     * @param servicoAnalise o serviço de execução das partes
+     * @since 2.0
+     */
+    public void setServicoAnalise(ExecutorService servicoAnalise)
+    {
+        if (servicoAnalise == null)
+        {
+            throw new IllegalArgumentException("O serviço de análise não pode ser nulo");
+        }
+
+        this.servicoAnalise = servicoAnalise;
     }
 
     /**
@@ -95,6 +161,11 @@ public final class AnalisadorSemantico implements VisitanteASA
 
     private void notificarAviso(AvisoAnalise aviso)
     {
+        if (analiseFuncao != null)
+        {
+            analiseFuncao.mensagens.add(aviso);
+        }
+
         for (ObservadorAnaliseSemantica observadorAnaliseSemantica : observadores)
         {
             observadorAnaliseSemantica.tratarAviso(aviso);
@@ -103,6 +174,11 @@ public final class AnalisadorSemantico implements VisitanteASA
 
     private void notificarErroSemantico(ErroSemantico erroSemantico)
     {
+        if (analiseFuncao != null)
+        {
+            analiseFuncao.mensagens.add(erroSemantico);
+        }
+
         for (ObservadorAnaliseSemantica observadorAnaliseSemantica : observadores)
         {
             observadorAnaliseSemantica.tratarErroSemantico(erroSemantico);
@@ -135,8 +211,100 @@ public final class AnalisadorSemantico implements VisitanteASA
         }
     }
 
-    @Override
-    public Object visitar(ASAPrograma asap) throws ExcecaoVisitaASA
+    /**
+     * Realiza somente a primeira etapa da análise semântica de uma ASA: inclui as bibliotecas,
+     * declara as funções na tabela de símbolos e analisa as declarações globais. Depois disso,
+     * cada função pode ser analisada separadamente através do método
+     * {@link AnalisadorSemantico#analisarFuncao(br.univali.portugol.nucleo.asa.NoDeclaracaoFuncao) }.
+     * <p>
+     * Os erros são notificados aos observadores da mesma forma que no método
+     * {@link AnalisadorSemantico#analisar(br.univali.portugol.nucleo.asa.ASA) }.
+     *
+     * @param asa a ASA cujos símbolos globais serão declarados.
+     * @since 2.0
+     */
+    public void declararSimbolosGlobais(ASAPrograma asa)
+    {
+        this.asa = asa;
+
+        try
+        {
+            declaraSimbolosGlobais(asa);
+        }
+        catch (Exception excecao)
+        {
+            notificarErroSemantico(new ErroSemanticoNaoTratado(excecao));
+        }
+    }
+
+    /**
+     * Analisa os blocos de uma função do programa cujos símbolos globais foram declarados pelo
+     * método
+     * {@link AnalisadorSemantico#declararSimbolosGlobais(br.univali.portugol.nucleo.asa.ASAPrograma) }.
+     *
+     * @param declaracaoFuncao a função que será analisada.
+     * @since 2.0
+     */
+    public void analisarFuncao(NoDeclaracaoFuncao declaracaoFuncao)
+    {
+        try
+        {
+            declaracaoFuncao.aceitar(this);
+        }
+        catch (Exception excecao)
+        {
+            notificarErroSemantico(new ErroSemanticoNaoTratado(excecao));
+        }
+    }
+
+    /**
+     * Informa se a variável global foi inicializada na sua declaração ou por uma das funções
+     * analisadas até agora.
+     *
+     * @param nome o nome da variável global.
+     * @return <code>false</code> se a variável não foi inicializada ou se o nome não é de uma
+     * variável global.
+     * @since 2.0
+     */
+    public boolean isGlobalInicializada(String nome)
+    {
+        Simbolo simbolo = getVariavelGlobal(nome);
+
+        return (simbolo != null) && simbolo.inicializado();
+    }
+
+    /**
+     * Marca a variável global como inicializada, da mesma forma que a análise de uma função que a
+     * inicializa. Permite reproduzir o efeito de uma função que não é analisada novamente.
+     *
+     * @param nome o nome da variável global.
+     * @since 2.0
+     */
+    public void inicializarGlobal(String nome)
+    {
+        Simbolo simbolo = getVariavelGlobal(nome);
+
+        if (simbolo != null)
+        {
+            simbolo.setInicializado(true);
+        }
+    }
+
+    private Simbolo getVariavelGlobal(String nome)
+    {
+        try
+        {
+            Simbolo simbolo = memoria.getSimbolo(nome);
+
+            return (memoria.isGlobal(simbolo) && !(simbolo instanceof Funcao)) ? simbolo : null;
+        }
+        catch (ExcecaoSimboloNaoDeclarado excecao)
+        {
+            return null;
+        }
+    }
+
+    private void declaraSimbolosGlobais(ASAPrograma asap) throws ExcecaoVisitaASA
     {
         for (NoInclusaoBiblioteca inclusao : asap.getListaInclusoesBibliotecas())
         {
@@ -152,11 +320,37 @@ public final class AnalisadorSemantico implements VisitanteASA
         }
 
         declarandoSimbolosGlobais = false;
+    }
+
+    @Override
+    public Object visitar(ASAPrograma asap) throws ExcecaoVisitaASA
+    {
+        declaraSimbolosGlobais(asap);
 
         // Executa a segunda vez para analizar os blocos das funções
-        for (NoDeclaracao declaracao : asap.getListaDeclaracoesGlobais())
+        List<NoDeclaracao> declaracoes = asap.getListaDeclaracoesGlobais();
+        List<NoDeclaracaoFuncao> funcoes = new ArrayList<>();
+
+        for (NoDeclaracao declaracao : declaracoes)
         {
-            declaracao.aceitar(this);
+            if (declaracao instanceof NoDeclaracaoFuncao)
+            {
+                funcoes.add((NoDeclaracaoFuncao) declaracao);
+            }
+        }
+
+        int partes = Math.min(numeroThreadsAnalise, funcoes.size());
+
+        if (partes > 1)
+        {
+            analisarFuncoesEmParalelo(declaracoes, funcoes, partes);
+        }
+        else
+        {
+            for (NoDeclaracao declaracao : declaracoes)
+            {
+                declaracao.aceitar(this);
+            }
         }
 
         asap.setTotalVariaveisDeclaradas(totalVariaveisDeclaradas);
@@ -166,6 +360,315 @@ public final class AnalisadorSemantico implements VisitanteASA
         return null;
     }
 
+    /**
+     * Divide as funções em partes consecutivas. A primeira parte é analisada nesta thread e as
+     * outras são analisadas parcialmente no serviço de análise. As declarações são então
+     * percorridas na ordem do código fonte, juntando o resultado de cada função.
+     * <p>
+     * Uma análise parcial começa com as variáveis globais no estado em que ficam após a declaração.
+     * Como as declarações globais são visitadas também por este analisador, a análise parcial não
+     * altera os seus nós (veja {@link AnalisadorSemantico#podeAlterarASA() }).
+     * Se uma função leu uma variável global não inicializada que foi inicializada por uma função
+     * anterior de outra parte, ela e as funções seguintes da sua parte são analisadas novamente
+     * nesta thread.
+     */
+    private void analisarFuncoesEmParalelo(List<NoDeclaracao> declaracoes, List<NoDeclaracaoFuncao> funcoes, int partes) throws ExcecaoVisitaASA
+    {
+        List<Future<List<AnaliseFuncao>>> analisesPartes = new ArrayList<>(partes);
+
+        for (int parte = 1; parte < partes; parte++)
+        {
+            List<NoDeclaracaoFuncao> funcoesParte = funcoes.subList(getInicioParte(parte, partes, funcoes.size()), getInicioParte(parte + 1, partes, funcoes.size()));
+
+            analisesPartes.add(servicoAnalise.submit(criarAnaliseParcial(declaracoes, funcoesParte)));
+        }
+
+        try
+        {
+            int indiceFuncao = 0;
+            int parte = 0;
+            int inicioParte = 0;
+            int inicioProximaParte = getInicioParte(1, partes, funcoes.size());
+            List<AnaliseFuncao> analises = Collections.emptyList();
+
+            for (NoDeclaracao declaracao : declaracoes)
+            {
+                if (declaracao instanceof NoDeclaracaoFuncao)
+                {
+                    if (indiceFuncao == inicioProximaParte)
+                    {
+                        parte++;
+                        inicioParte = inicioProximaParte;
+                        inicioProximaParte = getInicioParte(parte + 1, partes, funcoes.size());
+                        analises = obterAnalises(analisesPartes.get(parte - 1));
+                    }
+
+                    int indiceAnalise = indiceFuncao - inicioParte;
+
+                    if (indiceAnalise >= analises.size() || !juntarAnaliseFuncao(analises.get(indiceAnalise)))
+                    {
+                        analises = Collections.emptyList();
+                        declaracao.aceitar(this);
+                    }
+
+                    indiceFuncao++;
+                }
+                else
+                {
+                    declaracao.aceitar(this);
+                }
+            }
+        }
+        finally
+        {
+            for (Future<List<AnaliseFuncao>> analiseParte : analisesPartes)
+            {
+                analiseParte.cancel(false);
+            }
+        }
+    }
+
+    private static int getInicioParte(int parte, int partes, int quantidadeFuncoes)
+    {
+        return (int) ((long) parte * quantidadeFuncoes / partes);
+    }
+
+    private Callable<List<AnaliseFuncao>> criarAnaliseParcial(final List<NoDeclaracao> declaracoes, final List<NoDeclaracaoFuncao> funcoes)
+    {
+        final AnalisadorSemantico analisador = new AnalisadorSemantico(this);
+
+        return new Callable<List<AnaliseFuncao>>()
+        {
+            @Override
+            public List<AnaliseFuncao> call()
+            {
+                return analisador.analisarParcialmente(declaracoes, funcoes);
+            }
+        };
+    }
+
+    private List<AnaliseFuncao> analisarParcialmente(List<NoDeclaracao> declaracoes, List<NoDeclaracaoFuncao> funcoes)
+    {
+        List<AnaliseFuncao> analises = new ArrayList<>(funcoes.size());
+
+        try
+        {
+            // As bibliotecas já foram incluídas pelo analisador principal
+            declarandoSimbolosGlobais = true;
+
+            for (NoDeclaracao declaracao : declaracoes)
+            {
+                declaracao.aceitar(this);
+            }
+
+            declarandoSimbolosGlobais = false;
+        }
+        catch (ExcecaoVisitaASA | RuntimeException excecao)
+        {
+            return analises;
+        }
+
+        for (NoDeclaracaoFuncao funcao : funcoes)
+        {
+            analiseFuncao = new AnaliseFuncao();
+            analises.add(analiseFuncao);
+
+            try
+            {
+                funcao.aceitar(this);
+            }
+            catch (Throwable falha)
+            {
+                analiseFuncao.falha = falha;
+                break;
+            }
+        }
+
+        analiseFuncao = null;
+
+        return analises;
+    }
+
+    private static List<AnaliseFuncao> obterAnalises(Future<List<AnaliseFuncao>> analiseParte)
+    {
+        try
+        {
+            return analiseParte.get();
+        }
+        catch (InterruptedException excecao)
+        {
+            Thread.currentThread().interrupt();
+        }
+        catch (ExecutionException excecao)
+        {
+            // As funções da parte serão analisadas novamente
+        }
+
+        return Collections.emptyList();
+    }
+
+    /**
+     * Aplica o resultado da análise parcial de uma função como se ela tivesse sido analisada por
+     * este analisador.
+     *
+     * @return <code>false</code> se a função precisa ser analisada novamente por este analisador.
+     */
+    private boolean juntarAnaliseFuncao(AnaliseFuncao analise) throws ExcecaoVisitaASA
+    {
+        if (analise.falha != null && !(analise.falha instanceof ExcecaoVisitaASA) && !(analise.falha instanceof RuntimeException))
+        {
+            return false; // StackOverflowError, por exemplo, depende da thread
+        }
+
+        for (Simbolo simbolo : analise.globaisNaoInicializados)
+        {
+            if (obterSimboloGlobal(simbolo).inicializado())
+            {
+                return false;
+            }
+        }
+
+        for (int indice = 0; indice < analise.declaracoesInspecionaveis.size(); indice++)
+        {
+            definirIdParaInspecao(analise.declaracoesInspecionaveis.get(indice), analise.quantificadores.get(indice));
+        }
+
+        for (int indice = 0; indice < analise.referencias.size(); indice++)
+        {
+            analise.declaracoesReferenciadas.get(indice).adicionarReferencia(analise.referencias.get(indice));
+        }
+
+        for (Object mensagem : analise.mensagens)
+        {
+            if (mensagem instanceof ErroSemantico)
+            {
+                notificarErroSemantico((ErroSemantico) mensagem);
+            }
+            else
+            {
+                notificarAviso((AvisoAnalise) mensagem);
+            }
+        }
+
+        for (Simbolo simbolo : analise.globaisInicializados)
+        {
+            obterSimboloGlobal(simbolo).setInicializado(true);
+        }
+
+        if (analise.falha instanceof ExcecaoVisitaASA)
+        {
+            throw (ExcecaoVisitaASA) analise.falha;
+        }
+        else if (analise.falha != null)
+        {
+            throw (RuntimeException) analise.falha;
+        }
+
+        return true;
+    }
+
+    private Simbolo obterSimboloGlobal(Simbolo simboloAnaliseParcial)
+    {
+        try
+        {
+            return memoria.getSimbolo(simboloAnaliseParcial.getNome());
+        }
+        catch (ExcecaoSimboloNaoDeclarado excecao)
+        {
+            return simboloAnaliseParcial;
+        }
+    }
+
+    /**
+     * Define o id para inspeção das declarações de variáveis, vetores, matrizes e parâmetros, na
+     * ordem em que são visitadas. Na análise parcial, a declaração só recebe o id quando o resultado
+     * da sua função é juntado.
+     */
+    private void definirIdParaInspecao(NoDeclaracao declaracao, Quantificador quantificador)
+    {
+        if (analiseParcial)
+        {
+            if (analiseFuncao != null)
+            {
+                analiseFuncao.declaracoesInspecionaveis.add(declaracao);
+                analiseFuncao.quantificadores.add(quantificador);
+            }
+
+            return;
+        }
+
+        int id;
+
+        switch (quantificador)
+        {
+            case VETOR:
+                id = totalVetoresDeclarados++;
+                break;
+            case MATRIZ:
+                id = totalMatrizesDeclaradas++;
+                break;
+            default:
+                id = totalVariaveisDeclaradas++;
+                break;
+        }
+
+        if (declaracao instanceof NoDeclaracaoParametro)
+        {
+            ((NoDeclaracaoParametro) declaracao).setIdParaInspecao(id);
+        }
+        else
+        {
+            ((NoDeclaracaoInicializavel) declaracao).setIdParaInspecao(id);
+        }
+    }
+
+    /**
+     * Os nós fora das funções de uma análise parcial são visitados ao mesmo tempo pelo analisador
+     * principal, que é o único que pode alterá-los.
+     */
+    private boolean podeAlterarASA()
+    {
+        return !analiseParcial || analiseFuncao != null;
+    }
+
+    private void adicionarReferencia(Simbolo simbolo, NoReferencia referencia)
+    {
+        if (!analiseParcial)
+        {
+            simbolo.getOrigemDoSimbolo().adicionarReferencia(referencia);
+        }
+        else if (analiseFuncao != null)
+        {
+            analiseFuncao.declaracoesReferenciadas.add(simbolo.getOrigemDoSimbolo());
+            analiseFuncao.referencias.add(referencia);
+        }
+    }
+
+    private boolean inicializado(Simbolo simbolo)
+    {
+        if (simbolo.inicializado())
+        {
+            return true;
+        }
+
+        if (analiseFuncao != null && memoria.isGlobal(simbolo))
+        {
+            analiseFuncao.globaisNaoInicializados.add(simbolo);
+        }
+
+        return false;
+    }
+
+    private void inicializar(Simbolo simbolo)
+    {
+        if (analiseFuncao != null && !simbolo.inicializado() && memoria.isGlobal(simbolo))
+        {
+            analiseFuncao.globaisInicializados.add(simbolo);
+        }
+
+        simbolo.setInicializado(true);
+    }
+
     @Override
     public Object visitar(NoCadeia noCadeia) throws ExcecaoVisitaASA
     {
@@ -655,7 +1158,7 @@ public final class AnalisadorSemantico implements VisitanteASA
                         try
                         {
                             Simbolo variavel = memoria.getSimbolo(nome);
-                            variavel.setInicializado(true);
+                            inicializar(variavel);
                         }
                         catch (ExcecaoSimboloNaoDeclarado excecaoSimboloNaoDeclarado)
                         {
@@ -756,7 +1259,7 @@ public final class AnalisadorSemantico implements VisitanteASA
                     }
                     else
                     {
-                        simbolo.getOrigemDoSimbolo().adicionarReferencia(chamadaFuncao);
+                        adicionarReferencia(simbolo, chamadaFuncao);
                     }
                 }
                 catch (ExcecaoSimboloNaoDeclarado ex)
@@ -779,7 +1282,7 @@ public final class AnalisadorSemantico implements VisitanteASA
                     notificarErroSemantico(new ErroSimboloNaoDeclarado(chamadaFuncao));
                     throw new ExcecaoVisitaASA(new ExcecaoImpossivelDeterminarTipoDado(), asa, chamadaFuncao);
                 }
-                else
+                else if (podeAlterarASA())
                 {
                     chamadaFuncao.setFuncaoDeBiblioteca(true);
                     chamadaFuncao.setTipoRetornoBiblioteca(metaDadosFuncao.getTipoDado());
@@ -861,8 +1364,7 @@ public final class AnalisadorSemantico implements VisitanteASA
     @Override
     public Object visitar(NoDeclaracaoMatriz noDeclaracaoMatriz) throws ExcecaoVisitaASA
     {
-        noDeclaracaoMatriz.setIdParaInspecao(totalMatrizesDeclaradas);
-        totalMatrizesDeclaradas++;
+        definirIdParaInspecao(noDeclaracaoMatriz, Quantificador.MATRIZ);
         
         if (declarandoSimbolosGlobais == memoria.isEscopoGlobal())
         {
@@ -1024,9 +1526,7 @@ public final class AnalisadorSemantico implements VisitanteASA
     @Override
     public Object visitar(NoDeclaracaoVariavel declaracaoVariavel) throws ExcecaoVisitaASA
     {
-        declaracaoVariavel.setIdParaInspecao(totalVariaveisDeclaradas);
-        //System.out.println(declaracaoVariavel.getNome() + " => " + totalVariaveisDeclaradas);
-        totalVariaveisDeclaradas++;
+        definirIdParaInspecao(declaracaoVariavel, Quantificador.VALOR);
         
         if (declarandoSimbolosGlobais == memoria.isEscopoGlobal())
         {
@@ -1142,8 +1642,7 @@ public final class AnalisadorSemantico implements VisitanteASA
     @Override
     public Object visitar(NoDeclaracaoVetor noDeclaracaoVetor) throws ExcecaoVisitaASA
     {
-        noDeclaracaoVetor.setIdParaInspecao(totalVetoresDeclarados);
-        totalVetoresDeclarados++;
+        definirIdParaInspecao(noDeclaracaoVetor, Quantificador.VETOR);
         
         if (declarandoSimbolosGlobais == memoria.isEscopoGlobal())
         {
@@ -1440,7 +1939,7 @@ public final class AnalisadorSemantico implements VisitanteASA
                     {
                         simbolo = memoria.getSimbolo(referencia.getNome());
 
-                        inicializadoAnterior = simbolo.inicializado();
+                        inicializadoAnterior = inicializado(simbolo);
                         simbolo.setInicializado(true);
                         if (simbolo instanceof Variavel)
                         {
@@ -1469,7 +1968,7 @@ public final class AnalisadorSemantico implements VisitanteASA
                         }
                         else if (simbolo instanceof Matriz)
                         {
-                            if (!simbolo.inicializado() && !(noOperacao.getOperandoDireito() instanceof NoMatriz))
+                            if (!inicializado(simbolo) && !(noOperacao.getOperandoDireito() instanceof NoMatriz))
                             {
                                 notificarErroSemantico(new ErroAoInicializarMatriz((Matriz) simbolo, noOperacao.getOperandoDireito().getTrechoCodigoFonte(), ((Matriz) simbolo).getNumeroLinhas(), ((Matriz) simbolo).getNumeroColunas()));
                             }
@@ -1581,7 +2080,7 @@ public final class AnalisadorSemantico implements VisitanteASA
 
         if (simbolo != null)
         {
-            simbolo.setInicializado(true);
+            inicializar(simbolo);
         }
 
         return tipoDadoRetorno;
@@ -1804,7 +2303,7 @@ public final class AnalisadorSemantico implements VisitanteASA
             }
             else
             {
-                ((Matriz) simbolo).getOrigemDoSimbolo().adicionarReferencia(noReferenciaMatriz);
+                adicionarReferencia(simbolo, noReferenciaMatriz);
             }
 
             return simbolo.getTipoDado();
@@ -1867,7 +2366,7 @@ public final class AnalisadorSemantico implements VisitanteASA
             }
             else
             {
-                ((Vetor) simbolo).getOrigemDoSimbolo().adicionarReferencia(noReferenciaVetor);
+                adicionarReferencia(simbolo, noReferenciaVetor);
             }
 
             return simbolo.getTipoDado();
@@ -1971,21 +2470,7 @@ public final class AnalisadorSemantico implements VisitanteASA
     @Override
     public Object visitar(NoDeclaracaoParametro noDeclaracaoParametro) throws ExcecaoVisitaASA
     {
-        switch (noDeclaracaoParametro.getQuantificador())
-        {
-            case VALOR:
-                noDeclaracaoParametro.setIdParaInspecao(totalVariaveisDeclaradas);
-                totalVariaveisDeclaradas++;
-                break;
-            case VETOR:
-                noDeclaracaoParametro.setIdParaInspecao(totalVetoresDeclarados);
-                totalVetoresDeclarados++;
-                break;
-            case MATRIZ:
-                noDeclaracaoParametro.setIdParaInspecao(totalMatrizesDeclaradas);
-                totalMatrizesDeclaradas++;
-                break;
-        }
+        definirIdParaInspecao(noDeclaracaoParametro, noDeclaracaoParametro.getQuantificador());
         
         String nome = noDeclaracaoParametro.getNome();
         TipoDado tipoDado = noDeclaracaoParametro.getTipoDado();
@@ -2227,7 +2712,7 @@ public final class AnalisadorSemantico implements VisitanteASA
         {
             Simbolo simbolo = memoria.getSimbolo(noReferenciaVariavel.getNome());
 
-            if (!simbolo.inicializado())
+            if (!inicializado(simbolo))
             {
                 notificarErroSemantico(new ErroSimboloNaoInicializado(noReferenciaVariavel, simbolo));
             }
@@ -2238,15 +2723,15 @@ public final class AnalisadorSemantico implements VisitanteASA
             }
             else if (simbolo instanceof Variavel)
             {
-                ((Variavel) simbolo).getOrigemDoSimbolo().adicionarReferencia(noReferenciaVariavel);
+                adicionarReferencia(simbolo, noReferenciaVariavel);
             }
             else if (simbolo instanceof Vetor)
             {
-                simbolo.getOrigemDoSimbolo().adicionarReferencia(noReferenciaVariavel);
+                adicionarReferencia(simbolo, noReferenciaVariavel);
             }
             else if (simbolo instanceof Matriz)
             {
-                simbolo.getOrigemDoSimbolo().adicionarReferencia(noReferenciaVariavel);
+                adicionarReferencia(simbolo, noReferenciaVariavel);
             }
             
             return simbolo.getTipoDado();
@@ -2271,8 +2756,11 @@ public final class AnalisadorSemantico implements VisitanteASA
 
             if (metaDadosConstante != null)
             {
-                noReferenciaVariavel.setVariavelDeBiblioteca(true);
-                noReferenciaVariavel.setTipoBiblioteca(metaDadosConstante.getTipoDado());
+                if (podeAlterarASA())
+                {
+                    noReferenciaVariavel.setVariavelDeBiblioteca(true);
+                    noReferenciaVariavel.setTipoBiblioteca(metaDadosConstante.getTipoDado());
+                }
                 
                 return metaDadosConstante.getTipoDado();
             }
@@ -2373,4 +2861,20 @@ public final class AnalisadorSemantico implements VisitanteASA
     {
         throw new ExcecaoVisitaASA("Erro", new ErroComandoNaoSuportado(noVaPara.getTrechoCodigoFonte()), asa, noVaPara);
     }
+
+    /**
+     * O resultado da análise parcial de uma função. Os símbolos são os do analisador parcial e
+     * correspondem, pelo nome, às variáveis globais do analisador principal.
+     */
+    private static final class AnaliseFuncao
+    {
+        private final List<Object> mensagens = new ArrayList<>();
+        private final List<NoDeclaracao> declaracoesInspecionaveis = new ArrayList<>();
+        private final List<Quantificador> quantificadores = new ArrayList<>();
+        private final List<NoDeclaracao> declaracoesReferenciadas = new ArrayList<>();
+        private final List<NoReferencia> referencias = new ArrayList<>();
+        private final List<Simbolo> globaisNaoInicializados = new ArrayList<>();
+        private final List<Simbolo> globaisInicializados = new ArrayList<>();
+        private Throwable falha;
+    }
 }
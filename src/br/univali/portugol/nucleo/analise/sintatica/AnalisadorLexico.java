@@ -0,0 +1,364 @@
+package br.univali.portugol.nucleo.analise.sintatica;
+
+import br.univali.portugol.nucleo.analise.sintatica.AnalisadorSintatico.TipoToken;
+import java.util.Arrays;
+import org.antlr.runtime.ANTLRStringStream;
+import org.antlr.runtime.CommonToken;
+import org.antlr.runtime.RecognitionException;
+import org.antlr.runtime.Token;
+
+/**
+ * Separa um código fonte em tokens sem realizar o parsing nem construir a ASA, para ser utilizado
+ * no destaque de sintaxe de um editor.
+ * <p>
+ * Os tokens são mantidos em um único vetor de inteiros, com três posições por token: o tipo do
+ * token no {@link PortugolLexer}, a posição onde ele inicia no código e a sua quantidade de
+ * caracteres. Os espaços em branco não são incluídos, mas os comentários são.
+ * <p>
+ * Após uma edição, o código é separado novamente somente a partir do início da linha editada (ou
+ * do início do token que atravessa esta linha, como um comentário de várias linhas) até o primeiro
+ * token após o trecho editado que coincide com um token anterior à edição. Os tokens seguintes são
+ * apenas deslocados. Como o analisador léxico pode olhar além do fim de um token quando encontra
+ * aspas sem fechamento ou um erro léxico, nestes casos a separação recomeça na linha do primeiro
+ * destes tokens.
+ * <p>
+ * Um analisador léxico não deve ser utilizado por várias threads ao mesmo tempo.
+ *
+ * @since 2.0
+ * @see AnalisadorSintatico#getTipoToken(java.lang.String)
+ */
+public final class AnalisadorLexico
+{
+    /**
+     * Posição do tipo do token dentro das três posições de cada token no vetor de tokens.
+     */
+    public static final int TIPO = 0;
+
+    /**
+     * Posição do início do token dentro das três posições de cada token no vetor de tokens.
+     */
+    public static final int INICIO = 1;
+
+    /**
+     * Posição do tamanho do token dentro das três posições de cada token no vetor de tokens.
+     */
+    public static final int TAMANHO = 2;
+
+    private static final int CAMPOS = 3;
+
+    private static final TipoToken[] tiposTokens = new TipoToken[PortugolParser.tokenNames.length];
+
+    static
+    {
+        for (int tipo = 0; tipo < tiposTokens.length; tipo++)
+        {
+            tiposTokens[tipo] = AnalisadorSintatico.getTipoToken(AnalisadorSintatico.getToken(PortugolParser.tokenNames, tipo));
+        }
+    }
+
+    private String codigo;
+    private int[] tokens;
+    private int quantidadeTokens;
+    private int inicioInstavel;
+
+    /**
+     * Separa o código informado em tokens.
+     *
+     * @param codigo     o código fonte.
+     */
+    public AnalisadorLexico(String codigo)
+    {
+        this.codigo = codigo;
+        this.tokens = new int[Math.max(codigo.length() / 2, 16) * CAMPOS];
+        this.inicioInstavel = Integer.MAX_VALUE;
+
+        separar(0, 0, 0, null, 0, 0);
+    }
+
+    /**
+     * Aplica uma edição ao código fonte e separa novamente em tokens somente o trecho afetado.
+     *
+     * @param posicao             a posição do código onde a edição inicia.
+     * @param tamanhoRemovido     a quantidade de caracteres removidos a partir da posição.
+     * @param textoInserido       o texto inserido na posição, pode ser <code>null</code>.
+     * @return                    o índice do primeiro token que foi separado novamente. Os tokens
+     *                            anteriores a este índice não foram alterados.
+     * @throws IllegalArgumentException se o trecho removido estiver fora do código.
+     */
+    public int editar(int posicao, int tamanhoRemovido, String textoInserido)
+    {
+        if (posicao < 0 || tamanhoRemovido < 0 || posicao + tamanhoRemovido > codigo.length())
+        {
+            throw new IllegalArgumentException(String.format("A edição na posição %d removendo %d caracteres está fora do código, que possui %d caracteres", posicao, tamanhoRemovido, codigo.length()));
+        }
+
+        String inserido = (textoInserido != null) ? textoInserido : "";
+        int reinicio = codigo.lastIndexOf('\n', posicao - 1) + 1;
+
+        if (inicioInstavel < reinicio)
+        {
+            reinicio = codigo.lastIndexOf('\n', inicioInstavel - 1) + 1;
+        }
+
+        int indice = getIndiceToken(reinicio);
+
+        if (indice < quantidadeTokens && tokens[indice * CAMPOS + INICIO] < reinicio)
+        {
+            reinicio = tokens[indice * CAMPOS + INICIO];
+        }
+
+        int[] tokensAnteriores = tokens;
+        int quantidadeAnterior = quantidadeTokens;
+        int inicioInstavelAnterior = inicioInstavel;
+
+        codigo = codigo.substring(0, posicao) + inserido + codigo.substring(posicao + tamanhoRemovido);
+        tokens = new int[tokensAnteriores.length];
+        System.arraycopy(tokensAnteriores, 0, tokens, 0, indice * CAMPOS);
+        inicioInstavel = (inicioInstavelAnterior < reinicio) ? inicioInstavelAnterior : Integer.MAX_VALUE;
+
+        separar(reinicio, indice, posicao + inserido.length(), tokensAnteriores, quantidadeAnterior, inserido.length() - tamanhoRemovido);
+
+        if (inicioInstavelAnterior >= reinicio && inicioInstavelAnterior != Integer.MAX_VALUE)
+        {
+            // Só é guardado o primeiro token instável. Se ele estava no trecho editado, os tokens
+            // instáveis seguintes não são conhecidos e a posição da edição é usada no lugar deles
+            int deslocado = (inicioInstavelAnterior >= posicao + tamanhoRemovido) ? inicioInstavelAnterior + inserido.length() - tamanhoRemovido : posicao;
+
+            inicioInstavel = Math.min(inicioInstavel, deslocado);
+        }
+
+        return indice;
+    }
+
+    /**
+     * @return     o código fonte atual, com todas as edições aplicadas.
+     */
+    public String getCodigo()
+    {
+        return codigo;
+    }
+
+    /**
+     * @return     a quantidade de tokens do código.
+     */
+    public int getQuantidadeTokens()
+    {
+        return quantidadeTokens;
+    }
+
+    /**
+     * Obtém uma cópia dos tokens, com três posições por token acessadas através das constantes
+     * {@link #TIPO}, {@link #INICIO} e {@link #TAMANHO}.
+     *
+     * @return     o vetor com os tokens do código.
+     */
+    public int[] getTokens()
+    {
+        return Arrays.copyOf(tokens, quantidadeTokens * CAMPOS);
+    }
+
+    /**
+     * @param indice     o índice do token.
+     * @return           o tipo do token no {@link PortugolLexer}.
+     */
+    public int getTipo(int indice)
+    {
+        return tokens[verificarIndice(indice) * CAMPOS + TIPO];
+    }
+
+    /**
+     * @param indice     o índice do token.
+     * @return           a posição do código onde o token inicia.
+     */
+    public int getInicio(int indice)
+    {
+        return tokens[verificarIndice(indice) * CAMPOS + INICIO];
+    }
+
+    /**
+     * @param indice     o índice do token.
+     * @return           a quantidade de caracteres do token.
+     */
+    public int getTamanho(int indice)
+    {
+        return tokens[verificarIndice(indice) * CAMPOS + TAMANHO];
+    }
+
+    /**
+     * @param indice     o índice do token.
+     * @return           a classificação do token para o destaque de sintaxe.
+     */
+    public TipoToken getTipoToken(int indice)
+    {
+        return classificar(getTipo(indice));
+    }
+
+    /**
+     * Obtém a classificação de um tipo de token do {@link PortugolLexer}, a mesma de
+     * {@link AnalisadorSintatico#getTipoToken(java.lang.String)} para o nome do token.
+     *
+     * @param tipo     o tipo do token.
+     * @return         a classificação do tipo de token.
+     */
+    public static TipoToken classificar(int tipo)
+    {
+        return (tipo >= 0 && tipo < tiposTokens.length) ? tiposTokens[tipo] : TipoToken.NAO_MAPEADO;
+    }
+
+    /**
+     * Obtém o índice do primeiro token que termina após a posição informada, útil para percorrer
+     * somente os tokens de um trecho visível do código.
+     *
+     * @param posicao     a posição do código.
+     * @return            o índice do token, ou a quantidade de tokens se nenhum token termina após
+     *                    a posição.
+     */
+    public int getIndiceToken(int posicao)
+    {
+        int inicio = 0;
+        int fim = quantidadeTokens;
+
+        while (inicio < fim)
+        {
+            int meio = (inicio + fim) >>> 1;
+
+            if (tokens[meio * CAMPOS + INICIO] + tokens[meio * CAMPOS + TAMANHO] <= posicao)
+            {
+                inicio = meio + 1;
+            }
+            else
+            {
+                fim = meio;
+            }
+        }
+
+        return inicio;
+    }
+
+    private int verificarIndice(int indice)
+    {
+        if (indice < 0 || indice >= quantidadeTokens)
+        {
+            throw new IndexOutOfBoundsException(String.format("O token %d não existe, o código possui %d tokens", indice, quantidadeTokens));
+        }
+
+        return indice;
+    }
+
+    /**
+     * Separa os tokens a partir da posição informada, mantendo os tokens anteriores ao índice
+     * informado. Se houver tokens anteriores à edição, a separação termina no primeiro token após
+     * o fim do trecho inserido que inicia na mesma posição, deslocada, de um token anterior. Os
+     * tokens anteriores restantes são então copiados com o deslocamento.
+     */
+    private void separar(int inicio, int indice, int fimInserido, int[] tokensAnteriores, int quantidadeAnterior, int deslocamento)
+    {
+        quantidadeTokens = indice;
+
+        final int[] erro = { Integer.MAX_VALUE };
+
+        ANTLRStringStream stream = new ANTLRStringStream(codigo);
+        stream.seek(inicio);
+
+        PortugolLexer portugolLexer = new PortugolLexer(stream)
+        {
+            @Override
+            public void reportError(RecognitionException excecao)
+            {
+                erro[0] = Math.min(erro[0], Math.min(excecao.index, state.tokenStartCharIndex)); // o erro pode ser detectado só no fim do código
+            }
+        };
+
+        int anterior = quantidadeTokens;
+
+        for (Token token = portugolLexer.nextToken(); token.getType() != Token.EOF; token = portugolLexer.nextToken())
+        {
+            if (token.getType() == PortugolLexer.ESPACO)
+            {
+                continue;
+            }
+
+            CommonToken commonToken = (CommonToken) token;
+            int inicioToken = commonToken.getStartIndex();
+
+            if (tokensAnteriores != null && inicioToken >= fimInserido)
+            {
+                anterior = procurarToken(tokensAnteriores, anterior, quantidadeAnterior, inicioToken - deslocamento);
+
+                if (anterior < quantidadeAnterior && tokensAnteriores[anterior * CAMPOS + INICIO] == inicioToken - deslocamento)
+                {
+                    copiarDeslocados(tokensAnteriores, anterior, quantidadeAnterior, deslocamento);
+                    inicioInstavel = Math.min(inicioInstavel, erro[0]);
+
+                    return;
+                }
+            }
+
+            if (token.getType() == PortugolLexer.GAMBIARRA)
+            {
+                erro[0] = Math.min(erro[0], inicioToken);
+            }
+
+            adicionar(token.getType(), inicioToken, commonToken.getStopIndex() - inicioToken + 1);
+        }
+
+        inicioInstavel = Math.min(inicioInstavel, erro[0]);
+    }
+
+    private static int procurarToken(int[] tokens, int inicio, int fim, int posicao)
+    {
+        while (inicio < fim)
+        {
+            int meio = (inicio + fim) >>> 1;
+
+            if (tokens[meio * CAMPOS + INICIO] < posicao)
+            {
+                inicio = meio + 1;
+            }
+            else
+            {
+                fim = meio;
+            }
+        }
+
+        return inicio;
+    }
+
+    private void adicionar(int tipo, int inicio, int tamanho)
+    {
+        if ((quantidadeTokens + 1) * CAMPOS > tokens.length)
+        {
+            tokens = Arrays.copyOf(tokens, tokens.length * 2);
+        }
+
+        int base = quantidadeTokens * CAMPOS;
+
+        tokens[base + TIPO] = tipo;
+        tokens[base + INICIO] = inicio;
+        tokens[base + TAMANHO] = tamanho;
+
+        quantidadeTokens++;
+    }
+
+    private void copiarDeslocados(int[] tokensAnteriores, int indice, int quantidadeAnterior, int deslocamento)
+    {
+        int restantes = quantidadeAnterior - indice;
+
+        if ((quantidadeTokens + restantes) * CAMPOS > tokens.length)
+        {
+            tokens = Arrays.copyOf(tokens, (quantidadeTokens + restantes) * CAMPOS + 16 * CAMPOS);
+        }
+
+        System.arraycopy(tokensAnteriores, indice * CAMPOS, tokens, quantidadeTokens * CAMPOS, restantes * CAMPOS);
+
+        if (deslocamento != 0)
+        {
+            for (int base = quantidadeTokens * CAMPOS + INICIO, fim = (quantidadeTokens + restantes) * CAMPOS; base < fim; base += CAMPOS)
+            {
+                tokens[base] += deslocamento;
+            }
+        }
+
+        quantidadeTokens += restantes;
+    }
+}
@@ -14,10 +14,10 @@ import br.univali.portugol.nucleo.analise.sintatica.tradutores.TradutorNoViableA
 import br.univali.portugol.nucleo.analise.sintatica.tradutores.TradutorUnwantedTokenException;
 import br.univali.portugol.nucleo.asa.ASA;
 import br.univali.portugol.nucleo.mensagens.ErroSintatico;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Stack;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.antlr.runtime.ANTLRStringStream;
@@ -50,7 +50,7 @@ import org.antlr.runtime.UnwantedTokenException;
  * @see PortugolLexer
  * @see PortugolParser
  */
-public final class AnalisadorSintatico implements ObservadorParsing
+public final class AnalisadorSintatico
 {
     public static enum TipoToken { PALAVRA_RESERVADA, OPERADOR, TIPO_PRIMITIVO, OUTRO, NAO_MAPEADO, ID };
     
@@ -97,32 +97,23 @@ public final class AnalisadorSintatico implements ObservadorParsing
         "se", "para", "enquanto", "facaEnquanto", "escolha"
     });
     
-    private String codigoFonte;
-    private List<ObservadorAnaliseSintatica> observadores;
-    private TradutorEarlyExitException tradutorEarlyExitException;
-    private TradutorFailedPredicateException tradutorFailedPredicateException;
-    private TradutorMismatchedRangeException tradutorMismatchedRangeException;
-    private TradutorMismatchedSetException tradutorMismatchedSetException;
-    private TradutorMismatchedNotSetException tradutorMismatchedNotSetException;
-    private TradutorMismatchedTokenException tradutorMismatchedTokenException;
-    private TradutorMissingTokenException tradutorMissingTokenException;
-    private TradutorUnwantedTokenException tradutorUnwantedTokenException;
-    private TradutorMismatchedTreeNodeException tradutorMismatchedTreeNodeException;
-    private TradutorNoViableAltException tradutorNoViableAltException;
+    // Os tradutores não guardam estado, então são compartilhados por todas as análises
+    private static final TradutorEarlyExitException tradutorEarlyExitException = new TradutorEarlyExitException();
+    private static final TradutorFailedPredicateException tradutorFailedPredicateException = new TradutorFailedPredicateException();
+    private static final TradutorMismatchedRangeException tradutorMismatchedRangeException = new TradutorMismatchedRangeException();
+    private static final TradutorMismatchedSetException tradutorMismatchedSetException = new TradutorMismatchedSetException();
+    private static final TradutorMismatchedNotSetException tradutorMismatchedNotSetException = new TradutorMismatchedNotSetException();
+    private static final TradutorMismatchedTokenException tradutorMismatchedTokenException = new TradutorMismatchedTokenException();
+    private static final TradutorMissingTokenException tradutorMissingTokenException = new TradutorMissingTokenException();
+    private static final TradutorUnwantedTokenException tradutorUnwantedTokenException = new TradutorUnwantedTokenException();
+    private static final TradutorMismatchedTreeNodeException tradutorMismatchedTreeNodeException = new TradutorMismatchedTreeNodeException();
+    private static final TradutorNoViableAltException tradutorNoViableAltException = new TradutorNoViableAltException();
+
+    private final CopyOnWriteArrayList<ObservadorAnaliseSintatica> observadores;
 
     public AnalisadorSintatico()
     {
-        observadores = new ArrayList<>();
-        tradutorEarlyExitException = new TradutorEarlyExitException();
-        tradutorFailedPredicateException = new TradutorFailedPredicateException();
-        tradutorMismatchedRangeException = new TradutorMismatchedRangeException();
-        tradutorMismatchedSetException = new TradutorMismatchedSetException();
-        tradutorMismatchedNotSetException = new TradutorMismatchedNotSetException();
-        tradutorMismatchedTokenException = new TradutorMismatchedTokenException();
-        tradutorMissingTokenException = new TradutorMissingTokenException();
-        tradutorUnwantedTokenException = new TradutorUnwantedTokenException();
-        tradutorMismatchedTreeNodeException = new TradutorMismatchedTreeNodeException();
-        tradutorNoViableAltException = new TradutorNoViableAltException();
+        observadores = new CopyOnWriteArrayList<>();
     }
 
     /**
@@ -131,32 +122,62 @@ public final class AnalisadorSintatico implements ObservadorParsing
      * @return     a ASA resultante do parsing do código fonte.
      * @since 1.0
      */
-    public synchronized ASA analisar(String codigoFonte)
+    public ASA analisar(String codigoFonte)
+    {
+        return analisar(codigoFonte, null);
+    }
+
+    /**
+     * Realiza o parsing do código fonte notificando os erros sintáticos aos observadores registrados
+     * e ao observador informado, que recebe somente os erros desta análise.
+     * <p>
+     * Todo o estado do parsing pertence à chamada, então um mesmo analisador pode analisar vários
+     * códigos ao mesmo tempo em threads diferentes. Os erros não são impressos no console, somente
+     * notificados aos observadores.
+     *
+     * @param codigoFonte     o código fonte no qual será realizado o parsing e a análise.
+     * @param observador      o observador dos erros desta análise, pode ser <code>null</code>.
+     * @return                a ASA resultante do parsing do código fonte.
+     * @since 2.0
+     */
+    public ASA analisar(final String codigoFonte, final ObservadorAnaliseSintatica observador)
     {
         try
         {
-            this.codigoFonte = codigoFonte;
-            
             ANTLRStringStream antlrStringStream = new ANTLRStringStream(codigoFonte);
-            PortugolLexer portugolLexer = new PortugolLexer(antlrStringStream);
+            PortugolLexer portugolLexer = new PortugolLexer(antlrStringStream)
+            {
+                @Override
+                public void emitErrorMessage(String mensagem)
+                {
+                    // O caractere inválido é descartado e o erro resultante é informado pelo parser
+                }
+            };
             CommonTokenStream commonTokenStream = new CommonTokenStream(portugolLexer);
             PortugolParser portugolParser = new PortugolParser(commonTokenStream);
 
-            portugolParser.adicionarObservadorParsing(this);
+            portugolParser.adicionarObservadorParsing(new ObservadorParsing()
+            {
+                @Override
+                public void tratarErroParsing(RecognitionException erro, String[] tokens, Stack<String> pilhaContexto, String mensagemPadrao)
+                {
+                    notificarErroSintatico(traduzirErroParsing(erro, tokens, pilhaContexto, mensagemPadrao, codigoFonte), observador);
+                }
+            });
             ASA asa = portugolParser.parse();
             
-            verificarCaracteresAposEscopoPrograma(codigoFonte);
+            verificarCaracteresAposEscopoPrograma(codigoFonte, observador);
             
             return asa;
         }
         catch (RecognitionException excecao)
         {
-            excecao.printStackTrace(System.out);
+            notificarErroSintatico(new ErroParsingNaoTratado(excecao, excecao.toString(), "programa"), observador);
             return null;
         }
     }
     
-    private void verificarCaracteresAposEscopoPrograma(String codigoFonte)
+    private void verificarCaracteresAposEscopoPrograma(String codigoFonte, ObservadorAnaliseSintatica observador)
     {
         Matcher m = padraoEscopoPrograma.matcher(codigoFonte);
         
@@ -199,22 +220,13 @@ public final class AnalisadorSintatico implements ObservadorParsing
                     
                     if (!tempTexto.startsWith("/*") && !tempTexto.endsWith("*/"))
                     {
-                        notificarErroSintatico(new ErroExpressoesForaEscopoPrograma(texto, posicao, codigoFonte, ErroExpressoesForaEscopoPrograma.Local.DEPOIS));
+                        notificarErroSintatico(new ErroExpressoesForaEscopoPrograma(texto, posicao, codigoFonte, ErroExpressoesForaEscopoPrograma.Local.DEPOIS), observador);
                     }
                 }
             }
         }
     }    
 
-    /**
-     * {@inheritDoc }
-     */
-    @Override
-    public void tratarErroParsing(RecognitionException erro, String[] tokens, Stack<String> pilhaContexto, String mensagemPadrao)
-    {
-        notificarErroSintatico(traduzirErroParsing(erro, tokens, pilhaContexto, mensagemPadrao, codigoFonte));
-    }
-
     /**
      * Encaminha o erro de parsing do ANTLR para o tradutor apropriado.
      * 
@@ -227,11 +239,6 @@ public final class AnalisadorSintatico implements ObservadorParsing
      */
     public ErroSintatico traduzirErroParsing(RecognitionException erro, String[] tokens, Stack<String> pilhaContexto, String mensagemPadrao, String codigoFonte)
     {
-        System.out.println("Traduzindo erro sintático: " + erro.getClass().getName());
-        System.out.println(mensagemPadrao);
-        System.out.println("Contexto atual: " + pilhaContexto.peek());
-        System.out.println();
-        
         if (erro instanceof EarlyExitException)
         {
             return tradutorEarlyExitException.traduzirErroParsing((EarlyExitException) erro, tokens, pilhaContexto, mensagemPadrao, codigoFonte);
@@ -315,10 +322,7 @@ public final class AnalisadorSintatico implements ObservadorParsing
      */
     public void adicionarObservador(ObservadorAnaliseSintatica observadorAnaliseSintatica)
     {
-        if (!observadores.contains(observadorAnaliseSintatica))
-        {
-            observadores.add(observadorAnaliseSintatica);
-        }
+        observadores.addIfAbsent(observadorAnaliseSintatica);
     }
 
     /**
@@ -335,17 +339,24 @@ public final class AnalisadorSintatico implements ObservadorParsing
     }
 
     /**
-     * Notifica todos os observadores registrados a respeito de um erro sintático ocorrido durante a análise.
+     * Notifica todos os observadores registrados e o observador da análise em andamento a respeito de
+     * um erro sintático ocorrido durante a análise.
      * 
-     * @param erroSintatico     o erro sintático ocorrido.
+     * @param erroSintatico           o erro sintático ocorrido.
+     * @param observadorAnalise       o observador da análise em andamento, pode ser <code>null</code>.
      * @since 1.0
      */
-    private void notificarErroSintatico(ErroSintatico erroSintatico)
+    private void notificarErroSintatico(ErroSintatico erroSintatico, ObservadorAnaliseSintatica observadorAnalise)
     {
         for (ObservadorAnaliseSintatica observador : observadores)
         {
             observador.tratarErroSintatico(erroSintatico);
         }
+
+        if (observadorAnalise != null)
+        {
+            observadorAnalise.tratarErroSintatico(erroSintatico);
+        }
     }
     
     public static TipoToken getTipoToken(String token)
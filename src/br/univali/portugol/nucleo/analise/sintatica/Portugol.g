@@ -26,6 +26,7 @@ grammar Portugol;
 	private int quantidadeErros = 0;		
 	private Stack<String> pilhaContexto = new Stack<String>();
 	private List<ObservadorParsing> observadores  = new ArrayList<ObservadorParsing>();
+	private List<TrechoCodigoFonte> trechosCodigoFonte = null;
 	
 	public PortugolParser(CommonTokenStream a, RecognizerSharedState b)
 	{
@@ -43,6 +44,27 @@ grammar Portugol;
 	{
 		observadores.remove(observador);
 	}
+	
+	/**
+	 * Define uma lista na qual serão guardados todos os trechos de código fonte criados durante o
+	 * parsing, para que possam ser deslocados quando o código acima deles for editado.
+	 */
+	public void setListaTrechosCodigoFonte(List<TrechoCodigoFonte> trechosCodigoFonte)
+	{
+		this.trechosCodigoFonte = trechosCodigoFonte;
+	}
+	
+	private TrechoCodigoFonte criarTrechoCodigoFonte(int linha, int coluna, int tamanhoTexto)
+	{
+		TrechoCodigoFonte trechoCodigoFonte = new TrechoCodigoFonte(linha, coluna, tamanhoTexto);
+		
+		if (trechosCodigoFonte != null)
+		{
+			trechosCodigoFonte.add(trechoCodigoFonte);
+		}
+		
+		return trechoCodigoFonte;
+	}
 
 	@Override
 	public void displayRecognitionError(String[] tokenNames, RecognitionException e)
@@ -100,7 +122,7 @@ grammar Portugol;
 			int coluna = tokenAntlr.getCharPositionInLine();
 			int tamanhoTexto = tokenAntlr.getText().length();
 			
-			return new TrechoCodigoFonte(linha, coluna, tamanhoTexto);
+			return criarTrechoCodigoFonte(linha, coluna, tamanhoTexto);
 		}
 		
 		return null;
@@ -114,7 +136,7 @@ grammar Portugol;
 			int coluna = abreEscopo.getCharPositionInLine();			
 			int tamanhoTexto = fechaEscopo.getTokenIndex() + 1 - abreEscopo.getTokenIndex();
 			
-			return new TrechoCodigoFonte(linha, coluna, tamanhoTexto);
+			return criarTrechoCodigoFonte(linha, coluna, tamanhoTexto);
 	      	}
 	      	
 	      	return null;
@@ -293,7 +315,7 @@ inclusaoBiblioteca[ArvoreSintaticaAbstrataPrograma asa] @init
 			
 			else tamanho = tamanho - $nome.getCharPositionInLine() + $nome.getText().length();
 			
-			noInclusaoBiblioteca.setTrechoCodigoFonte(new TrechoCodigoFonte(linha, coluna, tamanho));
+			noInclusaoBiblioteca.setTrechoCodigoFonte(criarTrechoCodigoFonte(linha, coluna, tamanho));
 			
 			asa.getListaInclusoesBibliotecas().add(noInclusaoBiblioteca);
 		}
@@ -681,7 +703,7 @@ para returns[NoPara para] @init
     			int coluna =  $PR_PARA.getCharPositionInLine();
     			int tamanhoTexto = $fp.getCharPositionInLine() - $PR_PARA.getCharPositionInLine();
 			
-			para.setTrechoCodigoFonte(new TrechoCodigoFonte(linha, coluna, tamanhoTexto));
+			para.setTrechoCodigoFonte(criarTrechoCodigoFonte(linha, coluna, tamanhoTexto));
 		}
 	}
 ;
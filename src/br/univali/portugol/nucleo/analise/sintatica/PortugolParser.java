@@ -147,6 +147,7 @@ public class PortugolParser extends Parser
     private int quantidadeErros = 0;
     private Stack<String> pilhaContexto = new Stack<String>();
     private List<ObservadorParsing> observadores = new ArrayList<ObservadorParsing>();
+    private List<TrechoCodigoFonte> trechosCodigoFonte = null;
 
     public PortugolParser(CommonTokenStream a, RecognizerSharedState b)
     {
@@ -166,6 +167,27 @@ public class PortugolParser extends Parser
         observadores.remove(observador);
     }
 
+    /**
+     * Define uma lista na qual serão guardados todos os trechos de código fonte criados durante o
+     * parsing, para que possam ser deslocados quando o código acima deles for editado.
+     */
+    public void setListaTrechosCodigoFonte(List<TrechoCodigoFonte> trechosCodigoFonte)
+    {
+        this.trechosCodigoFonte = trechosCodigoFonte;
+    }
+
+    private TrechoCodigoFonte criarTrechoCodigoFonte(int linha, int coluna, int tamanhoTexto)
+    {
+        TrechoCodigoFonte trechoCodigoFonte = new TrechoCodigoFonte(linha, coluna, tamanhoTexto);
+
+        if (trechosCodigoFonte != null)
+        {
+            trechosCodigoFonte.add(trechoCodigoFonte);
+        }
+
+        return trechoCodigoFonte;
+    }
+
     @Override
     public void displayRecognitionError(String[] tokenNames, RecognitionException e)
     {
@@ -221,7 +243,7 @@ public class PortugolParser extends Parser
             int coluna = tokenAntlr.getCharPositionInLine();
             int tamanhoTexto = tokenAntlr.getText().length();
 
-            return new TrechoCodigoFonte(linha, coluna, tamanhoTexto);
+            return criarTrechoCodigoFonte(linha, coluna, tamanhoTexto);
         }
 
         return null;
@@ -235,7 +257,7 @@ public class PortugolParser extends Parser
             int coluna = abreEscopo.getCharPositionInLine();
             int tamanhoTexto = fechaEscopo.getTokenIndex() + 1 - abreEscopo.getTokenIndex();
 
-            return new TrechoCodigoFonte(linha, coluna, tamanhoTexto);
+            return criarTrechoCodigoFonte(linha, coluna, tamanhoTexto);
         }
 
         return null;
@@ -550,7 +572,7 @@ public class PortugolParser extends Parser
                             tamanho = tamanho - nome.getCharPositionInLine() + nome.getText().length();
                         }
 
-                        noInclusaoBiblioteca.setTrechoCodigoFonte(new TrechoCodigoFonte(linha, coluna, tamanho));
+                        noInclusaoBiblioteca.setTrechoCodigoFonte(criarTrechoCodigoFonte(linha, coluna, tamanho));
 
                         asa.getListaInclusoesBibliotecas().add(noInclusaoBiblioteca);
                     }
@@ -2235,7 +2257,7 @@ public class PortugolParser extends Parser
                         int coluna = PR_PARA5.getCharPositionInLine();
                         int tamanhoTexto = fp.getCharPositionInLine() - PR_PARA5.getCharPositionInLine();
 
-                        para.setTrechoCodigoFonte(new TrechoCodigoFonte(linha, coluna, tamanhoTexto));
+                        para.setTrechoCodigoFonte(criarTrechoCodigoFonte(linha, coluna, tamanhoTexto));
                     }
                 }
             }
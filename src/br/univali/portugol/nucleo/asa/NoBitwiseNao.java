@@ -26,6 +26,17 @@ public final class NoBitwiseNao extends NoExpressao
     {
         return expressao;
     }
+
+    /**
+     * Substitui a expressão deste nó.
+     * 
+     * @param expressao     a nova expressão.
+     * @since 2.0
+     */
+    public void setExpressao(NoExpressao expressao)
+    {
+        this.expressao = expressao;
+    }
     
     /**
      * {@inheritDoc }
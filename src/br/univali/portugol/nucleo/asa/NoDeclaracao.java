@@ -152,4 +152,13 @@ public abstract class NoDeclaracao extends NoBloco
         referencias.add(referencia);
         referencia.setOrigemDaReferencia(this);
     }
+
+    /**
+     * Remove as referências registradas nesta declaração, para que ela seja analisada novamente
+     * sem manter as referências de uma análise anterior.
+     */
+    public final void removerReferencias()
+    {
+        referencias.clear();
+    }
 }
@@ -18,6 +18,7 @@ package br.univali.portugol.nucleo.asa;
 public final class NoDeclaracaoVariavel extends NoDeclaracaoInicializavel
 {
     private int indiceReferencia = -1;
+    private boolean copiadaNasChamadas = false;
     
     
     /**
@@ -61,9 +62,36 @@ public final class NoDeclaracaoVariavel extends NoDeclaracaoInicializavel
         return TRECHO_NULO;
     }
 
+    /**
+     * @return <code>true</code> se a variável é armazenada no vetor de referências do código
+     * gerado durante toda a execução. As variáveis copiadas nas chamadas (ver
+     * {@link #isCopiadaNasChamadas()}) não são.
+     */
     public boolean ehPassadaPorReferencia()
     {
-        return indiceReferencia >= 0;
+        return indiceReferencia >= 0 && !copiadaNasChamadas;
+    }
+
+    /**
+     * @return <code>true</code> se a variável é local, passada por referência somente em chamadas
+     * de função usadas como comando e, por isso, copiada para o vetor de referências do código
+     * gerado apenas durante essas chamadas.
+     *
+     * @since 2.0
+     */
+    public boolean isCopiadaNasChamadas()
+    {
+        return copiadaNasChamadas;
+    }
+
+    /**
+     * Utilizado pelo pré-compilador quando a referência à variável não escapa da chamada.
+     *
+     * @since 2.0
+     */
+    public void setCopiadaNasChamadas(boolean copiadaNasChamadas)
+    {
+        this.copiadaNasChamadas = copiadaNasChamadas;
     }
 
     public int getIndiceReferencia()
@@ -57,6 +57,17 @@ public final class NoEnquanto extends NoBloco
         return condicao;
     }
 
+    /**
+     * Substitui a expressão avaliada por este comando.
+     * 
+     * @param condicao     a nova expressão lógica.
+     * @since 2.0
+     */
+    public void setCondicao(NoExpressao condicao)
+    {
+        this.condicao = condicao;
+    }
+
     /**
      * Obtém a lista dos blocos que serão executados a cada iteração do laço caso 
      * a condição seja verdadeira.
@@ -76,6 +76,17 @@ public final class NoEscolha extends NoBloco
         return expressao;
     }
 
+    /**
+     * Define a expressão que será avaliada.
+     * 
+     * @param expressao     a expressão que será avaliada.
+     * @since 2.0
+     */
+    public void setExpressao(NoExpressao expressao)
+    {
+        this.expressao = expressao;
+    }
+
     /**
      * Obtém a lista de casos deste comando.
      * 
@@ -93,6 +93,17 @@ public final class NoFacaEnquanto extends NoBloco
         return condicao;
     }
 
+    /**
+     * Substitui a expressão avaliada por este comando.
+     * 
+     * @param condicao     a nova expressão lógica.
+     * @since 2.0
+     */
+    public void setCondicao(NoExpressao condicao)
+    {
+        this.condicao = condicao;
+    }
+
     /**
      * {@inheritDoc }
      */
@@ -47,6 +47,17 @@ public final class NoMenosUnario extends NoExpressao
         return expressao;
     }
 
+    /**
+     * Substitui a expressão deste nó.
+     * 
+     * @param expressao     a nova expressão.
+     * @since 2.0
+     */
+    public void setExpressao(NoExpressao expressao)
+    {
+        this.expressao = expressao;
+    }
+
     /**
      * Obtém o trecho do código fonte no qual o sinal de menos se encontra.
      * 
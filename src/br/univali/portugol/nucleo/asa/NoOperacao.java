@@ -66,6 +66,28 @@ public abstract class NoOperacao extends NoExpressao
     {
         return operandoDireito;
     }
+
+    /**
+     * Substitui a expressão à esquerda do operador.
+     * 
+     * @param operandoEsquerdo     a nova expressão à esquerda do operador.
+     * @since 2.0
+     */
+    public void setOperandoEsquerdo(NoExpressao operandoEsquerdo)
+    {
+        this.operandoEsquerdo = operandoEsquerdo;
+    }
+
+    /**
+     * Substitui a expressão à direita do operador.
+     * 
+     * @param operandoDireito     a nova expressão à direita do operador.
+     * @since 2.0
+     */
+    public void setOperandoDireito(NoExpressao operandoDireito)
+    {
+        this.operandoDireito = operandoDireito;
+    }
     
     /**
      * Define o trecho do código fonte onde o operador se encontra.
@@ -24,8 +24,8 @@ package br.univali.portugol.nucleo.asa;
  */
 public final class NoReferenciaMatriz extends NoReferencia<NoDeclaracaoMatriz>
 {
-    private final NoExpressao linha;
-    private final NoExpressao coluna;
+    private NoExpressao linha;
+    private NoExpressao coluna;
 
     /**
      * @param escopo o escopo da matriz sendo referenciada. Se o escopo for
@@ -73,6 +73,28 @@ public final class NoReferenciaMatriz extends NoReferencia<NoDeclaracaoMatriz>
         return coluna;
     }
 
+    /**
+     * Substitui a expressão que define qual linha da matriz está sendo acessada.
+     * 
+     * @param linha     a nova expressão da linha.
+     * @since 2.0
+     */
+    public void setLinha(NoExpressao linha)
+    {
+        this.linha = linha;
+    }
+
+    /**
+     * Substitui a expressão que define qual coluna da matriz está sendo acessada.
+     * 
+     * @param coluna     a nova expressão da coluna.
+     * @since 2.0
+     */
+    public void setColuna(NoExpressao coluna)
+    {
+        this.coluna = coluna;
+    }
+
     /**
      * {@inheritDoc }
      */
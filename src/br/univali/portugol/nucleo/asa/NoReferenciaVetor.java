@@ -23,7 +23,7 @@ package br.univali.portugol.nucleo.asa;
  */
 public final class NoReferenciaVetor extends NoReferencia<NoDeclaracaoVetor>
 {
-    private final NoExpressao noIndice;
+    private NoExpressao noIndice;
 
     /**
      * @param escopo o escopo do vetor sendo referenciada. Se o escopo for nulo,
@@ -53,6 +53,17 @@ public final class NoReferenciaVetor extends NoReferencia<NoDeclaracaoVetor>
         return noIndice;
     }
 
+    /**
+     * Substitui a expressão que define qual posição do vetor está sendo acessada.
+     * 
+     * @param indice     a nova expressão do índice.
+     * @since 2.0
+     */
+    public void setIndice(NoExpressao indice)
+    {
+        this.noIndice = indice;
+    }
+
     /**
      * {@inheritDoc }
      */
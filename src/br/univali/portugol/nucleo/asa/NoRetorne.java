@@ -55,7 +55,6 @@ public final class NoRetorne extends NoBloco
 {
     private NoExpressao expressao;
     private TrechoCodigoFonte trechoRetorne = null;
-    private TrechoCodigoFonte trechoExpressao = null;
     /**
      * 
      * @param expressao     a expressão que será retornada.
@@ -76,6 +75,17 @@ public final class NoRetorne extends NoBloco
         return expressao;
     }
 
+    /**
+     * Substitui a expressão deste nó.
+     * 
+     * @param expressao     a nova expressão.
+     * @since 2.0
+     */
+    public void setExpressao(NoExpressao expressao)
+    {
+        this.expressao = expressao;
+    }
+
     /**
      * {@inheritDoc }
      */
@@ -93,11 +103,11 @@ public final class NoRetorne extends NoBloco
      */    
     public final TrechoCodigoFonte getTrechoCodigoFonte()
     {
-        if (expressao != null && trechoExpressao == null)
+        if (expressao != null)
         {
             int linha = trechoRetorne.getLinha();
             int coluna = trechoRetorne.getColuna();
-            trechoExpressao = expressao.getTrechoCodigoFonte();
+            TrechoCodigoFonte trechoExpressao = expressao.getTrechoCodigoFonte();
         
             int colunaOpDireito = trechoExpressao.getColuna();
             int tamanhoOpDireito = trechoExpressao.getTamanhoTexto();
@@ -105,7 +115,7 @@ public final class NoRetorne extends NoBloco
 
             int tamanhoTexto = terminoOpDireito - coluna;
             
-            trechoRetorne = new TrechoCodigoFonte(linha, coluna, tamanhoTexto);
+            return new TrechoCodigoFonte(linha, coluna, tamanhoTexto);
         }
 
         return trechoRetorne;
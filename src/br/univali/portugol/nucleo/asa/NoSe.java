@@ -80,6 +80,17 @@ public final class NoSe extends NoBloco
         return condicao;
     }
 
+    /**
+     * Substitui a expressão avaliada por este comando.
+     * 
+     * @param condicao     a nova expressão lógica.
+     * @since 2.0
+     */
+    public void setCondicao(NoExpressao condicao)
+    {
+        this.condicao = condicao;
+    }
+
     /**
      * Define a lista de blocos que serão executados se a expressão avaliada for falsa.
      * 
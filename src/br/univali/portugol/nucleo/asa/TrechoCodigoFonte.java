@@ -37,7 +37,7 @@ package br.univali.portugol.nucleo.asa;
  */
 public final class TrechoCodigoFonte
 {
-    private final int linha;
+    private int linha;
     private final int coluna;
     private final int tamanhoTexto;
 
@@ -87,6 +87,19 @@ public final class TrechoCodigoFonte
         return tamanhoTexto;
     }
     
+    /**
+     * Move o trecho para outra linha. É utilizado quando linhas são inseridas ou removidas acima
+     * de um trecho do código que não foi alterado, para que a ASA gerada anteriormente possa ser
+     * reaproveitada sem refazer o parsing.
+     * 
+     * @param quantidadeLinhas     a quantidade de linhas a deslocar, negativa para mover o trecho para cima.
+     * @since 2.0
+     */
+    public void deslocarLinhas(int quantidadeLinhas)
+    {
+        linha = linha + quantidadeLinhas;
+    }
+    
     public boolean ehValido()
     {
         return linha >= 0 && coluna >= 0;
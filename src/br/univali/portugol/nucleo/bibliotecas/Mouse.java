@@ -25,6 +25,8 @@ import java.awt.event.MouseEvent;
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 import javax.swing.SwingUtilities;
 
 
@@ -48,8 +50,12 @@ public final class Mouse extends Biblioteca
     private int x;
     private int y;
     private int botoesPressionados = 0;
-    private boolean aguardandoBotao = false;
+    private volatile boolean aguardandoBotao = false;
     private int ultimoBotao = -1;    
+    
+    private final ReentrantLock trava = new ReentrantLock(); // não prende a thread da plataforma quando o programa executa em uma thread virtual
+    private final Condition botaoLido = trava.newCondition();
+    private long botoesLidos = 0;
         
     @DocumentacaoConstante(descricao = "Código numérico do botão esquerdo do mouse")
     public static final int BOTAO_ESQUERDO = 0;
@@ -237,11 +243,22 @@ public final class Mouse extends Biblioteca
     )
     public int ler_botao() throws ErroExecucaoBiblioteca, InterruptedException, InterruptedException
     {
-        synchronized (Mouse.this)
+        trava.lock();
+        
+        try
         {
+            long lidos = botoesLidos;
             aguardandoBotao = true;
-            wait();
+            
+            while (botoesLidos == lidos)
+            {
+                botaoLido.await();
+            }
+        }
+        finally
+        {
             aguardandoBotao = false;
+            trava.unlock();
         }
         
         return ultimoBotao;
@@ -307,9 +324,19 @@ public final class Mouse extends Biblioteca
         }
     }    
     
-    private synchronized void acordarThread()
+    private void acordarThread()
     {
-        notifyAll();
+        trava.lock();
+        
+        try
+        {
+            botoesLidos++;
+            botaoLido.signalAll();
+        }
+        finally
+        {
+            trava.unlock();
+        }
     }
     
     private static Cursor criarCursorTransparente()
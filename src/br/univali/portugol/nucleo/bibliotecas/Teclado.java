@@ -15,6 +15,8 @@ import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 
 @PropriedadesBiblioteca(tipo = TipoBiblioteca.RESERVADA)
@@ -30,7 +32,11 @@ public final class Teclado extends Biblioteca
     private final KeyListener observador;
     private int ultimaTecla = -1;
     private boolean temTeclaPressionada = false;
-    private boolean aguardandoTecla = false;
+    private volatile boolean aguardandoTecla = false;
+    
+    private final ReentrantLock trava = new ReentrantLock(); // não prende a thread da plataforma quando o programa executa em uma thread virtual
+    private final Condition teclaLida = trava.newCondition();
+    private long teclasLidas = 0;
 
     @DocumentacaoConstante(descricao = "Código numérico da tecla ENTER no teclado")
     public static final int TECLA_ENTER = KeyEvent.VK_ENTER;
@@ -510,11 +516,22 @@ public final class Teclado extends Biblioteca
     )
     public int ler_tecla() throws ErroExecucaoBiblioteca, InterruptedException, InterruptedException
     {
-        synchronized (Teclado.this)
+        trava.lock();
+        
+        try
         {
+            long lidas = teclasLidas;
             aguardandoTecla = true;
-            wait();
+            
+            while (teclasLidas == lidas)
+            {
+                teclaLida.await();
+            }
+        }
+        finally
+        {
             aguardandoTecla = false;
+            trava.unlock();
         }
         
         return ultimaTecla;
@@ -541,9 +558,19 @@ public final class Teclado extends Biblioteca
         return (char) (int) tecla;
     }
     
-    private synchronized void acordarThread()
+    private void acordarThread()
     {
-        notifyAll();
+        trava.lock();
+        
+        try
+        {
+            teclasLidas++;
+            teclaLida.signalAll();
+        }
+        finally
+        {
+            trava.unlock();
+        }
     }
     
     @Override
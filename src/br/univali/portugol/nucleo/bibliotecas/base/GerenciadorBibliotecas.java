@@ -44,7 +44,7 @@ public final class GerenciadorBibliotecas
     private final Map<String, Biblioteca> bibliotecasCompartilhadas;
     private final Map<Programa, Map<String, Biblioteca>> bibliotecasReservadas;
 
-    public static GerenciadorBibliotecas getInstance()
+    public static synchronized GerenciadorBibliotecas getInstance()
     {
         if (instance == null)
         {
@@ -75,7 +75,7 @@ public final class GerenciadorBibliotecas
         }
     }
 
-    public List<String> listarBibliotecasDisponiveis()
+    public synchronized List<String> listarBibliotecasDisponiveis()
     {
         if (bibliotecasDisponiveis == null)
         {
@@ -96,7 +96,7 @@ public final class GerenciadorBibliotecas
         return new ArrayList<>(bibliotecasDisponiveis);
     }
 
-    public void registrarBibliotecaExterna(Class<? extends Biblioteca> biblioteca) throws ErroCarregamentoBiblioteca
+    public synchronized void registrarBibliotecaExterna(Class<? extends Biblioteca> biblioteca) throws ErroCarregamentoBiblioteca
     {
         final String nome = biblioteca.getSimpleName();
 
@@ -114,6 +114,17 @@ public final class GerenciadorBibliotecas
         }
     }
 
+    /**
+     * Libera as bibliotecas reservadas para o programa especificado, removendo a
+     * referência que o {@link GerenciadorBibliotecas} mantém para o programa.
+     *
+     * @param programa o programa que está sendo descartado
+     */
+    public synchronized void liberarBibliotecasReservadas(Programa programa)
+    {
+        bibliotecasReservadas.remove(programa);
+    }
+
     /**
      * Obtém os metadados da biblioteca especificada. Os metadados contém
      * informações importantes sobre a biblioteca, como a documentação e os
@@ -132,7 +143,7 @@ public final class GerenciadorBibliotecas
      * {@link GerenciadorBibliotecas} não consiga carregar a biblioteca
      * especificada
      */
-    public MetaDadosBiblioteca obterMetaDadosBiblioteca(String nome) throws ErroCarregamentoBiblioteca
+    public synchronized MetaDadosBiblioteca obterMetaDadosBiblioteca(String nome) throws ErroCarregamentoBiblioteca
     {
         if (!metaDadosBibliotecas.contem(nome))
         {
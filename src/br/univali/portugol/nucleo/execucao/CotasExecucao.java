@@ -0,0 +1,94 @@
+package br.univali.portugol.nucleo.execucao;
+
+/**
+ * Limites de recursos de uma execução. Quando um dos limites é ultrapassado o programa é
+ * encerrado com o modo {@link ModoEncerramento#COTA_EXCEDIDA}.
+ * <p>
+ * Os limites são verificados por contadores no próprio código do programa e não dependem de
+ * relógios externos, assim o mesmo programa sempre para no mesmo ponto quando excede a cota de
+ * passos ou de escritas. Um limite igual a zero significa que o recurso não é limitado.
+ *
+ * @see br.univali.portugol.nucleo.Programa#setCotasExecucao(CotasExecucao)
+ */
+public final class CotasExecucao
+{
+    private long maximoPassos = 0;
+    private long maximoTempoCPU = 0;
+    private long maximoEscritas = 0;
+
+    /**
+     * @return o número máximo de passos ou zero se os passos não são limitados
+     */
+    public long getMaximoPassos()
+    {
+        return maximoPassos;
+    }
+
+    /**
+     * Define o número máximo de passos do programa. Cada iteração de um laço e cada chamada de
+     * função conta como um passo.
+     *
+     * @param maximoPassos o número máximo de passos ou zero para não limitar
+     */
+    public void setMaximoPassos(long maximoPassos)
+    {
+        this.maximoPassos = valida(maximoPassos);
+    }
+
+    /**
+     * @return o tempo máximo de CPU em milissegundos ou zero se o tempo não é limitado
+     */
+    public long getMaximoTempoCPU()
+    {
+        return maximoTempoCPU;
+    }
+
+    /**
+     * Define o tempo máximo de CPU utilizado pela thread do programa. O tempo em que o programa
+     * aguarda a entrada de dados ou está pausado no depurador não é contado. O tempo é verificado
+     * periodicamente, a cada alguns milhares de passos.
+     *
+     * @param maximoTempoCPU o tempo máximo em milissegundos ou zero para não limitar
+     */
+    public void setMaximoTempoCPU(long maximoTempoCPU)
+    {
+        this.maximoTempoCPU = valida(maximoTempoCPU);
+    }
+
+    /**
+     * @return o número máximo de valores escritos ou zero se as escritas não são limitadas
+     */
+    public long getMaximoEscritas()
+    {
+        return maximoEscritas;
+    }
+
+    /**
+     * Define o número máximo de valores que o programa pode escrever. Cada parâmetro da função
+     * <code>escreva</code> conta como uma escrita.
+     *
+     * @param maximoEscritas o número máximo de escritas ou zero para não limitar
+     */
+    public void setMaximoEscritas(long maximoEscritas)
+    {
+        this.maximoEscritas = valida(maximoEscritas);
+    }
+
+    /**
+     * @return <code>true</code> se algum recurso é limitado
+     */
+    public boolean possuiLimites()
+    {
+        return maximoPassos > 0 || maximoTempoCPU > 0 || maximoEscritas > 0;
+    }
+
+    private static long valida(long limite)
+    {
+        if (limite < 0)
+        {
+            throw new IllegalArgumentException("O limite não pode ser negativo");
+        }
+
+        return limite;
+    }
+}
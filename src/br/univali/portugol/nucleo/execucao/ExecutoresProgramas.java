@@ -0,0 +1,84 @@
+package br.univali.portugol.nucleo.execucao;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Cria os executores que podem fornecer as threads de execução dos programas, ver
+ * {@link br.univali.portugol.nucleo.Programa#setExecutor(ExecutorService)}.
+ * <p>
+ * Cada programa em execução ocupa uma thread inteira, inclusive enquanto aguarda uma leitura, uma
+ * tecla, um clique ou o fim de uma pausa. Com as threads virtuais (Java 21 ou superior) um
+ * programa bloqueado não ocupa nenhuma thread da plataforma, assim um servidor pode manter
+ * milhares de programas aguardando o usuário ao mesmo tempo.
+ * <p>
+ * As threads virtuais são executadas pelo escalonador da JVM, que usa um pool limitado de
+ * threads da plataforma (as carregadoras). O tamanho deste pool é definido pelas propriedades
+ * <code>jdk.virtualThreadScheduler.parallelism</code> (padrão: o número de processadores) e
+ * <code>jdk.virtualThreadScheduler.maxPoolSize</code>, passadas na linha de comando da JVM.
+ * <p>
+ * Como o núcleo é compilado para o Java 7, as threads virtuais são criadas por reflexão.
+ *
+ * @since 2.0
+ */
+public final class ExecutoresProgramas
+{
+    private static final String PREFIXO_NOME_THREADS_VIRTUAIS = "Portugol Núcleo (Thread virtual de programa) #";
+
+    private static final ThreadFactory FABRICA_THREADS_VIRTUAIS = criaFabricaThreadsVirtuais();
+
+    private ExecutoresProgramas()
+    {
+
+    }
+
+    /**
+     * @return <code>true</code> se a JVM em uso permite criar threads virtuais
+     */
+    public static boolean suportaThreadsVirtuais()
+    {
+        return FABRICA_THREADS_VIRTUAIS != null;
+    }
+
+    /**
+     * Cria um executor que executa cada programa em uma nova thread virtual. O executor deve ser
+     * encerrado por quem o criou quando não for mais utilizado.
+     *
+     * @return o executor
+     * @throws UnsupportedOperationException se a JVM em uso não permitir criar threads virtuais
+     */
+    public static ExecutorService criarExecutorThreadsVirtuais()
+    {
+        if (FABRICA_THREADS_VIRTUAIS == null)
+        {
+            throw new UnsupportedOperationException("As threads virtuais requerem o Java 21 ou superior");
+        }
+
+        try
+        {
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, FABRICA_THREADS_VIRTUAIS);
+        }
+        catch (ReflectiveOperationException excecao)
+        {
+            throw new UnsupportedOperationException("Não foi possível criar o executor de threads virtuais", excecao);
+        }
+    }
+
+    private static ThreadFactory criaFabricaThreadsVirtuais()
+    {
+        try
+        {
+            Class<?> classeConstrutor = Class.forName("java.lang.Thread$Builder");
+            Object construtor = Thread.class.getMethod("ofVirtual").invoke(null);
+
+            construtor = classeConstrutor.getMethod("name", String.class, long.class).invoke(construtor, PREFIXO_NOME_THREADS_VIRTUAIS, 0L);
+
+            return (ThreadFactory) classeConstrutor.getMethod("factory").invoke(construtor);
+        }
+        catch (ReflectiveOperationException | RuntimeException excecao)
+        {
+            return null; // Java 20 ou anterior, ou threads virtuais em preview e não habilitadas
+        }
+    }
+}
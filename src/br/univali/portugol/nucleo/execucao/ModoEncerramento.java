@@ -27,5 +27,14 @@ public enum ModoEncerramento
      * Esta enumeração indica que o programa foi interrompido manualmente pelo usuário.
      * Exemplo: o programa entrou em loop infinito e o usuário decidiu interromper a execução.
      */
-    INTERRUPCAO
+    INTERRUPCAO,
+    /**
+     * Esta enumeração indica que o programa foi encerrado por ter ultrapassado uma das cotas
+     * definidas em {@link CotasExecucao} (passos, tempo de CPU ou escritas). O erro contém a
+     * cota excedida.
+     * Exemplo: o programa entrou em loop infinito e executou mais passos que o permitido.
+     *
+     * @since 2.0
+     */
+    COTA_EXCEDIDA
 }
@@ -0,0 +1,27 @@
+package br.univali.portugol.nucleo.execucao;
+
+/**
+ * Esta enumeração define como os programas compilados para execução
+ * são executados.
+ *
+ * @see br.univali.portugol.nucleo.Portugol#setModoExecucao(ModoExecucao)
+ */
+public enum ModoExecucao
+{
+    /**
+     * O programa é compilado para bytecode antes de ser executado. A compilação
+     * é mais demorada, mas a execução é mais rápida.
+     */
+    COMPILADO,
+    /**
+     * O programa é executado diretamente a partir da ASA, sem compilação. A execução
+     * pode iniciar imediatamente após a análise do código, mas é mais lenta.
+     */
+    INTERPRETADO,
+    /**
+     * O programa começa a ser executado a partir da ASA e é compilado em segundo plano
+     * quando algum laço se torna frequente ou quando a execução termina. As execuções
+     * seguintes utilizam a versão compilada assim que a compilação termina.
+     */
+    ESCALONADO
+}
@@ -0,0 +1,33 @@
+package br.univali.portugol.nucleo.execucao;
+
+/**
+ * Esta enumeração define se os programas compilados para execução carregam o código
+ * utilizado pela inspeção de símbolos, que atualiza as variáveis inspecionadas após cada
+ * atribuição.
+ * <p>
+ * O código de interrupção, de verificação das cotas de execução e as paradas antes de cada
+ * comando (pontos de parada e execução passo a passo) são gerados em todos os perfis. As
+ * paradas só são realizadas enquanto o depurador estiver armado, então sem pontos de parada
+ * elas custam apenas um desvio por comando.
+ *
+ * @see br.univali.portugol.nucleo.Portugol#setPerfilCompilacao(PerfilCompilacao)
+ */
+public enum PerfilCompilacao
+{
+    /**
+     * O programa é compilado sem o código de inspeção, o que torna a execução bem mais rápida
+     * em programas com muitos laços. Quando o programa é executado com símbolos inspecionados,
+     * uma versão com o código de inspeção é compilada a partir do mesmo código fonte, na
+     * primeira vez em que for necessária.
+     * <p>
+     * A versão utilizada é escolhida no início de cada execução, então símbolos inspecionados
+     * durante uma execução sem inspeção só serão atualizados na próxima execução. Os pontos de
+     * parada têm efeito imediato nas duas versões.
+     */
+    OTIMIZADO,
+    /**
+     * O programa é sempre compilado com o código de inspeção, mesmo quando é executado sem
+     * símbolos inspecionados.
+     */
+    DEPURACAO
+}
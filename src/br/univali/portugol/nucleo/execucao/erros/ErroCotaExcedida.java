@@ -0,0 +1,52 @@
+package br.univali.portugol.nucleo.execucao.erros;
+
+import br.univali.portugol.nucleo.mensagens.ErroExecucao;
+
+/**
+ * Erro gerado quando o programa ultrapassa uma das cotas definidas em
+ * {@link br.univali.portugol.nucleo.execucao.CotasExecucao}. O programa é encerrado com o modo
+ * {@link br.univali.portugol.nucleo.execucao.ModoEncerramento#COTA_EXCEDIDA}.
+ */
+public final class ErroCotaExcedida extends ErroExecucao
+{
+    public static enum Cota
+    {
+        PASSOS, TEMPO_CPU, ESCRITAS
+    }
+
+    private final Cota cota;
+    private final long limite;
+
+    public ErroCotaExcedida(Cota cota, long limite)
+    {
+        this.cota = cota;
+        this.limite = limite;
+    }
+
+    /**
+     * @return a cota que foi excedida
+     */
+    public Cota getCota()
+    {
+        return cota;
+    }
+
+    /**
+     * @return o limite que foi ultrapassado
+     */
+    public long getLimite()
+    {
+        return limite;
+    }
+
+    @Override
+    protected String construirMensagem()
+    {
+        switch (cota)
+        {
+            case PASSOS: return String.format("O programa excedeu o limite de %d passos de execução", limite);
+            case TEMPO_CPU: return String.format("O programa excedeu o limite de %d ms de tempo de processamento", limite);
+            default: return String.format("O programa excedeu o limite de %d valores escritos", limite);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package br.univali.portugol.nucleo.execucao.erros;
+
+import br.univali.portugol.nucleo.asa.TipoDado;
+import br.univali.portugol.nucleo.mensagens.ErroExecucao;
+
+/**
+ * Erro gerado quando o programa executa a função <code>leia</code> depois que todos os valores
+ * de uma {@link br.univali.portugol.nucleo.execucao.es.EntradaImediata} foram lidos.
+ */
+public final class ErroEntradaEsgotada extends ErroExecucao
+{
+    private final TipoDado tipoDado;
+
+    public ErroEntradaEsgotada(TipoDado tipoDado)
+    {
+        this.tipoDado = tipoDado;
+    }
+
+    /**
+     * @return o tipo do valor que o programa tentou ler
+     */
+    public TipoDado getTipoDado()
+    {
+        return tipoDado;
+    }
+
+    @Override
+    protected String construirMensagem()
+    {
+        return String.format("O programa tentou ler um valor do tipo '%s', mas todos os valores da entrada de dados já foram lidos", tipoDado.getNome());
+    }
+}
@@ -0,0 +1,32 @@
+package br.univali.portugol.nucleo.execucao.es;
+
+import br.univali.portugol.nucleo.asa.TipoDado;
+
+/**
+ * Entrada de dados que conhece os valores antes da execução e os entrega na própria thread do
+ * programa. O {@link br.univali.portugol.nucleo.Programa} lê estes valores diretamente, sem o
+ * {@link Armazenador}, sem aguardar a leitura e sem notificar os observadores a cada leitura.
+ * O método {@link #solicitaEntrada} continua disponível para quem usa a entrada como uma
+ * {@link Entrada} comum.
+ *
+ * @since 2.0
+ */
+public interface EntradaImediata extends Entrada
+{
+    /**
+     * @return <code>true</code> se ainda existe um valor para ser lido
+     * @throws InterruptedException erro ocorrido enquanto a entrada aguardava o próximo valor.
+     */
+    public boolean possuiValor() throws InterruptedException;
+
+    /**
+     * Lê o próximo valor da entrada. Deve ser chamado somente quando {@link #possuiValor()}
+     * retorna <code>true</code>.
+     *
+     * @param tipoDado o tipo de dado que está sendo lido.
+     * @return o valor convertido para o tipo de dado, ou <code>null</code> se o valor não pode
+     * ser convertido
+     * @throws InterruptedException erro ocorrido durante a leitura do valor.
+     */
+    public Object obterValor(TipoDado tipoDado) throws InterruptedException;
+}
@@ -0,0 +1,121 @@
+package br.univali.portugol.nucleo.execucao.es;
+
+import br.univali.portugol.nucleo.asa.TipoDado;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+
+/**
+ * Entrada de dados com valores definidos antes da execução, utilizada para executar programas
+ * sem interação com o usuário (por exemplo, na correção automática de exercícios).
+ * <p>
+ * Cada chamada à função <code>leia</code> consome um valor do roteiro: uma linha do texto ou
+ * do arquivo, ou um elemento da sequência de valores. Uma sequência é consumida somente quando
+ * o programa lê, então também pode ser um fluxo de palavras, por exemplo um
+ * {@link java.util.Scanner} sobre um {@link java.io.InputStream}. O valor é entregue
+ * imediatamente, na própria thread do programa (ver {@link EntradaImediata}). Quando os valores
+ * acabam ou quando o valor não pode ser convertido para o tipo esperado, o programa termina com
+ * um erro de execução.
+ * <p>
+ * A entrada não é thread-safe, cada instância deve ser usada por um programa de cada vez.
+ */
+public final class EntradaRoteirizada implements EntradaImediata
+{
+    private final Iterator<String> valores;
+
+    /**
+     * @param roteiro os valores de entrada, um por linha
+     */
+    public EntradaRoteirizada(String roteiro)
+    {
+        this(divideLinhas(roteiro));
+    }
+
+    /**
+     * @param arquivo o arquivo, codificado em UTF-8, com os valores de entrada, um por linha
+     * @throws IOException se o arquivo não puder ser lido
+     * @since 2.0
+     */
+    public EntradaRoteirizada(File arquivo) throws IOException
+    {
+        this(new String(Files.readAllBytes(arquivo.toPath()), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param valores os valores de entrada, consumidos à medida que o programa lê
+     * @since 2.0
+     */
+    public EntradaRoteirizada(Iterator<String> valores)
+    {
+        this.valores = valores;
+    }
+
+    private static Iterator<String> divideLinhas(String roteiro)
+    {
+        if (roteiro == null || roteiro.isEmpty())
+        {
+            return Collections.<String>emptyList().iterator();
+        }
+
+        String normalizado = roteiro.replace("\r\n", "\n");
+
+        if (normalizado.endsWith("\n"))
+        {
+            normalizado = normalizado.substring(0, normalizado.length() - 1);
+        }
+
+        return Arrays.asList(normalizado.split("\n", -1)).iterator();
+    }
+
+    @Override
+    public boolean possuiValor()
+    {
+        return valores.hasNext();
+    }
+
+    @Override
+    public Object obterValor(TipoDado tipoDado)
+    {
+        return converte(valores.next(), tipoDado);
+    }
+
+    @Override
+    public void solicitaEntrada(TipoDado tipoDado, Armazenador armazenador) throws InterruptedException
+    {
+        Object valor = possuiValor() ? obterValor(tipoDado) : null;
+
+        if (valor != null)
+        {
+            armazenador.setValor(valor);
+        }
+        else
+        {
+            armazenador.cancelarLeitura();
+        }
+    }
+
+    private static Object converte(String linha, TipoDado tipoDado)
+    {
+        String valor = (tipoDado == TipoDado.CADEIA) ? linha : linha.trim();
+
+        try
+        {
+            switch (tipoDado)
+            {
+                case INTEIRO: return Integer.parseInt(valor);
+                case REAL: return Double.parseDouble(valor);
+                case CARACTER: return valor.isEmpty() ? null : valor.charAt(0);
+                case LOGICO: return valor.equals("verdadeiro") ? Boolean.TRUE : valor.equals("falso") ? Boolean.FALSE : null;
+                default: return valor;
+            }
+        }
+        catch (NumberFormatException excecao)
+        {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package br.univali.portugol.nucleo.execucao.es;
+
+import br.univali.portugol.nucleo.NamedThreadFactory;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Saída que acumula o texto escrito pelo programa e o entrega em blocos à saída decorada,
+ * reduzindo o número de chamadas quando o programa escreve muitos valores.
+ * <p>
+ * O texto acumulado é entregue quando atinge o tamanho do buffer, quando termina o intervalo de
+ * descarga contado a partir da primeira escrita pendente (em uma thread em segundo plano), antes
+ * de limpar a saída e sempre que {@link #descarregar()} é chamado. O
+ * {@link br.univali.portugol.nucleo.Programa} descarrega a saída antes de solicitar uma entrada,
+ * ao parar em um ponto de parada e antes de notificar o encerramento da execução.
+ * <p>
+ * Ao contrário do que a interface {@link Saida} pede, as escritas retornam antes de o valor
+ * chegar à saída decorada. A ordem das escritas e das limpezas é mantida e a saída decorada
+ * nunca é chamada por duas threads ao mesmo tempo. Os valores são convertidos em texto como no
+ * Portugol: os valores lógicos são escritos como "verdadeiro" e "falso" e os demais como no Java.
+ *
+ * @since 2.0
+ */
+public final class SaidaBufferizada implements SaidaEmBlocos
+{
+    public static final int TAMANHO_PADRAO = 8192;
+    public static final long INTERVALO_PADRAO = 50; // milissegundos
+
+    private static final Logger LOGGER = Logger.getLogger(SaidaBufferizada.class.getName());
+
+    private static final ScheduledExecutorService AGENDADOR = new ScheduledThreadPoolExecutor(1, new ThreadFactory()
+    {
+        private final ThreadFactory fabrica = new NamedThreadFactory("Portugol Núcleo (Thread de descarga da saída)");
+
+        @Override
+        public Thread newThread(Runnable runnable)
+        {
+            Thread thread = fabrica.newThread(runnable);
+            thread.setDaemon(true); // não impede o encerramento da JVM
+            return thread;
+        }
+    });
+
+    private final Saida saida;
+    private final int tamanhoBuffer;
+    private final long intervaloDescarga;
+    private final StringBuilder buffer;
+
+    private boolean descargaAgendada = false;
+
+    private final Runnable tarefaDescarga = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            try
+            {
+                synchronized (SaidaBufferizada.this)
+                {
+                    descargaAgendada = false;
+                    entrega();
+                }
+            }
+            catch (InterruptedException | RuntimeException excecao)
+            {
+                LOGGER.log(Level.WARNING, "Não foi possível descarregar a saída", excecao);
+            }
+        }
+    };
+
+    /**
+     * Cria uma saída com o buffer de {@link #TAMANHO_PADRAO} caracteres, descarregada a cada
+     * {@link #INTERVALO_PADRAO} milissegundos.
+     *
+     * @param saida a saída que recebe o texto acumulado
+     */
+    public SaidaBufferizada(Saida saida)
+    {
+        this(saida, TAMANHO_PADRAO, INTERVALO_PADRAO);
+    }
+
+    /**
+     * @param saida a saída que recebe o texto acumulado
+     * @param tamanhoBuffer o número de caracteres acumulados que provoca a descarga
+     * @param intervaloDescarga o tempo máximo, em milissegundos, que o texto fica no buffer. Se for
+     * zero, o texto só é entregue quando o buffer enche ou quando a saída é descarregada
+     */
+    public SaidaBufferizada(Saida saida, int tamanhoBuffer, long intervaloDescarga)
+    {
+        if (saida == null)
+        {
+            throw new IllegalArgumentException("A saída decorada não pode ser nula");
+        }
+
+        if (tamanhoBuffer <= 0 || intervaloDescarga < 0)
+        {
+            throw new IllegalArgumentException(String.format("Tamanho de buffer (%d) ou intervalo de descarga (%d) inválido", tamanhoBuffer, intervaloDescarga));
+        }
+
+        this.saida = saida;
+        this.tamanhoBuffer = tamanhoBuffer;
+        this.intervaloDescarga = intervaloDescarga;
+        this.buffer = new StringBuilder(tamanhoBuffer);
+    }
+
+    /**
+     * @return a saída que recebe o texto acumulado
+     */
+    public Saida getSaida()
+    {
+        return saida;
+    }
+
+    /**
+     * Entrega imediatamente o texto acumulado à saída decorada.
+     *
+     * @throws InterruptedException erro ocorrido durante a escrita do texto na saída decorada.
+     */
+    public synchronized void descarregar() throws InterruptedException
+    {
+        entrega();
+    }
+
+    @Override
+    public synchronized void limpar() throws InterruptedException
+    {
+        entrega();
+        saida.limpar();
+    }
+
+    @Override
+    public synchronized void escrever(CharSequence texto) throws InterruptedException
+    {
+        buffer.append(texto);
+        acumulado();
+    }
+
+    @Override
+    public synchronized void escrever(String valor) throws InterruptedException
+    {
+        buffer.append(valor);
+        acumulado();
+    }
+
+    @Override
+    public synchronized void escrever(boolean valor) throws InterruptedException
+    {
+        buffer.append(valor ? "verdadeiro" : "falso");
+        acumulado();
+    }
+
+    @Override
+    public synchronized void escrever(int valor) throws InterruptedException
+    {
+        buffer.append(valor);
+        acumulado();
+    }
+
+    @Override
+    public synchronized void escrever(double valor) throws InterruptedException
+    {
+        buffer.append(valor);
+        acumulado();
+    }
+
+    @Override
+    public synchronized void escrever(char valor) throws InterruptedException
+    {
+        buffer.append(valor);
+        acumulado();
+    }
+
+    private void acumulado() throws InterruptedException
+    {
+        if (buffer.length() >= tamanhoBuffer)
+        {
+            entrega();
+        }
+        else if (!descargaAgendada && intervaloDescarga > 0)
+        {
+            descargaAgendada = true; // a descarga já agendada também entrega o que for escrito depois dela
+            AGENDADOR.schedule(tarefaDescarga, intervaloDescarga, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void entrega() throws InterruptedException
+    {
+        if (buffer.length() == 0)
+        {
+            return;
+        }
+
+        try
+        {
+            if (saida instanceof SaidaEmBlocos)
+            {
+                ((SaidaEmBlocos) saida).escrever(buffer);
+            }
+            else
+            {
+                saida.escrever(buffer.toString());
+            }
+        }
+        finally
+        {
+            buffer.setLength(0);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package br.univali.portugol.nucleo.execucao.es;
+
+/**
+ * Saída de dados que também aceita um bloco de texto em uma única chamada. A
+ * {@link SaidaBufferizada} entrega o texto acumulado desta forma, sem copiá-lo para uma
+ * {@link String}, quando a saída decorada implementa esta interface.
+ *
+ * @since 2.0
+ */
+public interface SaidaEmBlocos extends Saida
+{
+    /**
+     * Escreve um bloco de texto na saída de dados. O texto pode ser alterado depois que o método
+     * retorna, por isso a implementação não deve guardar a referência recebida.
+     *
+     * @param texto           o texto que será escrito na saída.
+     * @throws InterruptedException      erro ocorrido durante a escrita do texto na saída.
+     * @since 2.0
+     */
+    public void escrever(CharSequence texto) throws InterruptedException;
+}
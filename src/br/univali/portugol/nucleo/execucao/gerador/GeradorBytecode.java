@@ -0,0 +1,1963 @@
+package br.univali.portugol.nucleo.execucao.gerador;
+
+import br.univali.portugol.nucleo.Programa;
+import br.univali.portugol.nucleo.asa.*;
+import br.univali.portugol.nucleo.execucao.gerador.bytecode.ArquivoClasse;
+import br.univali.portugol.nucleo.execucao.gerador.bytecode.CodigoMetodo;
+import br.univali.portugol.nucleo.execucao.gerador.bytecode.Rotulo;
+import br.univali.portugol.nucleo.execucao.gerador.helpers.Utils;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static br.univali.portugol.nucleo.execucao.gerador.bytecode.CodigoMetodo.*;
+
+/**
+ * Gera os bytecodes de uma subclasse de {@link Programa} diretamente a partir da ASA, sem
+ * gerar o código fonte Java e sem passar pelo javac.
+ * <p>
+ * A classe gerada se comporta como a classe compilada a partir do código do
+ * {@link GeradorCodigoJava}, incluindo as verificações de interrupção da thread, os pontos de
+ * parada e a inspeção de símbolos. Apenas um subconjunto da linguagem é suportado: programas que
+ * incluem bibliotecas, passam variáveis por referência ou utilizam construções sem tradução
+ * direta fazem o método {@link #gera} retornar <code>null</code> e devem ser compilados a partir
+ * do código Java.
+ * <p>
+ * Diferente do {@link GeradorCodigoJava}, este gerador não altera a ASA.
+ */
+public final class GeradorBytecode
+{
+    private static final String PROGRAMA = Programa.class.getName().replace('.', '/');
+    private static final String VETOR = PROGRAMA + "$Vetor";
+    private static final String MATRIZ = PROGRAMA + "$Matriz";
+
+    private static final String OBJETO = "Ljava/lang/Object;";
+    private static final String CADEIA = "Ljava/lang/String;";
+    private static final String STRING_BUILDER = "java/lang/StringBuilder";
+
+    private static final String VARIAVEIS_INSPECIONADAS = "variaveisInspecionadas";
+    private static final String VETORES_INSPECIONADOS = "vetoresInspecionados";
+    private static final String MATRIZES_INSPECIONADAS = "matrizesInspecionadas";
+    private static final String CONTADOR_PASSOS = "contadorPassos";
+    private static final String PARADAS_ARMADAS = "paradasArmadas";
+
+    /**
+     * Nome do arquivo fonte gravado nas classes geradas. Os quadros do rastro da pilha com este
+     * nome de arquivo trazem a linha do programa Portugol, ver {@link br.univali.portugol.nucleo.Programa}.
+     */
+    public static final String ARQUIVO_FONTE = "Programa.por";
+
+    private static final String DESCRITOR_VARIAVEIS_INSPECIONADAS = "[" + OBJETO;
+    private static final String DESCRITOR_VETORES_INSPECIONADOS = "[L" + VETOR + ";";
+    private static final String DESCRITOR_MATRIZES_INSPECIONADAS = "[L" + MATRIZ + ";";
+
+    private final long seed;
+
+    public GeradorBytecode(long seed)
+    {
+        this.seed = seed;
+    }
+
+    public GeradorBytecode()
+    {
+        this.seed = System.currentTimeMillis();
+    }
+
+    /**
+     * Gera os bytecodes do programa.
+     *
+     * @param asa a ASA do programa, já analisada e sem erros
+     * @param nomeCompletoClasse o nome completo (incluindo o pacote) da classe a ser gerada
+     * @return os bytecodes da classe gerada, indexados pelo nome completo da classe, ou
+     * <code>null</code> se o programa utiliza alguma construção que este gerador não suporta
+     *
+     * @throws ExcecaoVisitaASA se ocorrer um erro durante o caminhamento da ASA
+     */
+    public Map<String, byte[]> gera(ASAPrograma asa, String nomeCompletoClasse,
+            boolean geraCodigoParaInterrupcaoDeThread, boolean geraCodigoParaPontosDeParada,
+                    boolean geraCodigoParaInspecaoDeSimbolos) throws ExcecaoVisitaASA
+    {
+        VisitorGeracaoBytecode gerador = new VisitorGeracaoBytecode(asa, nomeCompletoClasse.replace('.', '/'),
+                geraCodigoParaInterrupcaoDeThread, geraCodigoParaPontosDeParada, geraCodigoParaInspecaoDeSimbolos);
+
+        try
+        {
+            byte[] bytecode = gerador.geraClasse();
+
+            return Collections.singletonMap(nomeCompletoClasse, bytecode);
+        }
+        catch (ExcecaoVisitaASA excecao)
+        {
+            if (excecao.getCause() instanceof UnsupportedOperationException)
+            {
+                return null;
+            }
+
+            throw excecao;
+        }
+        catch (IllegalStateException excecao)
+        {
+            return null; // a classe excede algum dos limites do formato .class suportados pelo gerador
+        }
+    }
+
+    private final class VisitorGeracaoBytecode extends VisitanteASABasico
+    {
+        private final ASAPrograma asa;
+        private final String nomeInterno;
+        private final boolean gerandoCodigoParaInterrupcaoDeThread;
+        private final boolean gerandoCodigoParaPontosDeParada;
+        private final boolean gerandoCodigoParaInspecaoDeSimbolos;
+
+        private final PreCompilador preCompilador = new PreCompilador(seed); // usado apenas para gerar os mesmos nomes de métodos do código Java
+        private final ArquivoClasse classe;
+
+        private final Set<NoDeclaracao> globais = Collections.newSetFromMap(new IdentityHashMap<NoDeclaracao, Boolean>());
+        private final Set<NoDeclaracaoFuncao> funcoesGeradas = Collections.newSetFromMap(new IdentityHashMap<NoDeclaracaoFuncao, Boolean>());
+        private final Deque<NoDeclaracaoFuncao> funcoesPendentes = new ArrayDeque<>();
+        private final Map<NoExpressao, String> tipos = new IdentityHashMap<>();
+
+        // estado do método que está sendo gerado
+        private CodigoMetodo codigo;
+        private Map<NoDeclaracao, Integer> variaveisLocais;
+        private String descritorRetorno;
+        private final Deque<Rotulo> rotulosPare = new ArrayDeque<>();
+        private final Deque<Rotulo> rotulosContinue = new ArrayDeque<>();
+
+        public VisitorGeracaoBytecode(ASAPrograma asa, String nomeInterno,
+                boolean geraCodigoParaInterrupcaoDeThread, boolean geraCodigoParaPontosDeParada,
+                        boolean geraCodigoParaInspecaoDeSimbolos)
+        {
+            this.asa = asa;
+            this.nomeInterno = nomeInterno;
+            this.gerandoCodigoParaInterrupcaoDeThread = geraCodigoParaInterrupcaoDeThread;
+            this.gerandoCodigoParaPontosDeParada = geraCodigoParaPontosDeParada;
+            this.gerandoCodigoParaInspecaoDeSimbolos = geraCodigoParaInspecaoDeSimbolos;
+            this.classe = new ArquivoClasse(nomeInterno, PROGRAMA);
+            this.classe.setArquivoFonte(ARQUIVO_FONTE);
+        }
+
+        public byte[] geraClasse() throws ExcecaoVisitaASA
+        {
+            List<NoInclusaoBiblioteca> bibliotecas = asa.getListaInclusoesBibliotecas();
+            if (bibliotecas != null && !bibliotecas.isEmpty())
+            {
+                throw naoSuportado("inclusão de bibliotecas", null);
+            }
+
+            NoDeclaracaoFuncao funcaoInicial = null;
+            List<NoDeclaracaoInicializavel> variaveisGlobais = new ArrayList<>();
+
+            for (NoDeclaracao declaracao : asa.getListaDeclaracoesGlobais())
+            {
+                if (declaracao instanceof NoDeclaracaoInicializavel)
+                {
+                    variaveisGlobais.add((NoDeclaracaoInicializavel) declaracao);
+                    globais.add(declaracao);
+
+                    int acesso = ArquivoClasse.ACESSO_PRIVADO | (declaracao.constante() ? ArquivoClasse.ACESSO_FINAL : 0);
+                    classe.adicionarAtributo(acesso, declaracao.getNome(), descritor(declaracao));
+                }
+                else if (declaracao instanceof NoDeclaracaoFuncao && "inicio".equals(declaracao.getNome()))
+                {
+                    funcaoInicial = (NoDeclaracaoFuncao) declaracao;
+                }
+            }
+
+            if (funcaoInicial == null || !funcaoInicial.getParametros().isEmpty())
+            {
+                throw naoSuportado("função inicial ausente ou com parâmetros", funcaoInicial);
+            }
+
+            geraConstrutor(variaveisGlobais);
+            geraInicializacaoVariaveisGlobais(variaveisGlobais);
+
+            funcoesGeradas.add(funcaoInicial);
+            geraMetodo(funcaoInicial, ArquivoClasse.ACESSO_PROTEGIDO, "executar", "([Ljava/lang/String;)V");
+
+            while (!funcoesPendentes.isEmpty())
+            {
+                NoDeclaracaoFuncao funcao = funcoesPendentes.poll();
+                geraMetodo(funcao, ArquivoClasse.ACESSO_PRIVADO, getNomeMetodo(funcao), getDescritorMetodo(funcao));
+            }
+
+            return classe.toByteArray();
+        }
+
+        private void geraConstrutor(List<NoDeclaracaoInicializavel> variaveisGlobais) throws ExcecaoVisitaASA
+        {
+            iniciaMetodo(ArquivoClasse.ACESSO_PUBLICO, "<init>", "()V");
+
+            codigo.instrucaoVariavel(ALOAD, 0);
+            codigo.instrucaoMetodo(INVOKESPECIAL, PROGRAMA, "<init>", "()V");
+
+            for (NoDeclaracaoInicializavel variavel : variaveisGlobais)
+            {
+                if (variavel.constante())
+                {
+                    geraInicializacaoVariavelGlobal(variavel);
+                }
+            }
+
+            if (gerandoCodigoParaInspecaoDeSimbolos)
+            {
+                geraCriacaoArrayInspecao(VARIAVEIS_INSPECIONADAS, DESCRITOR_VARIAVEIS_INSPECIONADAS, asa.getTotalVariaveisDeclaradas());
+                geraCriacaoArrayInspecao(VETORES_INSPECIONADOS, DESCRITOR_VETORES_INSPECIONADOS, asa.getTotalVetoresDeclarados());
+                geraCriacaoArrayInspecao(MATRIZES_INSPECIONADAS, DESCRITOR_MATRIZES_INSPECIONADAS, asa.getTotalMatrizesDeclaradas());
+            }
+
+            codigo.instrucao(RETURN);
+        }
+
+        private void geraCriacaoArrayInspecao(String nomeAtributo, String descritor, int tamanho)
+        {
+            codigo.instrucaoVariavel(ALOAD, 0);
+            codigo.instrucaoInteiro(tamanho);
+            codigo.instrucaoTipo(ANEWARRAY, nomeClasse(descritor.substring(1)));
+            codigo.instrucaoAtributo(PUTFIELD, nomeInterno, nomeAtributo, descritor);
+        }
+
+        private void geraInicializacaoVariaveisGlobais(List<NoDeclaracaoInicializavel> variaveisGlobais) throws ExcecaoVisitaASA
+        {
+            List<NoDeclaracaoInicializavel> variaveis = new ArrayList<>();
+
+            for (NoDeclaracaoInicializavel variavel : variaveisGlobais)
+            {
+                if (!variavel.constante())
+                {
+                    variaveis.add(variavel);
+                }
+            }
+
+            if (variaveis.isEmpty()) // não sobrescreve o método de inicialização se não houverem variáveis globais que não são constantes
+            {
+                return;
+            }
+
+            iniciaMetodo(ArquivoClasse.ACESSO_PROTEGIDO, "inicializar", "()V");
+
+            for (NoDeclaracaoInicializavel variavel : variaveis)
+            {
+                if (variavel.temInicializacao() || !(variavel instanceof NoDeclaracaoVariavel))
+                {
+                    geraInicializacaoVariavelGlobal(variavel);
+                }
+            }
+
+            codigo.instrucao(RETURN);
+        }
+
+        private void geraInicializacaoVariavelGlobal(NoDeclaracaoInicializavel variavel) throws ExcecaoVisitaASA
+        {
+            codigo.instrucaoVariavel(ALOAD, 0);
+
+            if (!geraValorInicial(variavel))
+            {
+                throw naoSuportado("variável global sem valor inicial", variavel);
+            }
+
+            codigo.instrucaoAtributo(PUTFIELD, nomeInterno, variavel.getNome(), descritor(variavel));
+        }
+
+        /**
+         * Empilha o valor inicial de uma variável, vetor ou matriz.
+         *
+         * @return <code>false</code> se a declaração não possui inicialização nem tamanho
+         */
+        private boolean geraValorInicial(NoDeclaracaoInicializavel declaracao) throws ExcecaoVisitaASA
+        {
+            String descritor = descritor(declaracao);
+            NoExpressao inicializacao = declaracao.getInicializacao();
+
+            if (inicializacao != null)
+            {
+                geraValor(inicializacao, descritor);
+            }
+            else if (declaracao instanceof NoDeclaracaoVetor)
+            {
+                NoExpressao tamanho = ((NoDeclaracaoVetor) declaracao).getTamanho();
+                if (tamanho == null)
+                {
+                    return false;
+                }
+
+                geraValor(tamanho, "I");
+                geraNovoVetor(descritor.substring(1));
+            }
+            else if (declaracao instanceof NoDeclaracaoMatriz)
+            {
+                NoExpressao linhas = ((NoDeclaracaoMatriz) declaracao).getNumeroLinhas();
+                NoExpressao colunas = ((NoDeclaracaoMatriz) declaracao).getNumeroColunas();
+                if (linhas == null || colunas == null)
+                {
+                    return false;
+                }
+
+                geraValor(linhas, "I");
+                geraValor(colunas, "I");
+                codigo.instrucaoNovaMatriz(descritor, 2);
+            }
+            else
+            {
+                return false;
+            }
+
+            return true;
+        }
+
+        private void geraVetor(List<Object> valores, String descritorElemento) throws ExcecaoVisitaASA
+        {
+            codigo.instrucaoInteiro(valores.size());
+            geraNovoVetor(descritorElemento);
+
+            for (int i = 0; i < valores.size(); i++)
+            {
+                if (!(valores.get(i) instanceof NoExpressao))
+                {
+                    throw naoSuportado("valor de vetor que não é uma expressão", null);
+                }
+
+                codigo.instrucao(DUP);
+                codigo.instrucaoInteiro(i);
+                geraValor((NoExpressao) valores.get(i), descritorElemento);
+                codigo.instrucao(instrucaoArmazenamentoVetor(descritorElemento));
+            }
+        }
+
+        private void geraMatriz(NoMatriz matriz, String descritorElemento) throws ExcecaoVisitaASA
+        {
+            List<List<Object>> linhas = matriz.getValores();
+
+            codigo.instrucaoInteiro(linhas.size());
+            codigo.instrucaoTipo(ANEWARRAY, "[" + descritorElemento);
+
+            for (int i = 0; i < linhas.size(); i++)
+            {
+                codigo.instrucao(DUP);
+                codigo.instrucaoInteiro(i);
+                geraVetor(linhas.get(i), descritorElemento);
+                codigo.instrucao(AASTORE);
+            }
+        }
+
+        private void geraNovoVetor(String descritorElemento)
+        {
+            switch (descritorElemento)
+            {
+                case "I": codigo.instrucaoNovoVetor(T_INT); break;
+                case "D": codigo.instrucaoNovoVetor(T_DOUBLE); break;
+                case "Z": codigo.instrucaoNovoVetor(T_BOOLEAN); break;
+                case "C": codigo.instrucaoNovoVetor(T_CHAR); break;
+                default: codigo.instrucaoTipo(ANEWARRAY, nomeClasse(descritorElemento));
+            }
+        }
+
+        private void iniciaMetodo(int acesso, String nome, String descritor)
+        {
+            codigo = classe.adicionarMetodo(acesso, nome, descritor);
+            variaveisLocais = new IdentityHashMap<>();
+            descritorRetorno = descritor.substring(descritor.indexOf(')') + 1);
+            rotulosPare.clear();
+            rotulosContinue.clear();
+        }
+
+        private void geraMetodo(NoDeclaracaoFuncao funcao, int acesso, String nome, String descritor) throws ExcecaoVisitaASA
+        {
+            iniciaMetodo(acesso, nome, descritor);
+
+            int indice = 1;
+            for (NoDeclaracaoParametro parametro : funcao.getParametros())
+            {
+                if (parametro.getModoAcesso() == ModoAcesso.POR_REFERENCIA && parametro.getQuantificador() == Quantificador.VALOR)
+                {
+                    throw naoSuportado("parâmetro por referência", parametro);
+                }
+
+                variaveisLocais.put(parametro, indice);
+                indice += tamanho(descritor(parametro));
+            }
+
+            if (gerandoCodigoParaInterrupcaoDeThread)
+            {
+                geraVerificacaoThreadInterrompida();
+            }
+
+            if (gerandoCodigoParaInspecaoDeSimbolos)
+            {
+                geraCodigoInicializacaoParametrosInspecionados(funcao.getParametros());
+            }
+
+            registraLinha(funcao);
+
+            if (gerandoCodigoParaPontosDeParada)
+            {
+                geraParadaPassoAPasso(funcao);
+            }
+
+            visitarBlocos(funcao.getBlocos());
+
+            if (codigo.estaAlcancavel())
+            {
+                if (!descritorRetorno.equals("V"))
+                {
+                    throw naoSuportado("função sem retorno", funcao);
+                }
+
+                codigo.instrucao(RETURN);
+            }
+        }
+
+        private String getNomeMetodo(NoDeclaracaoFuncao funcao)
+        {
+            return preCompilador.geraNomeValido(funcao.getNome());
+        }
+
+        private String getDescritorMetodo(NoDeclaracaoFuncao funcao) throws ExcecaoVisitaASA
+        {
+            StringBuilder descritor = new StringBuilder("(");
+
+            for (NoDeclaracaoParametro parametro : funcao.getParametros())
+            {
+                descritor.append(descritor(parametro));
+            }
+
+            return descritor.append(')').append(descritor(funcao)).toString();
+        }
+
+        private void visitarBlocos(List<NoBloco> blocos) throws ExcecaoVisitaASA
+        {
+            if (blocos == null)
+            {
+                return;
+            }
+
+            for (NoBloco bloco : blocos)
+            {
+                if (!codigo.estaAlcancavel())
+                {
+                    throw naoSuportado("código inalcançável", bloco);
+                }
+
+                registraLinha(bloco);
+
+                if (gerandoCodigoParaPontosDeParada)
+                {
+                    geraParadaPassoAPasso(bloco);
+                }
+
+                geraComando(bloco);
+
+                if (gerandoCodigoParaInspecaoDeSimbolos)
+                {
+                    geraCodigoParaInspecaoDeBloco(bloco);
+                }
+            }
+        }
+
+        private void geraComando(NoBloco bloco) throws ExcecaoVisitaASA
+        {
+            if (bloco instanceof NoOperacaoAtribuicao)
+            {
+                NoOperacaoAtribuicao atribuicao = (NoOperacaoAtribuicao) bloco;
+
+                if (!(atribuicao.getOperandoEsquerdo() instanceof NoReferencia))
+                {
+                    throw naoSuportado("atribuição para uma expressão", bloco);
+                }
+
+                NoReferencia referencia = (NoReferencia) atribuicao.getOperandoEsquerdo();
+                String descritor = iniciaArmazenamento(referencia);
+                geraValor(atribuicao.getOperandoDireito(), descritor);
+                concluiArmazenamento(referencia);
+            }
+            else if (bloco instanceof NoChamadaFuncao)
+            {
+                String descritor = geraExpressao((NoChamadaFuncao) bloco);
+
+                if (!descritor.equals("V"))
+                {
+                    codigo.instrucao(tamanho(descritor) == 2 ? POP2 : POP);
+                }
+            }
+            else if (bloco instanceof NoExpressao)
+            {
+                throw naoSuportado("expressão utilizada como comando", bloco);
+            }
+            else
+            {
+                bloco.aceitar(this);
+            }
+        }
+
+        // a interrupção da thread é verificada por verificaCotas() a cada lote de passos
+        private void geraVerificacaoThreadInterrompida()
+        {
+            // if (--contadorPassos < 0) verificaCotas();
+            Rotulo dentroDaCota = new Rotulo();
+
+            codigo.instrucaoVariavel(ALOAD, 0);
+            codigo.instrucao(DUP);
+            codigo.instrucaoAtributo(GETFIELD, nomeInterno, CONTADOR_PASSOS, "I");
+            codigo.instrucaoInteiro(1);
+            codigo.instrucao(ISUB);
+            codigo.instrucaoAtributo(PUTFIELD, nomeInterno, CONTADOR_PASSOS, "I");
+            codigo.instrucaoVariavel(ALOAD, 0);
+            codigo.instrucaoAtributo(GETFIELD, nomeInterno, CONTADOR_PASSOS, "I");
+            codigo.instrucaoSalto(IFGE, dentroDaCota);
+            codigo.instrucaoVariavel(ALOAD, 0);
+            codigo.instrucaoMetodo(INVOKEVIRTUAL, nomeInterno, "verificaCotas", "()V");
+            codigo.marcar(dentroDaCota);
+        }
+
+        private void geraParadaPassoAPasso(NoBloco bloco)
+        {
+            TrechoCodigoFonte trechoCodigoFonte = Utils.getTrechoCodigoFonte(bloco);
+
+            if (trechoCodigoFonte != null && trechoCodigoFonte.ehValido())
+            {
+                Rotulo semParada = new Rotulo();
+
+                codigo.instrucaoVariavel(ALOAD, 0);
+                codigo.instrucaoAtributo(GETFIELD, nomeInterno, PARADAS_ARMADAS, "Z");
+                codigo.instrucaoSalto(IFEQ, semParada);
+                codigo.instrucaoVariavel(ALOAD, 0);
+                codigo.instrucaoInteiro(trechoCodigoFonte.getLinha());
+                codigo.instrucaoInteiro(trechoCodigoFonte.getColuna());
+                codigo.instrucaoMetodo(INVOKEVIRTUAL, nomeInterno, "realizarParada", "(II)V");
+                codigo.marcar(semParada);
+            }
+        }
+
+        /**
+         * Registra a linha do comando na tabela de linhas do método. Não tem custo na execução e
+         * permite localizar a linha dos erros mesmo quando o programa não realiza as paradas.
+         */
+        private void registraLinha(NoBloco bloco)
+        {
+            TrechoCodigoFonte trechoCodigoFonte = Utils.getTrechoCodigoFonte(bloco);
+
+            if (trechoCodigoFonte != null && trechoCodigoFonte.ehValido())
+            {
+                codigo.linha(trechoCodigoFonte.getLinha());
+            }
+        }
+
+        // ------------------------------------------------------------------------------------
+        // Inspeção de símbolos
+
+        private void geraCodigoInicializacaoParametrosInspecionados(List<NoDeclaracaoParametro> parametros) throws ExcecaoVisitaASA
+        {
+            for (NoDeclaracaoParametro parametro : parametros)
+            {
+                int idInspecao = parametro.getIdParaInspecao();
+                if (idInspecao >= 0)
+                {
+                    switch (parametro.getQuantificador())
+                    {
+                        case VALOR: geraInspecaoVariavel(idInspecao, parametro); break;
+                        case VETOR: geraInspecaoVetor(idInspecao, parametro); break;
+                        case MATRIZ: geraInspecaoMatriz(idInspecao, parametro); break;
+                    }
+                }
+            }
+        }
+
+        private void geraCodigoParaInspecaoDeBloco(NoBloco bloco) throws ExcecaoVisitaASA
+        {
+            if (bloco instanceof NoDeclaracaoInicializavel)
+            {
+                NoDeclaracaoInicializavel declaracao = (NoDeclaracaoInicializavel) bloco;
+                int idInspecao = declaracao.getIdParaInspecao();
+
+                if (idInspecao >= 0 && declaracao.temInicializacao())
+                {
+                    if (declaracao instanceof NoDeclaracaoVariavel)
+                    {
+                        geraInspecaoVariavel(idInspecao, declaracao);
+                    }
+                    else if (declaracao instanceof NoDeclaracaoVetor)
+                    {
+                        geraInspecaoVetor(idInspecao, declaracao);
+                    }
+                    else if (declaracao instanceof NoDeclaracaoMatriz)
+                    {
+                        geraInspecaoMatriz(idInspecao, declaracao);
+                    }
+                }
+            }
+            else if (bloco instanceof NoOperacaoAtribuicao)
+            {
+                NoExpressao operandoEsquerdo = ((NoOperacaoAtribuicao) bloco).getOperandoEsquerdo();
+                NoDeclaracao origem = ((NoReferencia) operandoEsquerdo).getOrigemDaReferencia();
+                int idInspecao = ((NoDeclaracaoInspecionavel) origem).getIdParaInspecao();
+
+                if (idInspecao < 0)
+                {
+                    return;
+                }
+
+                if (operandoEsquerdo instanceof NoReferenciaVariavel)
+                {
+                    geraInspecaoVariavel(idInspecao, origem);
+                }
+                else if (operandoEsquerdo instanceof NoReferenciaVetor)
+                {
+                    geraInspecaoPosicaoVetor(idInspecao, (NoReferenciaVetor) operandoEsquerdo);
+                }
+                else if (operandoEsquerdo instanceof NoReferenciaMatriz)
+                {
+                    geraInspecaoPosicaoMatriz(idInspecao, (NoReferenciaMatriz) operandoEsquerdo);
+                }
+            }
+        }
+
+        private void geraCodigoInspecao(NoPara noPara) throws ExcecaoVisitaASA
+        {
+            NoExpressao incremento = noPara.getIncremento();
+            if (incremento == null)
+            {
+                return;
+            }
+
+            if (!(incremento instanceof NoOperacaoAtribuicao))
+            {
+                throw naoSuportado("incremento do laço 'para' não é uma atribuição", noPara);
+            }
+
+            NoExpressao operandoEsquerdo = ((NoOperacaoAtribuicao) incremento).getOperandoEsquerdo();
+            if (operandoEsquerdo instanceof NoReferenciaVariavel)
+            {
+                NoDeclaracao origem = ((NoReferenciaVariavel) operandoEsquerdo).getOrigemDaReferencia();
+
+                if (origem instanceof NoDeclaracaoVariavel)
+                {
+                    NoDeclaracaoVariavel variavel = (NoDeclaracaoVariavel) origem;
+                    if (variavel.getIdParaInspecao() >= 0 && variavel.temInicializacao())
+                    {
+                        geraInspecaoVariavel(variavel.getIdParaInspecao(), variavel);
+                    }
+                }
+                else if (origem instanceof NoDeclaracaoParametro)
+                {
+                    NoDeclaracaoParametro parametro = (NoDeclaracaoParametro) origem;
+                    if (parametro.getIdParaInspecao() >= 0)
+                    {
+                        geraInspecaoVariavel(parametro.getIdParaInspecao(), parametro);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Empilha o elemento do array de inspeção com o índice informado, por exemplo
+         * <code>vetoresInspecionados[id]</code>.
+         */
+        private void carregaInspecao(String nomeAtributo, String descritor, int idInspecao)
+        {
+            codigo.instrucaoVariavel(ALOAD, 0);
+            codigo.instrucaoAtributo(GETFIELD, nomeInterno, nomeAtributo, descritor);
+            codigo.instrucaoInteiro(idInspecao);
+            codigo.instrucao(AALOAD);
+        }
+
+        // if (variaveisInspecionadas[id] != null) { variaveisInspecionadas[id] = variavel; }
+        private void geraInspecaoVariavel(int idInspecao, NoDeclaracao declaracao) throws ExcecaoVisitaASA
+        {
+            Rotulo fim = new Rotulo();
+
+            carregaInspecao(VARIAVEIS_INSPECIONADAS, DESCRITOR_VARIAVEIS_INSPECIONADAS, idInspecao);
+            codigo.instrucaoSalto(IFNULL, fim);
+
+            codigo.instrucaoVariavel(ALOAD, 0);
+            codigo.instrucaoAtributo(GETFIELD, nomeInterno, VARIAVEIS_INSPECIONADAS, DESCRITOR_VARIAVEIS_INSPECIONADAS);
+            codigo.instrucaoInteiro(idInspecao);
+            converte(carregaVariavel(declaracao), OBJETO, declaracao);
+            codigo.instrucao(AASTORE);
+
+            codigo.marcar(fim);
+        }
+
+        // if (vetoresInspecionados[id] != null) { vetoresInspecionados[id].setDados(vetor); }
+        private void geraInspecaoVetor(int idInspecao, NoDeclaracao declaracao) throws ExcecaoVisitaASA
+        {
+            geraVinculoInspecao(VETORES_INSPECIONADOS, DESCRITOR_VETORES_INSPECIONADOS, VETOR, idInspecao, declaracao);
+        }
+
+        // if (matrizesInspecionadas[id] != null) { matrizesInspecionadas[id].setDados(matriz); }
+        private void geraInspecaoMatriz(int idInspecao, NoDeclaracao declaracao) throws ExcecaoVisitaASA
+        {
+            geraVinculoInspecao(MATRIZES_INSPECIONADAS, DESCRITOR_MATRIZES_INSPECIONADAS, MATRIZ, idInspecao, declaracao);
+        }
+
+        /**
+         * Guarda apenas a referência do vetor ou da matriz, os valores são lidos somente quando o
+         * símbolo inspecionado é consultado.
+         */
+        private void geraVinculoInspecao(String nomeAtributo, String descritor, String classeInspecao, int idInspecao, NoDeclaracao declaracao) throws ExcecaoVisitaASA
+        {
+            Rotulo fim = new Rotulo();
+
+            carregaInspecao(nomeAtributo, descritor, idInspecao);
+            codigo.instrucaoSalto(IFNULL, fim);
+
+            carregaInspecao(nomeAtributo, descritor, idInspecao);
+            carregaVariavel(declaracao);
+            codigo.instrucaoMetodo(INVOKEVIRTUAL, classeInspecao, "setDados", "(" + OBJETO + ")V");
+
+            codigo.marcar(fim);
+        }
+
+        // if (vetoresInspecionados[id] != null) { vetoresInspecionados[id].alterado(vetor, indice); }
+        private void geraInspecaoPosicaoVetor(int idInspecao, NoReferenciaVetor referencia) throws ExcecaoVisitaASA
+        {
+            Rotulo fim = new Rotulo();
+
+            carregaInspecao(VETORES_INSPECIONADOS, DESCRITOR_VETORES_INSPECIONADOS, idInspecao);
+            codigo.instrucaoSalto(IFNULL, fim);
+
+            carregaInspecao(VETORES_INSPECIONADOS, DESCRITOR_VETORES_INSPECIONADOS, idInspecao);
+            carregaVariavel(referencia.getOrigemDaReferencia());
+            geraValor(referencia.getIndice(), "I"); // o índice é avaliado novamente, assim como no código Java
+            codigo.instrucaoMetodo(INVOKEVIRTUAL, VETOR, "alterado", "(" + OBJETO + "I)V");
+
+            codigo.marcar(fim);
+        }
+
+        // if (matrizesInspecionadas[id] != null) { matrizesInspecionadas[id].alterado(matriz, linha, coluna); }
+        private void geraInspecaoPosicaoMatriz(int idInspecao, NoReferenciaMatriz referencia) throws ExcecaoVisitaASA
+        {
+            Rotulo fim = new Rotulo();
+
+            carregaInspecao(MATRIZES_INSPECIONADAS, DESCRITOR_MATRIZES_INSPECIONADAS, idInspecao);
+            codigo.instrucaoSalto(IFNULL, fim);
+
+            carregaInspecao(MATRIZES_INSPECIONADAS, DESCRITOR_MATRIZES_INSPECIONADAS, idInspecao);
+            carregaVariavel(referencia.getOrigemDaReferencia());
+            geraValor(referencia.getLinha(), "I");
+            geraValor(referencia.getColuna(), "I");
+            codigo.instrucaoMetodo(INVOKEVIRTUAL, MATRIZ, "alterado", "(" + OBJETO + "II)V");
+
+            codigo.marcar(fim);
+        }
+
+        private void incrementa(int variavel)
+        {
+            codigo.instrucaoVariavel(ILOAD, variavel);
+            codigo.instrucaoInteiro(1);
+            codigo.instrucao(IADD);
+            codigo.instrucaoVariavel(ISTORE, variavel);
+        }
+
+        // ------------------------------------------------------------------------------------
+        // Variáveis
+
+        private String carregaVariavel(NoDeclaracao declaracao) throws ExcecaoVisitaASA
+        {
+            String descritor = descritor(declaracao);
+
+            if (globais.contains(declaracao))
+            {
+                codigo.instrucaoVariavel(ALOAD, 0);
+                codigo.instrucaoAtributo(GETFIELD, nomeInterno, declaracao.getNome(), descritor);
+            }
+            else
+            {
+                codigo.instrucaoVariavel(instrucaoCarregamento(descritor), getIndiceVariavelLocal(declaracao));
+            }
+
+            return descritor;
+        }
+
+        private int getIndiceVariavelLocal(NoDeclaracao declaracao) throws ExcecaoVisitaASA
+        {
+            Integer indice = variaveisLocais.get(declaracao);
+
+            if (indice == null)
+            {
+                throw naoSuportado("variável fora do escopo do método", declaracao);
+            }
+
+            return indice;
+        }
+
+        /**
+         * Empilha o que é necessário antes do valor em uma atribuição: o <code>this</code> para
+         * as variáveis globais, o array e o índice para as posições de vetores e matrizes.
+         *
+         * @return o descritor do tipo do valor que deve ser armazenado
+         */
+        private String iniciaArmazenamento(NoReferencia referencia) throws ExcecaoVisitaASA
+        {
+            NoDeclaracao origem = getOrigem(referencia);
+
+            if (referencia instanceof NoReferenciaVariavel)
+            {
+                if (globais.contains(origem))
+                {
+                    codigo.instrucaoVariavel(ALOAD, 0);
+                }
+
+                return descritor(origem);
+            }
+            else if (referencia instanceof NoReferenciaVetor)
+            {
+                String descritor = carregaVariavel(origem);
+                if (!descritor.startsWith("["))
+                {
+                    throw naoSuportado("referência de vetor inválida", referencia);
+                }
+
+                geraValor(((NoReferenciaVetor) referencia).getIndice(), "I");
+
+                return descritor.substring(1);
+            }
+            else
+            {
+                String descritor = carregaVariavel(origem);
+                if (!descritor.startsWith("[["))
+                {
+                    throw naoSuportado("referência de matriz inválida", referencia);
+                }
+
+                geraValor(((NoReferenciaMatriz) referencia).getLinha(), "I");
+                codigo.instrucao(AALOAD);
+                geraValor(((NoReferenciaMatriz) referencia).getColuna(), "I");
+
+                return descritor.substring(2);
+            }
+        }
+
+        private void concluiArmazenamento(NoReferencia referencia) throws ExcecaoVisitaASA
+        {
+            NoDeclaracao origem = getOrigem(referencia);
+            String descritor = descritor(origem);
+
+            if (referencia instanceof NoReferenciaVariavel)
+            {
+                if (globais.contains(origem))
+                {
+                    codigo.instrucaoAtributo(PUTFIELD, nomeInterno, origem.getNome(), descritor);
+                }
+                else
+                {
+                    codigo.instrucaoVariavel(instrucaoArmazenamento(descritor), getIndiceVariavelLocal(origem));
+                }
+            }
+            else
+            {
+                codigo.instrucao(instrucaoArmazenamentoVetor(descritor.substring(descritor.lastIndexOf('[') + 1)));
+            }
+        }
+
+        private NoDeclaracao getOrigem(NoReferencia referencia) throws ExcecaoVisitaASA
+        {
+            NoDeclaracao origem = referencia.getOrigemDaReferencia();
+
+            if (referencia.getEscopo() != null || origem == null || origem instanceof NoDeclaracaoFuncao)
+            {
+                throw naoSuportado("referência sem declaração no programa", referencia);
+            }
+
+            return origem;
+        }
+
+        private void declaraVariavelLocal(NoDeclaracaoInicializavel declaracao) throws ExcecaoVisitaASA
+        {
+            String descritor = descritor(declaracao);
+
+            if (!geraValorInicial(declaracao))
+            {
+                geraValorPadrao(descritor);
+            }
+
+            int indice = codigo.novaVariavelLocal(tamanho(descritor));
+            codigo.instrucaoVariavel(instrucaoArmazenamento(descritor), indice);
+            variaveisLocais.put(declaracao, indice);
+        }
+
+        private void geraValorPadrao(String descritor)
+        {
+            switch (descritor)
+            {
+                case "I": case "Z": case "C": codigo.instrucaoInteiro(0); break;
+                case "D": codigo.instrucaoReal(0.0); break;
+                default: codigo.instrucao(ACONST_NULL);
+            }
+        }
+
+        @Override
+        public Object visitar(NoDeclaracaoVariavel noDeclaracao) throws ExcecaoVisitaASA
+        {
+            declaraVariavelLocal(noDeclaracao);
+            return null;
+        }
+
+        @Override
+        public Object visitar(NoDeclaracaoVetor noDeclaracao) throws ExcecaoVisitaASA
+        {
+            declaraVariavelLocal(noDeclaracao);
+            return null;
+        }
+
+        @Override
+        public Object visitar(NoDeclaracaoMatriz noDeclaracao) throws ExcecaoVisitaASA
+        {
+            declaraVariavelLocal(noDeclaracao);
+            return null;
+        }
+
+        // ------------------------------------------------------------------------------------
+        // Comandos
+
+        @Override
+        public Object visitar(NoSe no) throws ExcecaoVisitaASA
+        {
+            Rotulo senao = new Rotulo();
+
+            geraSalto(no.getCondicao(), false, senao);
+            visitarBlocos(no.getBlocosVerdadeiros());
+
+            if (no.getBlocosFalsos() != null)
+            {
+                Rotulo fim = new Rotulo();
+
+                if (codigo.estaAlcancavel())
+                {
+                    codigo.instrucaoSalto(GOTO, fim);
+                }
+
+                codigo.marcar(senao);
+                visitarBlocos(no.getBlocosFalsos());
+                codigo.marcar(fim);
+            }
+            else
+            {
+                codigo.marcar(senao);
+            }
+
+            return null;
+        }
+
+        @Override
+        public Object visitar(NoEnquanto no) throws ExcecaoVisitaASA
+        {
+            Rotulo inicio = new Rotulo();
+            Rotulo fim = new Rotulo();
+
+            codigo.marcar(inicio);
+            geraSalto(no.getCondicao(), false, fim);
+
+            geraCorpoLaco(no.getBlocos(), fim, inicio);
+
+            if (codigo.estaAlcancavel())
+            {
+                codigo.instrucaoSalto(GOTO, inicio);
+            }
+
+            codigo.marcar(fim);
+
+            return null;
+        }
+
+        @Override
+        public Object visitar(NoFacaEnquanto no) throws ExcecaoVisitaASA
+        {
+            Rotulo inicio = new Rotulo();
+            Rotulo condicao = new Rotulo();
+            Rotulo fim = new Rotulo();
+
+            codigo.marcar(inicio);
+            geraCorpoLaco(no.getBlocos(), fim, condicao);
+            codigo.marcar(condicao);
+
+            if (codigo.estaAlcancavel())
+            {
+                geraSalto(no.getCondicao(), true, inicio);
+            }
+
+            codigo.marcar(fim);
+
+            return null;
+        }
+
+        @Override
+        public Object visitar(NoPara no) throws ExcecaoVisitaASA
+        {
+            if (no.getInicializacao() != null)
+            {
+                geraComando(no.getInicializacao());
+            }
+
+            Rotulo teste = new Rotulo();
+            Rotulo incremento = new Rotulo();
+            Rotulo fim = new Rotulo();
+
+            codigo.marcar(teste);
+
+            if (no.getCondicao() != null)
+            {
+                geraSalto(no.getCondicao(), false, fim);
+            }
+
+            if (gerandoCodigoParaInterrupcaoDeThread)
+            {
+                geraVerificacaoThreadInterrompida();
+            }
+
+            if (gerandoCodigoParaInspecaoDeSimbolos)
+            {
+                geraCodigoInspecao(no);
+            }
+
+            rotulosPare.push(fim);
+            rotulosContinue.push(incremento);
+            visitarBlocos(no.getBlocos());
+            rotulosContinue.pop();
+            rotulosPare.pop();
+
+            codigo.marcar(incremento);
+
+            if (codigo.estaAlcancavel())
+            {
+                if (no.getIncremento() != null)
+                {
+                    geraComando(no.getIncremento());
+                }
+
+                codigo.instrucaoSalto(GOTO, teste);
+            }
+
+            codigo.marcar(fim);
+
+            return null;
+        }
+
+        private void geraCorpoLaco(List<NoBloco> blocos, Rotulo fim, Rotulo continua) throws ExcecaoVisitaASA
+        {
+            if (gerandoCodigoParaInterrupcaoDeThread)
+            {
+                geraVerificacaoThreadInterrompida();
+            }
+
+            rotulosPare.push(fim);
+            rotulosContinue.push(continua);
+            visitarBlocos(blocos);
+            rotulosContinue.pop();
+            rotulosPare.pop();
+        }
+
+        @Override
+        public Object visitar(NoEscolha no) throws ExcecaoVisitaASA
+        {
+            // equivale ao switch gerado no código Java, os casos sem 'pare' continuam no caso seguinte
+            String descritor = tipo(no.getExpressao());
+            if (!descritor.equals("I") && !descritor.equals("C"))
+            {
+                throw naoSuportado("escolha com expressão que não é inteira ou caracter", no);
+            }
+
+            List<NoCaso> casos = no.getCasos();
+            List<Rotulo> rotulosCasos = new ArrayList<>();
+            Rotulo contrario = null;
+            Rotulo fim = new Rotulo();
+
+            int valor = codigo.novaVariavelLocal(1);
+            geraValor(no.getExpressao(), "I");
+            codigo.instrucaoVariavel(ISTORE, valor);
+
+            for (NoCaso caso : casos)
+            {
+                Rotulo rotulo = new Rotulo();
+                rotulosCasos.add(rotulo);
+
+                NoExpressao expressaoCaso = caso.getExpressao();
+                if (expressaoCaso == null)
+                {
+                    contrario = rotulo;
+                }
+                else if (expressaoCaso instanceof NoInteiro || expressaoCaso instanceof NoCaracter)
+                {
+                    codigo.instrucaoVariavel(ILOAD, valor);
+                    geraValor(expressaoCaso, "I");
+                    codigo.instrucaoSalto(IF_ICMPEQ, rotulo);
+                }
+                else
+                {
+                    throw naoSuportado("caso que não é um valor inteiro ou caracter", caso);
+                }
+            }
+
+            codigo.instrucaoSalto(GOTO, contrario != null ? contrario : fim);
+
+            rotulosPare.push(fim);
+
+            for (int i = 0; i < casos.size(); i++)
+            {
+                codigo.marcar(rotulosCasos.get(i));
+                visitarBlocos(casos.get(i).getBlocos());
+            }
+
+            rotulosPare.pop();
+
+            codigo.marcar(fim);
+
+            return null;
+        }
+
+        @Override
+        public Object visitar(NoPare noPare) throws ExcecaoVisitaASA
+        {
+            if (rotulosPare.isEmpty())
+            {
+                throw naoSuportado("'pare' fora de um laço ou escolha", noPare);
+            }
+
+            codigo.instrucaoSalto(GOTO, rotulosPare.peek());
+            return null;
+        }
+
+        @Override
+        public Object visitar(NoContinue noContinue) throws ExcecaoVisitaASA
+        {
+            if (rotulosContinue.isEmpty())
+            {
+                throw naoSuportado("'continue' fora de um laço", noContinue);
+            }
+
+            codigo.instrucaoSalto(GOTO, rotulosContinue.peek());
+            return null;
+        }
+
+        @Override
+        public Object visitar(NoRetorne no) throws ExcecaoVisitaASA
+        {
+            NoExpressao expressao = no.getExpressao();
+
+            if (expressao == null)
+            {
+                if (!descritorRetorno.equals("V"))
+                {
+                    throw naoSuportado("'retorne' sem valor em função com retorno", no);
+                }
+
+                codigo.instrucao(RETURN);
+            }
+            else
+            {
+                if (descritorRetorno.equals("V"))
+                {
+                    throw naoSuportado("'retorne' com valor em função sem retorno", no);
+                }
+
+                geraValor(expressao, descritorRetorno);
+                codigo.instrucao(instrucaoRetorno(descritorRetorno));
+            }
+
+            return null;
+        }
+
+        // ------------------------------------------------------------------------------------
+        // Expressões
+
+        /**
+         * Gera o código de uma expressão.
+         *
+         * @return o descritor do tipo do valor empilhado
+         */
+        private String geraExpressao(NoExpressao expressao) throws ExcecaoVisitaASA
+        {
+            return (String) expressao.aceitar(this);
+        }
+
+        /**
+         * Gera o código de uma expressão convertendo o valor empilhado para o tipo esperado,
+         * como o javac faz nas atribuições, parâmetros e retornos (com o cast para
+         * <code>int</code> inserido pelo {@link GeradorCodigoJava}).
+         */
+        private void geraValor(NoExpressao expressao, String descritorEsperado) throws ExcecaoVisitaASA
+        {
+            if (expressao instanceof NoVetor && descritorEsperado.startsWith("[") && !descritorEsperado.startsWith("[["))
+            {
+                geraVetor(((NoVetor) expressao).getValores(), descritorEsperado.substring(1));
+            }
+            else if (expressao instanceof NoMatriz && descritorEsperado.startsWith("[["))
+            {
+                geraMatriz((NoMatriz) expressao, descritorEsperado.substring(2));
+            }
+            else
+            {
+                converte(geraExpressao(expressao), descritorEsperado, expressao);
+            }
+        }
+
+        private void converte(String de, String para, No no) throws ExcecaoVisitaASA
+        {
+            if (de.equals(para))
+            {
+                return;
+            }
+
+            if (para.equals(OBJETO))
+            {
+                switch (de)
+                {
+                    case "I": codigo.instrucaoMetodo(INVOKESTATIC, "java/lang/Integer", "valueOf", "(I)Ljava/lang/Integer;"); return;
+                    case "D": codigo.instrucaoMetodo(INVOKESTATIC, "java/lang/Double", "valueOf", "(D)Ljava/lang/Double;"); return;
+                    case "Z": codigo.instrucaoMetodo(INVOKESTATIC, "java/lang/Boolean", "valueOf", "(Z)Ljava/lang/Boolean;"); return;
+                    case "C": codigo.instrucaoMetodo(INVOKESTATIC, "java/lang/Character", "valueOf", "(C)Ljava/lang/Character;"); return;
+                    case "V": break;
+                    default: return; // cadeias, vetores e matrizes já são objetos
+                }
+            }
+            else if (para.equals("D") && (de.equals("I") || de.equals("C")))
+            {
+                codigo.instrucao(I2D);
+                return;
+            }
+            else if (para.equals("I"))
+            {
+                if (de.equals("C"))
+                {
+                    return;
+                }
+
+                if (de.equals("D"))
+                {
+                    codigo.instrucao(D2I);
+                    return;
+                }
+            }
+
+            throw naoSuportado(String.format("conversão de %s para %s", de, para), no);
+        }
+
+        /**
+         * Determina o tipo de uma expressão segundo as regras do Java, sem gerar código.
+         */
+        private String tipo(NoExpressao expressao) throws ExcecaoVisitaASA
+        {
+            String tipo = tipos.get(expressao);
+
+            if (tipo == null)
+            {
+                tipo = calculaTipo(expressao);
+                tipos.put(expressao, tipo);
+            }
+
+            return tipo;
+        }
+
+        private String calculaTipo(NoExpressao expressao) throws ExcecaoVisitaASA
+        {
+            if (expressao instanceof NoInteiro) return "I";
+            if (expressao instanceof NoReal) return "D";
+            if (expressao instanceof NoLogico) return "Z";
+            if (expressao instanceof NoCaracter) return "C";
+            if (expressao instanceof NoCadeia) return CADEIA;
+            if (expressao instanceof NoNao || expressao instanceof NoOperacaoLogica) return "Z";
+
+            if (expressao instanceof NoChamadaFuncao)
+            {
+                NoChamadaFuncao chamada = (NoChamadaFuncao) expressao;
+                if (chamada.getEscopo() != null)
+                {
+                    throw naoSuportado("chamada de função de biblioteca", chamada);
+                }
+
+                return (chamada.getOrigemDaReferencia() != null) ? descritor(chamada.getOrigemDaReferencia()) : "V";
+            }
+
+            if (expressao instanceof NoReferencia)
+            {
+                String descritor = descritor(getOrigem((NoReferencia) expressao));
+                int dimensoes = (expressao instanceof NoReferenciaVetor) ? 1 : (expressao instanceof NoReferenciaMatriz) ? 2 : 0;
+
+                if (dimensoes > 0 && (descritor.length() <= dimensoes || descritor.charAt(dimensoes - 1) != '['))
+                {
+                    throw naoSuportado("referência de vetor ou matriz inválida", expressao);
+                }
+
+                return descritor.substring(dimensoes);
+            }
+
+            if (expressao instanceof NoMenosUnario)
+            {
+                return promoveNumerico(tipo(((NoMenosUnario) expressao).getExpressao()), "I", expressao);
+            }
+
+            if (expressao instanceof NoBitwiseNao)
+            {
+                return promoveInteiro(tipo(((NoBitwiseNao) expressao).getExpressao()), "I", expressao);
+            }
+
+            if (expressao instanceof NoOperacao && !(expressao instanceof NoOperacaoAtribuicao))
+            {
+                NoOperacao operacao = (NoOperacao) expressao;
+                String esquerdo = tipo(operacao.getOperandoEsquerdo());
+                String direito = tipo(operacao.getOperandoDireito());
+
+                if (operacao instanceof NoOperacaoSoma && (esquerdo.equals(CADEIA) || direito.equals(CADEIA)))
+                {
+                    if (esquerdo.equals("V") || direito.equals("V"))
+                    {
+                        throw naoSuportado("concatenação com valor vazio", expressao);
+                    }
+
+                    return CADEIA;
+                }
+
+                if (operacao instanceof NoOperacaoSoma || operacao instanceof NoOperacaoSubtracao
+                        || operacao instanceof NoOperacaoMultiplicacao || operacao instanceof NoOperacaoDivisao
+                        || operacao instanceof NoOperacaoModulo)
+                {
+                    return promoveNumerico(esquerdo, direito, expressao);
+                }
+
+                return promoveInteiro(esquerdo, direito, expressao); // operações bit a bit
+            }
+
+            throw naoSuportado("expressão não suportada: " + expressao.getClass().getSimpleName(), expressao);
+        }
+
+        private String promoveNumerico(String a, String b, No no) throws ExcecaoVisitaASA
+        {
+            if (!ehNumerico(a) || !ehNumerico(b))
+            {
+                throw naoSuportado("operação aritmética com operandos não numéricos", no);
+            }
+
+            return (a.equals("D") || b.equals("D")) ? "D" : "I";
+        }
+
+        private String promoveInteiro(String a, String b, No no) throws ExcecaoVisitaASA
+        {
+            if (!ehNumerico(a) || !ehNumerico(b) || a.equals("D") || b.equals("D"))
+            {
+                throw naoSuportado("operação bit a bit com operandos que não são inteiros", no);
+            }
+
+            return "I";
+        }
+
+        private boolean ehNumerico(String descritor)
+        {
+            return descritor.equals("I") || descritor.equals("D") || descritor.equals("C");
+        }
+
+        @Override
+        public Object visitar(NoInteiro noInteiro) throws ExcecaoVisitaASA
+        {
+            codigo.instrucaoInteiro(noInteiro.getValor());
+            return "I";
+        }
+
+        @Override
+        public Object visitar(NoReal noReal) throws ExcecaoVisitaASA
+        {
+            codigo.instrucaoReal(noReal.getValor());
+            return "D";
+        }
+
+        @Override
+        public Object visitar(NoLogico noLogico) throws ExcecaoVisitaASA
+        {
+            codigo.instrucaoInteiro(noLogico.getValor() ? 1 : 0);
+            return "Z";
+        }
+
+        @Override
+        public Object visitar(NoCaracter noCaracter) throws ExcecaoVisitaASA
+        {
+            codigo.instrucaoInteiro(noCaracter.getValor());
+            return "C";
+        }
+
+        @Override
+        public Object visitar(NoCadeia noCadeia) throws ExcecaoVisitaASA
+        {
+            codigo.instrucaoCadeia(noCadeia.getValor());
+            return CADEIA;
+        }
+
+        @Override
+        public Object visitar(NoReferenciaVariavel no) throws ExcecaoVisitaASA
+        {
+            return carregaVariavel(getOrigem(no));
+        }
+
+        @Override
+        public Object visitar(NoReferenciaVetor no) throws ExcecaoVisitaASA
+        {
+            String descritor = tipo(no);
+
+            carregaVariavel(getOrigem(no));
+            geraValor(no.getIndice(), "I");
+            codigo.instrucao(instrucaoCarregamentoVetor(descritor));
+
+            return descritor;
+        }
+
+        @Override
+        public Object visitar(NoReferenciaMatriz no) throws ExcecaoVisitaASA
+        {
+            String descritor = tipo(no);
+
+            carregaVariavel(getOrigem(no));
+            geraValor(no.getLinha(), "I");
+            codigo.instrucao(AALOAD);
+            geraValor(no.getColuna(), "I");
+            codigo.instrucao(instrucaoCarregamentoVetor(descritor));
+
+            return descritor;
+        }
+
+        @Override
+        public Object visitar(NoMenosUnario no) throws ExcecaoVisitaASA
+        {
+            String descritor = tipo(no);
+
+            geraValor(no.getExpressao(), descritor);
+            codigo.instrucao(descritor.equals("D") ? DNEG : INEG);
+
+            return descritor;
+        }
+
+        @Override
+        public Object visitar(NoBitwiseNao no) throws ExcecaoVisitaASA
+        {
+            tipo(no);
+
+            geraValor(no.getExpressao(), "I");
+            codigo.instrucaoInteiro(-1);
+            codigo.instrucao(IXOR);
+
+            return "I";
+        }
+
+        @Override
+        public Object visitar(NoNao no) throws ExcecaoVisitaASA
+        {
+            return geraValorLogico(no);
+        }
+
+        @Override
+        public Object visitar(NoOperacaoSoma no) throws ExcecaoVisitaASA
+        {
+            if (tipo(no).equals(CADEIA))
+            {
+                return geraConcatenacao(no);
+            }
+
+            return geraOperacaoAritmetica(no, IADD, DADD);
+        }
+
+        @Override
+        public Object visitar(NoOperacaoSubtracao no) throws ExcecaoVisitaASA
+        {
+            return geraOperacaoAritmetica(no, ISUB, DSUB);
+        }
+
+        @Override
+        public Object visitar(NoOperacaoMultiplicacao no) throws ExcecaoVisitaASA
+        {
+            return geraOperacaoAritmetica(no, IMUL, DMUL);
+        }
+
+        @Override
+        public Object visitar(NoOperacaoDivisao no) throws ExcecaoVisitaASA
+        {
+            return geraOperacaoAritmetica(no, IDIV, DDIV);
+        }
+
+        @Override
+        public Object visitar(NoOperacaoModulo no) throws ExcecaoVisitaASA
+        {
+            return geraOperacaoAritmetica(no, IREM, DREM);
+        }
+
+        @Override
+        public Object visitar(NoOperacaoBitwiseE no) throws ExcecaoVisitaASA
+        {
+            return geraOperacaoAritmetica(no, IAND, -1);
+        }
+
+        @Override
+        public Object visitar(NoOperacaoBitwiseOu no) throws ExcecaoVisitaASA
+        {
+            return geraOperacaoAritmetica(no, IOR, -1);
+        }
+
+        @Override
+        public Object visitar(NoOperacaoBitwiseXOR no) throws ExcecaoVisitaASA
+        {
+            return geraOperacaoAritmetica(no, IXOR, -1);
+        }
+
+        @Override
+        public Object visitar(NoOperacaoBitwiseLeftShift no) throws ExcecaoVisitaASA
+        {
+            return geraOperacaoAritmetica(no, ISHL, -1);
+        }
+
+        @Override
+        public Object visitar(NoOperacaoBitwiseRightShift no) throws ExcecaoVisitaASA
+        {
+            return geraOperacaoAritmetica(no, ISHR, -1);
+        }
+
+        @Override
+        public Object visitar(NoOperacaoLogicaE no) throws ExcecaoVisitaASA
+        {
+            return geraValorLogico(no);
+        }
+
+        @Override
+        public Object visitar(NoOperacaoLogicaOU no) throws ExcecaoVisitaASA
+        {
+            return geraValorLogico(no);
+        }
+
+        @Override
+        public Object visitar(NoOperacaoLogicaIgualdade no) throws ExcecaoVisitaASA
+        {
+            return geraValorLogico(no);
+        }
+
+        @Override
+        public Object visitar(NoOperacaoLogicaDiferenca no) throws ExcecaoVisitaASA
+        {
+            return geraValorLogico(no);
+        }
+
+        @Override
+        public Object visitar(NoOperacaoLogicaMaior no) throws ExcecaoVisitaASA
+        {
+            return geraValorLogico(no);
+        }
+
+        @Override
+        public Object visitar(NoOperacaoLogicaMaiorIgual no) throws ExcecaoVisitaASA
+        {
+            return geraValorLogico(no);
+        }
+
+        @Override
+        public Object visitar(NoOperacaoLogicaMenor no) throws ExcecaoVisitaASA
+        {
+            return geraValorLogico(no);
+        }
+
+        @Override
+        public Object visitar(NoOperacaoLogicaMenorIgual no) throws ExcecaoVisitaASA
+        {
+            return geraValorLogico(no);
+        }
+
+        private String geraOperacaoAritmetica(NoOperacao no, int instrucaoInteiro, int instrucaoReal) throws ExcecaoVisitaASA
+        {
+            String descritor = tipo(no);
+
+            geraValor(no.getOperandoEsquerdo(), descritor);
+            geraValor(no.getOperandoDireito(), descritor);
+            codigo.instrucao(descritor.equals("D") ? instrucaoReal : instrucaoInteiro);
+
+            return descritor;
+        }
+
+        private String geraConcatenacao(NoOperacaoSoma no) throws ExcecaoVisitaASA
+        {
+            List<NoExpressao> partes = new ArrayList<>();
+            coletaPartesConcatenacao(no, partes);
+
+            codigo.instrucaoTipo(NEW, STRING_BUILDER);
+            codigo.instrucao(DUP);
+            codigo.instrucaoMetodo(INVOKESPECIAL, STRING_BUILDER, "<init>", "()V");
+
+            for (NoExpressao parte : partes)
+            {
+                String descritor = geraExpressao(parte);
+
+                if (descritor.startsWith("["))
+                {
+                    descritor = OBJETO;
+                }
+
+                codigo.instrucaoMetodo(INVOKEVIRTUAL, STRING_BUILDER, "append", "(" + descritor + ")L" + STRING_BUILDER + ";");
+            }
+
+            codigo.instrucaoMetodo(INVOKEVIRTUAL, STRING_BUILDER, "toString", "()" + CADEIA);
+
+            return CADEIA;
+        }
+
+        // a concatenação é associativa, então as concatenações aninhadas usam o mesmo StringBuilder
+        private void coletaPartesConcatenacao(NoExpressao expressao, List<NoExpressao> partes) throws ExcecaoVisitaASA
+        {
+            if (expressao instanceof NoOperacaoSoma && tipo(expressao).equals(CADEIA))
+            {
+                coletaPartesConcatenacao(((NoOperacaoSoma) expressao).getOperandoEsquerdo(), partes);
+                coletaPartesConcatenacao(((NoOperacaoSoma) expressao).getOperandoDireito(), partes);
+            }
+            else
+            {
+                partes.add(expressao);
+            }
+        }
+
+        private String geraValorLogico(NoExpressao expressao) throws ExcecaoVisitaASA
+        {
+            Rotulo falso = new Rotulo();
+            Rotulo fim = new Rotulo();
+
+            geraSalto(expressao, false, falso);
+            codigo.instrucaoInteiro(1);
+            codigo.instrucaoSalto(GOTO, fim);
+            codigo.marcar(falso);
+            codigo.instrucaoInteiro(0);
+            codigo.marcar(fim);
+
+            return "Z";
+        }
+
+        /**
+         * Gera um salto para o destino quando a expressão lógica resultar no valor informado.
+         * Os operadores 'e' e 'ou' são avaliados em curto-circuito, como no Java.
+         */
+        private void geraSalto(NoExpressao expressao, boolean quando, Rotulo destino) throws ExcecaoVisitaASA
+        {
+            if (expressao instanceof NoNao)
+            {
+                geraSalto(((NoNao) expressao).getExpressao(), !quando, destino);
+            }
+            else if (expressao instanceof NoOperacaoLogicaE || expressao instanceof NoOperacaoLogicaOU)
+            {
+                NoOperacao operacao = (NoOperacao) expressao;
+                boolean ehE = expressao instanceof NoOperacaoLogicaE;
+
+                if (ehE != quando) // (a e b) é falso ou (a ou b) é verdadeiro: basta um dos operandos
+                {
+                    geraSalto(operacao.getOperandoEsquerdo(), quando, destino);
+                    geraSalto(operacao.getOperandoDireito(), quando, destino);
+                }
+                else
+                {
+                    Rotulo fim = new Rotulo();
+
+                    geraSalto(operacao.getOperandoEsquerdo(), !quando, fim);
+                    geraSalto(operacao.getOperandoDireito(), quando, destino);
+                    codigo.marcar(fim);
+                }
+            }
+            else if (expressao instanceof NoOperacaoLogica)
+            {
+                geraSaltoComparacao((NoOperacaoLogica) expressao, quando, destino);
+            }
+            else
+            {
+                geraValor(expressao, "Z");
+                codigo.instrucaoSalto(quando ? IFNE : IFEQ, destino);
+            }
+        }
+
+        private void geraSaltoComparacao(NoOperacaoLogica operacao, boolean quando, Rotulo destino) throws ExcecaoVisitaASA
+        {
+            // deslocamento da condição em relação a IFEQ/IF_ICMPEQ: EQ, NE, LT, GE, GT, LE
+            int condicao;
+            if (operacao instanceof NoOperacaoLogicaIgualdade) condicao = 0;
+            else if (operacao instanceof NoOperacaoLogicaDiferenca) condicao = 1;
+            else if (operacao instanceof NoOperacaoLogicaMenor) condicao = 2;
+            else if (operacao instanceof NoOperacaoLogicaMaiorIgual) condicao = 3;
+            else if (operacao instanceof NoOperacaoLogicaMaior) condicao = 4;
+            else condicao = 5; // menor ou igual
+
+            boolean menor = condicao == 2 || condicao == 5;
+            boolean igualdade = condicao <= 1;
+
+            if (!quando)
+            {
+                condicao ^= 1; // EQ <-> NE, LT <-> GE, GT <-> LE
+            }
+
+            String esquerdo = tipo(operacao.getOperandoEsquerdo());
+            String direito = tipo(operacao.getOperandoDireito());
+
+            if (ehNumerico(esquerdo) && ehNumerico(direito))
+            {
+                if (esquerdo.equals("D") || direito.equals("D"))
+                {
+                    // como o javac: com NaN as comparações < e <= usam DCMPG e as demais DCMPL, assim o resultado é sempre falso
+                    geraValor(operacao.getOperandoEsquerdo(), "D");
+                    geraValor(operacao.getOperandoDireito(), "D");
+                    codigo.instrucao(menor ? DCMPG : DCMPL);
+                    codigo.instrucaoSalto(IFEQ + condicao, destino);
+                }
+                else
+                {
+                    geraValor(operacao.getOperandoEsquerdo(), "I");
+                    geraValor(operacao.getOperandoDireito(), "I");
+                    codigo.instrucaoSalto(IF_ICMPEQ + condicao, destino);
+                }
+            }
+            else if (igualdade && esquerdo.equals("Z") && direito.equals("Z"))
+            {
+                geraExpressao(operacao.getOperandoEsquerdo());
+                geraExpressao(operacao.getOperandoDireito());
+                codigo.instrucaoSalto(IF_ICMPEQ + condicao, destino);
+            }
+            else if (igualdade && esquerdo.equals(CADEIA) && direito.equals(CADEIA))
+            {
+                // o código Java compara as cadeias com equals()
+                geraExpressao(operacao.getOperandoEsquerdo());
+                geraExpressao(operacao.getOperandoDireito());
+                codigo.instrucaoMetodo(INVOKEVIRTUAL, "java/lang/String", "equals", "(" + OBJETO + ")Z");
+                codigo.instrucaoSalto(condicao == 0 ? IFNE : IFEQ, destino);
+            }
+            else
+            {
+                throw naoSuportado("comparação entre tipos incompatíveis", operacao);
+            }
+        }
+
+        // ------------------------------------------------------------------------------------
+        // Chamadas de funções
+
+        @Override
+        public Object visitar(NoChamadaFuncao no) throws ExcecaoVisitaASA
+        {
+            if (no.getEscopo() != null)
+            {
+                throw naoSuportado("chamada de função de biblioteca", no);
+            }
+
+            NoDeclaracaoFuncao funcao = no.getOrigemDaReferencia();
+
+            if (funcao == null)
+            {
+                switch (no.getNome())
+                {
+                    case "escreva": geraEscreva(no.getParametros()); return "V";
+                    case "leia": geraLeia(no); return "V";
+                    case "limpa":
+                        codigo.instrucaoVariavel(ALOAD, 0);
+                        codigo.instrucaoMetodo(INVOKEVIRTUAL, nomeInterno, "limpa", "()V");
+                        return "V";
+                    default:
+                        throw naoSuportado("função desconhecida: " + no.getNome(), no);
+                }
+            }
+
+            if ("inicio".equals(funcao.getNome()))
+            {
+                throw naoSuportado("chamada da função inicial", no);
+            }
+
+            List<NoDeclaracaoParametro> parametrosEsperados = funcao.getParametros();
+            List<NoExpressao> parametrosPassados = no.getParametros();
+
+            if (parametrosEsperados.size() != parametrosPassados.size())
+            {
+                throw naoSuportado("número de parâmetros diferente da declaração", no);
+            }
+
+            codigo.instrucaoVariavel(ALOAD, 0);
+
+            for (int i = 0; i < parametrosPassados.size(); i++)
+            {
+                geraValor(parametrosPassados.get(i), descritor(parametrosEsperados.get(i)));
+            }
+
+            codigo.instrucaoMetodo(INVOKESPECIAL, nomeInterno, getNomeMetodo(funcao), getDescritorMetodo(funcao));
+
+            if (funcoesGeradas.add(funcao))
+            {
+                funcoesPendentes.add(funcao);
+            }
+
+            return descritor(funcao);
+        }
+
+        /**
+         * Chama a versão tipada de <code>escreva</code> para cada parâmetro, como o
+         * {@link GeradorCodigoJava}, sem criar o vetor de parâmetros nem converter os valores
+         * primitivos em objetos.
+         */
+        private void geraEscreva(List<NoExpressao> parametros) throws ExcecaoVisitaASA
+        {
+            for (NoExpressao parametro : parametros)
+            {
+                codigo.instrucaoVariavel(ALOAD, 0);
+                String descritor = geraExpressao(parametro);
+
+                switch (descritor)
+                {
+                    case "I": case "D": case "Z": case "C": case CADEIA:
+                        codigo.instrucaoMetodo(INVOKEVIRTUAL, nomeInterno, "escreva", "(" + descritor + ")V");
+                        break;
+                    default:
+                        throw naoSuportado("escreva de vetor ou matriz inteiro", parametro);
+                }
+            }
+        }
+
+        private void geraLeia(NoChamadaFuncao no) throws ExcecaoVisitaASA
+        {
+            TrechoCodigoFonte trechoCodigoFonte = no.getTrechoCodigoFonte();
+
+            if (trechoCodigoFonte != null && trechoCodigoFonte.ehValido()) // os erros de leitura são localizados no comando leia, como no programa interpretado
+            {
+                codigo.instrucaoVariavel(ALOAD, 0);
+                codigo.instrucaoInteiro(trechoCodigoFonte.getLinha());
+                codigo.instrucaoInteiro(trechoCodigoFonte.getColuna());
+                codigo.instrucaoMetodo(INVOKEVIRTUAL, nomeInterno, "registrarPosicao", "(II)V");
+            }
+
+            for (NoExpressao parametro : no.getParametros())
+            {
+                if (!(parametro instanceof NoReferencia))
+                {
+                    throw naoSuportado("leia com parâmetro que não é uma variável", parametro);
+                }
+
+                NoReferencia referencia = (NoReferencia) parametro;
+                String descritor = iniciaArmazenamento(referencia);
+
+                codigo.instrucaoVariavel(ALOAD, 0);
+                switch (descritor)
+                {
+                    case "I": codigo.instrucaoMetodo(INVOKEVIRTUAL, nomeInterno, "leiaInteiro", "()I"); break;
+                    case "D": codigo.instrucaoMetodo(INVOKEVIRTUAL, nomeInterno, "leiaReal", "()D"); break;
+                    case "Z": codigo.instrucaoMetodo(INVOKEVIRTUAL, nomeInterno, "leiaLogico", "()Z"); break;
+                    case "C": codigo.instrucaoMetodo(INVOKEVIRTUAL, nomeInterno, "leiaCaracter", "()C"); break;
+                    case CADEIA: codigo.instrucaoMetodo(INVOKEVIRTUAL, nomeInterno, "leiaCadeia", "()" + CADEIA); break;
+                    default: throw naoSuportado("leia de vetor ou matriz inteiro", parametro);
+                }
+
+                concluiArmazenamento(referencia);
+            }
+        }
+
+        // ------------------------------------------------------------------------------------
+        // Tipos
+
+        private String descritor(NoDeclaracao declaracao) throws ExcecaoVisitaASA
+        {
+            Quantificador quantificador = Quantificador.VALOR;
+
+            if (declaracao instanceof NoDeclaracaoVetor)
+            {
+                quantificador = Quantificador.VETOR;
+            }
+            else if (declaracao instanceof NoDeclaracaoMatriz)
+            {
+                quantificador = Quantificador.MATRIZ;
+            }
+            else if (declaracao instanceof NoDeclaracaoParametro)
+            {
+                quantificador = ((NoDeclaracaoParametro) declaracao).getQuantificador();
+            }
+            else if (declaracao instanceof NoDeclaracaoFuncao)
+            {
+                quantificador = ((NoDeclaracaoFuncao) declaracao).getQuantificador();
+            }
+
+            String descritor;
+            switch (declaracao.getTipoDado())
+            {
+                case INTEIRO: descritor = "I"; break;
+                case REAL: descritor = "D"; break;
+                case LOGICO: descritor = "Z"; break;
+                case CARACTER: descritor = "C"; break;
+                case CADEIA: descritor = CADEIA; break;
+                case VAZIO: descritor = "V"; break;
+                default: throw naoSuportado("tipo de dado não suportado", declaracao);
+            }
+
+            switch (quantificador)
+            {
+                case VETOR: return "[" + descritor;
+                case MATRIZ: return "[[" + descritor;
+                default: return descritor;
+            }
+        }
+
+        private ExcecaoVisitaASA naoSuportado(String motivo, No no)
+        {
+            return new ExcecaoVisitaASA(new UnsupportedOperationException(motivo), asa, no);
+        }
+    }
+
+    private static int tamanho(String descritor)
+    {
+        return descritor.equals("D") ? 2 : 1;
+    }
+
+    private static String nomeClasse(String descritor)
+    {
+        if (descritor.startsWith("L"))
+        {
+            return descritor.substring(1, descritor.length() - 1);
+        }
+
+        return descritor; // arrays usam o próprio descritor como nome da classe
+    }
+
+    private static int instrucaoCarregamento(String descritor)
+    {
+        switch (descritor)
+        {
+            case "I": case "Z": case "C": return ILOAD;
+            case "D": return DLOAD;
+            default: return ALOAD;
+        }
+    }
+
+    private static int instrucaoArmazenamento(String descritor)
+    {
+        switch (descritor)
+        {
+            case "I": case "Z": case "C": return ISTORE;
+            case "D": return DSTORE;
+            default: return ASTORE;
+        }
+    }
+
+    private static int instrucaoCarregamentoVetor(String descritorElemento)
+    {
+        switch (descritorElemento)
+        {
+            case "I": return IALOAD;
+            case "D": return DALOAD;
+            case "Z": return BALOAD;
+            case "C": return CALOAD;
+            default: return AALOAD;
+        }
+    }
+
+    private static int instrucaoArmazenamentoVetor(String descritorElemento)
+    {
+        switch (descritorElemento)
+        {
+            case "I": return IASTORE;
+            case "D": return DASTORE;
+            case "Z": return BASTORE;
+            case "C": return CASTORE;
+            default: return AASTORE;
+        }
+    }
+
+    private static int instrucaoRetorno(String descritor)
+    {
+        switch (descritor)
+        {
+            case "I": case "Z": case "C": return IRETURN;
+            case "D": return DRETURN;
+            case "V": return RETURN;
+            default: return ARETURN;
+        }
+    }
+}
@@ -36,7 +36,7 @@ public class GeradorCodigoJava
 
     public GeradorCodigoJava()
     {
-        this.seed = PreCompilador.getSeedGeracaoNomesValidos();
+        this.seed = System.currentTimeMillis();
     }
     
     public void gera(ASAPrograma asa, PrintWriter saida, String nomeClasseJava) throws ExcecaoVisitaASA, IOException
@@ -49,7 +49,7 @@ public class GeradorCodigoJava
                     boolean geraCodigoParaInspecaoDeSimbolos) throws ExcecaoVisitaASA, IOException
     {
 
-        PreCompilador preCompilador = new PreCompilador();
+        PreCompilador preCompilador = new PreCompilador(seed, !geraCodigoParaInspecaoDeSimbolos);
         asa.aceitar(preCompilador);
 
         VisitorGeracaoCodigo gerador = new VisitorGeracaoCodigo(asa, saida 
@@ -0,0 +1,1020 @@
+package br.univali.portugol.nucleo.execucao.gerador;
+
+import br.univali.portugol.nucleo.asa.*;
+import br.univali.portugol.nucleo.execucao.gerador.helpers.Utils;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Otimiza a ASA de um programa já analisado, antes da interpretação ou da geração de código.
+ * <p>
+ * As expressões formadas apenas por literais e constantes são calculadas durante a compilação,
+ * as referências a constantes inicializadas com literais são substituídas pelo seu valor, as
+ * expressões lógicas com um operando literal são simplificadas e os blocos que nunca serão
+ * executados (<code>se (falso)</code>, <code>enquanto (falso)</code>) são removidos.
+ * <p>
+ * Os literais criados recebem o trecho do código fonte da expressão que substituem e os comandos
+ * mantidos não são alterados, assim os erros de execução e os pontos de parada continuam
+ * apontando para as mesmas linhas. Divisões por zero e acessos a vetores nunca são calculados
+ * nem descartados, pois o erro deve acontecer durante a execução.
+ * <p>
+ * Opcionalmente, as chamadas às funções pequenas, que apenas retornam uma expressão calculada
+ * com os seus parâmetros (como <code>retorne x * x</code>), são substituídas pela expressão. As
+ * linhas dessas funções deixam de ser executadas nas chamadas expandidas, por isso a expansão
+ * só deve ser utilizada no código que não realiza paradas nelas (ver
+ * {@link #getLinhasFuncoesExpansiveis(ASAPrograma)}).
+ */
+public class OtimizadorASA extends VisitanteNulo
+{
+    private static final int TAMANHO_MAXIMO_EXPANSAO = 16; // número de nós da expressão retornada pela função
+
+    private final boolean expandeFuncoes;
+    private final Set<NoDeclaracaoFuncao> funcoesExpansiveis = new HashSet<>();
+
+    public OtimizadorASA()
+    {
+        this(false);
+    }
+
+    /**
+     * @param expandeFuncoes se <code>true</code>, a otimização só é realizada se o programa tiver
+     * funções que podem ser expandidas nas chamadas e, além das otimizações normais, expande as
+     * chamadas a essas funções
+     */
+    public OtimizadorASA(boolean expandeFuncoes)
+    {
+        this.expandeFuncoes = expandeFuncoes;
+    }
+
+    @Override
+    public Object visitar(ASAPrograma asa) throws ExcecaoVisitaASA
+    {
+        if (expandeFuncoes)
+        {
+            for (NoDeclaracao declaracao : asa.getListaDeclaracoesGlobais())
+            {
+                if (declaracao instanceof NoDeclaracaoFuncao && podeExpandir((NoDeclaracaoFuncao) declaracao))
+                {
+                    funcoesExpansiveis.add((NoDeclaracaoFuncao) declaracao);
+                }
+            }
+
+            if (funcoesExpansiveis.isEmpty())
+            {
+                return null;
+            }
+        }
+
+        return super.visitar(asa);
+    }
+
+    /**
+     * Retorna as linhas nas quais um programa pode parar durante a execução das funções que podem
+     * ser expandidas nas chamadas: a declaração da função e o seu <code>retorne</code>.
+     */
+    public static Set<Integer> getLinhasFuncoesExpansiveis(ASAPrograma asa)
+    {
+        Set<Integer> linhas = new HashSet<>();
+
+        for (NoDeclaracao declaracao : asa.getListaDeclaracoesGlobais())
+        {
+            if (declaracao instanceof NoDeclaracaoFuncao && podeExpandir((NoDeclaracaoFuncao) declaracao))
+            {
+                NoDeclaracaoFuncao funcao = (NoDeclaracaoFuncao) declaracao;
+
+                for (NoBloco bloco : new NoBloco[] { funcao, funcao.getBlocos().get(0) })
+                {
+                    TrechoCodigoFonte trecho = Utils.getTrechoCodigoFonte(bloco);
+
+                    if (trecho != null && trecho.ehValido())
+                    {
+                        linhas.add(trecho.getLinha());
+                    }
+                }
+            }
+        }
+
+        return linhas;
+    }
+    @Override
+    public Object visitar(NoDeclaracaoFuncao declaracaoFuncao) throws ExcecaoVisitaASA
+    {
+        otimizaBlocos(declaracaoFuncao.getBlocos());
+        return null;
+    }
+
+    @Override
+    public Object visitar(NoDeclaracaoVariavel no) throws ExcecaoVisitaASA
+    {
+        if (no.temInicializacao())
+        {
+            no.setInicializacao(otimiza(no.getInicializacao()));
+        }
+
+        return null;
+    }
+
+    @Override
+    public Object visitar(NoDeclaracaoVetor no) throws ExcecaoVisitaASA
+    {
+        if (no.temInicializacao())
+        {
+            otimiza(no.getInicializacao());
+        }
+
+        return null;
+    }
+
+    @Override
+    public Object visitar(NoDeclaracaoMatriz no) throws ExcecaoVisitaASA
+    {
+        if (no.temInicializacao())
+        {
+            otimiza(no.getInicializacao());
+        }
+
+        return null;
+    }
+
+    @Override
+    public Object visitar(NoSe noSe) throws ExcecaoVisitaASA
+    {
+        noSe.setCondicao(otimiza(noSe.getCondicao()));
+
+        if (noSe.getCondicao() instanceof NoLogico)
+        {
+            if (((NoLogico) noSe.getCondicao()).getValor())
+            {
+                noSe.setBlocosFalsos(null);
+            }
+            else
+            {
+                noSe.getBlocosVerdadeiros().clear();
+            }
+        }
+
+        otimizaBlocos(noSe.getBlocosVerdadeiros());
+        otimizaBlocos(noSe.getBlocosFalsos());
+
+        return null;
+    }
+
+    @Override
+    public Object visitar(NoEnquanto noEnquanto) throws ExcecaoVisitaASA
+    {
+        noEnquanto.setCondicao(otimiza(noEnquanto.getCondicao()));
+        otimizaBlocos(noEnquanto.getBlocos());
+
+        return null;
+    }
+
+    @Override
+    public Object visitar(NoFacaEnquanto noFacaEnquanto) throws ExcecaoVisitaASA
+    {
+        otimizaBlocos(noFacaEnquanto.getBlocos());
+        noFacaEnquanto.setCondicao(otimiza(noFacaEnquanto.getCondicao()));
+
+        return null;
+    }
+
+    @Override
+    public Object visitar(NoPara noPara) throws ExcecaoVisitaASA
+    {
+        otimizaComando(noPara.getInicializacao());
+
+        if (noPara.getCondicao() != null)
+        {
+            noPara.setCondicao(otimiza(noPara.getCondicao()));
+        }
+
+        otimizaBlocos(noPara.getBlocos());
+
+        if (noPara.getIncremento() != null)
+        {
+            noPara.setIncremento(otimiza(noPara.getIncremento()));
+        }
+
+        return null;
+    }
+
+    @Override
+    public Object visitar(NoEscolha noEscolha) throws ExcecaoVisitaASA
+    {
+        noEscolha.setExpressao(otimiza(noEscolha.getExpressao()));
+
+        for (NoCaso caso : noEscolha.getCasos())
+        {
+            otimizaBlocos(caso.getBlocos());
+        }
+
+        return null;
+    }
+
+    @Override
+    public Object visitar(NoRetorne noRetorne) throws ExcecaoVisitaASA
+    {
+        if (noRetorne.getExpressao() != null)
+        {
+            noRetorne.setExpressao(otimiza(noRetorne.getExpressao()));
+        }
+
+        return null;
+    }
+
+    private void otimizaBlocos(List<NoBloco> blocos) throws ExcecaoVisitaASA
+    {
+        if (blocos == null)
+        {
+            return;
+        }
+
+        Iterator<NoBloco> iterador = blocos.iterator();
+
+        while (iterador.hasNext())
+        {
+            NoBloco bloco = iterador.next();
+
+            otimizaComando(bloco);
+
+            if (nuncaExecuta(bloco))
+            {
+                iterador.remove();
+            }
+        }
+    }
+
+    private void otimizaComando(NoBloco bloco) throws ExcecaoVisitaASA
+    {
+        if (bloco instanceof NoChamadaFuncao)
+        {
+            otimizaParametros((NoChamadaFuncao) bloco); // a chamada usada como comando não é expandida, o valor retornado seria descartado
+        }
+        else if (bloco instanceof NoExpressao)
+        {
+            otimiza((NoExpressao) bloco); // o comando é mantido, apenas as suas subexpressões são substituídas
+        }
+        else if (bloco != null)
+        {
+            bloco.aceitar(this);
+        }
+    }
+
+    /**
+     * Verifica se um comando já otimizado pode ser removido, pois nunca executa nada. Um laço
+     * <code>para</code> que nunca executa só é removido se a sua inicialização não tiver efeitos
+     * colaterais.
+     */
+    private static boolean nuncaExecuta(NoBloco bloco)
+    {
+        if (bloco instanceof NoSe)
+        {
+            NoSe se = (NoSe) bloco;
+
+            if (se.getCondicao() instanceof NoLogico)
+            {
+                List<NoBloco> blocosExecutados = ((NoLogico) se.getCondicao()).getValor() ? se.getBlocosVerdadeiros() : se.getBlocosFalsos();
+
+                return blocosExecutados == null || blocosExecutados.isEmpty();
+            }
+        }
+        else if (bloco instanceof NoEnquanto)
+        {
+            return ehFalso(((NoEnquanto) bloco).getCondicao());
+        }
+        else if (bloco instanceof NoPara)
+        {
+            NoPara para = (NoPara) bloco;
+            NoBloco inicializacao = para.getInicializacao();
+
+            if (inicializacao == null || inicializacao instanceof NoDeclaracaoVariavel)
+            {
+                NoDeclaracaoVariavel declaracao = (NoDeclaracaoVariavel) inicializacao;
+                boolean inicializacaoSemEfeitos = declaracao == null || !declaracao.temInicializacao() || semEfeitosColaterais(declaracao.getInicializacao());
+
+                return inicializacaoSemEfeitos && ehFalso(para.getCondicao());
+            }
+        }
+
+        return false;
+    }
+
+    private NoExpressao otimiza(NoExpressao expressao) throws ExcecaoVisitaASA
+    {
+        if (expressao instanceof NoOperacaoAtribuicao)
+        {
+            NoOperacaoAtribuicao atribuicao = (NoOperacaoAtribuicao) expressao;
+
+            otimizaIndices(atribuicao.getOperandoEsquerdo()); // a variável atribuída nunca é substituída
+            atribuicao.setOperandoDireito(otimiza(atribuicao.getOperandoDireito()));
+
+            return atribuicao;
+        }
+        else if (expressao instanceof NoOperacao)
+        {
+            return otimizaOperacao((NoOperacao) expressao);
+        }
+        else if (expressao instanceof NoNao)
+        {
+            return otimizaNao((NoNao) expressao);
+        }
+        else if (expressao instanceof NoMenosUnario)
+        {
+            NoMenosUnario menos = (NoMenosUnario) expressao;
+            menos.setExpressao(otimiza(menos.getExpressao()));
+
+            Object valor = valor(menos.getExpressao());
+
+            if (valor instanceof Integer)
+            {
+                return criaLiteral(-(Integer) valor, menos);
+            }
+            else if (valor instanceof Double)
+            {
+                return criaLiteral(-(Double) valor, menos);
+            }
+        }
+        else if (expressao instanceof NoBitwiseNao)
+        {
+            NoBitwiseNao nao = (NoBitwiseNao) expressao;
+            nao.setExpressao(otimiza(nao.getExpressao()));
+
+            Object valor = valor(nao.getExpressao());
+
+            if (valor instanceof Integer)
+            {
+                return criaLiteral(~(Integer) valor, nao);
+            }
+        }
+        else if (expressao instanceof NoReferenciaVariavel)
+        {
+            return substituiConstante((NoReferenciaVariavel) expressao);
+        }
+        else if (expressao instanceof NoChamadaFuncao)
+        {
+            NoChamadaFuncao chamadaFuncao = (NoChamadaFuncao) expressao;
+            otimizaParametros(chamadaFuncao);
+
+            NoExpressao expansao = funcoesExpansiveis.contains(chamadaFuncao.getOrigemDaReferencia()) ? expande(chamadaFuncao) : null;
+
+            if (expansao != null)
+            {
+                return otimiza(expansao); // os parâmetros literais podem tornar a expressão constante
+            }
+        }
+        else if (expressao instanceof NoVetor)
+        {
+            otimizaValores(((NoVetor) expressao).getValores());
+        }
+        else if (expressao instanceof NoMatriz)
+        {
+            for (List<Object> linha : ((NoMatriz) expressao).getValores())
+            {
+                otimizaValores(linha);
+            }
+        }
+        else
+        {
+            otimizaIndices(expressao);
+        }
+
+        return expressao;
+    }
+
+    private NoExpressao otimizaOperacao(NoOperacao operacao) throws ExcecaoVisitaASA
+    {
+        operacao.setOperandoEsquerdo(otimiza(operacao.getOperandoEsquerdo()));
+        operacao.setOperandoDireito(otimiza(operacao.getOperandoDireito()));
+
+        NoExpressao esquerdo = operacao.getOperandoEsquerdo();
+        NoExpressao direito = operacao.getOperandoDireito();
+
+        Object valorEsquerdo = valor(esquerdo);
+        Object valorDireito = valor(direito);
+
+        if (valorEsquerdo != null && valorDireito != null)
+        {
+            NoExpressao resultado = criaLiteral(calcula(operacao, valorEsquerdo, valorDireito), operacao);
+
+            return (resultado != null) ? resultado : operacao;
+        }
+
+        if (operacao instanceof NoOperacaoLogicaE)
+        {
+            if (valorEsquerdo != null)
+            {
+                return (Boolean) valorEsquerdo ? substitui(operacao, direito) : criaLiteral(false, operacao); // o operando direito não seria avaliado
+            }
+            else if (valorDireito != null)
+            {
+                if ((Boolean) valorDireito)
+                {
+                    return substitui(operacao, esquerdo);
+                }
+                else if (semEfeitosColaterais(esquerdo))
+                {
+                    return criaLiteral(false, operacao);
+                }
+            }
+        }
+        else if (operacao instanceof NoOperacaoLogicaOU)
+        {
+            if (valorEsquerdo != null)
+            {
+                return (Boolean) valorEsquerdo ? criaLiteral(true, operacao) : substitui(operacao, direito);
+            }
+            else if (valorDireito != null)
+            {
+                if (!(Boolean) valorDireito)
+                {
+                    return substitui(operacao, esquerdo);
+                }
+                else if (semEfeitosColaterais(esquerdo))
+                {
+                    return criaLiteral(true, operacao);
+                }
+            }
+        }
+        else if (operacao instanceof NoOperacaoLogicaIgualdade || operacao instanceof NoOperacaoLogicaDiferenca)
+        {
+            // x == verdadeiro, x != falso e as variações com o literal à esquerda
+            Object literal = (valorEsquerdo != null) ? valorEsquerdo : valorDireito;
+            NoExpressao outro = (valorEsquerdo != null) ? direito : esquerdo;
+
+            if (literal instanceof Boolean && outro.getTipoResultante() == TipoDado.LOGICO)
+            {
+                boolean mantem = (Boolean) literal == (operacao instanceof NoOperacaoLogicaIgualdade);
+
+                return mantem ? substitui(operacao, outro) : nega(operacao, outro);
+            }
+        }
+
+        return operacao;
+    }
+
+    private NoExpressao otimizaNao(NoNao nao) throws ExcecaoVisitaASA
+    {
+        nao.setExpressao(otimiza(nao.getExpressao()));
+
+        NoExpressao expressao = nao.getExpressao();
+
+        if (expressao instanceof NoLogico)
+        {
+            return criaLiteral(!((NoLogico) expressao).getValor(), nao);
+        }
+        else if (expressao instanceof NoNao)
+        {
+            return substitui(nao, ((NoNao) expressao).getExpressao());
+        }
+
+        return nao;
+    }
+
+    private NoExpressao substituiConstante(NoReferenciaVariavel referencia)
+    {
+        NoDeclaracao origem = referencia.getOrigemDaReferencia();
+
+        if (referencia.getEscopo() == null && origem instanceof NoDeclaracaoVariavel && origem.constante())
+        {
+            NoDeclaracaoVariavel constante = (NoDeclaracaoVariavel) origem;
+            Object valor = constante.temInicializacao() ? valor(constante.getInicializacao()) : null;
+
+            if (valor instanceof Integer && constante.getTipoDado() == TipoDado.REAL)
+            {
+                valor = ((Integer) valor).doubleValue(); // const real PI = 3
+            }
+
+            if (valor != null && constante.getTipoDado() == tipo(valor))
+            {
+                return criaLiteral(valor, referencia);
+            }
+        }
+
+        return referencia;
+    }
+
+    private void otimizaParametros(NoChamadaFuncao chamadaFuncao) throws ExcecaoVisitaASA
+    {
+        List<NoExpressao> parametros = chamadaFuncao.getParametros();
+        NoDeclaracaoFuncao funcao = chamadaFuncao.getOrigemDaReferencia();
+
+        for (int i = 0; i < parametros.size(); i++)
+        {
+            NoExpressao parametro = parametros.get(i);
+
+            // as referências passadas para funções de biblioteca ou para parâmetros por referência precisam continuar sendo referências
+            boolean porValor = funcao != null && i < funcao.getParametros().size() && funcao.getParametros().get(i).getModoAcesso() == ModoAcesso.POR_VALOR;
+
+            if (parametro instanceof NoReferencia && !(parametro instanceof NoChamadaFuncao) && !porValor)
+            {
+                otimizaIndices(parametro);
+            }
+            else
+            {
+                parametros.set(i, otimiza(parametro));
+            }
+        }
+    }
+
+    private void otimizaValores(List<Object> valores) throws ExcecaoVisitaASA
+    {
+        for (int i = 0; i < valores.size(); i++)
+        {
+            if (valores.get(i) instanceof NoExpressao)
+            {
+                valores.set(i, otimiza((NoExpressao) valores.get(i)));
+            }
+        }
+    }
+
+    private void otimizaIndices(NoExpressao expressao) throws ExcecaoVisitaASA
+    {
+        if (expressao instanceof NoReferenciaVetor)
+        {
+            NoReferenciaVetor vetor = (NoReferenciaVetor) expressao;
+            vetor.setIndice(otimiza(vetor.getIndice()));
+        }
+        else if (expressao instanceof NoReferenciaMatriz)
+        {
+            NoReferenciaMatriz matriz = (NoReferenciaMatriz) expressao;
+            matriz.setLinha(otimiza(matriz.getLinha()));
+            matriz.setColuna(otimiza(matriz.getColuna()));
+        }
+    }
+
+    /**
+     * Verifica se a função apenas retorna uma expressão pequena, sem efeitos colaterais, calculada
+     * com os seus parâmetros por valor e literais. Uma função assim não chama outras funções, logo
+     * nunca é recursiva.
+     */
+    private static boolean podeExpandir(NoDeclaracaoFuncao funcao)
+    {
+        List<NoBloco> blocos = funcao.getBlocos();
+
+        if (funcao.getTipoDado() == TipoDado.VAZIO || funcao.getQuantificador() != Quantificador.VALOR || blocos == null || blocos.size() != 1 || !(blocos.get(0) instanceof NoRetorne))
+        {
+            return false;
+        }
+
+        for (NoDeclaracaoParametro parametro : funcao.getParametros())
+        {
+            if (parametro.getModoAcesso() != ModoAcesso.POR_VALOR || parametro.getQuantificador() != Quantificador.VALOR)
+            {
+                return false;
+            }
+        }
+
+        NoExpressao expressao = ((NoRetorne) blocos.get(0)).getExpressao();
+
+        if (expressao == null || expressao instanceof NoMenosUnario) // o menos unário poderia ser escrito logo após outro no código Java
+        {
+            return false;
+        }
+
+        int tamanho = contaNos(expressao, funcao);
+
+        // o valor retornado não pode depender da conversão feita no retorne
+        return tamanho > 0 && tamanho <= TAMANHO_MAXIMO_EXPANSAO && semEfeitosColaterais(expressao) && expressao.getTipoResultante() == funcao.getTipoDado();
+    }
+
+    /**
+     * @return o número de nós da expressão, ou -1 se ela contém algo além de literais, operações
+     * e referências aos parâmetros da função
+     */
+    private static int contaNos(NoExpressao expressao, NoDeclaracaoFuncao funcao)
+    {
+        if (expressao instanceof NoExpressaoLiteral)
+        {
+            return 1;
+        }
+        else if (expressao instanceof NoReferenciaVariavel)
+        {
+            NoReferenciaVariavel referencia = (NoReferenciaVariavel) expressao;
+
+            return (referencia.getEscopo() == null && funcao.getParametros().contains(referencia.getOrigemDaReferencia())) ? 1 : -1;
+        }
+
+        int total = 1;
+
+        for (NoExpressao operando : getOperandos(expressao))
+        {
+            int nos = (operando != null) ? contaNos(operando, funcao) : -1;
+
+            if (nos < 0)
+            {
+                return -1;
+            }
+
+            total += nos;
+        }
+
+        return (total > 1) ? total : -1;
+    }
+
+    private static int contaReferencias(NoExpressao expressao, NoDeclaracaoParametro parametro)
+    {
+        if (expressao instanceof NoReferenciaVariavel)
+        {
+            return (((NoReferenciaVariavel) expressao).getOrigemDaReferencia() == parametro) ? 1 : 0;
+        }
+
+        int total = 0;
+
+        for (NoExpressao operando : getOperandos(expressao))
+        {
+            total += contaReferencias(operando, parametro);
+        }
+
+        return total;
+    }
+
+    private static boolean ehSimples(NoExpressao expressao)
+    {
+        return expressao instanceof NoExpressaoLiteral || (expressao instanceof NoReferenciaVariavel && ((NoReferenciaVariavel) expressao).getEscopo() == null);
+    }
+
+    private static NoExpressao[] getOperandos(NoExpressao expressao)
+    {
+        if (expressao instanceof NoOperacao)
+        {
+            return new NoExpressao[] { ((NoOperacao) expressao).getOperandoEsquerdo(), ((NoOperacao) expressao).getOperandoDireito() };
+        }
+        else if (expressao instanceof NoNao)
+        {
+            return new NoExpressao[] { ((NoNao) expressao).getExpressao() };
+        }
+        else if (expressao instanceof NoMenosUnario)
+        {
+            return new NoExpressao[] { ((NoMenosUnario) expressao).getExpressao() };
+        }
+        else if (expressao instanceof NoBitwiseNao)
+        {
+            return new NoExpressao[] { ((NoBitwiseNao) expressao).getExpressao() };
+        }
+
+        return new NoExpressao[0];
+    }
+
+    /**
+     * Expande a chamada a uma função que pode ser expandida, substituindo os parâmetros da
+     * expressão retornada pelos valores passados. Os nós criados recebem o trecho do código
+     * fonte da chamada.
+     *
+     * @return a expressão, ou <code>null</code> se a chamada deve ser mantida
+     */
+    private static NoExpressao expande(NoChamadaFuncao chamadaFuncao) throws ExcecaoVisitaASA
+    {
+        NoDeclaracaoFuncao funcao = chamadaFuncao.getOrigemDaReferencia();
+        List<NoDeclaracaoParametro> parametros = funcao.getParametros();
+        List<NoExpressao> valores = chamadaFuncao.getParametros();
+        NoExpressao expressao = ((NoRetorne) funcao.getBlocos().get(0)).getExpressao();
+
+        if (chamadaFuncao.getEscopo() != null || valores.size() != parametros.size())
+        {
+            return null;
+        }
+
+        Map<NoDeclaracao, NoExpressao> substituicoes = new HashMap<>();
+
+        for (int i = 0; i < parametros.size(); i++)
+        {
+            NoDeclaracaoParametro parametro = parametros.get(i);
+            NoExpressao valor = valores.get(i);
+
+            // o valor é avaliado uma vez para cada uso do parâmetro (ou nenhuma), não pode ter efeitos colaterais nem exigir conversão
+            if (valor.getTipoResultante() != parametro.getTipoDado() || !semEfeitosColaterais(valor))
+            {
+                return null;
+            }
+
+            // somente as operações entre dois valores simples (como n - 1) são calculadas mais de uma vez
+            boolean podeRepetir = ehSimples(valor) || (valor instanceof NoOperacao && ehSimples(((NoOperacao) valor).getOperandoEsquerdo()) && ehSimples(((NoOperacao) valor).getOperandoDireito()));
+
+            if ((!ehSimples(valor) && !(valor instanceof NoOperacao)) || (!podeRepetir && contaReferencias(expressao, parametro) > 1))
+            {
+                return null;
+            }
+
+            substituicoes.put(parametro, valor);
+        }
+
+        NoExpressao expansao = copia(expressao, substituicoes, chamadaFuncao.getTrechoCodigoFonte());
+
+        if (!(expansao instanceof NoExpressaoLiteral || expansao instanceof NoReferenciaVariavel))
+        {
+            expansao.setEstaEntreParenteses(true);
+        }
+
+        return expansao;
+    }
+
+    /**
+     * Copia uma expressão substituindo as referências aos parâmetros pela cópia dos valores
+     * passados.
+     *
+     * @param trecho o trecho do código fonte dos nós criados, ou <code>null</code> para manter o
+     * trecho dos nós copiados
+     */
+    private static NoExpressao copia(NoExpressao expressao, Map<NoDeclaracao, NoExpressao> substituicoes, TrechoCodigoFonte trecho) throws ExcecaoVisitaASA
+    {
+        NoExpressao copia;
+
+        if (expressao instanceof NoReferenciaVariavel)
+        {
+            NoReferenciaVariavel referencia = (NoReferenciaVariavel) expressao;
+
+            if (substituicoes.containsKey(referencia.getOrigemDaReferencia()))
+            {
+                NoExpressao valor = copia(substituicoes.get(referencia.getOrigemDaReferencia()), new HashMap<NoDeclaracao, NoExpressao>(), null);
+
+                if (valor instanceof NoOperacao)
+                {
+                    valor.setEstaEntreParenteses(true);
+                }
+
+                return valor;
+            }
+
+            NoReferenciaVariavel copiaReferencia = new NoReferenciaVariavel(referencia.getEscopo(), referencia.getNome());
+            copiaReferencia.setVariavelDeBiblioteca(referencia.isVariavelDeBiblioteca());
+            copiaReferencia.setTipoBiblioteca(referencia.getTipoBiblioteca());
+            copiaReferencia.setTrechoCodigoFonteNome(referencia.getTrechoCodigoFonteNome());
+
+            if (referencia.getOrigemDaReferencia() != null) // as constantes de biblioteca não têm declaração
+            {
+                copiaReferencia.setOrigemDaReferencia(referencia.getOrigemDaReferencia());
+                referencia.getOrigemDaReferencia().adicionarReferencia(copiaReferencia); // o pré-compilador altera todas as referências à variável
+            }
+
+            copia = copiaReferencia;
+        }
+        else if (expressao instanceof NoExpressaoLiteral)
+        {
+            copia = criaLiteral(valor(expressao), expressao);
+        }
+        else if (expressao instanceof NoOperacao)
+        {
+            NoOperacao operacao = (NoOperacao) expressao;
+            NoExpressao esquerdo = copia(operacao.getOperandoEsquerdo(), substituicoes, trecho);
+            NoExpressao direito = copia(operacao.getOperandoDireito(), substituicoes, trecho);
+
+            try
+            {
+                NoOperacao copiaOperacao = operacao.getClass().getConstructor(NoExpressao.class, NoExpressao.class).newInstance(esquerdo, direito);
+                copiaOperacao.setTrechoCodigoFonteOperador((trecho != null) ? trecho : operacao.getTrechoCodigoFonteOperador());
+                copia = copiaOperacao;
+            }
+            catch (ReflectiveOperationException excecao)
+            {
+                throw new ExcecaoVisitaASA(excecao, null, expressao);
+            }
+        }
+        else if (expressao instanceof NoNao)
+        {
+            copia = new NoNao(copia(((NoNao) expressao).getExpressao(), substituicoes, trecho));
+        }
+        else if (expressao instanceof NoMenosUnario)
+        {
+            copia = new NoMenosUnario(copia(((NoMenosUnario) expressao).getExpressao(), substituicoes, trecho));
+        }
+        else
+        {
+            copia = new NoBitwiseNao(copia(((NoBitwiseNao) expressao).getExpressao(), substituicoes, trecho));
+        }
+
+        copia.setTrechoCodigoFonte((trecho != null) ? trecho : expressao.getTrechoCodigoFonte());
+        copia.setEstaEntreParenteses(expressao.estaEntreParenteses());
+
+        return copia;
+    }
+
+    /**
+     * Calcula uma operação entre dois literais com as mesmas regras utilizadas na execução.
+     *
+     * @return o resultado, ou <code>null</code> se a operação deve ser realizada durante a execução
+     */
+    private static Object calcula(NoOperacao operacao, Object a, Object b)
+    {
+        if (operacao instanceof NoOperacaoSoma && (a instanceof String || b instanceof String))
+        {
+            return String.valueOf(a).concat(String.valueOf(b));
+        }
+
+        if (operacao instanceof NoOperacaoLogicaIgualdade || operacao instanceof NoOperacaoLogicaDiferenca)
+        {
+            Boolean iguais = null;
+
+            if (a instanceof Number && b instanceof Number)
+            {
+                iguais = ((Number) a).doubleValue() == ((Number) b).doubleValue();
+            }
+            else if (a.getClass() == b.getClass())
+            {
+                iguais = a.equals(b);
+            }
+
+            return (iguais == null) ? null : iguais == (operacao instanceof NoOperacaoLogicaIgualdade);
+        }
+
+        if (a instanceof Boolean && b instanceof Boolean)
+        {
+            if (operacao instanceof NoOperacaoLogicaE) return (Boolean) a && (Boolean) b;
+            if (operacao instanceof NoOperacaoLogicaOU) return (Boolean) a || (Boolean) b;
+
+            return null;
+        }
+
+        if (!(a instanceof Number && b instanceof Number))
+        {
+            return null;
+        }
+
+        if ((operacao instanceof NoOperacaoDivisao || operacao instanceof NoOperacaoModulo) && ((Number) b).doubleValue() == 0)
+        {
+            return null; // a divisão por zero é um erro de execução
+        }
+
+        if (a instanceof Double || b instanceof Double)
+        {
+            double x = ((Number) a).doubleValue();
+            double y = ((Number) b).doubleValue();
+
+            if (operacao instanceof NoOperacaoSoma) return x + y;
+            if (operacao instanceof NoOperacaoSubtracao) return x - y;
+            if (operacao instanceof NoOperacaoMultiplicacao) return x * y;
+            if (operacao instanceof NoOperacaoDivisao) return x / y;
+            if (operacao instanceof NoOperacaoModulo) return x % y;
+            if (operacao instanceof NoOperacaoLogicaMaior) return x > y;
+            if (operacao instanceof NoOperacaoLogicaMaiorIgual) return x >= y;
+            if (operacao instanceof NoOperacaoLogicaMenor) return x < y;
+            if (operacao instanceof NoOperacaoLogicaMenorIgual) return x <= y;
+
+            return null;
+        }
+
+        int x = (Integer) a;
+        int y = (Integer) b;
+
+        if (operacao instanceof NoOperacaoSoma) return x + y;
+        if (operacao instanceof NoOperacaoSubtracao) return x - y;
+        if (operacao instanceof NoOperacaoMultiplicacao) return x * y;
+        if (operacao instanceof NoOperacaoDivisao) return x / y;
+        if (operacao instanceof NoOperacaoModulo) return x % y;
+        if (operacao instanceof NoOperacaoLogicaMaior) return x > y;
+        if (operacao instanceof NoOperacaoLogicaMaiorIgual) return x >= y;
+        if (operacao instanceof NoOperacaoLogicaMenor) return x < y;
+        if (operacao instanceof NoOperacaoLogicaMenorIgual) return x <= y;
+        if (operacao instanceof NoOperacaoBitwiseE) return x & y;
+        if (operacao instanceof NoOperacaoBitwiseOu) return x | y;
+        if (operacao instanceof NoOperacaoBitwiseXOR) return x ^ y;
+        if (operacao instanceof NoOperacaoBitwiseLeftShift) return x << y;
+        if (operacao instanceof NoOperacaoBitwiseRightShift) return x >> y;
+
+        return null;
+    }
+
+    /**
+     * Verifica se uma expressão pode ser descartada sem alterar a execução: ela não chama funções,
+     * não atribui valores e não pode causar erros de execução.
+     */
+    private static boolean semEfeitosColaterais(NoExpressao expressao)
+    {
+        if (expressao instanceof NoExpressaoLiteral || expressao instanceof NoReferenciaVariavel)
+        {
+            return true;
+        }
+        else if (expressao instanceof NoNao)
+        {
+            return semEfeitosColaterais(((NoNao) expressao).getExpressao());
+        }
+        else if (expressao instanceof NoMenosUnario)
+        {
+            return semEfeitosColaterais(((NoMenosUnario) expressao).getExpressao());
+        }
+        else if (expressao instanceof NoBitwiseNao)
+        {
+            return semEfeitosColaterais(((NoBitwiseNao) expressao).getExpressao());
+        }
+        else if (expressao instanceof NoOperacao)
+        {
+            NoOperacao operacao = (NoOperacao) expressao;
+
+            if (operacao instanceof NoOperacaoAtribuicao)
+            {
+                return false;
+            }
+
+            if ((operacao instanceof NoOperacaoDivisao || operacao instanceof NoOperacaoModulo) && !divisorNaoNulo(operacao.getOperandoDireito()))
+            {
+                return false;
+            }
+
+            return semEfeitosColaterais(operacao.getOperandoEsquerdo()) && semEfeitosColaterais(operacao.getOperandoDireito());
+        }
+
+        return false;
+    }
+
+    private static boolean divisorNaoNulo(NoExpressao divisor)
+    {
+        Object valor = valor(divisor);
+
+        return valor instanceof Number && ((Number) valor).doubleValue() != 0;
+    }
+
+    private static boolean ehFalso(NoExpressao condicao)
+    {
+        return condicao instanceof NoLogico && !((NoLogico) condicao).getValor();
+    }
+
+    private static Object valor(NoExpressao expressao)
+    {
+        return (expressao instanceof NoExpressaoLiteral) ? ((NoExpressaoLiteral) expressao).getValor() : null;
+    }
+
+    private static TipoDado tipo(Object valor)
+    {
+        if (valor instanceof Integer) return TipoDado.INTEIRO;
+        if (valor instanceof Double) return TipoDado.REAL;
+        if (valor instanceof String) return TipoDado.CADEIA;
+        if (valor instanceof Boolean) return TipoDado.LOGICO;
+        if (valor instanceof Character) return TipoDado.CARACTER;
+
+        return null;
+    }
+
+    /**
+     * Cria o literal que substitui uma expressão, no mesmo trecho do código fonte.
+     *
+     * @return o literal, ou <code>null</code> se o valor não pode ser representado no código gerado
+     */
+    private static NoExpressao criaLiteral(Object valor, NoExpressao substituida)
+    {
+        NoExpressaoLiteral literal;
+
+        if (valor instanceof Integer)
+        {
+            literal = new NoInteiro((Integer) valor);
+        }
+        else if (valor instanceof Double)
+        {
+            if (((Double) valor).isNaN() || ((Double) valor).isInfinite())
+            {
+                return null;
+            }
+
+            literal = new NoReal((Double) valor);
+        }
+        else if (valor instanceof String)
+        {
+            literal = new NoCadeia((String) valor);
+        }
+        else if (valor instanceof Boolean)
+        {
+            literal = new NoLogico((Boolean) valor);
+        }
+        else if (valor instanceof Character)
+        {
+            literal = new NoCaracter((Character) valor);
+        }
+        else
+        {
+            return null;
+        }
+
+        literal.setTrechoCodigoFonte(substituida.getTrechoCodigoFonte());
+        literal.setEstaEntreParenteses(substituida.estaEntreParenteses());
+
+        return literal;
+    }
+
+    /**
+     * Substitui uma expressão por uma das suas subexpressões, mantendo os parênteses da
+     * expressão original para que a precedência no código gerado não mude.
+     */
+    private static NoExpressao substitui(NoExpressao substituida, NoExpressao substituta)
+    {
+        if (substituida.estaEntreParenteses())
+        {
+            substituta.setEstaEntreParenteses(true);
+        }
+
+        return substituta;
+    }
+
+    private static NoExpressao nega(NoExpressao substituida, NoExpressao expressao)
+    {
+        if (expressao instanceof NoOperacao)
+        {
+            expressao.setEstaEntreParenteses(true);
+        }
+
+        NoNao nao = new NoNao(expressao);
+        nao.setEstaEntreParenteses(substituida.estaEntreParenteses());
+
+        return nao;
+    }
+}
@@ -20,7 +20,120 @@ public class PreCompilador extends VisitanteNulo
     private final Map<TipoDado, List<NoDeclaracaoVariavel>> declaracoes = new HashMap<>();
     private final Set<NoDeclaracaoFuncao> funcoesInvocadas = new HashSet<>(); // guarda apenas as funções que foram invocadas, as funções que não são invocadas não serão geradas no código Java
     
-    private static long seedNomes = System.currentTimeMillis();
+    private final Set<NoChamadaFuncao> chamadasUsadasComoComando = new HashSet<>();
+    private final Set<NoDeclaracaoVariavel> referenciasQueEscapam = new HashSet<>(); // variáveis que precisam ficar no vetor de referências durante toda a execução
+    private final Map<NoDeclaracaoVariavel, Integer> passagensPorReferencia = new HashMap<>();
+    
+    private final long seedNomes; // cada compilação usa o seu próprio seed, permitindo compilar vários programas simultaneamente
+    private final boolean copiaReferenciasLocais;
+
+    public PreCompilador()
+    {
+        this(System.currentTimeMillis());
+    }
+
+    public PreCompilador(long seedNomes) // usado para poder setar um seed conhecido e escrever testes unitários onde é possível prever o nome das variáveis
+    {
+        this(seedNomes, false);
+    }
+
+    /**
+     * @param copiaReferenciasLocais se <code>true</code>, as variáveis locais passadas por
+     * referência apenas em chamadas usadas como comando continuam sendo variáveis locais no código
+     * gerado e são copiadas para o vetor de referências somente durante as chamadas (ver
+     * {@link NoDeclaracaoVariavel#isCopiadaNasChamadas()}). Cada passagem custa dois acessos ao
+     * vetor, por isso a variável só é copiada quando é acessada diretamente mais vezes do que isso
+     * no código. A inspeção de símbolos precisa das variáveis no vetor de referências, por isso
+     * não deve ser utilizado com ela.
+     */
+    public PreCompilador(long seedNomes, boolean copiaReferenciasLocais)
+    {
+        this.seedNomes = seedNomes;
+        this.copiaReferenciasLocais = copiaReferenciasLocais;
+    }
+
+    @Override
+    public Object visitar(ASAPrograma asa) throws ExcecaoVisitaASA
+    {
+        for (NoDeclaracao declaracao : asa.getListaDeclaracoesGlobais())
+        {
+            if (declaracao instanceof NoDeclaracaoFuncao)
+            {
+                registraChamadasUsadasComoComando(((NoDeclaracaoFuncao) declaracao).getBlocos());
+            }
+            else if (declaracao instanceof NoDeclaracaoVariavel)
+            {
+                referenciasQueEscapam.add((NoDeclaracaoVariavel) declaracao); // as variáveis globais podem ser acessadas pela função chamada
+            }
+        }
+
+        super.visitar(asa);
+
+        for (List<NoDeclaracaoVariavel> variaveis : declaracoes.values())
+        {
+            for (NoDeclaracaoVariavel variavel : variaveis)
+            {
+                int passagens = passagensPorReferencia.get(variavel);
+                int referencias = new HashSet<>(variavel.getReferencias()).size(); // a análise semântica registra duas vezes os parâmetros por referência
+                int acessosDiretos = referencias - passagens; // inclui a referência criada para a inicialização
+                
+                if (copiaReferenciasLocais && !referenciasQueEscapam.contains(variavel) && acessosDiretos > 2 * passagens)
+                {
+                    variavel.setCopiadaNasChamadas(true); // somente os parâmetros das chamadas acessam o vetor de referências
+                }
+                else
+                {
+                    for (NoReferencia ref : variavel.getReferencias())
+                    {
+                        NoReferenciaVariavel origem = (NoReferenciaVariavel) ref;
+                        origem.setIndiceReferencia(variavel.getIndiceReferencia());
+                    }
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private void registraChamadasUsadasComoComando(List<NoBloco> blocos)
+    {
+        if (blocos == null)
+        {
+            return;
+        }
+
+        for (NoBloco bloco : blocos)
+        {
+            if (bloco instanceof NoChamadaFuncao)
+            {
+                chamadasUsadasComoComando.add((NoChamadaFuncao) bloco);
+            }
+            else if (bloco instanceof NoSe)
+            {
+                registraChamadasUsadasComoComando(((NoSe) bloco).getBlocosVerdadeiros());
+                registraChamadasUsadasComoComando(((NoSe) bloco).getBlocosFalsos());
+            }
+            else if (bloco instanceof NoEnquanto)
+            {
+                registraChamadasUsadasComoComando(((NoEnquanto) bloco).getBlocos());
+            }
+            else if (bloco instanceof NoFacaEnquanto)
+            {
+                registraChamadasUsadasComoComando(((NoFacaEnquanto) bloco).getBlocos());
+            }
+            else if (bloco instanceof NoPara)
+            {
+                registraChamadasUsadasComoComando(((NoPara) bloco).getBlocos());
+            }
+            else if (bloco instanceof NoEscolha)
+            {
+                for (NoCaso caso : ((NoEscolha) bloco).getCasos())
+                {
+                    registraChamadasUsadasComoComando(caso.getBlocos());
+                }
+            }
+        }
+    }
 
     @Override
     public Object visitar(NoInclusaoBiblioteca no) throws ExcecaoVisitaASA
@@ -85,15 +198,18 @@ public class PreCompilador extends VisitanteNulo
                         List<NoDeclaracaoVariavel> variaveis = declaracoes.get(tipoOrigem);
                         if (!variaveis.contains(origemReferencia))
                         {
-                            int indice = variaveis.size();
-                            referencia.setIndiceReferencia(indice);
-                            origemReferencia.setIndiceReferencia(indice);
+                            origemReferencia.setIndiceReferencia(variaveis.size());
                             variaveis.add(origemReferencia);
-                            for (NoReferencia ref : origemReferencia.getReferencias())
-                            {
-                                NoReferenciaVariavel origem = (NoReferenciaVariavel) ref;
-                                origem.setIndiceReferencia(indice);
-                            }
+                        }
+                        referencia.setIndiceReferencia(origemReferencia.getIndiceReferencia()); // as demais referências recebem o índice no final, se a variável não puder ser copiada
+                        Integer passagens = passagensPorReferencia.get(origemReferencia);
+                        passagensPorReferencia.put(origemReferencia, (passagens == null) ? 1 : passagens + 1);
+                        
+                        // a cópia é feita antes e depois do comando, não é possível copiar a variável quando a chamada faz parte de uma expressão
+                        // e o compilador Java não aceita copiar uma variável que talvez não tenha sido inicializada
+                        if (!chamadasUsadasComoComando.contains(chamadaFuncao) || !origemReferencia.temInicializacao())
+                        {
+                            referenciasQueEscapam.add(origemReferencia);
                         }
                     }
                 }
@@ -203,7 +319,7 @@ public class PreCompilador extends VisitanteNulo
     
     private static final String[] NOMES_PROIBIDOS = {"inicializar", "executar", "concatena"};
     
-    public static String geraNomeValido(String nomeAtual)
+    public String geraNomeValido(String nomeAtual)
     {
         Set<String> termosProibidos = new HashSet<>(Arrays.asList(PreCompilador.NOMES_PROIBIDOS));
         
@@ -215,12 +331,7 @@ public class PreCompilador extends VisitanteNulo
         return nomeAtual + "_" + String.valueOf(seedNomes);
     }
 
-    public static void setSeedGeracaoNomesValidos(long seed) // usado para poder setar um seed conhecido e escrever testes unitários onde é possível prever o nome das variáveis
-    {
-        seedNomes = seed;
-    }
-    
-    public static long getSeedGeracaoNomesValidos()
+    public long getSeedGeracaoNomesValidos()
     {
         return seedNomes;
     }
@@ -0,0 +1,395 @@
+package br.univali.portugol.nucleo.execucao.gerador.bytecode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Monta o conteúdo de um arquivo .class (JVMS, capítulo 4) sem depender de bibliotecas externas.
+ * <p>
+ * As classes são geradas na versão 49 (Java 5) do formato. Nesta versão a JVM verifica os
+ * métodos por inferência de tipos e não exige o atributo StackMapTable, o que permite gerar
+ * os saltos sem calcular os quadros da pilha.
+ */
+public final class ArquivoClasse
+{
+    public static final int ACESSO_PUBLICO = 0x0001;
+    public static final int ACESSO_PRIVADO = 0x0002;
+    public static final int ACESSO_PROTEGIDO = 0x0004;
+    public static final int ACESSO_FINAL = 0x0010;
+
+    private static final int ACESSO_SUPER = 0x0020;
+
+    private static final int VERSAO_PRINCIPAL = 49;
+    private static final int VERSAO_SECUNDARIA = 0;
+
+    private static final int CONSTANTE_UTF8 = 1;
+    private static final int CONSTANTE_INTEIRO = 3;
+    private static final int CONSTANTE_REAL = 6;
+    private static final int CONSTANTE_CLASSE = 7;
+    private static final int CONSTANTE_CADEIA = 8;
+    private static final int CONSTANTE_ATRIBUTO = 9;
+    private static final int CONSTANTE_METODO = 10;
+    private static final int CONSTANTE_NOME_E_TIPO = 12;
+
+    private final String nomeInterno;
+    private final String nomeInternoSuperclasse;
+
+    private final ByteArrayOutputStream bytesConstantes = new ByteArrayOutputStream(4096);
+    private final DataOutputStream constantes = new DataOutputStream(bytesConstantes);
+    private final Map<String, Integer> indicesConstantes = new HashMap<>();
+    private int totalConstantes = 1; // o índice 0 não é utilizado
+
+    private final List<Membro> atributos = new ArrayList<>();
+    private final List<Membro> metodos = new ArrayList<>();
+
+    private String arquivoFonte = null;
+
+    /**
+     * @param nomeInterno o nome interno da classe (com '/' no lugar de '.'), por exemplo "programas/Programa1"
+     * @param nomeInternoSuperclasse o nome interno da superclasse
+     */
+    public ArquivoClasse(String nomeInterno, String nomeInternoSuperclasse)
+    {
+        this.nomeInterno = nomeInterno;
+        this.nomeInternoSuperclasse = nomeInternoSuperclasse;
+    }
+
+    public String getNomeInterno()
+    {
+        return nomeInterno;
+    }
+
+    /**
+     * Define o nome do arquivo fonte gravado no atributo SourceFile da classe. É o nome que aparece
+     * no rastro da pilha das exceções, junto com as linhas registradas em {@link CodigoMetodo#linha(int)}.
+     */
+    public void setArquivoFonte(String arquivoFonte)
+    {
+        this.arquivoFonte = arquivoFonte;
+    }
+
+    public void adicionarAtributo(int acesso, String nome, String descritor)
+    {
+        atributos.add(new Membro(acesso, constanteUtf8(nome), constanteUtf8(descritor), null));
+    }
+
+    /**
+     * Adiciona um método à classe. O código do método deve ser escrito no {@link CodigoMetodo}
+     * retornado antes de chamar {@link #toByteArray()}.
+     */
+    public CodigoMetodo adicionarMetodo(int acesso, String nome, String descritor)
+    {
+        CodigoMetodo codigo = new CodigoMetodo(this, descritor, (acesso & 0x0008) == 0);
+        metodos.add(new Membro(acesso, constanteUtf8(nome), constanteUtf8(descritor), codigo));
+
+        return codigo;
+    }
+
+    public byte[] toByteArray()
+    {
+        try
+        {
+            int indiceNomeCodigo = constanteUtf8("Code");
+            int indiceNomeLinhas = constanteUtf8("LineNumberTable");
+            int indiceNomeArquivoFonte = (arquivoFonte != null) ? constanteUtf8("SourceFile") : 0;
+            int indiceArquivoFonte = (arquivoFonte != null) ? constanteUtf8(arquivoFonte) : 0;
+            int indiceClasse = constanteClasse(nomeInterno);
+            int indiceSuperclasse = constanteClasse(nomeInternoSuperclasse);
+
+            constantes.flush();
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(bytesConstantes.size() + 4096);
+            DataOutputStream saida = new DataOutputStream(bytes);
+
+            saida.writeInt(0xCAFEBABE);
+            saida.writeShort(VERSAO_SECUNDARIA);
+            saida.writeShort(VERSAO_PRINCIPAL);
+            saida.writeShort(totalConstantes);
+            bytesConstantes.writeTo(saida);
+
+            saida.writeShort(ACESSO_PUBLICO | ACESSO_SUPER);
+            saida.writeShort(indiceClasse);
+            saida.writeShort(indiceSuperclasse);
+            saida.writeShort(0); // interfaces
+
+            escreverMembros(saida, atributos, indiceNomeCodigo, indiceNomeLinhas);
+            escreverMembros(saida, metodos, indiceNomeCodigo, indiceNomeLinhas);
+
+            if (arquivoFonte != null)
+            {
+                saida.writeShort(1);
+                saida.writeShort(indiceNomeArquivoFonte);
+                saida.writeInt(2);
+                saida.writeShort(indiceArquivoFonte);
+            }
+            else
+            {
+                saida.writeShort(0); // atributos da classe
+            }
+            saida.flush();
+
+            return bytes.toByteArray();
+        }
+        catch (IOException excecao)
+        {
+            throw new IllegalStateException(excecao); // não acontece, os dados são escritos em memória
+        }
+    }
+
+    private void escreverMembros(DataOutputStream saida, List<Membro> membros, int indiceNomeCodigo, int indiceNomeLinhas) throws IOException
+    {
+        saida.writeShort(membros.size());
+
+        for (Membro membro : membros)
+        {
+            saida.writeShort(membro.acesso);
+            saida.writeShort(membro.indiceNome);
+            saida.writeShort(membro.indiceDescritor);
+
+            if (membro.codigo == null)
+            {
+                saida.writeShort(0);
+            }
+            else
+            {
+                byte[] instrucoes = membro.codigo.getInstrucoes();
+                int[] linhas = membro.codigo.getLinhas();
+                int tamanhoTabelaLinhas = (linhas.length > 0) ? 8 + linhas.length * 2 : 0;
+
+                saida.writeShort(1);
+                saida.writeShort(indiceNomeCodigo);
+                saida.writeInt(12 + instrucoes.length + tamanhoTabelaLinhas);
+                saida.writeShort(membro.codigo.getMaximoPilha());
+                saida.writeShort(membro.codigo.getMaximoVariaveisLocais());
+                saida.writeInt(instrucoes.length);
+                saida.write(instrucoes);
+                saida.writeShort(0); // tabela de exceções
+
+                if (linhas.length > 0)
+                {
+                    saida.writeShort(1);
+                    saida.writeShort(indiceNomeLinhas);
+                    saida.writeInt(2 + linhas.length * 2);
+                    saida.writeShort(linhas.length / 2);
+
+                    for (int valor : linhas)
+                    {
+                        saida.writeShort(valor);
+                    }
+                }
+                else
+                {
+                    saida.writeShort(0); // atributos do código
+                }
+            }
+        }
+    }
+
+    int constanteUtf8(String valor)
+    {
+        Integer indice = indicesConstantes.get("U" + valor);
+
+        if (indice == null)
+        {
+            try
+            {
+                constantes.writeByte(CONSTANTE_UTF8);
+                constantes.writeUTF(valor); // o formato UTF-8 modificado de writeUTF é o mesmo utilizado nos arquivos .class
+            }
+            catch (IOException excecao)
+            {
+                throw new IllegalStateException("Texto muito longo para o arquivo de classe", excecao);
+            }
+
+            indice = registrarConstante("U" + valor, 1);
+        }
+
+        return indice;
+    }
+
+    int constanteClasse(String nomeInternoClasse)
+    {
+        Integer indice = indicesConstantes.get("C" + nomeInternoClasse);
+
+        if (indice == null)
+        {
+            int indiceNome = constanteUtf8(nomeInternoClasse);
+            escreverConstante(CONSTANTE_CLASSE, indiceNome);
+            indice = registrarConstante("C" + nomeInternoClasse, 1);
+        }
+
+        return indice;
+    }
+
+    int constanteCadeia(String valor)
+    {
+        Integer indice = indicesConstantes.get("S" + valor);
+
+        if (indice == null)
+        {
+            int indiceValor = constanteUtf8(valor);
+            escreverConstante(CONSTANTE_CADEIA, indiceValor);
+            indice = registrarConstante("S" + valor, 1);
+        }
+
+        return indice;
+    }
+
+    int constanteInteiro(int valor)
+    {
+        Integer indice = indicesConstantes.get("I" + valor);
+
+        if (indice == null)
+        {
+            try
+            {
+                constantes.writeByte(CONSTANTE_INTEIRO);
+                constantes.writeInt(valor);
+            }
+            catch (IOException excecao)
+            {
+                throw new IllegalStateException(excecao);
+            }
+
+            indice = registrarConstante("I" + valor, 1);
+        }
+
+        return indice;
+    }
+
+    int constanteReal(double valor)
+    {
+        long bits = Double.doubleToRawLongBits(valor);
+        Integer indice = indicesConstantes.get("D" + bits);
+
+        if (indice == null)
+        {
+            try
+            {
+                constantes.writeByte(CONSTANTE_REAL);
+                constantes.writeLong(bits);
+            }
+            catch (IOException excecao)
+            {
+                throw new IllegalStateException(excecao);
+            }
+
+            indice = registrarConstante("D" + bits, 2); // constantes do tipo double ocupam duas posições
+        }
+
+        return indice;
+    }
+
+    int constanteAtributo(String dono, String nome, String descritor)
+    {
+        return constanteMembro(CONSTANTE_ATRIBUTO, "F", dono, nome, descritor);
+    }
+
+    int constanteMetodo(String dono, String nome, String descritor)
+    {
+        return constanteMembro(CONSTANTE_METODO, "M", dono, nome, descritor);
+    }
+
+    private int constanteMembro(int tipo, String prefixo, String dono, String nome, String descritor)
+    {
+        String chave = prefixo + dono + '.' + nome + ':' + descritor;
+        Integer indice = indicesConstantes.get(chave);
+
+        if (indice == null)
+        {
+            int indiceClasse = constanteClasse(dono);
+            int indiceNomeTipo = constanteNomeTipo(nome, descritor);
+
+            try
+            {
+                constantes.writeByte(tipo);
+                constantes.writeShort(indiceClasse);
+                constantes.writeShort(indiceNomeTipo);
+            }
+            catch (IOException excecao)
+            {
+                throw new IllegalStateException(excecao);
+            }
+
+            indice = registrarConstante(chave, 1);
+        }
+
+        return indice;
+    }
+
+    private int constanteNomeTipo(String nome, String descritor)
+    {
+        String chave = "N" + nome + ':' + descritor;
+        Integer indice = indicesConstantes.get(chave);
+
+        if (indice == null)
+        {
+            int indiceNome = constanteUtf8(nome);
+            int indiceDescritor = constanteUtf8(descritor);
+
+            try
+            {
+                constantes.writeByte(CONSTANTE_NOME_E_TIPO);
+                constantes.writeShort(indiceNome);
+                constantes.writeShort(indiceDescritor);
+            }
+            catch (IOException excecao)
+            {
+                throw new IllegalStateException(excecao);
+            }
+
+            indice = registrarConstante(chave, 1);
+        }
+
+        return indice;
+    }
+
+    private void escreverConstante(int tipo, int indice)
+    {
+        try
+        {
+            constantes.writeByte(tipo);
+            constantes.writeShort(indice);
+        }
+        catch (IOException excecao)
+        {
+            throw new IllegalStateException(excecao);
+        }
+    }
+
+    private int registrarConstante(String chave, int posicoes)
+    {
+        int indice = totalConstantes;
+
+        if (indice + posicoes > 0xFFFF)
+        {
+            throw new IllegalStateException("O limite de constantes do arquivo de classe foi excedido");
+        }
+
+        totalConstantes += posicoes;
+        indicesConstantes.put(chave, indice);
+
+        return indice;
+    }
+
+    private static final class Membro
+    {
+        private final int acesso;
+        private final int indiceNome;
+        private final int indiceDescritor;
+        private final CodigoMetodo codigo;
+
+        public Membro(int acesso, int indiceNome, int indiceDescritor, CodigoMetodo codigo)
+        {
+            this.acesso = acesso;
+            this.indiceNome = indiceNome;
+            this.indiceDescritor = indiceDescritor;
+            this.codigo = codigo;
+        }
+    }
+}
@@ -0,0 +1,580 @@
+package br.univali.portugol.nucleo.execucao.gerador.bytecode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Escreve as instruções de um método de um {@link ArquivoClasse}.
+ * <p>
+ * Além dos bytes das instruções, mantém a profundidade da pilha de operandos e o número de
+ * variáveis locais para preencher os campos max_stack e max_locals do atributo Code. Os
+ * deslocamentos dos saltos para rótulos ainda não marcados são preenchidos quando o rótulo é
+ * marcado.
+ */
+public final class CodigoMetodo
+{
+    public static final int ACONST_NULL = 0x01;
+    public static final int ICONST_0 = 0x03;
+    public static final int ICONST_1 = 0x04;
+    public static final int ILOAD = 0x15;
+    public static final int DLOAD = 0x18;
+    public static final int ALOAD = 0x19;
+    public static final int IALOAD = 0x2e;
+    public static final int DALOAD = 0x31;
+    public static final int AALOAD = 0x32;
+    public static final int BALOAD = 0x33;
+    public static final int CALOAD = 0x34;
+    public static final int ISTORE = 0x36;
+    public static final int DSTORE = 0x39;
+    public static final int ASTORE = 0x3a;
+    public static final int IASTORE = 0x4f;
+    public static final int DASTORE = 0x52;
+    public static final int AASTORE = 0x53;
+    public static final int BASTORE = 0x54;
+    public static final int CASTORE = 0x55;
+    public static final int POP = 0x57;
+    public static final int POP2 = 0x58;
+    public static final int DUP = 0x59;
+    public static final int IADD = 0x60;
+    public static final int DADD = 0x63;
+    public static final int ISUB = 0x64;
+    public static final int DSUB = 0x67;
+    public static final int IMUL = 0x68;
+    public static final int DMUL = 0x6b;
+    public static final int IDIV = 0x6c;
+    public static final int DDIV = 0x6f;
+    public static final int IREM = 0x70;
+    public static final int DREM = 0x73;
+    public static final int INEG = 0x74;
+    public static final int DNEG = 0x77;
+    public static final int ISHL = 0x78;
+    public static final int ISHR = 0x7a;
+    public static final int IAND = 0x7e;
+    public static final int IOR = 0x80;
+    public static final int IXOR = 0x82;
+    public static final int I2D = 0x87;
+    public static final int D2I = 0x8e;
+    public static final int I2C = 0x92;
+    public static final int DCMPL = 0x97;
+    public static final int DCMPG = 0x98;
+    public static final int IFEQ = 0x99;
+    public static final int IFNE = 0x9a;
+    public static final int IFLT = 0x9b;
+    public static final int IFGE = 0x9c;
+    public static final int IFGT = 0x9d;
+    public static final int IFLE = 0x9e;
+    public static final int IF_ICMPEQ = 0x9f;
+    public static final int IF_ICMPNE = 0xa0;
+    public static final int IF_ICMPLT = 0xa1;
+    public static final int IF_ICMPGE = 0xa2;
+    public static final int IF_ICMPGT = 0xa3;
+    public static final int IF_ICMPLE = 0xa4;
+    public static final int IF_ACMPEQ = 0xa5;
+    public static final int IF_ACMPNE = 0xa6;
+    public static final int GOTO = 0xa7;
+    public static final int IRETURN = 0xac;
+    public static final int DRETURN = 0xaf;
+    public static final int ARETURN = 0xb0;
+    public static final int RETURN = 0xb1;
+    public static final int GETFIELD = 0xb4;
+    public static final int PUTFIELD = 0xb5;
+    public static final int INVOKEVIRTUAL = 0xb6;
+    public static final int INVOKESPECIAL = 0xb7;
+    public static final int INVOKESTATIC = 0xb8;
+    public static final int NEW = 0xbb;
+    public static final int NEWARRAY = 0xbc;
+    public static final int ANEWARRAY = 0xbd;
+    public static final int ARRAYLENGTH = 0xbe;
+    public static final int ATHROW = 0xbf;
+    public static final int MULTIANEWARRAY = 0xc5;
+    public static final int IFNULL = 0xc6;
+    public static final int IFNONNULL = 0xc7;
+
+    public static final int T_BOOLEAN = 4;
+    public static final int T_CHAR = 5;
+    public static final int T_DOUBLE = 7;
+    public static final int T_INT = 10;
+
+    private static final int BIPUSH = 0x10;
+    private static final int SIPUSH = 0x11;
+    private static final int LDC = 0x12;
+    private static final int LDC_W = 0x13;
+    private static final int LDC2_W = 0x14;
+    private static final int DCONST_0 = 0x0e;
+    private static final int WIDE = 0xc4;
+
+    private static final int[] VARIACAO_PILHA = new int[256];
+
+    private final ArquivoClasse classe;
+    private final List<Salto> saltos = new ArrayList<>();
+
+    private byte[] instrucoes = new byte[256];
+    private int tamanho = 0;
+
+    private int[] linhas = new int[32]; // pares (posição da instrução, linha do código fonte)
+    private int tamanhoLinhas = 0;
+
+    private int pilha = 0;
+    private int maximoPilha = 0;
+    private int variaveisLocais;
+    private boolean alcancavel = true;
+
+    CodigoMetodo(ArquivoClasse classe, String descritor, boolean metodoDeInstancia)
+    {
+        this.classe = classe;
+        this.variaveisLocais = (metodoDeInstancia ? 1 : 0) + tamanhoParametros(descritor);
+    }
+
+    /**
+     * Reserva uma nova variável local.
+     *
+     * @param posicoes o número de posições ocupadas pela variável (2 para double e 1 para os demais tipos)
+     * @return o índice da variável
+     */
+    public int novaVariavelLocal(int posicoes)
+    {
+        int indice = variaveisLocais;
+        variaveisLocais += posicoes;
+
+        return indice;
+    }
+
+    /**
+     * @return <code>false</code> se a próxima instrução não puder ser alcançada, por exemplo,
+     * depois de um <code>return</code> ou de um <code>goto</code>
+     */
+    public boolean estaAlcancavel()
+    {
+        return alcancavel;
+    }
+
+    /**
+     * Escreve uma instrução sem operandos.
+     */
+    public void instrucao(int opcode)
+    {
+        escreverByte(opcode);
+        ajustarPilha(VARIACAO_PILHA[opcode]);
+
+        if (opcode == ATHROW || (opcode >= IRETURN && opcode <= RETURN))
+        {
+            alcancavel = false;
+        }
+    }
+
+    public void instrucaoVariavel(int opcode, int indice)
+    {
+        if (indice > 0xFF)
+        {
+            escreverByte(WIDE);
+            escreverByte(opcode);
+            escreverShort(indice);
+        }
+        else
+        {
+            escreverByte(opcode);
+            escreverByte(indice);
+        }
+
+        switch (opcode)
+        {
+            case ILOAD: case ALOAD: ajustarPilha(1); break;
+            case DLOAD: ajustarPilha(2); break;
+            case ISTORE: case ASTORE: ajustarPilha(-1); break;
+            case DSTORE: ajustarPilha(-2); break;
+            default: throw new IllegalArgumentException("Instrução inválida: " + opcode);
+        }
+    }
+
+    public void instrucaoInteiro(int valor)
+    {
+        if (valor >= -1 && valor <= 5)
+        {
+            escreverByte(ICONST_0 + valor);
+        }
+        else if (valor >= Byte.MIN_VALUE && valor <= Byte.MAX_VALUE)
+        {
+            escreverByte(BIPUSH);
+            escreverByte(valor);
+        }
+        else if (valor >= Short.MIN_VALUE && valor <= Short.MAX_VALUE)
+        {
+            escreverByte(SIPUSH);
+            escreverShort(valor);
+        }
+        else
+        {
+            instrucaoConstante(classe.constanteInteiro(valor));
+        }
+
+        ajustarPilha(1);
+    }
+
+    public void instrucaoReal(double valor)
+    {
+        if (Double.doubleToRawLongBits(valor) == 0L || valor == 1.0)
+        {
+            escreverByte(DCONST_0 + (int) valor);
+        }
+        else
+        {
+            escreverByte(LDC2_W);
+            escreverShort(classe.constanteReal(valor));
+        }
+
+        ajustarPilha(2);
+    }
+
+    public void instrucaoCadeia(String valor)
+    {
+        instrucaoConstante(classe.constanteCadeia(valor));
+        ajustarPilha(1);
+    }
+
+    private void instrucaoConstante(int indice)
+    {
+        if (indice <= 0xFF)
+        {
+            escreverByte(LDC);
+            escreverByte(indice);
+        }
+        else
+        {
+            escreverByte(LDC_W);
+            escreverShort(indice);
+        }
+    }
+
+    /**
+     * Escreve uma instrução de acesso a atributo (GETFIELD ou PUTFIELD).
+     */
+    public void instrucaoAtributo(int opcode, String dono, String nome, String descritor)
+    {
+        escreverByte(opcode);
+        escreverShort(classe.constanteAtributo(dono, nome, descritor));
+
+        int tamanhoValor = tamanhoTipo(descritor.charAt(0));
+        ajustarPilha(opcode == GETFIELD ? tamanhoValor - 1 : -tamanhoValor - 1);
+    }
+
+    /**
+     * Escreve uma instrução de chamada de método (INVOKEVIRTUAL, INVOKESPECIAL ou INVOKESTATIC).
+     */
+    public void instrucaoMetodo(int opcode, String dono, String nome, String descritor)
+    {
+        escreverByte(opcode);
+        escreverShort(classe.constanteMetodo(dono, nome, descritor));
+
+        int variacao = -tamanhoParametros(descritor) + tamanhoTipo(descritor.charAt(descritor.indexOf(')') + 1));
+
+        if (opcode != INVOKESTATIC)
+        {
+            variacao--;
+        }
+
+        ajustarPilha(variacao);
+    }
+
+    /**
+     * Escreve uma instrução que recebe uma classe como operando (NEW ou ANEWARRAY).
+     */
+    public void instrucaoTipo(int opcode, String nomeInternoClasse)
+    {
+        escreverByte(opcode);
+        escreverShort(classe.constanteClasse(nomeInternoClasse));
+        ajustarPilha(opcode == NEW ? 1 : 0);
+    }
+
+    public void instrucaoNovoVetor(int tipoPrimitivo)
+    {
+        escreverByte(NEWARRAY);
+        escreverByte(tipoPrimitivo);
+    }
+
+    public void instrucaoNovaMatriz(String descritor, int dimensoes)
+    {
+        escreverByte(MULTIANEWARRAY);
+        escreverShort(classe.constanteClasse(descritor));
+        escreverByte(dimensoes);
+        ajustarPilha(1 - dimensoes);
+    }
+
+    /**
+     * Escreve uma instrução de salto (GOTO, IFxx, IF_ICMPxx, IF_ACMPxx, IFNULL ou IFNONNULL).
+     */
+    public void instrucaoSalto(int opcode, Rotulo destino)
+    {
+        int posicaoInstrucao = tamanho;
+
+        escreverByte(opcode);
+        escreverShort(0);
+
+        ajustarPilha(VARIACAO_PILHA[opcode]);
+
+        if (destino.estaMarcado())
+        {
+            preencherDeslocamento(posicaoInstrucao, destino.posicao);
+        }
+        else
+        {
+            saltos.add(new Salto(posicaoInstrucao, destino));
+        }
+
+        if (!destino.foiReferenciado())
+        {
+            destino.pilha = pilha;
+        }
+
+        if (opcode == GOTO)
+        {
+            alcancavel = false;
+        }
+    }
+
+    /**
+     * Marca a posição atual do código como destino do rótulo. O código seguinte volta a ser
+     * alcançável se o rótulo já foi referenciado por algum salto.
+     */
+    public void marcar(Rotulo rotulo)
+    {
+        if (rotulo.estaMarcado())
+        {
+            throw new IllegalStateException("O rótulo já foi marcado");
+        }
+
+        rotulo.posicao = tamanho;
+
+        for (Salto salto : saltos)
+        {
+            if (salto.destino == rotulo)
+            {
+                preencherDeslocamento(salto.posicao, rotulo.posicao);
+            }
+        }
+
+        if (!alcancavel && rotulo.foiReferenciado())
+        {
+            pilha = rotulo.pilha;
+            alcancavel = true;
+        }
+        else if (alcancavel && !rotulo.foiReferenciado())
+        {
+            rotulo.pilha = pilha; // saltos para trás encontram a pilha no mesmo estado
+        }
+    }
+
+    /**
+     * Associa as próximas instruções a uma linha do código fonte. As linhas são gravadas no
+     * atributo LineNumberTable e aparecem no rastro da pilha das exceções lançadas pelo método.
+     */
+    public void linha(int linha)
+    {
+        if (tamanhoLinhas > 0 && linhas[tamanhoLinhas - 1] == linha)
+        {
+            return;
+        }
+
+        if (tamanhoLinhas > 0 && linhas[tamanhoLinhas - 2] == tamanho)
+        {
+            linhas[tamanhoLinhas - 1] = linha; // nenhuma instrução foi gerada na linha anterior
+            return;
+        }
+
+        if (tamanhoLinhas == linhas.length)
+        {
+            linhas = Arrays.copyOf(linhas, linhas.length * 2);
+        }
+
+        linhas[tamanhoLinhas++] = tamanho;
+        linhas[tamanhoLinhas++] = linha;
+    }
+
+    /**
+     * @return os pares (posição da instrução, linha do código fonte) registrados por {@link #linha(int)}
+     */
+    int[] getLinhas()
+    {
+        return Arrays.copyOf(linhas, tamanhoLinhas);
+    }
+
+    byte[] getInstrucoes()
+    {
+        for (Salto salto : saltos)
+        {
+            if (!salto.destino.estaMarcado())
+            {
+                throw new IllegalStateException("Existe um salto para um rótulo que não foi marcado");
+            }
+        }
+
+        if (tamanho > 0xFFFF)
+        {
+            throw new IllegalStateException("O método excede o tamanho máximo permitido pela JVM");
+        }
+
+        return Arrays.copyOf(instrucoes, tamanho);
+    }
+
+    int getMaximoPilha()
+    {
+        return maximoPilha;
+    }
+
+    int getMaximoVariaveisLocais()
+    {
+        return variaveisLocais;
+    }
+
+    private void preencherDeslocamento(int posicaoInstrucao, int posicaoDestino)
+    {
+        int deslocamento = posicaoDestino - posicaoInstrucao;
+
+        if (deslocamento < Short.MIN_VALUE || deslocamento > Short.MAX_VALUE)
+        {
+            throw new IllegalStateException("O método excede o tamanho máximo suportado para saltos");
+        }
+
+        instrucoes[posicaoInstrucao + 1] = (byte) (deslocamento >> 8);
+        instrucoes[posicaoInstrucao + 2] = (byte) deslocamento;
+    }
+
+    private void ajustarPilha(int variacao)
+    {
+        pilha = Math.max(0, pilha + variacao);
+        maximoPilha = Math.max(maximoPilha, pilha);
+    }
+
+    private void escreverByte(int valor)
+    {
+        if (tamanho == instrucoes.length)
+        {
+            instrucoes = Arrays.copyOf(instrucoes, instrucoes.length * 2);
+        }
+
+        instrucoes[tamanho++] = (byte) valor;
+    }
+
+    private void escreverShort(int valor)
+    {
+        escreverByte(valor >> 8);
+        escreverByte(valor);
+    }
+
+    private static int tamanhoParametros(String descritor)
+    {
+        int tamanho = 0;
+        int i = 1; // pula o '('
+
+        while (descritor.charAt(i) != ')')
+        {
+            char tipo = descritor.charAt(i);
+
+            if (tipo == '[')
+            {
+                while (descritor.charAt(i) == '[')
+                {
+                    i++;
+                }
+
+                if (descritor.charAt(i) == 'L')
+                {
+                    i = descritor.indexOf(';', i);
+                }
+
+                tamanho++;
+            }
+            else if (tipo == 'L')
+            {
+                i = descritor.indexOf(';', i);
+                tamanho++;
+            }
+            else
+            {
+                tamanho += tamanhoTipo(tipo);
+            }
+
+            i++;
+        }
+
+        return tamanho;
+    }
+
+    private static int tamanhoTipo(char tipo)
+    {
+        switch (tipo)
+        {
+            case 'V': return 0;
+            case 'D': case 'J': return 2;
+            default: return 1;
+        }
+    }
+
+    private static final class Salto
+    {
+        private final int posicao;
+        private final Rotulo destino;
+
+        public Salto(int posicao, Rotulo destino)
+        {
+            this.posicao = posicao;
+            this.destino = destino;
+        }
+    }
+
+    static
+    {
+        VARIACAO_PILHA[ACONST_NULL] = 1;
+
+        for (int opcode = 0x02; opcode <= 0x08; opcode++) // ICONST_M1 até ICONST_5
+        {
+            VARIACAO_PILHA[opcode] = 1;
+        }
+
+        VARIACAO_PILHA[IALOAD] = -1;
+        VARIACAO_PILHA[DALOAD] = 0;
+        VARIACAO_PILHA[AALOAD] = -1;
+        VARIACAO_PILHA[BALOAD] = -1;
+        VARIACAO_PILHA[CALOAD] = -1;
+        VARIACAO_PILHA[IASTORE] = -3;
+        VARIACAO_PILHA[DASTORE] = -4;
+        VARIACAO_PILHA[AASTORE] = -3;
+        VARIACAO_PILHA[BASTORE] = -3;
+        VARIACAO_PILHA[CASTORE] = -3;
+        VARIACAO_PILHA[POP] = -1;
+        VARIACAO_PILHA[POP2] = -2;
+        VARIACAO_PILHA[DUP] = 1;
+
+        for (int opcode : new int[] { IADD, ISUB, IMUL, IDIV, IREM, ISHL, ISHR, IAND, IOR, IXOR })
+        {
+            VARIACAO_PILHA[opcode] = -1;
+        }
+
+        for (int opcode : new int[] { DADD, DSUB, DMUL, DDIV, DREM })
+        {
+            VARIACAO_PILHA[opcode] = -2;
+        }
+
+        VARIACAO_PILHA[I2D] = 1;
+        VARIACAO_PILHA[D2I] = -1;
+        VARIACAO_PILHA[DCMPL] = -3;
+        VARIACAO_PILHA[DCMPG] = -3;
+
+        for (int opcode = IFEQ; opcode <= IFLE; opcode++)
+        {
+            VARIACAO_PILHA[opcode] = -1;
+        }
+
+        for (int opcode = IF_ICMPEQ; opcode <= IF_ACMPNE; opcode++)
+        {
+            VARIACAO_PILHA[opcode] = -2;
+        }
+
+        VARIACAO_PILHA[IFNULL] = -1;
+        VARIACAO_PILHA[IFNONNULL] = -1;
+        VARIACAO_PILHA[IRETURN] = -1;
+        VARIACAO_PILHA[DRETURN] = -2;
+        VARIACAO_PILHA[ARETURN] = -1;
+        VARIACAO_PILHA[ATHROW] = -1;
+    }
+}
@@ -0,0 +1,24 @@
+package br.univali.portugol.nucleo.execucao.gerador.bytecode;
+
+/**
+ * Marca uma posição no código de um método que pode ser utilizada como destino de um salto.
+ * Um rótulo pode ser referenciado antes de ser marcado, neste caso o deslocamento do salto é
+ * preenchido quando o rótulo for marcado.
+ *
+ * @see CodigoMetodo#marcar(Rotulo)
+ */
+public final class Rotulo
+{
+    int posicao = -1;
+    int pilha = -1; // profundidade da pilha de operandos na primeira vez em que o rótulo foi referenciado
+
+    boolean estaMarcado()
+    {
+        return posicao >= 0;
+    }
+
+    boolean foiReferenciado()
+    {
+        return pilha >= 0;
+    }
+}
@@ -20,7 +20,13 @@ public class GeradorChamadaMetodo
         String nomeFuncao = no.getNome();
         if (escopoFuncao.isEmpty() && "leia".equals(nomeFuncao)) //a função 'leia' tem um tratamento especial
         {
-            geraCodigoParaFuncaoLeia(no, saida, visitor, asa);
+            geraCodigoParaFuncaoLeia(no, saida, visitor, asa, nivelEscopo);
+            return;
+        }
+        
+        if (escopoFuncao.isEmpty() && "escreva".equals(nomeFuncao) && !no.getParametros().isEmpty())
+        {
+            geraCodigoParaFuncaoEscreva(no, saida, visitor, nivelEscopo);
             return;
         }
 
@@ -183,9 +189,39 @@ public class GeradorChamadaMetodo
         }
     }
     
-    private void geraCodigoParaFuncaoLeia(NoChamadaFuncao no, PrintWriter saida, VisitanteASA visitor, ASAPrograma asa) throws ExcecaoVisitaASA
+    /**
+     * Gera uma chamada de <code>escreva</code> para cada parâmetro. O compilador Java escolhe a
+     * versão do método para o tipo do valor (int, double, char, boolean ou String), evitando
+     * criar o vetor de parâmetros e converter os valores primitivos em objetos a cada escrita.
+     */
+    private void geraCodigoParaFuncaoEscreva(NoChamadaFuncao no, PrintWriter saida, VisitanteASA visitor, int nivelEscopo) throws ExcecaoVisitaASA
+    {
+        List<NoExpressao> parametrosPassados = no.getParametros();
+
+        for (int i = 0; i < parametrosPassados.size(); i++)
+        {
+            saida.append("escreva(");
+            parametrosPassados.get(i).aceitar(visitor);
+            saida.append(")");
+            
+            if (i < parametrosPassados.size() - 1) // o ponto e vírgula da última chamada é gerado junto com o comando
+            {
+                saida.append(";").println();
+                saida.append(Utils.geraIdentacao(nivelEscopo));
+            }
+        }
+    }
+    
+    private void geraCodigoParaFuncaoLeia(NoChamadaFuncao no, PrintWriter saida, VisitanteASA visitor, ASAPrograma asa, int nivelEscopo) throws ExcecaoVisitaASA
     {
         List<NoExpressao> parametrosPassados = no.getParametros();
+        TrechoCodigoFonte trechoCodigoFonte = no.getTrechoCodigoFonte();
+
+        if (trechoCodigoFonte != null && trechoCodigoFonte.ehValido()) // os erros de leitura são localizados no comando leia, como no programa interpretado
+        {
+            saida.format("registrarPosicao(%d, %d);", trechoCodigoFonte.getLinha(), trechoCodigoFonte.getColuna()).println();
+            saida.append(Utils.geraIdentacao(nivelEscopo));
+        }
 
         for (int i = 0; i < parametrosPassados.size(); i++)
         {
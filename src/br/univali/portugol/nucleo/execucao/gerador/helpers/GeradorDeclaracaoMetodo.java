@@ -107,34 +107,11 @@ public class GeradorDeclaracaoMetodo
     private void geraCodigoInicializacaoVetor(NoDeclaracaoParametro parametro,
             PrintWriter saida, String nomeArrayInspecao, int nivelEscopo, long seed) 
     {
-        //gera um if verificando se é necessário redimensionar o vetor interno
+        // guarda apenas a referência do vetor, os valores são lidos somente quando o vetor é consultado
         
-        int idInspecao = parametro.getIdParaInspecao();
-        String nomeParametro = parametro.getNome();
-        
-        saida.append(Utils.geraIdentacao(nivelEscopo + 1));
-        saida.format("if (%s[%d].tamanho != %s.length) {", nomeArrayInspecao, idInspecao, nomeParametro);
-        saida.println();
-
-        saida.append(Utils.geraIdentacao(nivelEscopo + 2));
-        saida.format("inspecionaVetor(%d, %s.length);", idInspecao, nomeParametro);
-        saida.println();
-
         saida.append(Utils.geraIdentacao(nivelEscopo + 1));
-        saida.append("}").println(); //fecha IF verificando se é necessário redimencionar array interno
-
-        //gera loop coletando todas as posições do vetor
-        saida.append(Utils.geraIdentacao(nivelEscopo + 1));
-        saida.format("for(int i_%3$d=0; i_%3$d < %s[%d].tamanho; i_%3$d++){", nomeArrayInspecao, idInspecao, seed); // loop percorrendo todo o array
+        saida.format("%s[%d].setDados(%s);", nomeArrayInspecao, parametro.getIdParaInspecao(), parametro.getNome());
         saida.println();
-
-        saida.append(Utils.geraIdentacao(nivelEscopo + 2));
-        saida.format("%s[%d].setValor(%s[i_%4$d], i_%4$d);", nomeArrayInspecao, idInspecao, nomeParametro, seed);
-        saida.println(); //fecha setValor(v[i], i);
-
-        saida.append(Utils.geraIdentacao(nivelEscopo + 1));
-        saida.append("}").println(); //fecha loop
-        
     }
     
     private void geraCodigoInicializacaoVariavel(NoDeclaracaoParametro parametro,
@@ -155,40 +132,11 @@ public class GeradorDeclaracaoMetodo
     private void geraCodigoInicializacaoMatriz(NoDeclaracaoParametro parametro,
                     PrintWriter saida, String nomeArrayInspecao, int nivelEscopo, long seed)
     {
-        //gera um if verificando se é necessário redimensionar a matriz interna
-        
-        int idInspecao = parametro.getIdParaInspecao();
-        String nomeParametro = parametro.getNome();
+        // guarda apenas a referência da matriz, os valores são lidos somente quando a matriz é consultada
         
         saida.append(Utils.geraIdentacao(nivelEscopo + 1));
-        saida.format("if (%s[%d].linhas != %s.length) {", nomeArrayInspecao, idInspecao, nomeParametro);
-        saida.println();
-
-        saida.append(Utils.geraIdentacao(nivelEscopo + 2));
-        saida.format("inspecionaMatriz(%d, %s.length, %s[0].length);", idInspecao, nomeParametro, nomeParametro);
+        saida.format("%s[%d].setDados(%s);", nomeArrayInspecao, parametro.getIdParaInspecao(), parametro.getNome());
         saida.println();
-        
-        saida.append(Utils.geraIdentacao(nivelEscopo + 1));
-        saida.append("}").println(); //fecha IF verificando se é necessário redimencionar array interno
-
-        //gera loop coletando todas as posições da matriz
-        saida.append(Utils.geraIdentacao(nivelEscopo + 1));
-        saida.format("for(int i_%3$d=0; i_%3$d < %s[%d].linhas; i_%3$d++){", nomeArrayInspecao, idInspecao, seed);
-        saida.println(); 
-        
-        saida.append(Utils.geraIdentacao(nivelEscopo + 2));
-        saida.format("for(int j_%3$d=0; j_%3$d < %s[%d].colunas; j_%3$d++){", nomeArrayInspecao, idInspecao, seed).println(); 
-
-        saida.append(Utils.geraIdentacao(nivelEscopo + 3));
-        saida.format("%s[%d].setValor(%s[i_%4$d][j_%4$d], i_%4$d, j_%4$d);", nomeArrayInspecao, idInspecao, nomeParametro, seed);
-        saida.println(); 
-
-        saida.append(Utils.geraIdentacao(nivelEscopo + 2));
-        saida.append("}").println(); //fecha loop interno
-        
-        saida.append(Utils.geraIdentacao(nivelEscopo + 1));
-        saida.append("}").println(); //fecha loop externo
-        
     }
     
    
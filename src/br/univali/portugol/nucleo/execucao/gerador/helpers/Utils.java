@@ -3,6 +3,8 @@ package br.univali.portugol.nucleo.execucao.gerador.helpers;
 import br.univali.portugol.nucleo.asa.*;
 import br.univali.portugol.nucleo.execucao.gerador.PreCompilador;
 import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -81,15 +83,11 @@ public class Utils
             String nomeVariavel = referenciaVetor.getNome();
 
             saida.append(Utils.geraIdentacao(nivelEscopo + 1))
-                    .format("vetoresInspecionados[%d].setValor(", ID);
+                    .format("vetoresInspecionados[%d].alterado(%s, ", ID, nomeVariavel);
                     
-            saida.format("%s[", nomeVariavel); 
-            referenciaVetor.getIndice().aceitar(visitor); //escreve o índice de acesso ao vetor na saída (PrintWriter)
-            saida.append("], ");
-
-            referenciaVetor.getIndice().aceitar(visitor); // escreve o índice novamente na saída
+            referenciaVetor.getIndice().aceitar(visitor); // escreve o índice de acesso ao vetor na saída (PrintWriter)
             
-            saida.append(");") // fecha o parenteses do setValor( );
+            saida.append(");") // fecha o parenteses do alterado( );
                     .println();
             
             saida.append(Utils.geraIdentacao(nivelEscopo))
@@ -110,17 +108,9 @@ public class Utils
             String nomeVariavel = vetor.getNome();
 
             saida.append(Utils.geraIdentacao(nivelEscopo + 1))
-                    .format("for (int i_%2$d = 0; i_%2$d  < vetoresInspecionados[%d].tamanho; i_%2$d++) {", ID, seed)
-                    .println();
-            
-            saida.append(Utils.geraIdentacao(nivelEscopo + 1))
-                    .format("vetoresInspecionados[%d].setValor(%s[i_%3$d], i_%3$d);", ID, nomeVariavel, seed)
+                    .format("vetoresInspecionados[%d].setDados(%s);", ID, nomeVariavel) // os valores são lidos somente quando o vetor é consultado
                     .println();
             
-            saida.append(Utils.geraIdentacao(nivelEscopo + 1))
-                    .append("}")// fechando loop
-                    .println(); 
-            
             saida.append(Utils.geraIdentacao(nivelEscopo))
                     .append("}"); // fechando IF
         }
@@ -139,19 +129,13 @@ public class Utils
             String nomeVariavel = referenciaMatriz.getNome();
 
             saida.append(Utils.geraIdentacao(nivelEscopo + 1))
-                    .format("matrizesInspecionadas[%d].setValor(", ID);
+                    .format("matrizesInspecionadas[%d].alterado(%s, ", ID, nomeVariavel);
                     
-            saida.format("%s[", nomeVariavel); 
-            referenciaMatriz.getLinha().aceitar(visitor); //escreve o índice da linha na saída (PrintWriter)
-            saida.append("][");
-            referenciaMatriz.getColuna().aceitar(visitor); //escreve o índice da coluna na saída (PrintWriter)
-            saida.append("], ");
-
-            referenciaMatriz.getLinha().aceitar(visitor); // escreve o índice da linha novamente na saída
+            referenciaMatriz.getLinha().aceitar(visitor); // escreve o índice da linha na saída (PrintWriter)
             saida.append(", ");
-            referenciaMatriz.getColuna().aceitar(visitor); // escreve o índice da linha novamente na saída
+            referenciaMatriz.getColuna().aceitar(visitor); // escreve o índice da coluna na saída (PrintWriter)
             
-            saida.append(");") // fecha o parenteses do setValor( );
+            saida.append(");") // fecha o parenteses do alterado( );
                     .println();
             
             saida.append(Utils.geraIdentacao(nivelEscopo))
@@ -172,25 +156,9 @@ public class Utils
             String nomeVariavel = matriz.getNome();
 
             saida.append(Utils.geraIdentacao(nivelEscopo + 1))
-                    .format("for (int i_%2$d = 0; i_%2$d < matrizesInspecionadas[%d].linhas; i_%2$d++) {", ID, seed) // loop das linhas
-                    .println();
-            
-            saida.append(Utils.geraIdentacao(nivelEscopo + 2))
-                    .format("for (int j_%2$d = 0; j_%2$d < matrizesInspecionadas[%d].colunas; j_%2$d++) {", ID, seed) // loop das colunas
-                    .println();
-            
-            saida.append(Utils.geraIdentacao(nivelEscopo + 3))
-                    .format("matrizesInspecionadas[%d].setValor(%s[i_%3$d][j_%3$d], i_%3$d, j_%3$d);", ID, nomeVariavel, seed)
+                    .format("matrizesInspecionadas[%d].setDados(%s);", ID, nomeVariavel) // os valores são lidos somente quando a matriz é consultada
                     .println();
             
-            saida.append(Utils.geraIdentacao(nivelEscopo + 2))
-                    .append("}")// fechando loop interno
-                    .println(); 
-            
-            saida.append(Utils.geraIdentacao(nivelEscopo + 1))
-                    .append("}")// fechando loop externo
-                    .println(); 
-            
             saida.append(Utils.geraIdentacao(nivelEscopo))
                     .append("}"); // fechando IF
         }
@@ -204,7 +172,7 @@ public class Utils
     
     public static String geraStringIndice(NoDeclaracaoVariavel variavel)
     {
-        assert(variavel.ehPassadaPorReferencia());
+        assert(variavel.getIndiceReferencia() >= 0);
         return geraStringIndice(variavel.getIndiceReferencia(), variavel.getNome());
     }
     
@@ -280,6 +248,9 @@ public class Utils
                 geraParadaPassoAPasso(bloco, saida, nivelEscopo);
             }
 
+            List<NoDeclaracaoVariavel> variaveisCopiadas = getVariaveisCopiadasNaChamada(bloco);
+            geraCopiaDasVariaveis(variaveisCopiadas, saida, nivelEscopo, true);
+
             saida.append(Utils.geraIdentacao(nivelEscopo));
 
             boolean adicionaPonEtoVirgula = blocoFinalizaComPontoEVirgula(bloco);
@@ -295,6 +266,8 @@ public class Utils
             }
             saida.println();
             
+            geraCopiaDasVariaveis(variaveisCopiadas, saida, nivelEscopo, false);
+            
             if (geraCodigoParaInspecaoDeSimbolo)
             {
                 geraCodigoParaInspecaoDeBloco(bloco, saida, visitor, nivelEscopo, seed);
@@ -303,6 +276,61 @@ public class Utils
 
     }
 
+    /**
+     * Retorna as variáveis locais passadas por referência em uma chamada de função usada como
+     * comando que só ficam no vetor de referências durante a chamada (ver
+     * {@link NoDeclaracaoVariavel#isCopiadaNasChamadas()}).
+     */
+    private static List<NoDeclaracaoVariavel> getVariaveisCopiadasNaChamada(NoBloco bloco)
+    {
+        if (!(bloco instanceof NoChamadaFuncao))
+        {
+            return Collections.emptyList();
+        }
+
+        List<NoDeclaracaoVariavel> variaveis = new ArrayList<>();
+
+        for (NoExpressao parametro : ((NoChamadaFuncao) bloco).getParametros())
+        {
+            if (parametro instanceof NoReferenciaVariavel && ((NoReferenciaVariavel) parametro).ehPassadoPorReferencia())
+            {
+                NoDeclaracao origem = ((NoReferenciaVariavel) parametro).getOrigemDaReferencia();
+
+                if (origem instanceof NoDeclaracaoVariavel && ((NoDeclaracaoVariavel) origem).isCopiadaNasChamadas() && !variaveis.contains(origem))
+                {
+                    variaveis.add((NoDeclaracaoVariavel) origem);
+                }
+            }
+        }
+
+        return variaveis;
+    }
+
+    /**
+     * Copia as variáveis para o vetor de referências antes da chamada ou de volta depois dela.
+     */
+    private static void geraCopiaDasVariaveis(List<NoDeclaracaoVariavel> variaveis, PrintWriter saida, int nivelEscopo, boolean antesDaChamada)
+    {
+        for (NoDeclaracaoVariavel variavel : variaveis)
+        {
+            String nomeTipo = Utils.getNomeTipoJava(variavel.getTipoDado()).toUpperCase();
+            String referencia = String.format("REFS_%s[%s]", nomeTipo, Utils.geraStringIndice(variavel));
+
+            saida.append(Utils.geraIdentacao(nivelEscopo));
+
+            if (antesDaChamada)
+            {
+                saida.format("%s = %s;", referencia, variavel.getNome());
+            }
+            else
+            {
+                saida.format("%s = %s;", variavel.getNome(), referencia);
+            }
+
+            saida.println();
+        }
+    }
+
     public static String getNomeTipoJava(TipoDado tipoPortugol)
     {
         switch (tipoPortugol)
@@ -327,13 +355,14 @@ public class Utils
 
     public static void geraVerificacaoThreadInterrompida(PrintWriter saida, int nivelEscopo)
     {
+        // a interrupção da thread é verificada por verificaCotas() a cada lote de passos
         saida.append(Utils.geraIdentacao(nivelEscopo));
-        saida.append("if (Thread.currentThread().isInterrupted()) {throw new InterruptedException();}");
+        saida.append("if (--contadorPassos < 0) {verificaCotas();}");
         saida.println();
         saida.println();
     }
 
-    private static TrechoCodigoFonte getTrechoCodigoFonte(NoBloco no)
+    public static TrechoCodigoFonte getTrechoCodigoFonte(NoBloco no)
     {
         TrechoCodigoFonte trechoCodigoFonte = no.getTrechoCodigoFonte();
         
@@ -377,7 +406,7 @@ public class Utils
             coluna = trechoCodigoFonte.getColuna();
 
             saida.append(Utils.geraIdentacao(nivelEscopo))
-                .append(String.format("realizarParada(%d, %d);", linha, coluna))
+                .append(String.format("if (paradasArmadas) realizarParada(%d, %d);", linha, coluna))
                 .println();
         }
     }
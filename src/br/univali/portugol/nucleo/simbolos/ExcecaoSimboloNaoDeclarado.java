@@ -14,6 +14,8 @@ public class ExcecaoSimboloNaoDeclarado extends Exception
 
     public ExcecaoSimboloNaoDeclarado(String nome)
     {
+        // Lançada a cada declaração de um símbolo novo, então a pilha de chamadas não é preenchida
+        super(null, null, false, false);
         this.nome = nome;
     }
 
@@ -3,8 +3,6 @@ package br.univali.portugol.nucleo.simbolos;
 import java.util.ArrayList;
 import java.util.EmptyStackException;
 import java.util.List;
-import java.util.Map;
-import java.util.Stack;
 
 /**
  *
@@ -13,14 +11,12 @@ import java.util.Stack;
  */
 public class Memoria
 {
-    private TabelaSimbolos escopoGlobal;
-    private Stack<TabelaSimbolos> escoposLocais;
+    private final TabelaSimbolos tabelaSimbolos;
     private List<ObservadorMemoria> observadores;    
 
     public Memoria()
     {
-        escopoGlobal = new TabelaSimbolos();
-        escoposLocais = new Stack<>();
+        tabelaSimbolos = new TabelaSimbolos();
         observadores = new ArrayList<>();
     }
     
@@ -39,17 +35,9 @@ public class Memoria
     
     public Simbolo getSimbolo(String nome) throws ExcecaoSimboloNaoDeclarado
     {    
-        Simbolo simbolo = null;
+        Simbolo simbolo = tabelaSimbolos.obter(nome);
         
-        if (!escoposLocais.isEmpty())
-        {   
-            if ((simbolo = escoposLocais.peek().obter(nome)) != null)
-            {
-                return simbolo;
-            }
-        }
-        
-        if ((simbolo = escopoGlobal.obter(nome)) != null)
+        if (simbolo != null)
         {
             return simbolo;
         }
@@ -59,80 +47,60 @@ public class Memoria
     
     public void adicionarSimbolo(Simbolo simbolo)
     {
-        if (!escoposLocais.isEmpty())
-        {
-            escoposLocais.peek().adicionar(simbolo);
-        }        
-        else
-        {
-            escopoGlobal.adicionar(simbolo);
-        }
+        tabelaSimbolos.adicionar(simbolo);
         
         notificarSimboloAdicionado(simbolo);
     }
     
     public void empilharFuncao()
     {
-        escoposLocais.push(new TabelaSimbolos());
+        tabelaSimbolos.empilharFuncao();
     }
     
     public void desempilharFuncao() throws EmptyStackException
     {
-        TabelaSimbolos simbolosFuncao = escoposLocais.pop();
-        for (Map<String, Simbolo> simbolos : simbolosFuncao ){
-            for (Simbolo simbolo : simbolos.values()) {
-                notificarSimboloRemovido(simbolo);
-            }
+        if (tabelaSimbolos.isEscopoGlobal())
+        {
+            throw new EmptyStackException();
         }
+        
+        notificarSimbolosRemovidos(tabelaSimbolos.getInicioFuncao());
+        tabelaSimbolos.desempilharFuncao();
     }
     
     public void empilharEscopo() throws EmptyStackException
     {
-        if (!escoposLocais.isEmpty())
-        {
-            escoposLocais.peek().empilharEscopo();
-        } else {
-            escopoGlobal.empilharEscopo();
-        }     
+        tabelaSimbolos.empilharEscopo();
     }
     
     public void desempilharEscopo() throws EmptyStackException
     {
-        if (!escoposLocais.isEmpty())
+        if (!tabelaSimbolos.isEscopoGlobal())
         {
-             Map<String, Simbolo> escopo = escoposLocais.peek().desempilharEscopo();
-             
-             if (escopo != null)
-             {
-                for (Simbolo simbolo : escopo.values())
-                {
-                    notificarSimboloRemovido(simbolo);
-                }
-             }
-             
-        } else {
-            escopoGlobal.empilharEscopo();
+            notificarSimbolosRemovidos(tabelaSimbolos.getInicioEscopo());
+            tabelaSimbolos.desempilharEscopo();
+        }
+        else
+        {
+            // Fora das funções o escopo nunca foi removido: o analisador semântico conta com isto para
+            // manter visível o símbolo global redeclarado
+            tabelaSimbolos.empilharEscopo();
         }
     }
     
     public boolean isEscopoGlobal()
     {
-        return escoposLocais.isEmpty();
+        return tabelaSimbolos.isEscopoGlobal();
     }
     
     public boolean isGlobal(Simbolo simbolo)
     {
-        return (escopoGlobal.obter(simbolo.getNome()) == simbolo);
+        return (tabelaSimbolos.obterGlobal(simbolo.getNome()) == simbolo);
     }
     
     public boolean isLocal(Simbolo simbolo)
     {
-        if (!escoposLocais.isEmpty())
-        {
-            return (escoposLocais.peek().obter(simbolo.getNome()) == simbolo);
-        }
-        
-        return false;
+        return (tabelaSimbolos.obterLocal(simbolo.getNome()) == simbolo);
     }
     
     private void notificarSimboloAdicionado(Simbolo simbolo)
@@ -152,4 +120,15 @@ public class Memoria
             observadores.get(i).simboloRemovido(simbolo);
         }
     }
+
+    private void notificarSimbolosRemovidos(int inicio)
+    {
+        if (!observadores.isEmpty())
+        {
+            for (int indice = inicio; indice < tabelaSimbolos.getQuantidadeSimbolos(); indice++)
+            {
+                notificarSimboloRemovido(tabelaSimbolos.getSimbolo(indice));
+            }
+        }
+    }
 }
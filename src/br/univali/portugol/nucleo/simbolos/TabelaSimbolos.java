@@ -1,89 +1,356 @@
 package br.univali.portugol.nucleo.simbolos;
 
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Map;
-import java.util.Stack;
+import java.util.Arrays;
 
 /**
- * Armazena todos os símbolos alocados em memória durante a execução dos programas.
- * 
+ * Armazena todos os símbolos declarados durante a análise dos programas, em todos os escopos e
+ * funções, em uma única estrutura.
+ * <p>
+ * Cada nome de símbolo recebe uma posição fixa em uma tabela de dispersão com endereçamento
+ * aberto, que passa a identificar o nome e aponta para o símbolo mais recente com este nome. Cada
+ * símbolo aponta para o símbolo de mesmo nome que ele oculta, formando uma cadeia do escopo mais
+ * interno para o mais externo. Os símbolos são guardados em vetores na ordem em que foram
+ * declarados, então remover um escopo apenas restaura as cadeias dos símbolos declarados nele, sem
+ * alocar memória.
+ * <p>
+ * Os símbolos de uma função só são visíveis enquanto ela é a função atual. Os símbolos declarados
+ * fora de qualquer função são globais e estão sempre visíveis.
+ *
  * @author Luiz Fernando Noschang
- * @version 1.0
+ * @version 2.0
  */
-public final class TabelaSimbolos implements Iterable<Map<String, Simbolo>>
+public final class TabelaSimbolos
 {
-    private final Stack<Map<String, Simbolo>> escopos;
+    private static final int NENHUM = -1;
+    private static final int GLOBAL = 0;
+
+    // Tabela de nomes, um nome nunca é removido e mantém a sua posição
+    private String[] nomes;
+    private int[] ultimoSimbolo;
+    private int quantidadeNomes;
+
+    // Símbolos, na ordem em que foram declarados
+    private Simbolo[] simbolos;
+    private int[] simboloOcultado;
+    private int[] posicaoNome;
+    private int[] funcaoSimbolo;
+    private int quantidadeSimbolos;
+
+    // Escopos e funções, pelo índice do primeiro símbolo e do primeiro escopo
+    private int[] inicioEscopos;
+    private int quantidadeEscopos;
+    private int[] inicioFuncoes;
+    private int funcaoAtual;
 
-    @Override
-    public Iterator<Map<String, Simbolo>> iterator()
-    {
-        return escopos.iterator();
-    }
-    
     public TabelaSimbolos()
     {
-        escopos = new Stack<>();
+        nomes = new String[64];
+        ultimoSimbolo = new int[64];
+        simbolos = new Simbolo[32];
+        simboloOcultado = new int[32];
+        posicaoNome = new int[32];
+        funcaoSimbolo = new int[32];
+        inicioEscopos = new int[16];
+        inicioFuncoes = new int[4];
+
         empilharEscopo();
     }
 
     /**
      * Inicializa um novo escopo dentro desta tabela de símbolos.
-     * 
+     *
      * @since 1.0
      */
     public void empilharEscopo()
     {
-        escopos.push(new HashMap<String, Simbolo>());
+        if (quantidadeEscopos == inicioEscopos.length)
+        {
+            inicioEscopos = Arrays.copyOf(inicioEscopos, quantidadeEscopos * 2);
+        }
+
+        inicioEscopos[quantidadeEscopos++] = quantidadeSimbolos;
     }
-    
+
     /**
-     * Remove o escopo mais recente desta tabela de símbolos.
-     * 
+     * Remove o escopo mais recente desta tabela de símbolos e todos os símbolos declarados nele. O
+     * escopo inicial da tabela e o escopo inicial de uma função não são removidos.
+     *
      * @since 1.0
-     * @return  o escopo atual
      */
-    public Map<String, Simbolo> desempilharEscopo()
+    public void desempilharEscopo()
     {
-        if (!escopos.isEmpty())
+        if (quantidadeEscopos > 1 && (funcaoAtual == GLOBAL || quantidadeEscopos - 1 > inicioFuncoes[funcaoAtual]))
         {
-            return escopos.pop();
+            removerSimbolos(inicioEscopos[--quantidadeEscopos]);
         }
-        
-        return null;
+    }
+
+    /**
+     * Inicia uma nova função, com um escopo próprio. A partir deste momento somente os símbolos
+     * globais e os símbolos desta função estão visíveis.
+     *
+     * @since 2.0
+     */
+    public void empilharFuncao()
+    {
+        funcaoAtual++;
+
+        if (funcaoAtual == inicioFuncoes.length)
+        {
+            inicioFuncoes = Arrays.copyOf(inicioFuncoes, funcaoAtual * 2);
+        }
+
+        inicioFuncoes[funcaoAtual] = quantidadeEscopos;
+        empilharEscopo();
+    }
+
+    /**
+     * Remove a função atual com todos os seus escopos e símbolos.
+     *
+     * @since 2.0
+     */
+    public void desempilharFuncao()
+    {
+        if (funcaoAtual > GLOBAL)
+        {
+            quantidadeEscopos = inicioFuncoes[funcaoAtual--];
+            removerSimbolos(inicioEscopos[quantidadeEscopos]);
+        }
+    }
+
+    /**
+     * @return     <code>true</code> se não houver nenhuma função iniciada.
+     * @since 2.0
+     */
+    public boolean isEscopoGlobal()
+    {
+        return funcaoAtual == GLOBAL;
     }
 
     /**
      * Adiciona um símbolo no escopo atual.
-     * 
+     *
      * @param simbolo     o símbolo a ser adicionado no escopo.
      * @since 1.0
      */
     public void adicionar(Simbolo simbolo)
     {
-        escopos.peek().put(simbolo.getNome(), simbolo);
+        if (quantidadeSimbolos == simbolos.length)
+        {
+            int capacidade = quantidadeSimbolos * 2;
+
+            simbolos = Arrays.copyOf(simbolos, capacidade);
+            simboloOcultado = Arrays.copyOf(simboloOcultado, capacidade);
+            posicaoNome = Arrays.copyOf(posicaoNome, capacidade);
+            funcaoSimbolo = Arrays.copyOf(funcaoSimbolo, capacidade);
+        }
+
+        int posicao = registrarNome(simbolo.getNome());
+        int indice = quantidadeSimbolos++;
+
+        simbolos[indice] = simbolo;
+        simboloOcultado[indice] = ultimoSimbolo[posicao];
+        posicaoNome[indice] = posicao;
+        funcaoSimbolo[indice] = funcaoAtual;
+        ultimoSimbolo[posicao] = indice;
     }
 
     /**
-     * Obtém o símbolo representado pelo nome esecificado. O símbolo é procurado em cada um dos escopos do
-     * programa, iniciando pelo escopo mais recente.
-     * 
+     * Obtém o símbolo representado pelo nome esecificado. O símbolo é procurado primeiro nos escopos
+     * da função atual, iniciando pelo escopo mais recente, e depois nos escopos globais.
+     *
      * @param nome     o nome do símbolo que está sendo procurado.
      * @return         o símbolo com o nome específicado, ou null caso não seja encontrado.
      * @since 1.0
      */
     public Simbolo obter(String nome)
     {
-        Simbolo simbolo = null;
+        Simbolo global = null;
 
-        for (int i = escopos.size() - 1; i >= 0; i--)
+        for (int indice = getUltimoSimbolo(nome); indice != NENHUM; indice = simboloOcultado[indice])
         {
-            if ((simbolo = escopos.elementAt(i).get(nome)) != null)
+            if (funcaoSimbolo[indice] == funcaoAtual)
             {
-                return simbolo;
+                return simbolos[indice];
+            }
+
+            if (global == null && funcaoSimbolo[indice] == GLOBAL)
+            {
+                global = simbolos[indice];
             }
         }
-        
-        return simbolo;
+
+        return global;
+    }
+
+    /**
+     * Obtém o símbolo global visível com o nome especificado, ignorando os símbolos da função atual.
+     *
+     * @param nome     o nome do símbolo que está sendo procurado.
+     * @return         o símbolo global com o nome específicado, ou null caso não seja encontrado.
+     * @since 2.0
+     */
+    public Simbolo obterGlobal(String nome)
+    {
+        return obterDaFuncao(nome, GLOBAL);
+    }
+
+    /**
+     * Obtém o símbolo da função atual com o nome especificado, ignorando os símbolos globais.
+     *
+     * @param nome     o nome do símbolo que está sendo procurado.
+     * @return         o símbolo com o nome específicado, ou null caso não seja encontrado ou não
+     *                 haja uma função iniciada.
+     * @since 2.0
+     */
+    public Simbolo obterLocal(String nome)
+    {
+        return (funcaoAtual != GLOBAL) ? obterDaFuncao(nome, funcaoAtual) : null;
+    }
+
+    /**
+     * @return     o índice do primeiro símbolo do escopo atual, para ser usado com
+     *             {@link #getSimbolo(int)} até {@link #getQuantidadeSimbolos()}.
+     * @since 2.0
+     */
+    public int getInicioEscopo()
+    {
+        return inicioEscopos[quantidadeEscopos - 1];
+    }
+
+    /**
+     * @return     o índice do primeiro símbolo da função atual, ou zero se não houver uma função
+     *             iniciada.
+     * @since 2.0
+     */
+    public int getInicioFuncao()
+    {
+        return inicioEscopos[inicioFuncoes[funcaoAtual]];
+    }
+
+    /**
+     * @return     a quantidade de símbolos declarados em todos os escopos.
+     * @since 2.0
+     */
+    public int getQuantidadeSimbolos()
+    {
+        return quantidadeSimbolos;
+    }
+
+    /**
+     * @param indice     o índice do símbolo, na ordem em que foram declarados.
+     * @return           o símbolo.
+     * @since 2.0
+     */
+    public Simbolo getSimbolo(int indice)
+    {
+        return simbolos[indice];
+    }
+
+    private Simbolo obterDaFuncao(String nome, int funcao)
+    {
+        for (int indice = getUltimoSimbolo(nome); indice != NENHUM; indice = simboloOcultado[indice])
+        {
+            if (funcaoSimbolo[indice] == funcao)
+            {
+                return simbolos[indice];
+            }
+        }
+
+        return null;
+    }
+
+    private void removerSimbolos(int inicio)
+    {
+        for (int indice = quantidadeSimbolos - 1; indice >= inicio; indice--)
+        {
+            ultimoSimbolo[posicaoNome[indice]] = simboloOcultado[indice];
+            simbolos[indice] = null;
+        }
+
+        quantidadeSimbolos = inicio;
+    }
+
+    private int getUltimoSimbolo(String nome)
+    {
+        int mascara = nomes.length - 1;
+
+        for (int posicao = dispersao(nome) & mascara; nomes[posicao] != null; posicao = (posicao + 1) & mascara)
+        {
+            if (nomes[posicao] == nome || nomes[posicao].equals(nome))
+            {
+                return ultimoSimbolo[posicao];
+            }
+        }
+
+        return NENHUM;
+    }
+
+    private int registrarNome(String nome)
+    {
+        int mascara = nomes.length - 1;
+        int posicao = dispersao(nome) & mascara;
+
+        for (; nomes[posicao] != null; posicao = (posicao + 1) & mascara)
+        {
+            if (nomes[posicao] == nome || nomes[posicao].equals(nome))
+            {
+                return posicao;
+            }
+        }
+
+        if ((quantidadeNomes + 1) * 2 > nomes.length)
+        {
+            redimensionarNomes();
+
+            return registrarNome(nome);
+        }
+
+        nomes[posicao] = nome;
+        ultimoSimbolo[posicao] = NENHUM;
+        quantidadeNomes++;
+
+        return posicao;
+    }
+
+    private void redimensionarNomes()
+    {
+        String[] nomesAnteriores = nomes;
+        int[] ultimoSimboloAnterior = ultimoSimbolo;
+
+        nomes = new String[nomesAnteriores.length * 2];
+        ultimoSimbolo = new int[nomes.length];
+
+        int[] novasPosicoes = new int[nomesAnteriores.length];
+        int mascara = nomes.length - 1;
+
+        for (int anterior = 0; anterior < nomesAnteriores.length; anterior++)
+        {
+            if (nomesAnteriores[anterior] != null)
+            {
+                int posicao = dispersao(nomesAnteriores[anterior]) & mascara;
+
+                while (nomes[posicao] != null)
+                {
+                    posicao = (posicao + 1) & mascara;
+                }
+
+                nomes[posicao] = nomesAnteriores[anterior];
+                ultimoSimbolo[posicao] = ultimoSimboloAnterior[anterior];
+                novasPosicoes[anterior] = posicao;
+            }
+        }
+
+        for (int indice = 0; indice < quantidadeSimbolos; indice++)
+        {
+            posicaoNome[indice] = novasPosicoes[posicaoNome[indice]];
+        }
+    }
+
+    private static int dispersao(String nome)
+    {
+        int hash = nome.hashCode();
+
+        return hash ^ (hash >>> 16);
     }
 }
@@ -0,0 +1,107 @@
+package br.univali.portugol.nucleo;
+
+import java.io.File;
+import java.nio.file.Files;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class CacheCompilacaoTest
+{
+    private static final String CODIGO =
+              "programa { \n"
+            + "    funcao inicio() { \n"
+            + "        para (inteiro i = 0; i < 3; i++) { \n"
+            + "            escreva(i) \n"
+            + "        } \n"
+            + "    } \n"
+            + "}";
+
+    private final CacheCompilacao cache = CacheCompilacao.getInstance();
+
+    @Before
+    public void setUp()
+    {
+        cache.limpar();
+        cache.setDiretorioPersistencia(null);
+        cache.setCapacidade(64);
+    }
+
+    @After
+    public void tearDown()
+    {
+        setUp();
+    }
+
+    @Test
+    public void testChaveDependeDoCodigoEDasOpcoes()
+    {
+        String chave = CacheCompilacao.gerarChave(CODIGO, true, true, true);
+
+        assertEquals(chave, CacheCompilacao.gerarChave(CODIGO, true, true, true));
+        assertNotEquals(chave, CacheCompilacao.gerarChave(CODIGO, true, false, true));
+        assertNotEquals(chave, CacheCompilacao.gerarChave(CODIGO + " ", true, true, true));
+    }
+
+    @Test
+    public void testAcertoNoCacheEmMemoria() throws Exception
+    {
+        long acertos = cache.getAcertos();
+
+        Programa primeiro = new Compilador().compilar(CODIGO, true, null, null);
+        Programa segundo = new Compilador().compilar(CODIGO, true, null, null);
+
+        assertEquals(acertos + 1, cache.getAcertos());
+        assertNotSame(primeiro, segundo);
+        assertSame(CompiladorTest.classeGerada(primeiro), CompiladorTest.classeGerada(segundo));
+        assertSame(segundo, segundo.getResultadoAnalise().getPrograma());
+        assertNotNull(segundo.getArvoreSintaticaAbstrata());
+        assertEquals(primeiro.getFuncoes(), segundo.getFuncoes());
+        assertEquals(primeiro.getFuncaoInicial(), segundo.getFuncaoInicial());
+
+        assertEquals("012", ExecucaoTeste.executa(segundo));
+    }
+
+    @Test
+    public void testCapacidadeDoCache() throws Exception
+    {
+        cache.setCapacidade(1);
+
+        new Compilador().compilar(CODIGO, true, null, null);
+        new Compilador().compilar(CODIGO.replace("3", "4"), true, null, null);
+
+        assertEquals(1, cache.getTamanho());
+
+        long falhas = cache.getFalhas();
+        new Compilador().compilar(CODIGO, true, null, null);
+
+        assertEquals(falhas + 1, cache.getFalhas());
+    }
+
+    @Test
+    public void testAcertoNoCacheEmDisco() throws Exception
+    {
+        File diretorio = Files.createTempDirectory("portugol-cache").toFile();
+        cache.setDiretorioPersistencia(diretorio);
+
+        Programa primeiro = new Compilador().compilar(CODIGO, true, null, null);
+        assertEquals(1, diretorio.listFiles().length);
+
+        cache.limpar();
+        long acertos = cache.getAcertos();
+
+        Programa segundo = new Compilador().compilar(CODIGO, true, null, null);
+
+        assertEquals(acertos + 1, cache.getAcertos());
+        assertNotSame(CompiladorTest.classeGerada(primeiro), CompiladorTest.classeGerada(segundo));
+        assertEquals(CompiladorTest.classeGerada(primeiro).getName(), CompiladorTest.classeGerada(segundo).getName());
+        assertEquals("012", ExecucaoTeste.executa(segundo));
+
+        for (File arquivo : diretorio.listFiles())
+        {
+            arquivo.delete();
+        }
+        diretorio.delete();
+    }
+}
@@ -0,0 +1,52 @@
+package br.univali.portugol.nucleo;
+
+import br.univali.portugol.nucleo.execucao.ModoExecucao;
+import br.univali.portugol.nucleo.execucao.PerfilCompilacao;
+import static org.junit.Assert.*;
+
+/**
+ * Compila os programas dos testes por um dos dois caminhos de geração de código: o gerador de
+ * bytecode ou o código Java compilado pelo javac.
+ */
+public final class CompilacaoTeste
+{
+    /**
+     * Os dois caminhos de compilação, para os testes que devem passar pelos dois:
+     * <code>false</code> para o gerador de bytecode e <code>true</code> para o javac.
+     */
+    public static final boolean[] CAMINHOS = { false, true };
+
+    private CompilacaoTeste()
+    {
+
+    }
+
+    public static Programa compila(String codigo, ModoExecucao modo, boolean javac) throws ErroCompilacao
+    {
+        return compila(codigo, modo, PerfilCompilacao.OTIMIZADO, javac);
+    }
+
+    /**
+     * @param javac se verdadeiro, o programa é compilado a partir do código Java mesmo quando o
+     * gerador de bytecode suporta o programa
+     */
+    public static Programa compila(String codigo, ModoExecucao modo, PerfilCompilacao perfil, boolean javac) throws ErroCompilacao
+    {
+        Compilador compilador = new Compilador(modo, perfil);
+        compilador.setUsaGeradorBytecode(!javac);
+
+        Programa programa = compilador.compilar(codigo, true, null, null);
+
+        if (javac && modo == ModoExecucao.COMPILADO)
+        {
+            assertTrue("o programa deveria ser compilado pelo javac", compilador.getMetricas().contemEtapa(EtapaCompilacao.JAVAC));
+        }
+
+        return programa;
+    }
+
+    public static String descricao(ModoExecucao modo, boolean javac)
+    {
+        return modo.name() + (javac ? " (javac)" : " (bytecode)");
+    }
+}
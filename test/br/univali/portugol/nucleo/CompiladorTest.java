@@ -0,0 +1,156 @@
+package br.univali.portugol.nucleo;
+
+import br.univali.portugol.nucleo.execucao.ModoExecucao;
+import br.univali.portugol.nucleo.execucao.ObservadorExecucaoBasico;
+import br.univali.portugol.nucleo.execucao.ResultadoExecucao;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class CompiladorTest
+{
+    private static final String CODIGO =
+              "programa { \n"
+            + "    funcao inicio() { \n"
+            + "        inteiro x = 2 \n"
+            + "        escreva(\"soma: \", x + 3) \n"
+            + "    } \n"
+            + "}";
+
+    @Test
+    public void testCompilacaoEmMemoria() throws Exception
+    {
+        Programa programa = new Compilador().compilar(CODIGO, true, null, null);
+
+        assertNotNull(programa);
+        assertEquals("programas", classeGerada(programa).getPackage().getName());
+        assertTrue(classeGerada(programa).getClassLoader() instanceof CompiladorJavaEmMemoria.CarregadorClassesPrograma);
+
+        assertEquals("soma: 5", ExecucaoTeste.executa(programa));
+    }
+
+    @Test
+    public void testCompilacoesIndependentes() throws Exception
+    {
+        CacheCompilacao.getInstance().limpar();
+        Programa primeiro = new Compilador().compilar(CODIGO, true, null, null);
+
+        CacheCompilacao.getInstance().limpar();
+        Programa segundo = new Compilador().compilar(CODIGO, true, null, null);
+
+        assertNotSame(classeGerada(primeiro).getClassLoader(), classeGerada(segundo).getClassLoader());
+    }
+
+    @Test
+    public void testCompilacoesSimultaneas() throws Exception
+    {
+        final int totalProgramas = 8;
+        final Programa[] programas = new Programa[totalProgramas];
+        final CountDownLatch compilacoes = new CountDownLatch(totalProgramas);
+
+        Portugol.setNumeroThreadsCompilacao(4);
+
+        for (int i = 0; i < totalProgramas; i++)
+        {
+            final int indice = i;
+            String codigo = "programa { funcao inicio() { inteiro x = " + i + " escreva(x * 2) } }";
+
+            Portugol.compilarParaExecucao(codigo, new ListenerCompilacao()
+            {
+                @Override
+                public void compilacaoParaExecucaoIniciada() { }
+
+                @Override
+                public void compilacaoParaExecucaoFinalizada(Programa programaCompilado)
+                {
+                    programas[indice] = programaCompilado;
+                    compilacoes.countDown();
+                }
+
+                @Override
+                public void errosDeCompilacaoDetectados(ErroCompilacao erro)
+                {
+                    compilacoes.countDown();
+                }
+            }, null, null);
+        }
+
+        assertTrue(compilacoes.await(60, TimeUnit.SECONDS));
+
+        Set<String> nomesClasses = new HashSet<>();
+
+        for (int i = 0; i < totalProgramas; i++)
+        {
+            assertNotNull(programas[i]);
+            assertEquals(String.valueOf(i * 2), ExecucaoTeste.executa(programas[i]));
+
+            nomesClasses.add(classeGerada(programas[i]).getName());
+        }
+
+        assertEquals(totalProgramas, nomesClasses.size());
+    }
+
+    @Test
+    public void testEscrevaDeTodosOsTipos() throws Exception
+    {
+        String codigo = "programa { funcao inicio() { cadeia v[2] real r = 1.5 escreva(v[0], \"a\", 1, r, 'c', verdadeiro, r > 2.0) } }";
+
+        for (ModoExecucao modo : ModoExecucao.values())
+        {
+            for (boolean javac : CompilacaoTeste.CAMINHOS)
+            {
+                Programa programa = CompilacaoTeste.compila(codigo, modo, javac);
+
+                assertEquals(CompilacaoTeste.descricao(modo, javac), "a11.5ctruefalse", ExecucaoTeste.executa(programa));
+
+                programa.descartar();
+            }
+        }
+    }
+
+    @Test
+    public void testNovaExecucaoIniciadaNoEncerramentoDaAnterior() throws Exception
+    {
+        final Programa programa = new Compilador().compilar(CODIGO, true, null, null);
+        final CountDownLatch novaExecucao = new CountDownLatch(1);
+
+        programa.adicionarObservadorExecucao(new ObservadorExecucaoBasico()
+        {
+            @Override
+            public void execucaoEncerrada(Programa programa, ResultadoExecucao resultadoExecucao)
+            {
+                programa.adicionarObservadorExecucao(new ObservadorExecucaoBasico()
+                {
+                    @Override
+                    public void execucaoEncerrada(Programa programa, ResultadoExecucao resultadoExecucao)
+                    {
+                        novaExecucao.countDown();
+                    }
+                });
+
+                programa.executar(new String[0], Programa.Estado.BREAK_POINT);
+            }
+        });
+
+        ExecucaoTeste.executa(programa);
+
+        assertTrue("o observador da nova execução foi removido", novaExecucao.await(10, TimeUnit.SECONDS));
+    }
+
+    /**
+     * @return a classe gerada para o programa, sem o {@link ProgramaOtimizado} que envolve a
+     * versão otimizada
+     */
+    static Class<?> classeGerada(Programa programa)
+    {
+        if (programa instanceof ProgramaOtimizado)
+        {
+            return ((ProgramaOtimizado) programa).getVersaoOtimizada().getClass();
+        }
+
+        return programa.getClass();
+    }
+}
@@ -0,0 +1,117 @@
+package br.univali.portugol.nucleo;
+
+import br.univali.portugol.nucleo.execucao.CotasExecucao;
+import br.univali.portugol.nucleo.execucao.ModoEncerramento;
+import br.univali.portugol.nucleo.execucao.ModoExecucao;
+import br.univali.portugol.nucleo.execucao.ResultadoExecucao;
+import br.univali.portugol.nucleo.execucao.erros.ErroCotaExcedida;
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class CotasExecucaoTest
+{
+    private static final String LACO_INFINITO = "programa { funcao inicio() { inteiro i = 0 enquanto (verdadeiro) { i++ } } }";
+
+    private final ModoExecucao modoOriginal = Portugol.getModoExecucao();
+
+    @After
+    public void tearDown()
+    {
+        Portugol.setModoExecucao(modoOriginal);
+    }
+
+    @Test(timeout = 30000)
+    public void testCotaDePassosEhDeterministica() throws Exception
+    {
+        CotasExecucao cotas = new CotasExecucao();
+        cotas.setMaximoPassos(5000);
+
+        for (ModoExecucao modo : new ModoExecucao[] { ModoExecucao.COMPILADO, ModoExecucao.INTERPRETADO })
+        {
+            Programa programa = new Compilador(modo).compilar(LACO_INFINITO, true, null, null);
+            programa.setCotasExecucao(cotas);
+
+            assertEquals(ModoEncerramento.COTA_EXCEDIDA, ExecucaoTeste.executa(programa, null).getResultado().getModoEncerramento());
+
+            // a chamada de inicio() conta como um passo e o passo que ultrapassa o limite também é contado
+            assertEquals(modo.name(), 5001, programa.getPassosExecutados());
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void testLacoInfinitoEncerradoPelaCotaDePassos() throws Exception
+    {
+        CotasExecucao cotas = new CotasExecucao();
+        cotas.setMaximoPassos(100000);
+
+        for (ModoExecucao modo : ModoExecucao.values())
+        {
+            Portugol.setModoExecucao(modo);
+
+            ResultadoExecucao resultado = executa(LACO_INFINITO, cotas).getResultadoExecucao();
+
+            assertEquals(modo.name(), ModoEncerramento.COTA_EXCEDIDA, resultado.getModoEncerramento());
+            assertEquals(ErroCotaExcedida.Cota.PASSOS, ((ErroCotaExcedida) resultado.getErro()).getCota());
+
+            Programa programa = CompilacaoTeste.compila(LACO_INFINITO, modo, true);
+            programa.setCotasExecucao(cotas);
+
+            resultado = ExecucaoTeste.executa(programa, null).getResultado();
+
+            assertEquals(CompilacaoTeste.descricao(modo, true), ModoEncerramento.COTA_EXCEDIDA, resultado.getModoEncerramento());
+            assertEquals(ErroCotaExcedida.Cota.PASSOS, ((ErroCotaExcedida) resultado.getErro()).getCota());
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void testLacoInfinitoEncerradoPelaCotaDeTempoCPU() throws Exception
+    {
+        CotasExecucao cotas = new CotasExecucao();
+        cotas.setMaximoTempoCPU(200);
+
+        ResultadoExecucao resultado = executa(LACO_INFINITO, cotas).getResultadoExecucao();
+
+        assertEquals(ModoEncerramento.COTA_EXCEDIDA, resultado.getModoEncerramento());
+        assertEquals(ErroCotaExcedida.Cota.TEMPO_CPU, ((ErroCotaExcedida) resultado.getErro()).getCota());
+    }
+
+    @Test(timeout = 30000)
+    public void testCotaDeEscritas() throws Exception
+    {
+        CotasExecucao cotas = new CotasExecucao();
+        cotas.setMaximoEscritas(10);
+
+        ResultadoLote resultado = executa("programa { funcao inicio() { enquanto (verdadeiro) { escreva(\"a\", 1) } } }", cotas);
+
+        assertEquals(ModoEncerramento.COTA_EXCEDIDA, resultado.getResultadoExecucao().getModoEncerramento());
+        assertEquals(ErroCotaExcedida.Cota.ESCRITAS, ((ErroCotaExcedida) resultado.getResultadoExecucao().getErro()).getCota());
+        assertEquals("a1a1a1a1a1", resultado.getSaida());
+    }
+
+    @Test
+    public void testProgramaDentroDasCotasTerminaNormalmente() throws Exception
+    {
+        CotasExecucao cotas = new CotasExecucao();
+        cotas.setMaximoPassos(1000);
+        cotas.setMaximoTempoCPU(10000);
+        cotas.setMaximoEscritas(10);
+
+        ResultadoLote resultado = executa("programa { funcao inicio() { inteiro s = 0 para (inteiro i = 0; i < 500; i++) { s += i } escreva(s) } }", cotas);
+
+        assertEquals(ModoEncerramento.NORMAL, resultado.getResultadoExecucao().getModoEncerramento());
+        assertEquals("124750", resultado.getSaida());
+    }
+
+    private static ResultadoLote executa(String codigo, CotasExecucao cotas) throws Exception
+    {
+        ExecutorLote executor = new ExecutorLote();
+        executor.setCotasExecucao(cotas);
+
+        ResultadoLote resultado = executor.executar(new ProgramaLote("teste", codigo, null));
+
+        assertFalse("o programa deveria ser encerrado pela cota e não pelo tempo limite", resultado.isTempoLimiteExcedido());
+
+        return resultado;
+    }
+}
@@ -0,0 +1,170 @@
+package br.univali.portugol.nucleo;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.net.URL;
+import java.net.URLClassLoader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class DescarteProgramaTest
+{
+    private static final int NUMERO_PROGRAMAS = 10000;
+
+    private final int capacidadeCache = CacheCompilacao.getInstance().getCapacidade();
+
+    @Before
+    public void setUp()
+    {
+        // sem o cache, nada além do próprio programa mantém as classes compiladas em memória
+        CacheCompilacao.getInstance().setCapacidade(0);
+    }
+
+    @After
+    public void tearDown()
+    {
+        CacheCompilacao.getInstance().setCapacidade(capacidadeCache);
+        CacheCompilacao.getInstance().limpar();
+    }
+
+    @Test
+    public void testProgramaDescartadoNaoPodeSerExecutado() throws Exception
+    {
+        Programa programa = new Compilador().compilar("programa { funcao inicio() { escreva(1) } }", true, null, null);
+
+        assertEquals("1", ExecucaoTeste.executa(programa));
+
+        programa.descartar();
+
+        assertTrue(programa.isDescartado());
+        assertNull(programa.getArvoreSintaticaAbstrata());
+        assertNull(programa.getResultadoAnalise());
+
+        try
+        {
+            programa.executar(new String[0], Programa.Estado.BREAK_POINT);
+            fail("um programa descartado não deveria executar");
+        }
+        catch (IllegalStateException excecao)
+        {
+        }
+    }
+
+    @Test
+    public void testCarregadorExclusivoEFechadoAoDescartar() throws Exception
+    {
+        Programa programa = new Compilador().compilar("programa { funcao inicio() { escreva(1) } }", true, null, null);
+        CarregadorExclusivo carregador = new CarregadorExclusivo();
+
+        programa.setCarregadorClasses(carregador); // como na compilação através do javac externo
+
+        assertEquals("1", ExecucaoTeste.executa(programa));
+        assertFalse("o carregador só pode ser fechado quando o programa for descartado", carregador.fechado);
+
+        programa.descartar();
+
+        assertTrue(carregador.fechado);
+    }
+
+    @Test(timeout = 30000)
+    public void testCarregadorFechadoAoDescartarDuranteAExecucao() throws Exception
+    {
+        Programa programa = new Compilador().compilar("programa { funcao inicio() { enquanto (verdadeiro) { } } }", true, null, null);
+        CarregadorExclusivo carregador = new CarregadorExclusivo();
+
+        programa.setCarregadorClasses(carregador);
+
+        ExecucaoTeste execucao = ExecucaoTeste.inicia(programa, null);
+
+        while (!programa.isExecutando())
+        {
+            Thread.sleep(10);
+        }
+
+        programa.descartar();
+        execucao.aguardaEncerramento();
+
+        while (!carregador.fechado) // o carregador é fechado logo depois de os observadores serem notificados
+        {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void testMemoriaEstavelAoCompilarEDescartarMuitosProgramas() throws Exception
+    {
+        compilaExecutaEDescarta(500); // aquece a JVM e o cache antes das medições
+
+        coletaLixo();
+        long classesIniciais = ManagementFactory.getClassLoadingMXBean().getLoadedClassCount();
+        long metaspaceInicial = getMetaspaceUtilizado();
+        long heapInicial = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+
+        compilaExecutaEDescarta(NUMERO_PROGRAMAS);
+
+        coletaLixo();
+        long classesFinais = ManagementFactory.getClassLoadingMXBean().getLoadedClassCount();
+        long metaspaceFinal = getMetaspaceUtilizado();
+        long heapFinal = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+
+        // cada programa carrega uma classe nova, então sem o descarte teríamos pelo menos NUMERO_PROGRAMAS classes a mais
+        assertTrue("classes: " + classesIniciais + " -> " + classesFinais, classesFinais - classesIniciais < NUMERO_PROGRAMAS / 10);
+        assertTrue("metaspace: " + metaspaceInicial + " -> " + metaspaceFinal, metaspaceFinal - metaspaceInicial < 16 * 1024 * 1024);
+        assertTrue("heap: " + heapInicial + " -> " + heapFinal, heapFinal - heapInicial < 64 * 1024 * 1024);
+    }
+
+    private void compilaExecutaEDescarta(int quantidade) throws Exception
+    {
+        for (int i = 0; i < quantidade; i++)
+        {
+            // o código é diferente a cada iteração para que o cache não reaproveite a classe compilada
+            Programa programa = new Compilador().compilar("programa { funcao inicio() { escreva(" + i + ") } }", true, null, null);
+
+            assertEquals(String.valueOf(i), ExecucaoTeste.executa(programa));
+
+            programa.descartar();
+        }
+    }
+
+    private static final class CarregadorExclusivo extends URLClassLoader
+    {
+        private volatile boolean fechado = false;
+
+        CarregadorExclusivo()
+        {
+            super(new URL[0], DescarteProgramaTest.class.getClassLoader());
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            fechado = true;
+            super.close();
+        }
+    }
+
+    private void coletaLixo() throws InterruptedException
+    {
+        for (int i = 0; i < 3; i++)
+        {
+            System.gc();
+            Thread.sleep(100);
+        }
+    }
+
+    private long getMetaspaceUtilizado()
+    {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+        {
+            if (pool.getName().equals("Metaspace"))
+            {
+                return pool.getUsage().getUsed();
+            }
+        }
+
+        return 0; // JVMs antigas não possuem metaspace
+    }
+}
@@ -0,0 +1,101 @@
+package br.univali.portugol.nucleo;
+
+import br.univali.portugol.nucleo.asa.TipoDado;
+import br.univali.portugol.nucleo.execucao.ModoEncerramento;
+import br.univali.portugol.nucleo.execucao.ModoExecucao;
+import br.univali.portugol.nucleo.execucao.erros.ErroEntradaEsgotada;
+import br.univali.portugol.nucleo.execucao.erros.ErroValorEntradaInvalido;
+import br.univali.portugol.nucleo.execucao.es.EntradaRoteirizada;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Scanner;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class EntradaRoteirizadaTest
+{
+    private static final String SOMA = "programa { funcao inicio() { inteiro n, v, s = 0 leia(n) para (inteiro i = 0; i < n; i++) { leia(v) s = s + v } escreva(s) } }";
+
+    @Test(timeout = 30000)
+    public void testLeFluxoDePalavrasSemPausarOPrograma() throws Exception
+    {
+        for (ModoExecucao modo : ModoExecucao.values())
+        {
+            Programa programa = new Compilador(modo).compilar(SOMA, true, null, null);
+            Scanner palavras = new Scanner(new ByteArrayInputStream("4 10 20\n30 40".getBytes(StandardCharsets.UTF_8)), "UTF-8");
+
+            ExecucaoTeste execucao = ExecucaoTeste.executa(programa, new EntradaRoteirizada(palavras));
+
+            assertEquals(modo.name(), ModoEncerramento.NORMAL, execucao.getResultado().getModoEncerramento());
+            assertEquals("100", execucao.getSaida());
+            assertEquals("a leitura de valores conhecidos não pausa o programa", 0, execucao.getPausas());
+
+            programa.descartar();
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void testLeArquivo() throws Exception
+    {
+        File arquivo = File.createTempFile("entrada", ".txt");
+        arquivo.deleteOnExit();
+        Files.write(arquivo.toPath(), "2\r\n5\r\n7\r\n".getBytes(StandardCharsets.UTF_8));
+
+        Programa programa = new Compilador().compilar(SOMA, true, null, null);
+        ExecucaoTeste execucao = ExecucaoTeste.executa(programa, new EntradaRoteirizada(arquivo));
+
+        assertEquals(ModoEncerramento.NORMAL, execucao.getResultado().getModoEncerramento());
+        assertEquals("12", execucao.getSaida());
+    }
+
+    @Test(timeout = 30000)
+    public void testEntradaEsgotadaEncerraComErro() throws Exception
+    {
+        for (ModoExecucao modo : ModoExecucao.values())
+        {
+            Programa programa = new Compilador(modo).compilar(SOMA, true, null, null);
+            ExecucaoTeste execucao = ExecucaoTeste.executa(programa, new EntradaRoteirizada("3\n1\n2"));
+
+            assertEquals(modo.name(), ModoEncerramento.ERRO, execucao.getResultado().getModoEncerramento());
+            assertTrue(execucao.getResultado().getErro() instanceof ErroEntradaEsgotada);
+            assertEquals(TipoDado.INTEIRO, ((ErroEntradaEsgotada) execucao.getResultado().getErro()).getTipoDado());
+
+            programa.descartar();
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void testValorDeOutroTipoEncerraComErro() throws Exception
+    {
+        Programa programa = new Compilador().compilar(SOMA, true, null, null);
+        ExecucaoTeste execucao = ExecucaoTeste.executa(programa, new EntradaRoteirizada("1\num"));
+
+        assertEquals(ModoEncerramento.ERRO, execucao.getResultado().getModoEncerramento());
+        assertTrue(execucao.getResultado().getErro() instanceof ErroValorEntradaInvalido);
+    }
+
+    @Test(timeout = 30000)
+    public void testValorInvalidoEhLocalizadoNoComandoLeia() throws Exception
+    {
+        String codigo = "programa\n{\n\tfuncao inicio()\n\t{\n\t\tinteiro x, y\n\t\tleia(x)\n\t\tescreva(x)\n\t\t   leia(y)\n\t}\n}";
+
+        for (ModoExecucao modo : ModoExecucao.values())
+        {
+            for (boolean javac : CompilacaoTeste.CAMINHOS)
+            {
+                String descricao = CompilacaoTeste.descricao(modo, javac);
+                Programa programa = CompilacaoTeste.compila(codigo, modo, javac);
+                ExecucaoTeste execucao = ExecucaoTeste.executa(programa, new EntradaRoteirizada("1\num"));
+
+                assertEquals(descricao, ModoEncerramento.ERRO, execucao.getResultado().getModoEncerramento());
+                assertTrue(descricao, execucao.getResultado().getErro() instanceof ErroValorEntradaInvalido);
+                assertEquals(descricao, 8, execucao.getResultado().getErro().getLinha());
+                assertEquals(descricao, 5, execucao.getResultado().getErro().getColuna());
+
+                programa.descartar();
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package br.univali.portugol.nucleo;
+
+import br.univali.portugol.nucleo.execucao.ModoEncerramento;
+import br.univali.portugol.nucleo.execucao.ObservadorExecucaoBasico;
+import br.univali.portugol.nucleo.execucao.ResultadoExecucao;
+import br.univali.portugol.nucleo.execucao.es.Entrada;
+import br.univali.portugol.nucleo.execucao.es.Saida;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.*;
+
+/**
+ * Executa um programa nos testes, acumulando a saída e aguardando o encerramento.
+ */
+public final class ExecucaoTeste
+{
+    private final StringBuilder saida = new StringBuilder();
+    private final AtomicInteger pausas = new AtomicInteger();
+    private final CountDownLatch encerramento = new CountDownLatch(1);
+
+    private volatile ResultadoExecucao resultado;
+
+    private ExecucaoTeste()
+    {
+
+    }
+
+    /**
+     * Executa o programa e verifica se ele encerrou normalmente.
+     *
+     * @return o texto escrito pelo programa
+     */
+    public static String executa(Programa programa) throws InterruptedException
+    {
+        ExecucaoTeste execucao = executa(programa, null);
+
+        assertEquals(String.valueOf(execucao.resultado.getErro()), ModoEncerramento.NORMAL, execucao.resultado.getModoEncerramento());
+
+        return execucao.getSaida();
+    }
+
+    /**
+     * Executa o programa e aguarda o seu encerramento, qualquer que seja o modo.
+     *
+     * @param entrada a entrada do programa, ou <code>null</code> para manter a entrada atual
+     */
+    public static ExecucaoTeste executa(Programa programa, Entrada entrada) throws InterruptedException
+    {
+        ExecucaoTeste execucao = inicia(programa, entrada);
+        execucao.aguardaEncerramento();
+
+        return execucao;
+    }
+
+    /**
+     * Inicia a execução do programa sem aguardar o seu encerramento.
+     *
+     * @param entrada a entrada do programa, ou <code>null</code> para manter a entrada atual
+     */
+    public static ExecucaoTeste inicia(Programa programa, Entrada entrada)
+    {
+        final ExecucaoTeste execucao = new ExecucaoTeste();
+
+        if (entrada != null)
+        {
+            programa.setEntrada(entrada);
+        }
+
+        programa.setSaida(new Saida()
+        {
+            @Override
+            public void limpar() { execucao.saida.setLength(0); }
+
+            @Override
+            public void escrever(String valor) { execucao.saida.append(valor); }
+
+            @Override
+            public void escrever(boolean valor) { execucao.saida.append(valor); }
+
+            @Override
+            public void escrever(int valor) { execucao.saida.append(valor); }
+
+            @Override
+            public void escrever(double valor) { execucao.saida.append(valor); }
+
+            @Override
+            public void escrever(char valor) { execucao.saida.append(valor); }
+        });
+
+        programa.adicionarObservadorExecucao(new ObservadorExecucaoBasico()
+        {
+            @Override
+            public void execucaoPausada()
+            {
+                execucao.pausas.incrementAndGet();
+            }
+
+            @Override
+            public void execucaoResumida()
+            {
+                execucao.pausas.incrementAndGet();
+            }
+
+            @Override
+            public void execucaoEncerrada(Programa programa, ResultadoExecucao resultadoExecucao)
+            {
+                execucao.resultado = resultadoExecucao;
+                execucao.encerramento.countDown();
+            }
+        });
+
+        programa.executar(new String[0], Programa.Estado.BREAK_POINT);
+
+        return execucao;
+    }
+
+    public void aguardaEncerramento() throws InterruptedException
+    {
+        assertTrue("o programa não encerrou", encerramento.await(30, TimeUnit.SECONDS));
+    }
+
+    public String getSaida()
+    {
+        return saida.toString();
+    }
+
+    /**
+     * @return quantas vezes o programa pausou ou foi retomado
+     */
+    public int getPausas()
+    {
+        return pausas.get();
+    }
+
+    public ResultadoExecucao getResultado()
+    {
+        return resultado;
+    }
+}
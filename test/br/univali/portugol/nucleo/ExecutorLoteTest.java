@@ -0,0 +1,128 @@
+package br.univali.portugol.nucleo;
+
+import br.univali.portugol.nucleo.execucao.ModoEncerramento;
+import br.univali.portugol.nucleo.execucao.PerfilCompilacao;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class ExecutorLoteTest
+{
+    private static final String SOMA = "programa { funcao inicio() { inteiro a, b leia(a) leia(b) escreva(a + b) } }";
+
+    @Test
+    public void testExecutaProgramasComEntradaRoteirizada() throws Exception
+    {
+        List<ProgramaLote> programas = new ArrayList<>();
+
+        for (int i = 0; i < 20; i++)
+        {
+            programas.add(new ProgramaLote("soma" + i, SOMA, i + "\n" + (i * 2) + "\n"));
+        }
+
+        ExecutorLote executor = new ExecutorLote();
+        executor.setNumeroThreads(4);
+
+        List<ResultadoLote> resultados = executor.executar(programas);
+
+        assertEquals(programas.size(), resultados.size());
+
+        for (int i = 0; i < resultados.size(); i++)
+        {
+            ResultadoLote resultado = resultados.get(i);
+
+            assertSame(programas.get(i), resultado.getPrograma());
+            assertTrue(resultado.isCompilado());
+            assertFalse(resultado.isTempoLimiteExcedido());
+            assertEquals(ModoEncerramento.NORMAL, resultado.getResultadoExecucao().getModoEncerramento());
+            assertEquals(String.valueOf(i * 3), resultado.getSaida());
+        }
+    }
+
+    @Test
+    public void testConverteTiposDaEntrada() throws Exception
+    {
+        String codigo = "programa { funcao inicio() { real r caracter c logico l cadeia s leia(r, c, l, s) escreva(r, c, l, s) } }";
+
+        ResultadoLote resultado = new ExecutorLote().executar(new ProgramaLote("tipos", codigo, "2.5\r\nxyz\r\nverdadeiro\r\n uma frase \r\n"));
+
+        assertEquals(ModoEncerramento.NORMAL, resultado.getResultadoExecucao().getModoEncerramento());
+        assertEquals("2.5xverdadeiro uma frase ", resultado.getSaida());
+    }
+
+    @Test
+    public void testCompilaComAConfiguracaoDoPortugol() throws Exception
+    {
+        String codigo = "programa { funcao inicio() { escreva(\"perfil\") } }";
+        final List<MetricasCompilacao> compilacoes = new ArrayList<>();
+
+        ObservadorCompilacao observador = new ObservadorCompilacao()
+        {
+            @Override
+            public void compilacaoRealizada(MetricasCompilacao metricas)
+            {
+                compilacoes.add(metricas);
+            }
+        };
+
+        PerfilCompilacao perfilOriginal = Portugol.getPerfilCompilacao();
+        Portugol.setPerfilCompilacao(PerfilCompilacao.DEPURACAO);
+        Portugol.adicionarObservadorCompilacao(observador);
+
+        try
+        {
+            ResultadoLote resultado = new ExecutorLote().executar(new ProgramaLote("perfil", codigo, null));
+
+            assertEquals("perfil", resultado.getSaida());
+            assertEquals(1, compilacoes.size());
+            assertTrue(compilacoes.get(0).isParaExecucao());
+            assertNotNull("o programa deveria ser compilado com o código de inspeção", CacheCompilacao.getInstance().obter(CacheCompilacao.gerarChave(codigo, true, true, true)));
+        }
+        finally
+        {
+            Portugol.removerObservadorCompilacao(observador);
+            Portugol.setPerfilCompilacao(perfilOriginal);
+        }
+    }
+
+    @Test
+    public void testErroDeCompilacao() throws Exception
+    {
+        ResultadoLote resultado = new ExecutorLote().executar(new ProgramaLote("erro", "programa { funcao inicio() { inteiro x = } }", null));
+
+        assertFalse(resultado.isCompilado());
+        assertNull(resultado.getResultadoExecucao());
+        assertTrue(resultado.getErroCompilacao().getResultadoAnalise().contemErros());
+        assertTrue(ExecutorLote.paraJSON(resultado).contains("\"compilado\":false"));
+    }
+
+    @Test
+    public void testEntradaInsuficienteEncerraComErro() throws Exception
+    {
+        ResultadoLote resultado = new ExecutorLote().executar(new ProgramaLote("sem entrada", SOMA, "1"));
+
+        assertTrue(resultado.isCompilado());
+        assertEquals(ModoEncerramento.ERRO, resultado.getResultadoExecucao().getModoEncerramento());
+    }
+
+    @Test(timeout = 30000)
+    public void testTempoLimiteInterrompeLacoInfinito() throws Exception
+    {
+        ExecutorLote executor = new ExecutorLote();
+        executor.setTempoLimite(500);
+
+        List<ResultadoLote> resultados = executor.executar(Arrays.asList(
+            new ProgramaLote("infinito", "programa { funcao inicio() { enquanto (verdadeiro) { } } }", null),
+            new ProgramaLote("normal", "programa { funcao inicio() { escreva(\"ok\") } }", null)
+        ));
+
+        assertTrue(resultados.get(0).isTempoLimiteExcedido());
+        assertEquals(ModoEncerramento.INTERRUPCAO, resultados.get(0).getResultadoExecucao().getModoEncerramento());
+
+        assertFalse(resultados.get(1).isTempoLimiteExcedido());
+        assertEquals("ok", resultados.get(1).getSaida());
+        assertTrue(ExecutorLote.paraJSON(resultados.get(1)).contains("\"saida\":\"ok\""));
+    }
+}
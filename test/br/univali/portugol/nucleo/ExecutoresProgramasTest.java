@@ -0,0 +1,158 @@
+package br.univali.portugol.nucleo;
+
+import br.univali.portugol.nucleo.asa.TipoDado;
+import br.univali.portugol.nucleo.execucao.ExecutoresProgramas;
+import br.univali.portugol.nucleo.execucao.ModoEncerramento;
+import br.univali.portugol.nucleo.execucao.ModoExecucao;
+import br.univali.portugol.nucleo.execucao.ObservadorExecucaoBasico;
+import br.univali.portugol.nucleo.execucao.es.Armazenador;
+import br.univali.portugol.nucleo.execucao.es.Entrada;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class ExecutoresProgramasTest
+{
+    private static final String CODIGO_LEIA = "programa { funcao inicio() { inteiro a leia(a) escreva(a * 2) } }";
+
+    @Test(timeout = 30000)
+    public void testProgramaExecutaNoExecutorDefinido() throws Exception
+    {
+        ExecutorService executor = Executors.newSingleThreadExecutor(new NamedThreadFactory("Executor de teste"));
+
+        try
+        {
+            final String[] nomeThread = new String[1];
+            Programa programa = new Compilador(ModoExecucao.COMPILADO).compilar("programa { funcao inicio() { escreva(1) } }", true, null, null);
+
+            programa.adicionarObservadorExecucao(new ObservadorExecucaoBasico()
+            {
+                @Override
+                public void execucaoIniciada(Programa programa)
+                {
+                    nomeThread[0] = Thread.currentThread().getName();
+                }
+            });
+
+            programa.setExecutor(executor);
+
+            assertEquals("1", ExecucaoTeste.executa(programa));
+            assertEquals("Executor de teste", nomeThread[0]);
+
+            programa.descartar();
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void testContinuacaoDuranteODestaqueDaLinhaNaoEPerdida() throws Exception
+    {
+        String codigo = "programa {\n"
+                + "funcao inicio() {\n"
+                + "escreva(1)\n"
+                + "escreva(2)\n"
+                + "}\n"
+                + "}";
+
+        for (ModoExecucao modo : ModoExecucao.values())
+        {
+            final Programa programa = new Compilador(modo).compilar(codigo, true, null, null);
+
+            programa.adicionarObservadorExecucao(new ObservadorExecucaoBasico()
+            {
+                @Override
+                public void highlightLinha(int linha)
+                {
+                    programa.continuar(Programa.Estado.BREAK_POINT); // antes de a thread do programa começar a aguardar
+                }
+            });
+
+            programa.ativaPontosDeParada(Collections.singleton(4));
+
+            assertEquals(modo.name(), "12", ExecucaoTeste.executa(programa));
+
+            programa.descartar();
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void testProgramasBloqueadosNaLeituraSaoRetomados() throws Exception
+    {
+        final int quantidade = 200;
+
+        ExecutorService executor = ExecutoresProgramas.suportaThreadsVirtuais() ? ExecutoresProgramas.criarExecutorThreadsVirtuais() : null;
+
+        try
+        {
+            final CountDownLatch pausados = new CountDownLatch(quantidade);
+            final List<Armazenador> leituras = Collections.synchronizedList(new ArrayList<Armazenador>());
+
+            List<Programa> programas = new ArrayList<>();
+            List<ExecucaoTeste> execucoes = new ArrayList<>();
+
+            for (int i = 0; i < quantidade; i++)
+            {
+                Programa programa = new Compilador(ModoExecucao.COMPILADO).compilar(CODIGO_LEIA, true, null, null);
+
+                programa.setExecutor(executor);
+                programa.adicionarObservadorExecucao(new ObservadorExecucaoBasico()
+                {
+                    @Override
+                    public void execucaoPausada()
+                    {
+                        pausados.countDown();
+                    }
+                });
+
+                programas.add(programa);
+                execucoes.add(ExecucaoTeste.inicia(programa, new Entrada() // a entrada é assíncrona, o valor é informado depois
+                {
+                    @Override
+                    public void solicitaEntrada(TipoDado tipoDado, Armazenador armazenador)
+                    {
+                        leituras.add(armazenador);
+                    }
+                }));
+            }
+
+            assertTrue(pausados.await(30, TimeUnit.SECONDS));
+
+            synchronized (leituras)
+            {
+                for (Armazenador leitura : leituras)
+                {
+                    leitura.setValor(21);
+                }
+            }
+
+            for (ExecucaoTeste execucao : execucoes)
+            {
+                execucao.aguardaEncerramento();
+
+                assertEquals(ModoEncerramento.NORMAL, execucao.getResultado().getModoEncerramento());
+                assertEquals("42", execucao.getSaida());
+            }
+
+            for (Programa programa : programas)
+            {
+                programa.descartar();
+            }
+        }
+        finally
+        {
+            if (executor != null)
+            {
+                executor.shutdownNow();
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package br.univali.portugol.nucleo;
+
+import br.univali.portugol.nucleo.asa.NoBloco;
+import br.univali.portugol.nucleo.asa.NoDeclaracao;
+import br.univali.portugol.nucleo.asa.NoDeclaracaoFuncao;
+import br.univali.portugol.nucleo.asa.NoDeclaracaoMatriz;
+import br.univali.portugol.nucleo.asa.NoDeclaracaoVetor;
+import br.univali.portugol.nucleo.execucao.ModoExecucao;
+import br.univali.portugol.nucleo.execucao.PerfilCompilacao;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class InspecaoSimbolosTest
+{
+    private static final String CODIGO = "programa {\n"
+            + "funcao inicio() {\n"
+            + "inteiro v[3]\n"
+            + "inteiro m[2][2] = {{1, 2}, {3, 4}}\n"
+            + "v[1] = 7\n"
+            + "m[1][0] = 9\n"
+            + "}\n"
+            + "}";
+
+    @Test
+    public void testVetoresEMatrizesSaoLidosDoProgramaEmExecucao() throws Exception
+    {
+        for (ModoExecucao modo : ModoExecucao.values())
+        {
+            for (boolean javac : CompilacaoTeste.CAMINHOS)
+            {
+                Programa programa = CompilacaoTeste.compila(CODIGO, modo, PerfilCompilacao.DEPURACAO, javac);
+                int idVetor = getDeclaracao(programa, NoDeclaracaoVetor.class).getIdParaInspecao();
+                int idMatriz = getDeclaracao(programa, NoDeclaracaoMatriz.class).getIdParaInspecao();
+
+                programa.inspecionaVetor(idVetor, 3);
+                programa.inspecionaMatriz(idMatriz, 2, 2);
+
+                ExecucaoTeste.executa(programa);
+
+                assertEquals(CompilacaoTeste.descricao(modo, javac), 3, programa.getTamanhoVetor(idVetor));
+                assertEquals(1, programa.getUltimaColunaAlteradaNoVetor(idVetor));
+                assertEquals(7, programa.getValorNoVetorInspecionado(idVetor));
+                assertEquals(0, programa.getValorNoVetorInspecionado(idVetor, 2));
+
+                assertEquals(2, programa.getLinhasDaMatriz(idMatriz));
+                assertEquals(2, programa.getColunasDaMatriz(idMatriz));
+                assertEquals(1, programa.getUltimaLinhaAlteradaNaMatriz(idMatriz));
+                assertEquals(0, programa.getUltimaColunaAlteradaNaMatriz(idMatriz));
+                assertEquals(9, programa.getValorNaMatrizInspecionada(idMatriz));
+                assertEquals(2, programa.getValorNaMatrizInspecionada(idMatriz, 0, 1));
+
+                programa.descartar();
+            }
+        }
+    }
+
+    private static <T extends NoDeclaracao> T getDeclaracao(Programa programa, Class<T> tipo)
+    {
+        for (NoDeclaracao declaracao : programa.getArvoreSintaticaAbstrata().getListaDeclaracoesGlobais())
+        {
+            if (declaracao instanceof NoDeclaracaoFuncao && declaracao.getNome().equals("inicio"))
+            {
+                for (NoBloco bloco : ((NoDeclaracaoFuncao) declaracao).getBlocos())
+                {
+                    if (tipo.isInstance(bloco))
+                    {
+                        return tipo.cast(bloco);
+                    }
+                }
+            }
+        }
+
+        throw new AssertionError("declaração não encontrada");
+    }
+}
@@ -0,0 +1,105 @@
+package br.univali.portugol.nucleo;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class MetricasCompilacaoTest
+{
+    private final List<MetricasCompilacao> metricas = new ArrayList<>();
+    private Compilador compilador;
+
+    @Before
+    public void setUp()
+    {
+        CacheCompilacao.getInstance().limpar();
+
+        compilador = new Compilador();
+        compilador.adicionarObservador(new ObservadorCompilacao()
+        {
+            @Override
+            public void compilacaoRealizada(MetricasCompilacao metricasCompilacao)
+            {
+                metricas.add(metricasCompilacao);
+            }
+        });
+    }
+
+    @Test
+    public void testEtapasDaCompilacaoEmBytecode() throws Exception
+    {
+        String codigo = "programa { funcao inicio() { escreva(\"oi\") } }";
+
+        compilador.compilar(codigo, true, null, null);
+
+        assertEquals(1, metricas.size());
+
+        MetricasCompilacao compilacao = metricas.get(0);
+
+        assertTrue(compilacao.isSucesso());
+        assertTrue(compilacao.isParaExecucao());
+        assertEquals(Boolean.FALSE, compilacao.getAcertoCache());
+        assertEquals(codigo.length(), compilacao.getTamanhoCodigoFonte());
+        assertTrue(compilacao.getTamanhoBytecode() > 0);
+        assertEquals(0, compilacao.getTamanhoCodigoJava());
+
+        for (EtapaCompilacao etapa : new EtapaCompilacao[] { EtapaCompilacao.ANALISE_SINTATICA, EtapaCompilacao.ANALISE_SEMANTICA, EtapaCompilacao.GERACAO_BYTECODE, EtapaCompilacao.CARREGAMENTO_CLASSE })
+        {
+            assertTrue(etapa.name(), compilacao.contemEtapa(etapa));
+            assertTrue(etapa.name(), compilacao.getDuracao(etapa) > 0);
+        }
+
+        assertFalse(compilacao.contemEtapa(EtapaCompilacao.JAVAC));
+        assertTrue(compilacao.getDuracaoTotal() >= compilacao.getDuracao(EtapaCompilacao.ANALISE_SINTATICA));
+        assertSame(compilacao, compilador.getMetricas());
+    }
+
+    @Test
+    public void testEtapasDaCompilacaoComJavac() throws Exception
+    {
+        compilador.compilar("programa { inclua biblioteca Matematica --> mat funcao inicio() { escreva(mat.PI) } }", true, null, null);
+
+        MetricasCompilacao compilacao = metricas.get(0);
+
+        assertTrue(compilacao.contemEtapa(EtapaCompilacao.GERACAO_CODIGO_JAVA));
+        assertTrue(compilacao.contemEtapa(EtapaCompilacao.JAVAC));
+        assertTrue(compilacao.getTamanhoCodigoJava() > 0);
+        assertTrue(compilacao.getTamanhoBytecode() > 0);
+    }
+
+    @Test
+    public void testAcertoNoCache() throws Exception
+    {
+        String codigo = "programa { funcao inicio() { escreva(1) } }";
+
+        compilador.compilar(codigo, true, null, null);
+        compilador.compilar(codigo, true, null, null);
+
+        MetricasCompilacao segunda = metricas.get(1);
+
+        assertEquals(Boolean.TRUE, segunda.getAcertoCache());
+        assertFalse(segunda.contemEtapa(EtapaCompilacao.ANALISE_SINTATICA));
+        assertTrue(segunda.contemEtapa(EtapaCompilacao.CARREGAMENTO_CLASSE));
+    }
+
+    @Test
+    public void testCompilacaoComErros() throws Exception
+    {
+        try
+        {
+            compilador.compilar("programa { funcao inicio() { inteiro x = \"a\" } }", false, null, null);
+            fail("o programa contém erros");
+        }
+        catch (ErroCompilacao erro)
+        {
+        }
+
+        MetricasCompilacao compilacao = metricas.get(0);
+
+        assertFalse(compilacao.isSucesso());
+        assertNull(compilacao.getAcertoCache());
+        assertTrue(compilacao.contemEtapa(EtapaCompilacao.ANALISE_SEMANTICA));
+    }
+}
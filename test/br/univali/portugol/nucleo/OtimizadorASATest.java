@@ -0,0 +1,189 @@
+package br.univali.portugol.nucleo;
+
+import br.univali.portugol.nucleo.asa.NoBloco;
+import br.univali.portugol.nucleo.asa.NoChamadaFuncao;
+import br.univali.portugol.nucleo.asa.NoDeclaracao;
+import br.univali.portugol.nucleo.asa.NoDeclaracaoFuncao;
+import br.univali.portugol.nucleo.asa.NoDeclaracaoVariavel;
+import br.univali.portugol.nucleo.asa.NoEnquanto;
+import br.univali.portugol.nucleo.asa.NoEscolha;
+import br.univali.portugol.nucleo.asa.NoExpressao;
+import br.univali.portugol.nucleo.asa.NoInteiro;
+import br.univali.portugol.nucleo.asa.NoOperacao;
+import br.univali.portugol.nucleo.asa.NoOperacaoAtribuicao;
+import br.univali.portugol.nucleo.asa.NoOperacaoMultiplicacao;
+import br.univali.portugol.nucleo.asa.NoSe;
+import br.univali.portugol.nucleo.execucao.ModoEncerramento;
+import br.univali.portugol.nucleo.execucao.ModoExecucao;
+import br.univali.portugol.nucleo.execucao.PerfilCompilacao;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class OtimizadorASATest
+{
+    private static final String CODIGO = "programa {\n"
+            + "const inteiro TAM = 4\n"
+            + "const real DOIS = 2.0\n"
+            + "funcao inicio() {\n"
+            + "inteiro v[4]\n"
+            + "logico ok = verdadeiro\n"
+            + "v[TAM - 1] = 2 * 3 + 1\n"
+            + "se (falso) { escreva(\"nunca\") }\n"
+            + "enquanto (TAM < 0) { escreva(\"nunca\") }\n"
+            + "se (ok e verdadeiro ou falso) { escreva(v[TAM - 1], \" \", TAM / DOIS, \" \", \"a\" + TAM) }\n"
+            + "se (nao (ok == falso)) { escreva(\" sim\") } senao { escreva(\" nao\") }\n"
+            + "}\n"
+            + "}";
+
+    @Test
+    public void testExpressoesConstantesSaoCalculadasNaCompilacao() throws Exception
+    {
+        for (ModoExecucao modo : ModoExecucao.values())
+        {
+            for (boolean javac : CompilacaoTeste.CAMINHOS)
+            {
+                Programa programa = CompilacaoTeste.compila(CODIGO, modo, javac);
+                List<NoBloco> blocos = getBlocosInicio(programa);
+
+                for (NoBloco bloco : blocos)
+                {
+                    assertFalse("laço que nunca executa", bloco instanceof NoEnquanto);
+                }
+
+                assertEquals("o se (falso) deve ser removido", 2, contaSe(blocos));
+
+                NoOperacaoAtribuicao atribuicao = (NoOperacaoAtribuicao) blocos.get(2);
+                assertTrue(atribuicao.getOperandoDireito() instanceof NoInteiro);
+                assertEquals(7, atribuicao.getOperandoDireito().getTrechoCodigoFonte().getLinha());
+
+                assertEquals(CompilacaoTeste.descricao(modo, javac), "7 2.0 a4 sim", ExecucaoTeste.executa(programa));
+
+                programa.descartar();
+            }
+        }
+    }
+
+    @Test
+    public void testExpressaoDoEscolhaEhCalculadaNaCompilacao() throws Exception
+    {
+        String codigo = "programa {\n"
+                + "const inteiro TAM = 4\n"
+                + "funcao inicio() {\n"
+                + "escolha (TAM * 2 - 5) { caso 3: escreva(\"tres\") pare caso contrario: escreva(\"outro\") }\n"
+                + "}\n"
+                + "}";
+
+        for (ModoExecucao modo : ModoExecucao.values())
+        {
+            for (boolean javac : CompilacaoTeste.CAMINHOS)
+            {
+                Programa programa = CompilacaoTeste.compila(codigo, modo, javac);
+                NoEscolha escolha = (NoEscolha) getBlocosInicio(programa).get(0);
+
+                assertTrue(escolha.getExpressao() instanceof NoInteiro);
+                assertEquals(Integer.valueOf(3), ((NoInteiro) escolha.getExpressao()).getValor());
+                assertEquals(CompilacaoTeste.descricao(modo, javac), "tres", ExecucaoTeste.executa(programa));
+
+                programa.descartar();
+            }
+        }
+    }
+
+    @Test
+    public void testFuncoesPequenasSaoExpandidasSomenteNaVersaoOtimizada() throws Exception
+    {
+        String codigo = "programa {\n"
+                + "funcao inicio() {\n"
+                + "inteiro a = 3\n"
+                + "inteiro b = quadrado(a) + quadrado(a + 1)\n"
+                + "escreva(b, \" \", quadrado(2), \" \", fatorial(4))\n"
+                + "}\n"
+                + "funcao inteiro quadrado(inteiro x) {\n"
+                + "retorne x * x\n"
+                + "}\n"
+                + "funcao inteiro fatorial(inteiro n) {\n"
+                + "se (n <= 1) { retorne 1 }\n"
+                + "retorne n * fatorial(n - 1)\n"
+                + "}\n"
+                + "}";
+
+        for (PerfilCompilacao perfil : PerfilCompilacao.values())
+        {
+            Programa programa = new Compilador(ModoExecucao.COMPILADO, perfil).compilar(codigo, true, null, null);
+            List<NoBloco> blocos = getBlocosInicio(programa);
+
+            NoOperacao soma = (NoOperacao) ((NoDeclaracaoVariavel) blocos.get(1)).getInicializacao();
+            List<NoExpressao> parametrosEscreva = ((NoChamadaFuncao) blocos.get(2)).getParametros();
+
+            if (perfil == PerfilCompilacao.OTIMIZADO)
+            {
+                assertTrue(soma.getOperandoEsquerdo() instanceof NoOperacaoMultiplicacao);
+                assertTrue(soma.getOperandoDireito() instanceof NoOperacaoMultiplicacao);
+                assertEquals(4, soma.getOperandoDireito().getTrechoCodigoFonte().getLinha());
+                assertEquals(Integer.valueOf(4), ((NoInteiro) parametrosEscreva.get(2)).getValor());
+                assertTrue("a função recursiva não é expandida", parametrosEscreva.get(4) instanceof NoChamadaFuncao);
+            }
+            else
+            {
+                assertTrue("a versão de depuração mantém as chamadas", soma.getOperandoEsquerdo() instanceof NoChamadaFuncao);
+            }
+
+            assertEquals(perfil.name(), "25 4 24", ExecucaoTeste.executa(programa));
+
+            programa.descartar();
+        }
+    }
+
+    @Test
+    public void testDivisaoPorZeroNaoECalculada() throws Exception
+    {
+        String codigo = "programa {\n"
+                + "funcao inicio() {\n"
+                + "inteiro a = 1\n"
+                + "escreva(a)\n"
+                + "a = 10 / (2 - 2)\n"
+                + "}\n"
+                + "}";
+
+        for (ModoExecucao modo : ModoExecucao.values())
+        {
+            Programa programa = new Compilador(modo).compilar(codigo, true, null, null);
+            ExecucaoTeste execucao = ExecucaoTeste.executa(programa, null);
+
+            assertEquals(modo.name(), ModoEncerramento.ERRO, execucao.getResultado().getModoEncerramento());
+            assertEquals(modo.name(), 5, execucao.getResultado().getErro().getLinha());
+            assertEquals(modo.name(), "1", execucao.getSaida());
+
+            programa.descartar();
+        }
+    }
+
+    private static int contaSe(List<NoBloco> blocos)
+    {
+        int total = 0;
+
+        for (NoBloco bloco : blocos)
+        {
+            if (bloco instanceof NoSe)
+            {
+                total++;
+            }
+        }
+
+        return total;
+    }
+
+    private static List<NoBloco> getBlocosInicio(Programa programa)
+    {
+        for (NoDeclaracao declaracao : programa.getArvoreSintaticaAbstrata().getListaDeclaracoesGlobais())
+        {
+            if (declaracao instanceof NoDeclaracaoFuncao)
+            {
+                return ((NoDeclaracaoFuncao) declaracao).getBlocos();
+            }
+        }
+
+        throw new AssertionError("função inicio não encontrada");
+    }
+}
@@ -0,0 +1,124 @@
+package br.univali.portugol.nucleo;
+
+import br.univali.portugol.nucleo.execucao.ModoEncerramento;
+import br.univali.portugol.nucleo.execucao.ModoExecucao;
+import br.univali.portugol.nucleo.execucao.ObservadorExecucaoBasico;
+import br.univali.portugol.nucleo.execucao.ResultadoExecucao;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class ProgramaInterpretadoTest
+{
+    private static final String[] PROGRAMAS =
+    {
+        "programa { funcao inicio() { "
+            + "inteiro a = 7, b = 2 real r = a / b "
+            + "escreva(a + b, \" \", a - b, \" \", a * b, \" \", a / b, \" \", a % b, \" \", r, \" \", a / 2.0, \" \", -a, \" \", a & b, \" \", a ^ b, \" \", ~a) "
+            + "a += 3 a++ b-- escreva(\" \", a, \" \", b, \" \", \"x\" + 1 + 2.5 + verdadeiro + 'c') "
+            + "} }",
+
+        "programa { funcao inicio() { "
+            + "inteiro soma = 0 "
+            + "para (inteiro i = 0; i < 10; i++) { se (i > 7) { pare } soma += i } "
+            + "inteiro j = 0 enquanto (j < 3 e nao (soma == 0)) { j++ } faca { j-- } enquanto (j > 0) "
+            + "escreva(soma, \" \", j) "
+            + "escolha (soma) { caso 1: escreva(\" um\") pare caso 28: escreva(\" vinte e oito\") caso contrario: escreva(\" outro\") } "
+            + "} }",
+
+        "programa { "
+            + "inteiro v[] = {3, 1, 2} real m[2][2] const inteiro N = 3 "
+            + "funcao inicio() { m[1][0] = soma(v, N) escreva(m[1][0], \" \", fatorial(5), \" \", m[0][1]) } "
+            + "funcao inteiro soma(inteiro vet[], inteiro n) { inteiro s = 0 para (inteiro i = 0; i < n; i++) { s += vet[i] } retorne s } "
+            + "funcao inteiro fatorial(inteiro n) { se (n <= 1) { retorne 1 } retorne n * fatorial(n - 1) } "
+            + "}",
+
+        "programa { "
+            + "funcao inicio() { inteiro x = 1 cadeia c = \"a\" incrementa(x) incrementa(x) concatena(c) escreva(x, c, c == \"ab\") } "
+            + "funcao incrementa(inteiro &valor) { valor = valor + 1 } "
+            + "funcao concatena(cadeia &valor) { valor = valor + \"b\" } "
+            + "}",
+
+        "programa { "
+            + "funcao inicio() { inteiro a = 4 real r = 1.5 escreva(quadrado(a), \" \", quadrado(a - 1) + quadrado(2), \" \", par(a), \" \", metade(r), \" \", metade(a)) } "
+            + "funcao inteiro quadrado(inteiro x) { retorne x * x } "
+            + "funcao logico par(inteiro n) { retorne n % 2 == 0 } "
+            + "funcao real metade(real x) { retorne x / 2 } "
+            + "}"
+    };
+
+    @Before
+    public void setUp()
+    {
+        CacheCompilacao.getInstance().limpar(); // os programas no cache são sempre executados na versão compilada
+    }
+
+    @Test
+    public void testResultadosIguaisAosDosProgramasCompilados() throws Exception
+    {
+        for (String codigo : PROGRAMAS)
+        {
+            Programa interpretado = new Compilador(ModoExecucao.INTERPRETADO).compilar(codigo, true, null, null);
+            Programa compilado = new Compilador().compilar(codigo, true, null, null);
+
+            assertTrue(interpretado instanceof ProgramaInterpretado);
+            assertFalse(compilado instanceof ProgramaInterpretado);
+            assertEquals(ExecucaoTeste.executa(compilado), ExecucaoTeste.executa(interpretado));
+        }
+    }
+
+    @Test
+    public void testProgramasComBibliotecasSaoCompilados() throws Exception
+    {
+        String codigo = "programa { inclua biblioteca Matematica --> mat funcao inicio() { escreva(mat.PI) } }";
+
+        assertFalse(new Compilador(ModoExecucao.INTERPRETADO).compilar(codigo, true, null, null) instanceof ProgramaInterpretado);
+    }
+
+    @Test
+    public void testInterrupcao() throws Exception
+    {
+        Programa programa = new Compilador(ModoExecucao.INTERPRETADO).compilar("programa { funcao inicio() { enquanto (verdadeiro) { } } }", true, null, null);
+
+        final CountDownLatch encerramento = new CountDownLatch(1);
+        final ResultadoExecucao[] resultado = new ResultadoExecucao[1];
+
+        programa.adicionarObservadorExecucao(new ObservadorExecucaoBasico()
+        {
+            @Override
+            public void execucaoEncerrada(Programa programa, ResultadoExecucao resultadoExecucao)
+            {
+                resultado[0] = resultadoExecucao;
+                encerramento.countDown();
+            }
+        });
+
+        programa.executar(new String[0], Programa.Estado.BREAK_POINT);
+        Thread.sleep(100);
+        programa.interromper();
+
+        assertTrue(encerramento.await(10, TimeUnit.SECONDS));
+        assertEquals(ModoEncerramento.INTERRUPCAO, resultado[0].getModoEncerramento());
+    }
+
+    @Test
+    public void testModoEscalonadoUtilizaVersaoCompiladaNasProximasExecucoes() throws Exception
+    {
+        String codigo = "programa { funcao inicio() { inteiro s = 0 para (inteiro i = 0; i < 20000; i++) { s = (s + i) % 7 } escreva(s) } }";
+        ProgramaInterpretado programa = (ProgramaInterpretado) new Compilador(ModoExecucao.ESCALONADO).compilar(codigo, true, null, null);
+
+        String saidaInterpretada = ExecucaoTeste.executa(programa);
+
+        int tentativas = 0;
+        do
+        {
+            Thread.sleep(100); // também garante que a primeira execução terminou de notificar os observadores
+        }
+        while (!programa.possuiVersaoCompilada() && ++tentativas < 100);
+
+        assertTrue(programa.possuiVersaoCompilada());
+        assertEquals(saidaInterpretada, ExecucaoTeste.executa(programa));
+    }
+}
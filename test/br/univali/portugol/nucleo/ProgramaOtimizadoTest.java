@@ -0,0 +1,237 @@
+package br.univali.portugol.nucleo;
+
+import br.univali.portugol.nucleo.asa.NoDeclaracao;
+import br.univali.portugol.nucleo.asa.NoDeclaracaoFuncao;
+import br.univali.portugol.nucleo.asa.NoDeclaracaoVariavel;
+import br.univali.portugol.nucleo.asa.NoBloco;
+import br.univali.portugol.nucleo.execucao.ModoEncerramento;
+import br.univali.portugol.nucleo.execucao.ModoExecucao;
+import br.univali.portugol.nucleo.execucao.ObservadorExecucaoBasico;
+import br.univali.portugol.nucleo.execucao.PerfilCompilacao;
+import br.univali.portugol.nucleo.execucao.ResultadoExecucao;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class ProgramaOtimizadoTest
+{
+    private static final String CODIGO = "programa {\n"
+            + "funcao inicio() {\n"
+            + "inteiro soma = 0\n"
+            + "para (inteiro i = 1; i <= 10; i++) {\n"
+            + "soma += i\n"
+            + "}\n"
+            + "escreva(soma)\n"
+            + "}\n"
+            + "}";
+
+    @Test
+    public void testExecucaoSemDepuradorNaoCompilaVersaoDepuracao() throws Exception
+    {
+        ProgramaOtimizado programa = compila();
+
+        assertEquals("55", ExecucaoTeste.executa(programa));
+        assertFalse(programa.possuiVersaoDepuracao());
+    }
+
+    @Test
+    public void testPerfilDepuracaoNaoUtilizaVersaoOtimizada() throws Exception
+    {
+        Programa programa = new Compilador(ModoExecucao.COMPILADO, PerfilCompilacao.DEPURACAO).compilar(CODIGO, true, null, null);
+
+        assertFalse(programa instanceof ProgramaOtimizado);
+        assertEquals("55", ExecucaoTeste.executa(programa));
+    }
+
+    @Test
+    public void testInspecaoUtilizaVersaoDepuracao() throws Exception
+    {
+        ProgramaOtimizado programa = compila();
+        NoDeclaracaoVariavel soma = getDeclaracaoSoma(programa);
+
+        programa.inspecionaVariavel(soma.getIdParaInspecao());
+
+        assertEquals("55", ExecucaoTeste.executa(programa));
+        assertTrue(programa.possuiVersaoDepuracao());
+        assertEquals(55, programa.getValorVariavelInspecionada(soma.getIdParaInspecao()));
+    }
+
+    @Test(timeout = 30000)
+    public void testPontoDeParadaNaoUtilizaVersaoDepuracao() throws Exception
+    {
+        final ProgramaOtimizado programa = compila();
+        final CountDownLatch parada = new CountDownLatch(1);
+        final int[] linhaParada = new int[1];
+
+        programa.adicionarObservadorExecucao(new ObservadorExecucaoBasico()
+        {
+            @Override
+            public void highlightLinha(int linha)
+            {
+                linhaParada[0] = linha;
+                parada.countDown();
+            }
+        });
+
+        int linhaEscreva = 7;
+        programa.ativaPontosDeParada(Collections.singleton(linhaEscreva));
+        ExecucaoTeste execucao = ExecucaoTeste.inicia(programa, null);
+
+        assertTrue(parada.await(20, TimeUnit.SECONDS));
+        assertEquals(linhaEscreva, linhaParada[0]);
+
+        programa.ativaPontosDeParada(Collections.<Integer>emptySet());
+        programa.continuar(Programa.Estado.BREAK_POINT);
+
+        execucao.aguardaEncerramento();
+        assertEquals(ModoEncerramento.NORMAL, execucao.getResultado().getModoEncerramento());
+        assertEquals("55", execucao.getSaida());
+        assertFalse(programa.possuiVersaoDepuracao());
+    }
+
+    @Test(timeout = 30000)
+    public void testPontoDeParadaEmFuncaoExpandidaUtilizaVersaoDepuracao() throws Exception
+    {
+        String codigo = "programa {\n"
+                + "funcao inicio() {\n"
+                + "escreva(quadrado(3))\n"
+                + "}\n"
+                + "funcao inteiro quadrado(inteiro x) {\n"
+                + "retorne x * x\n"
+                + "}\n"
+                + "}";
+
+        final ProgramaOtimizado programa = (ProgramaOtimizado) new Compilador(ModoExecucao.COMPILADO, PerfilCompilacao.OTIMIZADO).compilar(codigo, true, null, null);
+        final CountDownLatch parada = new CountDownLatch(1);
+        final int[] linhaParada = new int[1];
+
+        programa.adicionarObservadorExecucao(new ObservadorExecucaoBasico()
+        {
+            @Override
+            public void highlightLinha(int linha)
+            {
+                linhaParada[0] = linha;
+                parada.countDown();
+            }
+        });
+
+        int linhaRetorne = 6; // a versão otimizada não executa esta linha, a chamada foi expandida
+        programa.ativaPontosDeParada(Collections.singleton(linhaRetorne));
+        ExecucaoTeste execucao = ExecucaoTeste.inicia(programa, null);
+
+        assertTrue(parada.await(20, TimeUnit.SECONDS));
+        assertEquals(linhaRetorne, linhaParada[0]);
+        assertTrue(programa.possuiVersaoDepuracao());
+
+        programa.ativaPontosDeParada(Collections.<Integer>emptySet());
+        programa.continuar(Programa.Estado.BREAK_POINT);
+
+        execucao.aguardaEncerramento();
+        assertEquals(ModoEncerramento.NORMAL, execucao.getResultado().getModoEncerramento());
+        assertEquals("9", execucao.getSaida());
+    }
+
+    @Test(timeout = 30000)
+    public void testPontoDeParadaAtivadoDuranteExecucao() throws Exception
+    {
+        String codigo = "programa {\n"
+                + "funcao inicio() {\n"
+                + "inteiro i = 0\n"
+                + "enquanto (verdadeiro) {\n"
+                + "i++\n"
+                + "}\n"
+                + "}\n"
+                + "}";
+
+        for (ModoExecucao modo : ModoExecucao.values())
+        {
+            final Programa programa = new Compilador(modo).compilar(codigo, true, null, null);
+            final CountDownLatch parada = new CountDownLatch(1);
+            final int[] linhaParada = new int[1];
+
+            programa.adicionarObservadorExecucao(new ObservadorExecucaoBasico()
+            {
+                @Override
+                public void highlightLinha(int linha)
+                {
+                    linhaParada[0] = linha;
+                    parada.countDown();
+                }
+            });
+
+            programa.executar(new String[0], Programa.Estado.BREAK_POINT);
+
+            Thread.sleep(200); // garante que o laço já está executando sem paradas
+
+            int linhaIncremento = 5;
+            programa.ativaPontosDeParada(Collections.singleton(linhaIncremento));
+
+            assertTrue(modo.name(), parada.await(20, TimeUnit.SECONDS));
+            assertEquals(linhaIncremento, linhaParada[0]);
+
+            programa.interromper();
+            programa.descartar();
+        }
+    }
+
+    @Test
+    public void testLinhaDoErroSemParadas() throws Exception
+    {
+        Programa programa = new Compilador(ModoExecucao.COMPILADO).compilar("programa {\n"
+                + "funcao inicio() {\n"
+                + "inteiro v[3]\n"
+                + "inteiro i = 5\n"
+                + "v[i] = 1\n"
+                + "}\n"
+                + "}", true, null, null);
+
+        final CountDownLatch encerramento = new CountDownLatch(1);
+        final ResultadoExecucao[] resultado = new ResultadoExecucao[1];
+
+        programa.adicionarObservadorExecucao(new ObservadorExecucaoBasico()
+        {
+            @Override
+            public void execucaoEncerrada(Programa programa, ResultadoExecucao resultadoExecucao)
+            {
+                resultado[0] = resultadoExecucao;
+                encerramento.countDown();
+            }
+        });
+
+        programa.executar(new String[0], Programa.Estado.BREAK_POINT);
+        encerramento.await();
+
+        assertEquals(ModoEncerramento.ERRO, resultado[0].getModoEncerramento());
+        assertEquals(5, resultado[0].getErro().getLinha());
+    }
+
+    private static ProgramaOtimizado compila() throws ErroCompilacao
+    {
+        Programa programa = new Compilador(ModoExecucao.COMPILADO, PerfilCompilacao.OTIMIZADO).compilar(CODIGO, true, null, null);
+
+        assertTrue(programa instanceof ProgramaOtimizado);
+
+        return (ProgramaOtimizado) programa;
+    }
+
+    private static NoDeclaracaoVariavel getDeclaracaoSoma(Programa programa)
+    {
+        for (NoDeclaracao declaracao : programa.getArvoreSintaticaAbstrata().getListaDeclaracoesGlobais())
+        {
+            if (declaracao instanceof NoDeclaracaoFuncao)
+            {
+                for (NoBloco bloco : ((NoDeclaracaoFuncao) declaracao).getBlocos())
+                {
+                    if (bloco instanceof NoDeclaracaoVariavel)
+                    {
+                        return (NoDeclaracaoVariavel) bloco;
+                    }
+                }
+            }
+        }
+
+        throw new AssertionError("declaração não encontrada");
+    }
+}
@@ -0,0 +1,180 @@
+package br.univali.portugol.nucleo;
+
+import br.univali.portugol.nucleo.asa.TipoDado;
+import br.univali.portugol.nucleo.execucao.ModoEncerramento;
+import br.univali.portugol.nucleo.execucao.ModoExecucao;
+import br.univali.portugol.nucleo.execucao.ObservadorExecucaoBasico;
+import br.univali.portugol.nucleo.execucao.ResultadoExecucao;
+import br.univali.portugol.nucleo.execucao.es.Armazenador;
+import br.univali.portugol.nucleo.execucao.es.Entrada;
+import br.univali.portugol.nucleo.execucao.es.Saida;
+import br.univali.portugol.nucleo.execucao.es.SaidaBufferizada;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class SaidaBufferizadaTest
+{
+    private static final long SEM_DESCARGA_POR_TEMPO = 0;
+
+    @Test
+    public void testValoresSaoEntreguesEmUmBloco() throws Exception
+    {
+        SaidaRegistrada registrada = new SaidaRegistrada();
+        SaidaBufferizada saida = new SaidaBufferizada(registrada, 1024, SEM_DESCARGA_POR_TEMPO);
+
+        saida.escrever("a");
+        saida.escrever(1);
+        saida.escrever(2.5);
+        saida.escrever('c');
+        saida.escrever(true);
+        saida.escrever(new StringBuilder(" bloco"));
+
+        assertTrue(registrada.getEventos().isEmpty());
+
+        saida.descarregar();
+
+        assertEquals("[a12.5cverdadeiro bloco]", registrada.getEventos().toString());
+    }
+
+    @Test
+    public void testBufferCheioEhDescarregado() throws Exception
+    {
+        SaidaRegistrada registrada = new SaidaRegistrada();
+        SaidaBufferizada saida = new SaidaBufferizada(registrada, 4, SEM_DESCARGA_POR_TEMPO);
+
+        saida.escrever("ab");
+        saida.escrever("cd");
+        saida.escrever("e");
+
+        assertEquals("[abcd]", registrada.getEventos().toString());
+    }
+
+    @Test
+    public void testOrdemEntreEscritasELimpeza() throws Exception
+    {
+        SaidaRegistrada registrada = new SaidaRegistrada();
+        SaidaBufferizada saida = new SaidaBufferizada(registrada, 1024, SEM_DESCARGA_POR_TEMPO);
+
+        saida.escrever("antes");
+        saida.limpar();
+        saida.escrever("depois");
+        saida.descarregar();
+
+        assertEquals("[antes, <limpar>, depois]", registrada.getEventos().toString());
+    }
+
+    @Test(timeout = 10000)
+    public void testTextoEhDescarregadoAposOIntervalo() throws Exception
+    {
+        SaidaRegistrada registrada = new SaidaRegistrada();
+        SaidaBufferizada saida = new SaidaBufferizada(registrada, 1024, 20);
+
+        saida.escrever("a");
+        saida.escrever("b");
+
+        while (registrada.getEventos().isEmpty())
+        {
+            Thread.sleep(5);
+        }
+
+        assertEquals("[ab]", registrada.getEventos().toString());
+    }
+
+    @Test(timeout = 30000)
+    public void testSaidaEhDescarregadaAntesDaLeituraEDoEncerramento() throws Exception
+    {
+        String codigo = "programa { funcao inicio() { inteiro x escreva(\"digite: \") leia(x) escreva(x * 2, \"!\") } }";
+
+        for (ModoExecucao modo : ModoExecucao.values())
+        {
+            final SaidaRegistrada registrada = new SaidaRegistrada();
+            final List<String> textoNaLeitura = new ArrayList<>();
+            final CountDownLatch encerramento = new CountDownLatch(1);
+            final List<String> textoNoEncerramento = new ArrayList<>();
+
+            Programa programa = new Compilador(modo).compilar(codigo, true, null, null);
+            programa.setSaida(new SaidaBufferizada(registrada, 1024, TimeUnit.HOURS.toMillis(1)));
+            programa.setEntrada(new Entrada()
+            {
+                @Override
+                public void solicitaEntrada(TipoDado tipoDado, Armazenador armazenador)
+                {
+                    textoNaLeitura.addAll(registrada.getEventos());
+                    armazenador.setValor(21);
+                }
+            });
+
+            programa.adicionarObservadorExecucao(new ObservadorExecucaoBasico()
+            {
+                @Override
+                public void execucaoEncerrada(Programa programa, ResultadoExecucao resultadoExecucao)
+                {
+                    assertEquals(ModoEncerramento.NORMAL, resultadoExecucao.getModoEncerramento());
+                    textoNoEncerramento.addAll(registrada.getEventos());
+                    encerramento.countDown();
+                }
+            });
+
+            programa.executar(new String[0], Programa.Estado.BREAK_POINT);
+            encerramento.await();
+
+            assertEquals(modo.name(), "[digite: ]", textoNaLeitura.toString());
+            assertEquals(modo.name(), "[digite: , 42!]", textoNoEncerramento.toString());
+
+            programa.descartar();
+        }
+    }
+
+    /**
+     * Registra os blocos de texto e as limpezas recebidos da {@link SaidaBufferizada}.
+     */
+    private static final class SaidaRegistrada implements Saida
+    {
+        private final List<String> eventos = new ArrayList<>();
+
+        synchronized List<String> getEventos()
+        {
+            return new ArrayList<>(eventos);
+        }
+
+        @Override
+        public synchronized void limpar()
+        {
+            eventos.add("<limpar>");
+        }
+
+        @Override
+        public synchronized void escrever(String valor)
+        {
+            eventos.add(valor);
+        }
+
+        @Override
+        public void escrever(boolean valor)
+        {
+            throw new AssertionError("a saída bufferizada entrega somente texto");
+        }
+
+        @Override
+        public void escrever(int valor)
+        {
+            throw new AssertionError("a saída bufferizada entrega somente texto");
+        }
+
+        @Override
+        public void escrever(double valor)
+        {
+            throw new AssertionError("a saída bufferizada entrega somente texto");
+        }
+
+        @Override
+        public void escrever(char valor)
+        {
+            throw new AssertionError("a saída bufferizada entrega somente texto");
+        }
+    }
+}
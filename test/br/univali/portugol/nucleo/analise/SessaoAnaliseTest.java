@@ -0,0 +1,188 @@
+package br.univali.portugol.nucleo.analise;
+
+import br.univali.portugol.nucleo.asa.ASA;
+import br.univali.portugol.nucleo.asa.NoDeclaracao;
+import br.univali.portugol.nucleo.asa.NoDeclaracaoFuncao;
+import br.univali.portugol.nucleo.mensagens.AvisoAnalise;
+import br.univali.portugol.nucleo.mensagens.ErroAnalise;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public final class SessaoAnaliseTest
+{
+    private static final String CODIGO = "programa\n"
+            + "{\n"
+            + "\tinclua biblioteca Matematica --> mat\n"
+            + "\tinteiro total = 0\n"
+            + "\tconst inteiro LIMITE = 10\n"
+            + "\n"
+            + "\tfuncao inicio()\n"
+            + "\t{\n"
+            + "\t\tinteiro a = dobro(LIMITE)\n"
+            + "\t\tescreva(a, \" \", raiz(a * 1.0))\n"
+            + "\t}\n"
+            + "\n"
+            + "\tfuncao inteiro dobro(inteiro x)\n"
+            + "\t{\n"
+            + "\t\ttotal++\n"
+            + "\t\tretorne x * 2\n"
+            + "\t}\n"
+            + "\n"
+            + "\tfuncao real raiz(real x)\n"
+            + "\t{\n"
+            + "\t\tretorne mat.raiz(x, 2.0)\n"
+            + "\t}\n"
+            + "}";
+
+    @Test
+    public void testEdicoesTemOMesmoResultadoDaAnaliseCompleta()
+    {
+        SessaoAnalise sessao = new SessaoAnalise(CODIGO);
+
+        assertFalse(sessao.getResultadoAnalise().contemErros());
+
+        edita(sessao, "\t\tinteiro a = dobro(LIMITE)\n", "\t\tinteiro a = triplo(LIMITE)\n");       // chamada a função não declarada
+        edita(sessao, "\t\tinteiro a = triplo(LIMITE)\n", "\t\tinteiro a = dobro(LIMITE)\n");
+        edita(sessao, "\tinteiro total = 0\n", "\tinteiro total = 0\n\n\n");                         // desloca as funções
+        edita(sessao, "\tinteiro total = 0\n", "\tcadeia total = \"\"\n");                            // dobro depende de total
+        edita(sessao, "\tcadeia total = \"\"\n", "\tinteiro total = 0\n");
+        edita(sessao, "funcao inteiro dobro(inteiro x)", "funcao inteiro dobro(real x)");            // inicio depende de dobro
+        edita(sessao, "\t\ttotal++\n", "\t\ttotal++\n\t\tinteiro x = 1\n");                           // parâmetro redeclarado
+        edita(sessao, "\tinteiro total = 0\n", "\tinteiro total = 0\n\tinteiro a = 1\n");           // a global é ocultada em inicio
+        edita(sessao, "\tinclua biblioteca Matematica --> mat\n", "");                               // raiz depende de mat
+        edita(sessao, "{\n\tinteiro total", "{\n\tinclua biblioteca Matematica --> mat\n\tinteiro total");
+        edita(sessao, "\t\tretorne mat.raiz(x, 2.0)\n", "\t\tretorne\n");                             // erro sintático
+        edita(sessao, "\t\tretorne\n", "\t\tretorne mat.raiz(x, 2.0)\n");
+        edita(sessao, "\n}", "\n\tfuncao vazio extra()\n\t{\n\t\tescreva(dobro(1))\n\t}\n}");        // nova função no fim
+        edita(sessao, "\tinteiro total = 0\n", "\tinteiro total = 0\n\tinteiro g\n");                   // global sem inicialização
+        edita(sessao, "\t\tinteiro a = dobro(LIMITE)\n", "\t\tinteiro a = dobro(LIMITE)\n\t\tg = 1\n");  // inicio inicializa g
+        edita(sessao, "\t\tescreva(dobro(1))\n", "\t\tescreva(dobro(1), g)\n");                        // extra lê g
+        edita(sessao, "\t\tescreva(dobro(1), g)\n", "\t\tescreva(dobro(1),  g)\n");                    // somente extra é analisada
+        edita(sessao, "\t\tg = 1\n", "\t\tescreva(2)\n");                                            // extra lê g sem inicialização
+        edita(sessao, "\t\tescreva(2)\n", "\t\tg = 1\n");
+    }
+
+    @Test
+    public void testSomenteAsDeclaracoesAlteradasPassamNovamentePeloParsing()
+    {
+        SessaoAnalise sessao = new SessaoAnalise(CODIGO);
+
+        NoDeclaracaoFuncao inicio = getFuncao(sessao.getASA(), "inicio");
+        NoDeclaracaoFuncao dobro = getFuncao(sessao.getASA(), "dobro");
+        NoDeclaracaoFuncao raiz = getFuncao(sessao.getASA(), "raiz");
+        int linhaRaiz = raiz.getTrechoCodigoFonteNome().getLinha();
+
+        edita(sessao, "\t\ttotal++\n", "\t\ttotal++\n\t\ttotal++\n");
+
+        assertSame(inicio, getFuncao(sessao.getASA(), "inicio"));
+        assertNotSame(dobro, getFuncao(sessao.getASA(), "dobro"));
+        assertSame(raiz, getFuncao(sessao.getASA(), "raiz"));
+        assertEquals("a função que não mudou é deslocada", linhaRaiz + 1, raiz.getTrechoCodigoFonteNome().getLinha());
+
+        edita(sessao, "funcao real raiz(real x)", "funcao inteiro raiz(real x)");
+
+        assertNotSame("inicio chama raiz, cuja assinatura mudou", inicio, getFuncao(sessao.getASA(), "inicio"));
+    }
+
+    @Test
+    public void testCodigoQueNaoPodeSerSeparadoEAnalisadoPorCompleto()
+    {
+        SessaoAnalise sessao = new SessaoAnalise(CODIGO);
+
+        edita(sessao, "\t\ttotal++\n", "\t\tse (total > 0) {\n\t\ttotal++\n");  // chaves desbalanceadas
+        edita(sessao, "\n}", "\n}\nescreva(1)");                                  // texto após o programa
+
+        assertTrue(sessao.getResultadoAnalise().contemErrosSintaticos());
+
+        edita(sessao, "\n}\nescreva(1)", "\n}");
+        edita(sessao, "\t\tse (total > 0) {\n\t\ttotal++\n", "\t\ttotal++\n");
+
+        assertFalse(sessao.getResultadoAnalise().contemErros());
+    }
+
+    @Test
+    public void testRenomearUmParametroAtualizaAsMensagensDasChamadas() throws Exception
+    {
+        File arquivo = new File("test/br/univali/portugol/nucleo/execucao/arquivos/testeConversaoAutomaticaDeTipos.por");
+        SessaoAnalise sessao = new SessaoAnalise(new String(Files.readAllBytes(arquivo.toPath()), StandardCharsets.UTF_8));
+
+        assertTrue(getTextos(sessao.getResultadoAnalise()).toString().contains("\"x\""));
+
+        edita(sessao, "funcao real testa(inteiro x)", "funcao real testa(inteiro zz)");
+        sessao.editar(sessao.getCodigo().lastIndexOf("retorne x") + "retorne ".length(), 1, "zz");  // o retorno de testa
+
+        List<String> textos = getTextos(sessao.getResultadoAnalise());
+
+        assertEquals(getTextos(new AnalisadorAlgoritmo().analisar(sessao.getCodigo())), textos);
+        assertTrue(textos.toString().contains("\"zz\""));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEdicaoForaDoCodigo()
+    {
+        new SessaoAnalise(CODIGO).editar(CODIGO.length(), 1, "");
+    }
+
+    /**
+     * Substitui o trecho na sessão e verifica se as mensagens são as mesmas da análise completa
+     * do código resultante. O texto das mensagens não é comparado porque alguns exemplos são
+     * sorteados.
+     */
+    private static void edita(SessaoAnalise sessao, String trecho, String substituto)
+    {
+        int posicao = sessao.getCodigo().indexOf(trecho);
+
+        assertTrue(trecho, posicao >= 0);
+
+        ResultadoAnalise resultado = sessao.editar(posicao, trecho.length(), substituto);
+
+        assertEquals(sessao.getCodigo(), getMensagens(new AnalisadorAlgoritmo().analisar(sessao.getCodigo())), getMensagens(resultado));
+    }
+
+    private static List<String> getMensagens(ResultadoAnalise resultado)
+    {
+        List<String> mensagens = new ArrayList<>();
+
+        for (ErroAnalise erro : resultado.getErros())
+        {
+            mensagens.add(erro.getLinha() + ":" + erro.getColuna() + " " + erro.getClass().getSimpleName());
+        }
+
+        for (AvisoAnalise aviso : resultado.getAvisos())
+        {
+            mensagens.add(aviso.getLinha() + ":" + aviso.getColuna() + " " + aviso.getClass().getSimpleName());
+        }
+
+        return mensagens;
+    }
+
+    private static List<String> getTextos(ResultadoAnalise resultado)
+    {
+        List<String> textos = new ArrayList<>();
+
+        for (AvisoAnalise aviso : resultado.getAvisos())
+        {
+            textos.add(aviso.getLinha() + ":" + aviso.getColuna() + " " + aviso.getMensagem());
+        }
+
+        return textos;
+    }
+
+    private static NoDeclaracaoFuncao getFuncao(ASA asa, String nome)
+    {
+        for (NoDeclaracao declaracao : asa.getListaDeclaracoesGlobais())
+        {
+            if (declaracao instanceof NoDeclaracaoFuncao && declaracao.getNome().equals(nome))
+            {
+                return (NoDeclaracaoFuncao) declaracao;
+            }
+        }
+
+        throw new AssertionError("função " + nome + " não encontrada");
+    }
+}
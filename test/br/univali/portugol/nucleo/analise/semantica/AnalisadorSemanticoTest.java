@@ -6,7 +6,20 @@ import br.univali.portugol.nucleo.analise.ResultadoAnalise;
 import br.univali.portugol.nucleo.analise.semantica.erros.ErroSimboloNaoDeclarado;
 import br.univali.portugol.nucleo.analise.semantica.erros.ErroSimboloNaoInicializado;
 import br.univali.portugol.nucleo.analise.semantica.erros.ErroTiposIncompativeis;
+import br.univali.portugol.nucleo.analise.sintatica.AnalisadorSintatico;
+import br.univali.portugol.nucleo.asa.ASAPrograma;
+import br.univali.portugol.nucleo.asa.ExcecaoVisitaASA;
+import br.univali.portugol.nucleo.asa.NoChamadaFuncao;
+import br.univali.portugol.nucleo.asa.NoDeclaracaoParametro;
+import br.univali.portugol.nucleo.asa.NoDeclaracaoVariavel;
+import br.univali.portugol.nucleo.asa.NoDeclaracaoVetor;
+import br.univali.portugol.nucleo.asa.NoReferenciaVariavel;
 import br.univali.portugol.nucleo.asa.TipoDado;
+import br.univali.portugol.nucleo.asa.VisitanteNulo;
+import br.univali.portugol.nucleo.mensagens.AvisoAnalise;
+import br.univali.portugol.nucleo.mensagens.ErroSemantico;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
 import static org.junit.Assert.*;
 import org.junit.Test;
 
@@ -331,4 +344,146 @@ public final class AnalisadorSemanticoTest
             assertEquals("Tipos incompatíveis! O comando \"escolha\" espera uma expressão do tipo \"" + TipoDado.INTEIRO + "\" ou \"" + TipoDado.CARACTER + "\" mas foi passada uma expressão do tipo \"" + TipoDado.CADEIA + "\".", resultado.getErros().get(0).getMensagem());
         }
     }
+
+    @Test
+    public void testAnaliseParalelaTemOMesmoResultadoDaSequencial() throws Exception
+    {
+        String codigo = "programa\n"
+                + "{\n"
+                + "\tinteiro a, b, c\n"
+                + "\tinteiro v[2]\n"
+                + "\tfuncao inicio() { leia(a) }\n"
+                + "\tfuncao f1() { escreva(a, b) }\n"
+                + "\tfuncao f2() { leia(b) escreva(c) }\n"
+                + "\tfuncao f3() { escreva(a, b, c) c = 1 }\n"
+                + "\tfuncao f4(inteiro p, inteiro w[]) { escreva(c, x) }\n"
+                + "\tinteiro d = a\n"
+                + "\tfuncao f5() { inteiro a escreva(a) real r = 1 }\n"
+                + "\tfuncao f6() { escreva(a + b + c) v[0] = \"x\" f4(1, v) }\n"
+                + "}";
+
+        String sequencial = analisar(codigo, 1);
+
+        assertTrue(sequencial, sequencial.contains("8:29 ErroSimboloNaoInicializado"));
+        assertFalse("c foi inicializada pela função f3", sequencial.contains("9:45 ErroSimboloNaoInicializado"));
+
+        for (int numeroThreads = 2; numeroThreads <= 7; numeroThreads++)
+        {
+            assertEquals(sequencial, analisar(codigo, numeroThreads));
+        }
+    }
+
+    @Test
+    public void testAnaliseParalelaNoServicoDoAnalisador() throws Exception
+    {
+        String codigo = "programa\n"
+                + "{\n"
+                + "\tinclua biblioteca Matematica --> mat\n"
+                + "\treal pi = mat.PI, r = mat.raiz(4.0, 2.0)\n"
+                + "\tfuncao inicio() { escreva(mat.potencia(pi, 2.0)) }\n"
+                + "\tfuncao f1() { escreva(mat.PI + r) }\n"
+                + "\tfuncao f2() { real x = mat.arredondar(pi, 2) escreva(x) }\n"
+                + "\tfuncao f3() { escreva(mat.E) }\n"
+                + "}";
+
+        ThreadPoolExecutor servico = (ThreadPoolExecutor) Executors.newFixedThreadPool(2);
+
+        try
+        {
+            String sequencial = analisar(codigo, 1, null);
+
+            assertEquals(sequencial, analisar(codigo, 4, servico));
+            assertEquals("as partes são analisadas no serviço do analisador", 3, servico.getTaskCount());
+        }
+        finally
+        {
+            servico.shutdown();
+        }
+    }
+
+    private static String analisar(String codigo, int numeroThreads) throws Exception
+    {
+        return analisar(codigo, numeroThreads, null);
+    }
+
+    /**
+     * @param servico o serviço da análise paralela, ou <code>null</code> para usar o padrão
+     */
+    private static String analisar(String codigo, int numeroThreads, ThreadPoolExecutor servico) throws Exception
+    {
+        final StringBuilder resultado = new StringBuilder();
+        ASAPrograma asa = (ASAPrograma) new AnalisadorSintatico().analisar(codigo);
+        AnalisadorSemantico analisador = new AnalisadorSemantico();
+
+        analisador.setNumeroThreadsAnalise(numeroThreads);
+
+        if (servico != null)
+        {
+            analisador.setServicoAnalise(servico);
+        }
+
+        analisador.adicionarObservador(new ObservadorAnaliseSemantica()
+        {
+            @Override
+            public void tratarErroSemantico(ErroSemantico erro)
+            {
+                resultado.append(erro.getLinha()).append(':').append(erro.getColuna()).append(' ').append(erro.getClass().getSimpleName()).append('\n');
+            }
+
+            @Override
+            public void tratarAviso(AvisoAnalise aviso)
+            {
+                resultado.append(aviso.getLinha()).append(':').append(aviso.getColuna()).append(' ').append(aviso.getClass().getSimpleName()).append('\n');
+            }
+        });
+
+        analisador.analisar(asa);
+
+        resultado.append(asa.getTotalVariaveisDeclaradas()).append(' ').append(asa.getTotalVetoresDeclarados()).append(' ').append(asa.getTotalMatrizesDeclaradas()).append('\n');
+
+        asa.aceitar(new VisitanteNulo()
+        {
+            @Override
+            public Object visitar(NoDeclaracaoVariavel declaracao) throws ExcecaoVisitaASA
+            {
+                resultado.append(declaracao.getNome()).append(' ').append(declaracao.getIdParaInspecao()).append(' ').append(declaracao.getReferencias().size()).append('\n');
+
+                return super.visitar(declaracao);
+            }
+
+            @Override
+            public Object visitar(NoDeclaracaoVetor declaracao) throws ExcecaoVisitaASA
+            {
+                resultado.append(declaracao.getNome()).append(' ').append(declaracao.getIdParaInspecao()).append(' ').append(declaracao.getReferencias().size()).append('\n');
+
+                return super.visitar(declaracao);
+            }
+
+            @Override
+            public Object visitar(NoDeclaracaoParametro declaracao) throws ExcecaoVisitaASA
+            {
+                resultado.append(declaracao.getNome()).append(' ').append(declaracao.getIdParaInspecao()).append(' ').append(declaracao.getReferencias().size()).append('\n');
+
+                return super.visitar(declaracao);
+            }
+
+            @Override
+            public Object visitar(NoReferenciaVariavel referencia) throws ExcecaoVisitaASA
+            {
+                resultado.append(referencia.getNome()).append(' ').append(referencia.isVariavelDeBiblioteca()).append(' ').append(referencia.getTipoBiblioteca()).append('\n');
+
+                return super.visitar(referencia);
+            }
+
+            @Override
+            public Object visitar(NoChamadaFuncao chamada) throws ExcecaoVisitaASA
+            {
+                resultado.append(chamada.getNome()).append(' ').append(chamada.isFuncaoDeBiblioteca()).append(' ').append(chamada.getTipoRetornoBiblioteca()).append('\n');
+
+                return super.visitar(chamada);
+            }
+        });
+
+        return resultado.toString();
+    }
 }
@@ -0,0 +1,120 @@
+package br.univali.portugol.nucleo.analise.sintatica;
+
+import br.univali.portugol.nucleo.analise.sintatica.AnalisadorSintatico.TipoToken;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public final class AnalisadorLexicoTest
+{
+    private static final String CODIGO = "programa\n"
+            + "{\n"
+            + "\tinclua biblioteca Matematica --> mat\n"
+            + "\t/* comentário\n"
+            + "\t   de várias linhas */\n"
+            + "\tconst real PI = 3.14\n"
+            + "\n"
+            + "\tfuncao inicio() // comentário de linha\n"
+            + "\t{\n"
+            + "\t\tcadeia c = \"texto \\\" com aspas\"\n"
+            + "\t\tcaracter l = 'a'\n"
+            + "\t\tse (c != \"\" e nao falso) { escreva(c, l, mat.raiz(PI, 2.0)) }\n"
+            + "\t}\n"
+            + "}\n";
+
+    @Test
+    public void testTokensEClassificacao()
+    {
+        AnalisadorLexico analisador = new AnalisadorLexico("programa { inteiro a = 10 // fim\n}");
+
+        int[] tokens = analisador.getTokens();
+
+        assertEquals(8 * 3, tokens.length);
+        assertEquals(PortugolLexer.PR_PROGRAMA, tokens[AnalisadorLexico.TIPO]);
+        assertEquals(0, tokens[AnalisadorLexico.INICIO]);
+        assertEquals(8, tokens[AnalisadorLexico.TAMANHO]);
+
+        assertEquals(TipoToken.PALAVRA_RESERVADA, analisador.getTipoToken(0));
+        assertEquals(TipoToken.OPERADOR, analisador.getTipoToken(1));
+        assertEquals(TipoToken.PALAVRA_RESERVADA, analisador.getTipoToken(2));
+        assertEquals(TipoToken.ID, analisador.getTipoToken(3));
+        assertEquals(TipoToken.OPERADOR, analisador.getTipoToken(4));
+        assertEquals(TipoToken.TIPO_PRIMITIVO, analisador.getTipoToken(5));
+        assertEquals(PortugolLexer.COMENTARIO, analisador.getTipo(6));
+        assertEquals("// fim\n", analisador.getCodigo().substring(analisador.getInicio(6), analisador.getInicio(6) + analisador.getTamanho(6)));
+
+        assertEquals(3, analisador.getIndiceToken(analisador.getInicio(3)));
+        assertEquals(analisador.getQuantidadeTokens(), analisador.getIndiceToken(analisador.getCodigo().length()));
+    }
+
+    @Test
+    public void testEdicaoSeparaNovamenteSomenteATrechoAfetado()
+    {
+        AnalisadorLexico analisador = new AnalisadorLexico(CODIGO);
+        int posicao = CODIGO.indexOf("escreva");
+        int indice = analisador.getIndiceToken(posicao);
+        int quantidade = analisador.getQuantidadeTokens();
+
+        int primeiroAlterado = analisador.editar(posicao, 0, "\n\t\t");
+
+        assertEquals("a separação recomeça no início da linha", analisador.getIndiceToken(CODIGO.lastIndexOf('\n', posicao) + 1), primeiroAlterado);
+        assertTrue(primeiroAlterado < indice);
+        assertEquals(quantidade, analisador.getQuantidadeTokens());
+        assertArrayEquals(new AnalisadorLexico(analisador.getCodigo()).getTokens(), analisador.getTokens());
+    }
+
+    @Test
+    public void testEdicoesQueAlteramTokensDeOutrasLinhas()
+    {
+        edita(CODIGO, "\t/* comentário", "\t// comentário");                     // o fim do comentário vira código
+        edita(CODIGO, "de várias linhas */", "de várias linhas");                 // o comentário avança até outro */
+        edita(CODIGO, "\"texto \\\" com", "\"texto \\\n com");                   // a cadeia passa a ter duas linhas
+        edita(CODIGO, "com aspas\"", "com aspas");                                // aspas sem fechamento
+        edita(edita(CODIGO, "com aspas\"", "com aspas"), "com aspas", "com aspas\"");
+        edita(edita(CODIGO, "'a'", "'a"), "'a", "'a'");
+    }
+
+    @Test
+    public void testEdicoesAleatoriasTemOMesmoResultadoDaSeparacaoCompleta()
+    {
+        Random random = new Random(22);
+        String trechos[] = { "\n", "\"", "'", "/*", "*/", "//", " ", "a", "1", ".", "-->", "{", "}", "se", "\\" };
+
+        for (int repeticao = 0; repeticao < 20; repeticao++)
+        {
+            AnalisadorLexico analisador = new AnalisadorLexico(CODIGO);
+
+            for (int i = 0; i < 50; i++)
+            {
+                String codigo = analisador.getCodigo();
+                int posicao = random.nextInt(codigo.length() + 1);
+                int removidos = random.nextInt(Math.min(4, codigo.length() - posicao) + 1);
+                String inserido = random.nextBoolean() ? trechos[random.nextInt(trechos.length)] : "";
+
+                analisador.editar(posicao, removidos, inserido);
+
+                assertArrayEquals(analisador.getCodigo(), new AnalisadorLexico(analisador.getCodigo()).getTokens(), analisador.getTokens());
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEdicaoForaDoCodigo()
+    {
+        new AnalisadorLexico(CODIGO).editar(CODIGO.length(), 1, "");
+    }
+
+    private static String edita(String codigo, String trecho, String substituto)
+    {
+        int posicao = codigo.indexOf(trecho);
+
+        assertTrue(trecho, posicao >= 0);
+
+        AnalisadorLexico analisador = new AnalisadorLexico(codigo);
+        analisador.editar(posicao, trecho.length(), substituto);
+
+        assertArrayEquals(analisador.getCodigo(), new AnalisadorLexico(analisador.getCodigo()).getTokens(), analisador.getTokens());
+
+        return analisador.getCodigo();
+    }
+}
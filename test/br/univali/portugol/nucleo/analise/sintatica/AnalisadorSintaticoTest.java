@@ -0,0 +1,123 @@
+package br.univali.portugol.nucleo.analise.sintatica;
+
+import br.univali.portugol.nucleo.mensagens.ErroSintatico;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public final class AnalisadorSintaticoTest
+{
+    private static final String[] CODIGOS =
+    {
+        "programa { funcao inicio() { inteiro a = 10 escreva(a * 2) } }",
+        "programa { funcao inicio() { inteiro a = } }",
+        "programa { funcao inicio() { se (verdadeiro { } } }",
+        "programa { funcao inicio() { para (inteiro i = 0; i < 10) { } } }",
+        "programa { funcao inicio() { escreva(\"ok\") } } escreva(1)",
+        "programa { inteiro v[3] = {1, 2 funcao inicio() { } }"
+    };
+
+    @Test(timeout = 60000)
+    public void testAnalisesConcorrentesComUmMesmoAnalisador() throws Exception
+    {
+        final AnalisadorSintatico analisador = new AnalisadorSintatico();
+        final List<List<String>> esperados = new ArrayList<>();
+
+        for (String codigo : CODIGOS)
+        {
+            esperados.add(analisar(analisador, codigo));
+        }
+
+        assertTrue(esperados.get(0).isEmpty());
+        assertFalse(esperados.get(1).isEmpty());
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try
+        {
+            List<Future<Integer>> resultados = new ArrayList<>();
+
+            for (int thread = 0; thread < 8; thread++)
+            {
+                final int deslocamento = thread;
+
+                resultados.add(executor.submit(new Callable<Integer>()
+                {
+                    @Override
+                    public Integer call() throws Exception
+                    {
+                        int analises = 0;
+
+                        for (int i = 0; i < 200; i++)
+                        {
+                            int indice = (i + deslocamento) % CODIGOS.length;
+
+                            assertEquals(CODIGOS[indice], esperados.get(indice), analisar(analisador, CODIGOS[indice]));
+                            analises++;
+                        }
+
+                        return analises;
+                    }
+                }));
+            }
+
+            for (Future<Integer> resultado : resultados)
+            {
+                assertEquals(200, resultado.get().intValue());
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testErrosNaoSaoImpressosNoConsole()
+    {
+        PrintStream saida = System.out;
+        PrintStream saidaErro = System.err;
+        ByteArrayOutputStream console = new ByteArrayOutputStream();
+
+        System.setOut(new PrintStream(console));
+        System.setErr(new PrintStream(console));
+
+        try
+        {
+            for (String codigo : CODIGOS)
+            {
+                analisar(new AnalisadorSintatico(), codigo + " ¨");
+            }
+        }
+        finally
+        {
+            System.setOut(saida);
+            System.setErr(saidaErro);
+        }
+
+        assertEquals("", console.toString());
+    }
+
+    private static List<String> analisar(AnalisadorSintatico analisador, String codigo)
+    {
+        final List<String> erros = new ArrayList<>();
+
+        analisador.analisar(codigo, new ObservadorAnaliseSintatica()
+        {
+            @Override
+            public void tratarErroSintatico(ErroSintatico erroSintatico)
+            {
+                erros.add(erroSintatico.getLinha() + ":" + erroSintatico.getColuna() + " " + erroSintatico.getClass().getSimpleName());
+            }
+        });
+
+        return erros;
+    }
+}
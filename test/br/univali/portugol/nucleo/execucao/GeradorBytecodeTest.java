@@ -0,0 +1,255 @@
+package br.univali.portugol.nucleo.execucao;
+
+import br.univali.portugol.nucleo.CompilacaoTeste;
+import br.univali.portugol.nucleo.ExecucaoTeste;
+import br.univali.portugol.nucleo.Programa;
+import br.univali.portugol.nucleo.analise.AnalisadorAlgoritmo;
+import br.univali.portugol.nucleo.analise.ResultadoAnalise;
+import br.univali.portugol.nucleo.asa.ASAPrograma;
+import br.univali.portugol.nucleo.execucao.es.EntradaRoteirizada;
+import br.univali.portugol.nucleo.execucao.gerador.GeradorBytecode;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilenameFilter;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class GeradorBytecodeTest
+{
+    private static final String NOME_CLASSE = "programas.ProgramaBytecode";
+
+    private static final String ENTRADA_ARQUIVOS = "3\nverdadeiro\ntexto\n1\n2\n3\n4\n5\n6"; // os arquivos que leem valores recebem a mesma entrada nos dois caminhos
+
+    @Test
+    public void testArquivosDeTesteSaoVerificadosPelaJVM() throws Exception
+    {
+        int programasGerados = 0;
+
+        for (File arquivo : listaArquivosDeTeste())
+        {
+            ASAPrograma asa = analisa(leArquivo(arquivo));
+
+            for (boolean ativado : new boolean[] { false, true })
+            {
+                Map<String, byte[]> bytecodes = new GeradorBytecode(1010).gera(asa, NOME_CLASSE, ativado, ativado, ativado);
+
+                if (bytecodes != null)
+                {
+                    assertNotNull(arquivo.getName(), carrega(bytecodes)); // a JVM verifica a classe ao instanciá-la
+                    programasGerados++;
+                }
+            }
+        }
+
+        assertTrue(programasGerados > 0);
+    }
+
+    @Test(timeout = 300000)
+    public void testArquivosDeTesteTemAMesmaSaidaDoCodigoJava() throws Exception
+    {
+        CotasExecucao cotas = new CotasExecucao();
+        cotas.setMaximoEscritas(5000); // alguns arquivos escrevem em laços infinitos
+
+        int programasComparados = 0;
+
+        for (File arquivo : listaArquivosDeTeste())
+        {
+            String codigo = leArquivo(arquivo);
+            Map<String, byte[]> bytecodes = new GeradorBytecode(1010).gera(analisa(codigo), NOME_CLASSE, true, true, false);
+
+            if (bytecodes == null)
+            {
+                continue;
+            }
+
+            Programa programaBytecode = carrega(bytecodes);
+            Programa programaJavac = CompilacaoTeste.compila(codigo, ModoExecucao.COMPILADO, true);
+
+            programaBytecode.setCotasExecucao(cotas);
+            programaJavac.setCotasExecucao(cotas);
+
+            ExecucaoTeste bytecode = ExecucaoTeste.executa(programaBytecode, new EntradaRoteirizada(ENTRADA_ARQUIVOS));
+            ExecucaoTeste javac = ExecucaoTeste.executa(programaJavac, new EntradaRoteirizada(ENTRADA_ARQUIVOS));
+
+            assertEquals(arquivo.getName(), javac.getSaida(), bytecode.getSaida());
+            assertEquals(arquivo.getName(), javac.getResultado().getModoEncerramento(), bytecode.getResultado().getModoEncerramento());
+            assertEquals(arquivo.getName(), classeErro(javac), classeErro(bytecode));
+
+            programasComparados++;
+        }
+
+        assertTrue(programasComparados > 0);
+    }
+
+    @Test
+    public void testOperacoesAritmeticas() throws Exception
+    {
+        String codigo = "programa { funcao inicio() { "
+                + "inteiro a = 7, b = 2 "
+                + "real r = a / b "
+                + "escreva(a + b, \" \", a - b, \" \", a * b, \" \", a / b, \" \", a % b, \" \", r, \" \", a / 2.0, \" \", -a, \" \", a & b, \" \", a | b, \" \", a ^ b, \" \", a << 1, \" \", a >> 1, \" \", ~a) "
+                + "a += 3 a++ b-- "
+                + "escreva(\" \", a, \" \", b) "
+                + "} }";
+
+        assertEquals("9 5 14 3 1 3.0 3.5 -7 2 7 5 14 3 -8 11 1", executa(codigo));
+    }
+
+    @Test
+    public void testCadeiasECaracteres() throws Exception
+    {
+        String codigo = "programa { funcao inicio() { "
+                + "cadeia c = \"a\" + 1 + 2.5 + verdadeiro + 'x' "
+                + "caracter d = 'y' "
+                + "escreva(c, \" \", c == \"a12.5truex\", \" \", d, \" \", 1 + 2 + \"b\") "
+                + "} }";
+
+        assertEquals("a12.5truex true y 3b", executa(codigo));
+    }
+
+    @Test
+    public void testEstruturasDeControle() throws Exception
+    {
+        String codigo = "programa { funcao inicio() { "
+                + "inteiro soma = 0 "
+                + "para (inteiro i = 0; i < 10; i++) { se (i > 7 ou i < 0) { pare } soma += i } "
+                + "inteiro j = 0 "
+                + "enquanto (j < 3 e nao (soma == 0)) { j++ } "
+                + "faca { j-- } enquanto (j > 0) "
+                + "escreva(soma, \" \", j) "
+                + "escolha (soma) { caso 1: escreva(\" um\") pare caso 28: escreva(\" vinte e oito\") caso contrario: escreva(\" outro\") } "
+                + "} }";
+
+        assertEquals("28 0 vinte e oito outro", executa(codigo));
+    }
+
+    @Test
+    public void testVetoresMatrizesEFuncoes() throws Exception
+    {
+        String codigo = "programa { "
+                + "inteiro v[] = {3, 1, 2} "
+                + "real m[2][2] "
+                + "const inteiro N = 3 "
+                + "funcao inicio() { "
+                + "m[1][0] = soma(v, N) "
+                + "escreva(m[1][0], \" \", fatorial(5), \" \", maior({4, 9, 2})) "
+                + "} "
+                + "funcao inteiro soma(inteiro vet[], inteiro n) { inteiro s = 0 para (inteiro i = 0; i < n; i++) { s += vet[i] } retorne s } "
+                + "funcao inteiro fatorial(inteiro n) { se (n <= 1) { retorne 1 } retorne n * fatorial(n - 1) } "
+                + "funcao inteiro maior(inteiro vet[]) { inteiro r = vet[0] para (inteiro i = 1; i < 3; i++) { se (vet[i] > r) { r = vet[i] } } retorne r } "
+                + "}";
+
+        assertEquals("6.0 120 9", executa(codigo));
+    }
+
+    @Test
+    public void testProgramasNaoSuportadosNaoSaoGerados() throws Exception
+    {
+        String codigo = "programa { inclua biblioteca Matematica --> mat funcao inicio() { escreva(mat.PI) } }";
+
+        assertNull(new GeradorBytecode(1010).gera(analisa(codigo), NOME_CLASSE, true, true, true));
+    }
+
+    @Test
+    public void testInterrupcao() throws Exception
+    {
+        Programa programa = carrega(new GeradorBytecode(1010).gera(analisa("programa { funcao inicio() { enquanto (verdadeiro) { } } }"), NOME_CLASSE, true, false, false));
+
+        final CountDownLatch encerramento = new CountDownLatch(1);
+        final ResultadoExecucao[] resultado = new ResultadoExecucao[1];
+
+        programa.adicionarObservadorExecucao(new ObservadorExecucaoBasico()
+        {
+            @Override
+            public void execucaoEncerrada(Programa programa, ResultadoExecucao resultadoExecucao)
+            {
+                resultado[0] = resultadoExecucao;
+                encerramento.countDown();
+            }
+        });
+
+        programa.executar(new String[0], Programa.Estado.BREAK_POINT);
+        Thread.sleep(100);
+        programa.interromper();
+
+        assertTrue(encerramento.await(10, TimeUnit.SECONDS));
+        assertEquals(ModoEncerramento.INTERRUPCAO, resultado[0].getModoEncerramento());
+    }
+
+    private static File[] listaArquivosDeTeste()
+    {
+        File diretorio = new File("./test/br/univali/portugol/nucleo/execucao/arquivos");
+        File[] arquivos = diretorio.listFiles(new FilenameFilter()
+        {
+            @Override
+            public boolean accept(File dir, String name)
+            {
+                return name.endsWith(".por");
+            }
+        });
+
+        assertNotNull(arquivos);
+
+        return arquivos;
+    }
+
+    private ASAPrograma analisa(String codigo) throws Exception
+    {
+        AnalisadorAlgoritmo analisador = new AnalisadorAlgoritmo();
+        ResultadoAnalise resultado = analisador.analisar(codigo);
+
+        assertFalse(resultado.getErros().toString(), resultado.contemErros());
+
+        return (ASAPrograma) analisador.getASA();
+    }
+
+    private String executa(String codigo) throws Exception
+    {
+        Map<String, byte[]> bytecodes = new GeradorBytecode(1010).gera(analisa(codigo), NOME_CLASSE, true, true, true);
+
+        assertNotNull("o programa deveria ser suportado pelo gerador de bytecode", bytecodes);
+
+        return ExecucaoTeste.executa(carrega(bytecodes));
+    }
+
+    private Programa carrega(final Map<String, byte[]> bytecodes) throws Exception
+    {
+        ClassLoader carregador = new ClassLoader(Programa.class.getClassLoader())
+        {
+            @Override
+            protected Class<?> findClass(String nome) throws ClassNotFoundException
+            {
+                byte[] bytecode = bytecodes.get(nome);
+
+                if (bytecode == null)
+                {
+                    throw new ClassNotFoundException(nome);
+                }
+
+                return defineClass(nome, bytecode, 0, bytecode.length);
+            }
+        };
+
+        return (Programa) carregador.loadClass(NOME_CLASSE).newInstance();
+    }
+
+    private static Class<?> classeErro(ExecucaoTeste execucao)
+    {
+        Object erro = execucao.getResultado().getErro();
+
+        return (erro != null) ? erro.getClass() : null;
+    }
+
+    private String leArquivo(File arquivo) throws Exception
+    {
+        try (InputStream stream = new FileInputStream(arquivo); Scanner scanner = new Scanner(stream, "UTF-8"))
+        {
+            return scanner.useDelimiter("\\A").hasNext() ? scanner.next() : "";
+        }
+    }
+}
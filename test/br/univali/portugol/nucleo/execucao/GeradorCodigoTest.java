@@ -4,7 +4,6 @@ import br.univali.portugol.nucleo.execucao.gerador.GeradorCodigoJava;
 import br.univali.portugol.nucleo.analise.AnalisadorAlgoritmo;
 import br.univali.portugol.nucleo.analise.ResultadoAnalise;
 import br.univali.portugol.nucleo.asa.ASAPrograma;
-import br.univali.portugol.nucleo.execucao.gerador.PreCompilador;
 import br.univali.portugol.nucleo.mensagens.ErroAnalise;
 import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
@@ -32,7 +31,6 @@ public class GeradorCodigoTest
     public GeradorCodigoTest()
     {
         int seed = 1010;
-        PreCompilador.setSeedGeracaoNomesValidos(seed);
         gerador = new GeradorCodigoJava(seed);
     }
 
@@ -78,6 +76,12 @@ public class GeradorCodigoTest
         comparaCodigos();
     }
     
+    @Test
+    public void testeReferenciaCopiadaNasChamadas() throws Exception
+    {
+        comparaCodigos(); // a variável usada no laço é copiada antes e depois da chamada
+    }
+    
     @Test
     public void testeParametroPorReferencia() throws Exception
     {
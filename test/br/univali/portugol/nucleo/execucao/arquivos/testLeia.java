@@ -14,21 +14,28 @@ public class testLeia extends Programa
     protected void executar(String[] parametros) throws ErroExecucao, InterruptedException
     {
         int opcao;
+        registrarPosicao(5, 8);
         opcao = leiaInteiro();
         boolean teste;
+        registrarPosicao(7, 8);
         teste = leiaLogico();
         String testeCadeia = "inicializada";
+        registrarPosicao(9, 8);
         testeCadeia = leiaCadeia();
         int a;
         int b;
         int c;
+        registrarPosicao(11, 8);
         a = leiaInteiro();
         b = leiaInteiro();
         c = leiaInteiro();
         int vetor[] = new int[3];
+        registrarPosicao(13, 8);
         vetor[0] = leiaInteiro();
         int matriz[][] = new int[3][2];
+        registrarPosicao(15, 8);
         matriz[0][1] = leiaInteiro();
+        registrarPosicao(16, 8);
         matriz[(0 + 1) % 3][1 / 5 + 6 * 2] = leiaInteiro();
     }
 }
@@ -41,10 +41,7 @@ public class testeCodigoParaVariaveisInspecionadas extends Programa
         
         if (vetoresInspecionados[0] != null)
         {
-            for (int i_1010 = 0; i_1010 < vetoresInspecionados[0].tamanho; i_1010++)
-            {
-                vetoresInspecionados[0].setValor(vetor[i_1010], i_1010);
-            }
+            vetoresInspecionados[0].setDados(vetor);
         }
 
         
@@ -52,25 +49,19 @@ public class testeCodigoParaVariaveisInspecionadas extends Programa
         
         if (vetoresInspecionados[0] != null)
         {
-            vetoresInspecionados[0].setValor(vetor[1], 1);
+            vetoresInspecionados[0].alterado(vetor, 1);
         }
         
         int matriz[][] = new int[][]{{1, 2}, {3, 4}};
         if (matrizesInspecionadas[0] != null)
         {
-            for (int i_1010 = 0; i_1010 < matrizesInspecionadas[0].linhas; i_1010++)
-            {
-                for (int j_1010 = 0; j_1010 < matrizesInspecionadas[0].colunas; j_1010++)
-                {
-                    matrizesInspecionadas[0].setValor(matriz[i_1010][j_1010], i_1010, j_1010);
-                }
-            }
+            matrizesInspecionadas[0].setDados(matriz);
         }
         
         matriz[0][1] = 100;
         if (matrizesInspecionadas[0] != null)
         {
-            matrizesInspecionadas[0].setValor(matriz[0][1], 0, 1);
+            matrizesInspecionadas[0].alterado(matriz, 0, 1);
         }
         
         teste(x, vetor, matriz);
@@ -95,29 +86,12 @@ public class testeCodigoParaVariaveisInspecionadas extends Programa
         
         if (vetoresInspecionados[1] != null)
         {
-            if (vetoresInspecionados[1].tamanho != v.length)
-            {
-                inspecionaVetor(1, v.length);
-            }
-            for (int i_1010 = 0; i_1010 < vetoresInspecionados[1].tamanho; i_1010++)
-            {
-                vetoresInspecionados[1].setValor(v[i_1010], i_1010);
-            }
+            vetoresInspecionados[1].setDados(v);
         }
         
         if (matrizesInspecionadas[1] != null)
         {
-            if (matrizesInspecionadas[1].linhas != m.length)
-            {
-                inspecionaMatriz(1, m.length, m[0].length);
-            }
-            for (int i_1010 = 0; i_1010 < matrizesInspecionadas[1].linhas; i_1010++)
-            {
-                for (int j_1010 = 0; j_1010 < matrizesInspecionadas[1].colunas; j_1010++)
-                {
-                    matrizesInspecionadas[1].setValor(m[i_1010][j_1010], i_1010, j_1010);
-                }
-            }
+            matrizesInspecionadas[1].setDados(m);
         }
         
         a = a + 1;
@@ -129,13 +103,13 @@ public class testeCodigoParaVariaveisInspecionadas extends Programa
         v[0] = 1;
         if (vetoresInspecionados[1] != null)
         {
-            vetoresInspecionados[1].setValor(v[0], 0);
+            vetoresInspecionados[1].alterado(v, 0);
         }
         
         m[0][0] = 1;
         if (matrizesInspecionadas[1] != null)
         {
-            matrizesInspecionadas[1].setValor(m[0][0], 0, 0);
+            matrizesInspecionadas[1].alterado(m, 0, 0);
         }
     }
 }
@@ -19,12 +19,14 @@ public class testeLeiaComParametroPorReferencia extends Programa
     {
         REFS_INT[INDICE_X_0] = 0;
         ler(INDICE_X_0);
-        escreva("valor digitado: ", REFS_INT[INDICE_X_0]);
+        escreva("valor digitado: ");
+        escreva(REFS_INT[INDICE_X_0]);
 
     }
 
     private int ler(int x) throws ErroExecucao, InterruptedException
     {
+        registrarPosicao(12, 2);
         REFS_INT[x] = leiaInteiro();
         return REFS_INT[x];
 
@@ -0,0 +1,44 @@
+package programas;
+
+import br.univali.portugol.nucleo.mensagens.ErroExecucao;
+import br.univali.portugol.nucleo.Programa;
+
+public class testeReferenciaCopiadaNasChamadas extends Programa
+{
+
+    private final int[] REFS_INT = new int[2];
+
+    private final int INDICE_LIMITE_0 = 0;
+    private final int INDICE_SOMA_1 = 1;
+
+    public testeReferenciaCopiadaNasChamadas() throws ErroExecucao, InterruptedException
+    {
+    }
+
+    @Override
+    protected void executar(String[] parametros) throws ErroExecucao, InterruptedException
+    {
+        int limite = 0;
+        REFS_INT[INDICE_SOMA_1] = 0;
+        REFS_INT[INDICE_LIMITE_0] = limite;
+        define(INDICE_LIMITE_0, 10);
+        limite = REFS_INT[INDICE_LIMITE_0];
+        for(int i = 0; i < limite; i = i + 1)
+        {
+            REFS_INT[INDICE_SOMA_1] = REFS_INT[INDICE_SOMA_1] + limite;
+
+        }
+
+        escreva(define(INDICE_SOMA_1, limite));
+        escreva(REFS_INT[INDICE_SOMA_1]);
+
+    }
+
+    private int define(int variavel, int valor) throws ErroExecucao, InterruptedException
+    {
+        REFS_INT[variavel] = valor;
+        return valor;
+
+    }
+
+}
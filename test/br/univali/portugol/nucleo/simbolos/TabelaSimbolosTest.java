@@ -0,0 +1,104 @@
+package br.univali.portugol.nucleo.simbolos;
+
+import br.univali.portugol.nucleo.asa.TipoDado;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public final class TabelaSimbolosTest
+{
+    @Test
+    public void testEscoposOcultamERestauramSimbolos()
+    {
+        TabelaSimbolos tabela = new TabelaSimbolos();
+        Simbolo global = variavel("a");
+
+        tabela.adicionar(global);
+        tabela.empilharFuncao();
+
+        Simbolo parametro = variavel("a");
+        tabela.adicionar(parametro);
+
+        assertSame(parametro, tabela.obter("a"));
+        assertSame(global, tabela.obterGlobal("a"));
+        assertSame(parametro, tabela.obterLocal("a"));
+
+        tabela.empilharEscopo();
+
+        Simbolo bloco = variavel(new String("a")); // o nome não precisa ser a mesma instância
+        tabela.adicionar(bloco);
+        tabela.adicionar(variavel("b"));
+
+        assertSame(bloco, tabela.obter("a"));
+
+        tabela.desempilharEscopo();
+
+        assertSame(parametro, tabela.obter("a"));
+        assertNull(tabela.obter("b"));
+
+        tabela.desempilharFuncao();
+
+        assertTrue(tabela.isEscopoGlobal());
+        assertSame(global, tabela.obter("a"));
+        assertNull(tabela.obterLocal("a"));
+        assertEquals(1, tabela.getQuantidadeSimbolos());
+    }
+
+    @Test
+    public void testSimbolosDeOutraFuncaoNaoSaoVisiveis()
+    {
+        TabelaSimbolos tabela = new TabelaSimbolos();
+
+        tabela.empilharFuncao();
+        tabela.adicionar(variavel("x"));
+        tabela.empilharFuncao();
+
+        assertNull(tabela.obter("x"));
+
+        tabela.desempilharFuncao();
+
+        assertNotNull(tabela.obter("x"));
+    }
+
+    @Test
+    public void testMuitosNomes()
+    {
+        TabelaSimbolos tabela = new TabelaSimbolos();
+
+        for (int i = 0; i < 1000; i++)
+        {
+            tabela.adicionar(variavel("g" + i));
+        }
+
+        tabela.empilharFuncao();
+
+        for (int i = 0; i < 1000; i++)
+        {
+            tabela.adicionar(variavel("g" + (i * 2)));
+        }
+
+        for (int i = 0; i < 2000; i++)
+        {
+            Simbolo simbolo = tabela.obter("g" + i);
+
+            if (i % 2 == 0)
+            {
+                assertSame(simbolo, tabela.obterLocal("g" + i));
+            }
+            else
+            {
+                assertEquals(i < 1000, simbolo != null);
+            }
+        }
+
+        tabela.desempilharFuncao();
+
+        assertEquals(1000, tabela.getQuantidadeSimbolos());
+        assertNull(tabela.obterLocal("g0"));
+        assertSame(tabela.getSimbolo(999), tabela.obter("g999"));
+    }
+
+    private static Simbolo variavel(String nome)
+    {
+        return new Variavel(nome, TipoDado.INTEIRO, null);
+    }
+}